@@ -5,16 +5,13 @@ import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
 import edu.utexas.tacc.tapis.auth.client.gen.ApiException;
 import edu.utexas.tacc.tapis.auth.client.gen.api.TokensApi;
 import edu.utexas.tacc.tapis.auth.client.gen.ApiClient;
-import edu.utexas.tacc.tapis.auth.client.gen.Configuration;
 import edu.utexas.tacc.tapis.auth.client.model.GetTokenParms;
 import edu.utexas.tacc.tapis.client.shared.Utils;
-import edu.utexas.tacc.tapis.client.shared.ClientTapisGsonUtils;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
+import edu.utexas.tacc.tapis.client.shared.TapisResponse;
+import edu.utexas.tacc.tapis.client.shared.TapisResponseDecoder;
 
 import org.apache.commons.lang3.StringUtils;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import java.util.Map;
 
 /**
  * Class providing a convenient front-end for the automatically generated client code
@@ -36,14 +33,14 @@ public class AuthClient
   // ************************************************************************
   // *********************** Fields *****************************************
   // ************************************************************************
-  // Response serializer.
-  private static final Gson _gson = ClientTapisGsonUtils.getGson();
+  // This client instance's underlying generated client.
+  private final ApiClient _apiClient;
 
   // ************************************************************************
   // *********************** Constructors ***********************************
   // ************************************************************************
 
-  public AuthClient() { }
+  public AuthClient() { this(null); }
 
   /**
    * Constructor that overrides the compiled-in basePath value in ApiClient.  This
@@ -52,13 +49,18 @@ public class AuthClient
    * The path includes the URL prefix up to and including the service root.  By
    * default this value is http://localhost:8080/service_name.  In production environments
    * the protocol is https and the host/port will be specific to that environment.
+   * <p>
+   * Each instance has its own ApiClient, so the base path and headers of one client
+   * never affect another.  All instances share the connection pool and threads of
+   * ClientHttpTransport.
    *
    * @param path the base path
    */
   public AuthClient(String path)
   {
-    ApiClient apiClient = Configuration.getDefaultApiClient();
-    if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
+    _apiClient = new ApiClient();
+    _apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
+    if (!StringUtils.isBlank(path)) _apiClient.setBasePath(path);
   }
 
   // ************************************************************************
@@ -68,14 +70,14 @@ public class AuthClient
   /**
    * getApiClient: Return underlying ApiClient
    */
-  public ApiClient getApiClient() { return Configuration.getDefaultApiClient(); }
+  public ApiClient getApiClient() { return _apiClient; }
 
   /**
    * addDefaultHeader: Add http header to client
    */
   public ApiClient addDefaultHeader(String key, String val)
   {
-    return Configuration.getDefaultApiClient().addDefaultHeader(key, val);
+    return _apiClient.addDefaultHeader(key, val);
   }
 
   /**
@@ -97,27 +99,35 @@ public class AuthClient
     req.setUsername(userName);
     req.setPassword(userPassword);
 
-    // Make the call and return the result
-    Map resp = null;
+    // Make the call and decode the result directly from the response.
+    TapisResponse<TokenResult> resp = null;
     try
     {
-      var tokApi = new TokensApi();
-      resp = (Map) tokApi.createToken(req);
+      var tokApi = new TokensApi(_apiClient);
+      resp = TapisResponseDecoder.execute(tokApi.createTokenCall(req, null), TokenResult.class);
     }
     catch (ApiException e) { Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e); }
-    catch (Exception e) { Utils.throwTapisClientException(-1, null, e); }
-
-    // If response came back null return null
-    if (resp == null) return result;
 
-    // Marshal only the result from the map.
-    String json = _gson.toJson(resp.get("result"));
     // If no result return null
-    if (StringUtils.isBlank(json)) return result;
+    TokenResult tokenResult = resp.getResult();
+    if (tokenResult == null || tokenResult.access_token == null) return result;
 
     // Get the access token string.
-    JsonObject jsonObj = JsonParser.parseString(json).getAsJsonObject();
-    result = jsonObj.get("access_token").getAsJsonObject().get("access_token").getAsString();
+    result = tokenResult.access_token.access_token;
     return result;
   }
-}
\ No newline at end of file
+
+  // ************************************************************************
+  // *********************** Private Classes ********************************
+  // ************************************************************************
+  // Data transfer classes for the parts of the token result that are used.
+  private static final class TokenResult
+  {
+    private AccessToken access_token;
+  }
+
+  private static final class AccessToken
+  {
+    private String access_token;
+  }
+}
@@ -0,0 +1,56 @@
+package edu.utexas.tacc.tapis.auth.client;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisTokenSupplier;
+
+/**
+ * Token supplier for TapisAuthInterceptor that obtains a user's tokens from the
+ * Authenticator service using the user's password.  The current token is kept
+ * until a service rejects it, at which point a new token is obtained.
+ */
+public final class AuthTokenSupplier
+ implements TapisTokenSupplier
+{
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  private final AuthClient _authClient;
+  private final String     _userName;
+  private final String     _password;
+
+  // The current token.
+  private String _token;
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  /**
+   * @param authClient the client used to obtain tokens
+   * @param userName the user
+   * @param password the user's password
+   */
+  public AuthTokenSupplier(AuthClient authClient, String userName, String password)
+  {
+    if (authClient == null) throw new NullPointerException("authClient cannot be null");
+    _authClient = authClient;
+    _userName = userName;
+    _password = password;
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  @Override
+  public synchronized String getToken() throws TapisClientException
+  {
+    if (_token == null) _token = _authClient.getToken(_userName, _password);
+    return _token;
+  }
+
+  @Override
+  public synchronized String renewToken() throws TapisClientException
+  {
+    _token = _authClient.getToken(_userName, _password);
+    return _token;
+  }
+}
@@ -0,0 +1,573 @@
+package edu.utexas.tacc.tapis.client.gson.codegen;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/** Annotation processor that generates Gson type adapters for the model classes
+ * produced by openapi-generator.  Gson's default adapter for these classes uses
+ * reflection to discover, read and write fields; the generated adapters instead
+ * construct models with their no-arg constructors, dispatch on json names with a
+ * string switch and access fields through the models' getters and setters.
+ *
+ * The generated model classes cannot be annotated, so the processor is keyed on
+ * package names rather than on annotations.  The tapis.gson.modelPackage option
+ * lists the model packages as a comma separated list.  For each package the
+ * processor generates a ModelTypeAdapterFactory class that implements
+ * edu.utexas.tacc.tapis.client.shared.ClientTypeAdapterFactory and registers the
+ * factory as a service, which ClientTapisGsonUtils discovers at runtime.
+ *
+ * The generated adapters serialize and deserialize exactly as Gson's reflective
+ * adapter does under the client Gson configuration: fields are written in Gson's
+ * order under their SerializedName names, alternate names are accepted on input,
+ * unknown names are skipped and nulls are never assigned to primitive fields.
+ * Field values are converted by the adapters Gson provides for the field types.
+ * Classes whose serialization the adapters could not reproduce are skipped and
+ * remain with Gson's reflective adapter.  These include enums, abstract, generic
+ * and non-public classes, classes without a public no-arg constructor, classes
+ * that use JsonAdapter and classes whose fields lack a matching getter or setter.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(TypeAdapterProcessor.MODEL_PACKAGE_OPTION)
+public class TypeAdapterProcessor
+ extends AbstractProcessor
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Processor option that lists the model packages.
+    public static final String MODEL_PACKAGE_OPTION = "tapis.gson.modelPackage";
+
+    // The simple name of the factory generated in each model package.
+    public static final String FACTORY_NAME = "ModelTypeAdapterFactory";
+
+    // The service interface implemented by the generated factories.
+    private static final String SERVICE_INTERFACE =
+        "edu.utexas.tacc.tapis.client.shared.ClientTypeAdapterFactory";
+
+    // Gson annotations.
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String JSON_ADAPTER    = "com.google.gson.annotations.JsonAdapter";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The packages whose classes get adapters.
+    private final Set<String> _modelPackages = new LinkedHashSet<>();
+
+    // The fully qualified names of the factories generated so far.
+    private final Set<String> _factories = new LinkedHashSet<>();
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* init:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv)
+    {
+        super.init(processingEnv);
+        String option = processingEnv.getOptions().get(MODEL_PACKAGE_OPTION);
+        if (option == null) return;
+        for (String pkg : option.split(","))
+            if (!pkg.isBlank()) _modelPackages.add(pkg.strip());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getSupportedSourceVersion:                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* process:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Generate a factory for each model package whose classes appear in a round
+     * and register the factories in the last round.  No annotations are claimed.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        if (_modelPackages.isEmpty()) return false;
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        // Collect the models by package.
+        var models = new LinkedHashMap<String, List<Model>>();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+            collect(type, models);
+
+        // Generate each package's factory once.
+        for (var entry : models.entrySet()) {
+            String factory = entry.getKey() + "." + FACTORY_NAME;
+            if (_factories.contains(factory)) continue;
+            if (writeFactory(entry.getKey(), entry.getValue())) _factories.add(factory);
+        }
+        return false;
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* collect:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Add the type and its member types to the models if they are in a model
+     * package and qualify for generated adapters.
+     */
+    private void collect(TypeElement type, Map<String, List<Model>> models)
+    {
+        String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        if (!_modelPackages.contains(pkg)) return;
+
+        var model = analyze(type);
+        if (model != null) models.computeIfAbsent(pkg, k -> new ArrayList<>()).add(model);
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements()))
+            collect(member, models);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* analyze:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine the json properties of a class and how to access them.
+     *
+     * @return the model or null if the class must be left to Gson
+     */
+    private Model analyze(TypeElement type)
+    {
+        // The class must be a public, concrete, non-generic class that can be
+        // instantiated and referenced from the factory.
+        if (type.getKind() != ElementKind.CLASS) return null;
+        if (!isAccessible(type) || type.getModifiers().contains(Modifier.ABSTRACT)) return null;
+        if (!type.getTypeParameters().isEmpty() || hasAnnotation(type, JSON_ADAPTER)) return null;
+        if (!hasPublicNoArgConstructor(type)) return null;
+
+        // Gson binds the fields of the class followed by those of its superclasses.
+        var methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        var properties = new ArrayList<Property>();
+        var jsonNames = new HashSet<String>();
+        var fieldNames = new HashSet<String>();
+        for (TypeElement t = type; t != null; t = superclass(t)) {
+            if (isParameterized(t.getSuperclass())) return null;
+            for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                var modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+                if (hasAnnotation(field, JSON_ADAPTER) || !isSupportedType(field.asType())) return null;
+
+                // Duplicate names make Gson reject the class, which it should still do.
+                var property = new Property(field, methods);
+                if (property.getter == null || property.setter == null) return null;
+                for (String name : property.names) if (!jsonNames.add(name)) return null;
+
+                // Make adapter field names unique when subclasses hide fields.
+                while (!fieldNames.add(property.adapterField)) property.adapterField += "_";
+                properties.add(property);
+            }
+        }
+        return new Model(type, properties);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* writeFactory:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Generate a package's factory with a nested adapter class for each model.
+     *
+     * @return true if the factory was written
+     */
+    private boolean writeFactory(String pkg, List<Model> models)
+    {
+        var elements = models.stream().map(m -> m.type).toArray(Element[]::new);
+        try (var out = new PrintWriter(processingEnv.getFiler()
+                           .createSourceFile(pkg + "." + FACTORY_NAME, elements).openWriter()))
+        {
+            out.println("package " + pkg + ";");
+            out.println();
+            out.println("import java.io.IOException;");
+            out.println();
+            out.println("import com.google.gson.Gson;");
+            out.println("import com.google.gson.TypeAdapter;");
+            out.println("import com.google.gson.reflect.TypeToken;");
+            out.println("import com.google.gson.stream.JsonReader;");
+            out.println("import com.google.gson.stream.JsonToken;");
+            out.println("import com.google.gson.stream.JsonWriter;");
+            out.println();
+            out.println("import " + SERVICE_INTERFACE + ";");
+            out.println();
+            out.println("/** Gson type adapters for the models in " + pkg + ".");
+            out.println(" * Generated by " + TypeAdapterProcessor.class.getName() + "; do not edit.");
+            out.println(" */");
+            out.println("public final class " + FACTORY_NAME);
+            out.println(" implements " + SERVICE_INTERFACE.substring(SERVICE_INTERFACE.lastIndexOf('.') + 1));
+            out.println("{");
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type)");
+            out.println("    {");
+            out.println("        Class<? super T> raw = type.getRawType();");
+            out.println("        switch (raw.getName()) {");
+            for (var model : models)
+                out.println("            case " + quote(model.binaryName) + ": return raw == " + model.typeName
+                            + ".class ? (TypeAdapter<T>) new " + model.adapterName + "(gson) : null;");
+            out.println("            default: return null;");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.List<Class<?>> getTypes()");
+            out.println("    {");
+            out.println("        return java.util.List.of(");
+            for (int i = 0; i < models.size(); i++)
+                out.println("            " + models.get(i).typeName + ".class" + (i < models.size() - 1 ? "," : ");"));
+            out.println("    }");
+            for (var model : models) writeAdapter(out, model);
+            out.println("}");
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to write " + pkg + "." + FACTORY_NAME + ": " + e);
+            return false;
+        }
+        return true;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* writeAdapter:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    private void writeAdapter(PrintWriter out, Model model)
+    {
+        String t = model.typeName;
+        out.println();
+        out.println("    private static final class " + model.adapterName);
+        out.println("     extends TypeAdapter<" + t + ">");
+        out.println("    {");
+        for (var p : model.properties)
+            out.println("        private final TypeAdapter<" + p.boxedTypeName + "> " + p.adapterField + ";");
+        out.println();
+        out.println("        private " + model.adapterName + "(Gson gson)");
+        out.println("        {");
+        for (var p : model.properties)
+            out.println("            " + p.adapterField + " = gson.getAdapter(" + p.typeExpression + ");");
+        out.println("        }");
+
+        // Write.
+        out.println();
+        out.println("        @Override");
+        out.println("        public void write(JsonWriter out, " + t + " value) throws IOException");
+        out.println("        {");
+        out.println("            if (value == null) {out.nullValue(); return;}");
+        out.println("            out.beginObject();");
+        for (var p : model.properties) {
+            out.println("            out.name(" + quote(p.names.get(0)) + ");");
+            out.println("            " + p.adapterField + ".write(out, value." + p.getter + "());");
+        }
+        out.println("            out.endObject();");
+        out.println("        }");
+
+        // Read.
+        out.println();
+        out.println("        @Override");
+        out.println("        public " + t + " read(JsonReader in) throws IOException");
+        out.println("        {");
+        out.println("            if (in.peek() == JsonToken.NULL) {in.nextNull(); return null;}");
+        out.println("            var value = new " + t + "();");
+        out.println("            in.beginObject();");
+        out.println("            while (in.hasNext()) {");
+        out.println("                switch (in.nextName()) {");
+        for (var p : model.properties) {
+            var labels = new StringBuilder();
+            for (String name : p.names) labels.append("case ").append(quote(name)).append(": ");
+            if (p.primitive)
+                out.println("                    " + labels + "{var v = " + p.adapterField + ".read(in); if (v != null) value."
+                            + p.setter + "(v); break;}");
+            else
+                out.println("                    " + labels + "value." + p.setter + "(" + p.adapterField + ".read(in)); break;");
+        }
+        out.println("                    default: in.skipValue();");
+        out.println("                }");
+        out.println("            }");
+        out.println("            in.endObject();");
+        out.println("            return value;");
+        out.println("        }");
+        out.println("    }");
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* writeServiceFile:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    private void writeServiceFile()
+    {
+        if (_factories.isEmpty()) return;
+        try (Writer out = processingEnv.getFiler()
+                 .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + SERVICE_INTERFACE)
+                 .openWriter())
+        {
+            for (String factory : _factories) out.write(factory + "\n");
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to register type adapter factories: " + e);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isAccessible:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** A public top level class or a public static member of an accessible class. */
+    private static boolean isAccessible(TypeElement type)
+    {
+        if (!type.getModifiers().contains(Modifier.PUBLIC)) return false;
+        if (type.getNestingKind() == NestingKind.TOP_LEVEL) return true;
+        if (type.getNestingKind() != NestingKind.MEMBER || !type.getModifiers().contains(Modifier.STATIC))
+            return false;
+        var enclosing = type.getEnclosingElement();
+        return enclosing instanceof TypeElement && isAccessible((TypeElement) enclosing);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasPublicNoArgConstructor:                                                   */
+    /* ---------------------------------------------------------------------------- */
+    private static boolean hasPublicNoArgConstructor(TypeElement type)
+    {
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements()))
+            if (c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC)) return true;
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* superclass:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** The superclass of a type or null when it is Object. */
+    private static TypeElement superclass(TypeElement type)
+    {
+        var superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        var element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isSupportedType:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    /** Types that can be named in generated code, which excludes type variables. */
+    private static boolean isSupportedType(TypeMirror type)
+    {
+        switch (type.getKind()) {
+            case BOOLEAN: case BYTE: case SHORT: case INT: case LONG: case CHAR: case FLOAT: case DOUBLE:
+                return true;
+            case ARRAY:
+                return isSupportedType(((ArrayType) type).getComponentType());
+            case DECLARED:
+                for (var arg : ((DeclaredType) type).getTypeArguments())
+                    if (!isSupportedType(arg)) return false;
+                return isAccessible((TypeElement) ((DeclaredType) type).asElement());
+            case WILDCARD:
+                var wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) return isSupportedType(wildcard.getExtendsBound());
+                if (wildcard.getSuperBound() != null) return isSupportedType(wildcard.getSuperBound());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* typeName:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** The source code name of a supported type, without type annotations. */
+    private static String typeName(TypeMirror type)
+    {
+        switch (type.getKind()) {
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                var declared = (DeclaredType) type;
+                var name = new StringBuilder(((TypeElement) declared.asElement()).getQualifiedName());
+                if (!declared.getTypeArguments().isEmpty()) {
+                    name.append('<');
+                    String sep = "";
+                    for (var arg : declared.getTypeArguments()) {name.append(sep).append(typeName(arg)); sep = ", ";}
+                    name.append('>');
+                }
+                return name.toString();
+            case WILDCARD:
+                var wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) return "? extends " + typeName(wildcard.getExtendsBound());
+                if (wildcard.getSuperBound() != null) return "? super " + typeName(wildcard.getSuperBound());
+                return "?";
+            default:
+                return type.getKind().name().toLowerCase();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isParameterized:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    private static boolean isParameterized(TypeMirror type)
+    {
+        if (type.getKind() == TypeKind.ARRAY) return isParameterized(((ArrayType) type).getComponentType());
+        return type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasAnnotation:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    private static boolean hasAnnotation(Element element, String annotation)
+    {
+        return getAnnotation(element, annotation) != null;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getAnnotation:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    private static AnnotationMirror getAnnotation(Element element, String annotation)
+    {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+                return mirror;
+        return null;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* quote:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** A java string literal for a json name. */
+    private static String quote(String s)
+    {
+        var literal = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') literal.append('\\').append(c);
+            else if (c < 0x20 || c > 0x7e) literal.append(String.format("\\u%04x", (int) c));
+            else literal.append(c);
+        }
+        return literal.append('"').toString();
+    }
+
+    /* **************************************************************************** */
+    /*                                Private Classes                               */
+    /* **************************************************************************** */
+    /** A class that gets a generated adapter. */
+    private final class Model
+    {
+        private final TypeElement    type;
+        private final String         typeName;
+        private final String         binaryName;
+        private final String         adapterName;
+        private final List<Property> properties;
+
+        private Model(TypeElement type, List<Property> properties)
+        {
+            this.type = type;
+            this.properties = properties;
+            typeName = type.getQualifiedName().toString();
+            binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            adapterName = binaryName.substring(pkg.length() + 1).replace('$', '_') + "Adapter";
+        }
+    }
+
+    /** A serialized field and its accessors. */
+    private final class Property
+    {
+        // The serialized name followed by any alternate names.
+        private final List<String> names = new ArrayList<>();
+        private final boolean primitive;
+        private final String  boxedTypeName;
+        private final String  typeExpression;
+        private final String  getter;
+        private final String  setter;
+        private String        adapterField;
+
+        private Property(VariableElement field, List<ExecutableElement> methods)
+        {
+            String fieldName = field.getSimpleName().toString();
+            var type = field.asType();
+            primitive = type.getKind().isPrimitive();
+            adapterField = "_" + fieldName;
+
+            // Gson uses the SerializedName value and alternates or the field name.
+            var serializedName = getAnnotation(field, SERIALIZED_NAME);
+            if (serializedName == null) names.add(fieldName);
+            else {
+                for (var entry : serializedName.getElementValues().entrySet()) {
+                    String key = entry.getKey().getSimpleName().toString();
+                    if (key.equals("value")) names.add(0, (String) entry.getValue().getValue());
+                    else if (key.equals("alternate")) {
+                        @SuppressWarnings("unchecked")
+                        var alternates = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                        for (var alternate : alternates) names.add((String) alternate.getValue());
+                    }
+                }
+            }
+
+            // Adapters for primitive and raw types are looked up by class.
+            var types = processingEnv.getTypeUtils();
+            if (primitive) {
+                boxedTypeName = types.boxedClass((PrimitiveType) type)
+                                     .getQualifiedName().toString();
+                typeExpression = typeName(type) + ".class";
+            }
+            else {
+                boxedTypeName = typeName(type);
+                typeExpression = isParameterized(type) ? "new TypeToken<" + boxedTypeName + ">() {}"
+                                                       : boxedTypeName + ".class";
+            }
+
+            // Accessors are matched on the field name ignoring case and underscores.
+            String property = fieldName.replace("_", "");
+            String get = null, set = null;
+            for (ExecutableElement m : methods) {
+                if (!m.getModifiers().contains(Modifier.PUBLIC) || m.getModifiers().contains(Modifier.STATIC))
+                    continue;
+                String name = m.getSimpleName().toString().replace("_", "");
+                var params = m.getParameters();
+                if (params.isEmpty() && types.isSameType(m.getReturnType(), type)
+                    && (name.equalsIgnoreCase("get" + property) || name.equalsIgnoreCase("is" + property)))
+                    get = m.getSimpleName().toString();
+                else if (params.size() == 1 && types.isSameType(params.get(0).asType(), type)
+                         && name.equalsIgnoreCase("set" + property))
+                    set = m.getSimpleName().toString();
+            }
+            getter = get;
+            setter = set;
+        }
+    }
+}
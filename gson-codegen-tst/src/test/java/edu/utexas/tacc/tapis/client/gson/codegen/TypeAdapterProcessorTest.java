@@ -0,0 +1,220 @@
+package edu.utexas.tacc.tapis.client.gson.codegen;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import edu.utexas.tacc.tapis.client.shared.ClientTypeAdapterFactory;
+import edu.utexas.tacc.tapis.client.shared.javatime.ClientConverters;
+
+/** Compile the fixture models under src/test/resources/models with the processor
+ * and check that the generated adapters read and write them exactly as Gson's
+ * reflective adapter does under the client Gson configuration.  The fixtures are
+ * laid out as openapi-generator writes the client models.
+ */
+@Test(groups={"unit"})
+public class TypeAdapterProcessorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String MODEL_PACKAGE = "edu.utexas.tacc.tapis.client.gson.codegen.fixture";
+    private static final String MODEL_DIR     = "models/" + MODEL_PACKAGE.replace('.', '/');
+
+    // All fixtures and those that get generated adapters.
+    private static final List<String> MODELS =
+        List.of("Capability", "Quota", "RankedCapability", "RespSystem", "Schedule", "SystemTypeEnum", "TSystem");
+    private static final List<String> ADAPTED =
+        List.of("Capability", "RankedCapability", "RespSystem", "TSystem");
+
+    // Classes left to Gson: enums and classes that use JsonAdapter.
+    private static final List<String> SKIPPED =
+        List.of("Capability$CategoryEnum", "SystemTypeEnum", "Schedule", "Quota");
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private Path                     _outDir;
+    private URLClassLoader           _loader;
+    private ClientTypeAdapterFactory _factory;
+    private Gson                     _reflectiveGson;
+    private Gson                     _generatedGson;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeClass
+    public void setup() throws Exception
+    {
+        _outDir = Files.createTempDirectory("gson-codegen");
+        compile();
+
+        // The factory is found through its service registration.
+        _loader = new URLClassLoader(new URL[] {_outDir.toUri().toURL()}, getClass().getClassLoader());
+        var factories = new ArrayList<ClientTypeAdapterFactory>();
+        for (var factory : ServiceLoader.load(ClientTypeAdapterFactory.class, _loader))
+            if (factory.getClass().getClassLoader() == _loader) factories.add(factory);
+        Assert.assertEquals(factories.size(), 1);
+        _factory = factories.get(0);
+        Assert.assertEquals(_factory.getClass().getName(),
+                            MODEL_PACKAGE + "." + TypeAdapterProcessor.FACTORY_NAME);
+
+        // The gson objects differ only in the generated factory.
+        _reflectiveGson = newGsonBuilder().create();
+        _generatedGson  = newGsonBuilder().registerTypeAdapterFactory(_factory).create();
+    }
+
+    @AfterClass
+    public void teardown() throws Exception
+    {
+        if (_loader != null) _loader.close();
+        if (_outDir != null)
+            try (var paths = Files.walk(_outDir)) {
+                for (var path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                    Files.delete(path);
+            }
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testCoverage:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCoverage() throws Exception
+    {
+        // Only the qualifying classes get adapters.
+        var types = _factory.getTypes().stream().map(Class::getSimpleName).sorted().collect(Collectors.toList());
+        Assert.assertEquals(types, ADAPTED);
+        for (String name : ADAPTED) {
+            var adapter = _generatedGson.getAdapter(load(name));
+            Assert.assertSame(adapter.getClass().getEnclosingClass(), _factory.getClass(), name);
+        }
+
+        // Enums and classes that use JsonAdapter remain with Gson.
+        for (String name : SKIPPED) {
+            var type = load(name);
+            Assert.assertNull(_factory.create(_generatedGson, TypeToken.get(type)), name);
+            Assert.assertNotEquals(_generatedGson.getAdapter(type).getClass().getEnclosingClass(),
+                                   _factory.getClass(), name);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRoundTrip:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        String system =
+            "{\"id\":7,\"name\":\"exec\",\"host\":\"exec.tacc.utexas.edu\",\"systemType\":\"OBJECT_STORE\"," +
+            "\"enabled\":true,\"port\":22,\"deleted\":true,\"tags\":[\"a\",\"b\"]," +
+            "\"jobCapabilities\":[{\"category\":\"custom\",\"name\":\"gpu\",\"value\":\"v100\"},null]," +
+            "\"labels\":{\"k\":\"v\",\"e\":null},\"notes\":{\"a\":1,\"b\":[true,null,\"s\",{}]}," +
+            "\"created\":\"2020-05-01T10:15:30.123-05:00\",\"schedule\":\"0 0 * * *\"," +
+            "\"effectiveUserId\":\"testuser\",\"cachedLabel\":\"ignored\"}";
+
+        // Complete, empty and null values.
+        assertSame("TSystem", system);
+        assertSame("TSystem", "{}");
+        assertSame("TSystem", "{\"id\":null,\"name\":null,\"tags\":null,\"jobCapabilities\":[],\"notes\":null}");
+
+        // Alternate names, unknown names and nulls for primitive fields.
+        assertSame("TSystem", "{\"hostName\":\"h1\",\"port\":null,\"deleted\":null}");
+        assertSame("TSystem", "{\"host_name\":\"h1\",\"host\":\"h2\",\"unknown\":{\"x\":[1,{\"y\":null}]},\"z\":3}");
+        assertSame("TSystem", "{\"notes\":\"text\",\"port\":\"8080\",\"enabled\":\"false\"}");
+
+        // Nested models, and subclass fields written before inherited ones.
+        assertSame("RespSystem", "{\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\",\"result\":" + system + "}");
+        assertSame("RespSystem", "{\"result\":null,\"status\":\"error\"}");
+        assertSame("RankedCapability", "{\"name\":\"n\",\"category\":\"OS\",\"rank\":2}");
+        assertSame("Capability", "{\"value\":\"v\",\"category\":\"SCHEDULER\"}");
+
+        // Json nulls are read as null models.
+        Assert.assertNull(_generatedGson.fromJson("null", load("TSystem")));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Compile the fixtures with the processor into the output directory. */
+    private void compile() throws Exception
+    {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (var fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            var sources = new ArrayList<File>();
+            for (String model : MODELS)
+                sources.add(new File(getClass().getClassLoader().getResource(MODEL_DIR + "/" + model + ".java").toURI()));
+
+            // The fixtures need gson and the generated factories need shared.
+            String classpath = codeSource(Gson.class) + File.pathSeparator + codeSource(ClientTypeAdapterFactory.class);
+            var options = List.of("-d", _outDir.toString(), "-s", _outDir.toString(), "-classpath", classpath,
+                                  "-A" + TypeAdapterProcessor.MODEL_PACKAGE_OPTION + "=" + MODEL_PACKAGE);
+            var task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                                        fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(List.of(new TypeAdapterProcessor()));
+            Assert.assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+        }
+    }
+
+    /** The class path entry that contains a class. */
+    private static String codeSource(Class<?> c) throws Exception
+    {
+        return Paths.get(c.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /** The client Gson configuration without the registered model factories. */
+    private static GsonBuilder newGsonBuilder()
+    {
+        return ClientConverters.registerAll(new GsonBuilder().serializeNulls().disableHtmlEscaping());
+    }
+
+    /** Load a fixture class by its binary name relative to the model package. */
+    private Class<?> load(String name) throws Exception
+    {
+        return Class.forName(MODEL_PACKAGE + "." + name, true, _loader);
+    }
+
+    /** Read a document with both adapters and check that the models and their
+     * serializations agree.
+     */
+    private void assertSame(String name, String json) throws Exception
+    {
+        var type = load(name);
+        Object reflective = _reflectiveGson.fromJson(json, type);
+        Object generated  = _generatedGson.fromJson(json, type);
+        Assert.assertSame(generated.getClass(), type, json);
+
+        // The reflective adapter shows that both read the same values, and the
+        // generated adapter writes what the reflective one does.
+        String expected = _reflectiveGson.toJson(reflective);
+        Assert.assertEquals(_reflectiveGson.toJson(generated), expected, json);
+        Assert.assertEquals(_generatedGson.toJson(generated), expected, json);
+        Assert.assertEquals(_generatedGson.toJson(reflective), expected, json);
+        Assert.assertEquals(_generatedGson.toJson(_generatedGson.fromJson(expected, type)), expected, json);
+    }
+}
@@ -0,0 +1,37 @@
+package edu.utexas.tacc.tapis.client.gson.codegen.fixture;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A class with a field adapter, which is left to Gson.
+ */
+public class Quota {
+  @JsonAdapter(UnitsAdapter.class)
+  private Long bytes;
+
+  public Long getBytes() {
+    return bytes;
+  }
+
+  public void setBytes(Long bytes) {
+    this.bytes = bytes;
+  }
+
+  public static class UnitsAdapter extends TypeAdapter<Long> {
+    @Override
+    public void write(final JsonWriter jsonWriter, final Long bytes) throws IOException {
+      jsonWriter.value(bytes / 1024 + "K");
+    }
+
+    @Override
+    public Long read(final JsonReader jsonReader) throws IOException {
+      String value = jsonReader.nextString();
+      return Long.valueOf(value.substring(0, value.length() - 1)) * 1024;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package edu.utexas.tacc.tapis.client.gson.codegen.fixture;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A subclass, whose fields Gson writes before those of its superclass.
+ */
+public class RankedCapability extends Capability {
+  public static final String SERIALIZED_NAME_RANK = "rank";
+  @SerializedName(SERIALIZED_NAME_RANK)
+  private Integer rank;
+
+  public Integer getRank() {
+    return rank;
+  }
+
+  public void setRank(Integer rank) {
+    this.rank = rank;
+  }
+}
@@ -0,0 +1,38 @@
+package edu.utexas.tacc.tapis.client.gson.codegen.fixture;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A class with its own adapter, which is left to Gson.
+ */
+@JsonAdapter(Schedule.Adapter.class)
+public class Schedule {
+  private String cron;
+
+  public String getCron() {
+    return cron;
+  }
+
+  public void setCron(String cron) {
+    this.cron = cron;
+  }
+
+  public static class Adapter extends TypeAdapter<Schedule> {
+    @Override
+    public void write(final JsonWriter jsonWriter, final Schedule schedule) throws IOException {
+      jsonWriter.value(schedule.getCron());
+    }
+
+    @Override
+    public Schedule read(final JsonReader jsonReader) throws IOException {
+      var schedule = new Schedule();
+      schedule.setCron(jsonReader.nextString());
+      return schedule;
+    }
+  }
+}
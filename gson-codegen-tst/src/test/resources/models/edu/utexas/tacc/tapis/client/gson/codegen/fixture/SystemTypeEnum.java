@@ -0,0 +1,49 @@
+package edu.utexas.tacc.tapis.client.gson.codegen.fixture;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A top level enum, laid out as openapi-generator writes them.
+ */
+@JsonAdapter(SystemTypeEnum.Adapter.class)
+public enum SystemTypeEnum {
+  LINUX("LINUX"),
+  OBJECT_STORE("OBJECT_STORE");
+
+  private String value;
+
+  SystemTypeEnum(String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public static SystemTypeEnum fromValue(String value) {
+    for (SystemTypeEnum b : SystemTypeEnum.values()) {
+      if (b.value.equals(value)) {
+        return b;
+      }
+    }
+    throw new IllegalArgumentException("Unexpected value '" + value + "'");
+  }
+
+  public static class Adapter extends TypeAdapter<SystemTypeEnum> {
+    @Override
+    public void write(final JsonWriter jsonWriter, final SystemTypeEnum enumeration) throws IOException {
+      jsonWriter.value(enumeration.getValue());
+    }
+
+    @Override
+    public SystemTypeEnum read(final JsonReader jsonReader) throws IOException {
+      String value =  jsonReader.nextString();
+      return SystemTypeEnum.fromValue(value);
+    }
+  }
+}
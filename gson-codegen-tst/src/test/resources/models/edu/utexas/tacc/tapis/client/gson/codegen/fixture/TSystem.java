@@ -0,0 +1,188 @@
+package edu.utexas.tacc.tapis.client.gson.codegen.fixture;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A model with the field types the client models use.
+ */
+public class TSystem {
+  public static final String SERIALIZED_NAME_ID = "id";
+  @SerializedName(SERIALIZED_NAME_ID)
+  private Integer id;
+
+  public static final String SERIALIZED_NAME_NAME = "name";
+  @SerializedName(SERIALIZED_NAME_NAME)
+  private String name;
+
+  public static final String SERIALIZED_NAME_HOST = "host";
+  @SerializedName(value = SERIALIZED_NAME_HOST, alternate = {"hostName", "host_name"})
+  private String host;
+
+  public static final String SERIALIZED_NAME_SYSTEM_TYPE = "systemType";
+  @SerializedName(SERIALIZED_NAME_SYSTEM_TYPE)
+  private SystemTypeEnum systemType;
+
+  public static final String SERIALIZED_NAME_ENABLED = "enabled";
+  @SerializedName(SERIALIZED_NAME_ENABLED)
+  private Boolean enabled;
+
+  public static final String SERIALIZED_NAME_PORT = "port";
+  @SerializedName(SERIALIZED_NAME_PORT)
+  private int port;
+
+  public static final String SERIALIZED_NAME_DELETED = "deleted";
+  @SerializedName(SERIALIZED_NAME_DELETED)
+  private boolean deleted;
+
+  public static final String SERIALIZED_NAME_TAGS = "tags";
+  @SerializedName(SERIALIZED_NAME_TAGS)
+  private List<String> tags = null;
+
+  public static final String SERIALIZED_NAME_JOB_CAPABILITIES = "jobCapabilities";
+  @SerializedName(SERIALIZED_NAME_JOB_CAPABILITIES)
+  private List<Capability> jobCapabilities = null;
+
+  public static final String SERIALIZED_NAME_LABELS = "labels";
+  @SerializedName(SERIALIZED_NAME_LABELS)
+  private Map<String, String> labels = null;
+
+  public static final String SERIALIZED_NAME_NOTES = "notes";
+  @SerializedName(SERIALIZED_NAME_NOTES)
+  private Object notes;
+
+  public static final String SERIALIZED_NAME_CREATED = "created";
+  @SerializedName(SERIALIZED_NAME_CREATED)
+  private OffsetDateTime created;
+
+  public static final String SERIALIZED_NAME_SCHEDULE = "schedule";
+  @SerializedName(SERIALIZED_NAME_SCHEDULE)
+  private Schedule schedule;
+
+  private String effectiveUserId;
+
+  private transient String cachedLabel;
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  public SystemTypeEnum getSystemType() {
+    return systemType;
+  }
+
+  public void setSystemType(SystemTypeEnum systemType) {
+    this.systemType = systemType;
+  }
+
+  public Boolean getEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(Boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public boolean isDeleted() {
+    return deleted;
+  }
+
+  public void setDeleted(boolean deleted) {
+    this.deleted = deleted;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+
+  public List<Capability> getJobCapabilities() {
+    return jobCapabilities;
+  }
+
+  public void setJobCapabilities(List<Capability> jobCapabilities) {
+    this.jobCapabilities = jobCapabilities;
+  }
+
+  public Map<String, String> getLabels() {
+    return labels;
+  }
+
+  public void setLabels(Map<String, String> labels) {
+    this.labels = labels;
+  }
+
+  public Object getNotes() {
+    return notes;
+  }
+
+  public void setNotes(Object notes) {
+    this.notes = notes;
+  }
+
+  public OffsetDateTime getCreated() {
+    return created;
+  }
+
+  public void setCreated(OffsetDateTime created) {
+    this.created = created;
+  }
+
+  public Schedule getSchedule() {
+    return schedule;
+  }
+
+  public void setSchedule(Schedule schedule) {
+    this.schedule = schedule;
+  }
+
+  public String getEffectiveUserId() {
+    return effectiveUserId;
+  }
+
+  public void setEffectiveUserId(String effectiveUserId) {
+    this.effectiveUserId = effectiveUserId;
+  }
+
+  public String getCachedLabel() {
+    return cachedLabel;
+  }
+
+  public void setCachedLabel(String cachedLabel) {
+    this.cachedLabel = cachedLabel;
+  }
+}
@@ -1,10 +1,10 @@
 package edu.utexas.tacc.tapis.meta.client;
 
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
 import edu.utexas.tacc.tapis.client.shared.Utils;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
 import edu.utexas.tacc.tapis.meta.client.gen.ApiClient;
 import edu.utexas.tacc.tapis.meta.client.gen.ApiException;
-import edu.utexas.tacc.tapis.meta.client.gen.Configuration;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
@@ -35,6 +35,8 @@ public class MetaClient
   /* **************************************************************************** */
   /*                                    Fields                                    */
   /* **************************************************************************** */
+  // This client instance's underlying generated client.
+  private final ApiClient _apiClient;
 
   /* **************************************************************************** */
   /*                                 Constructors                                 */
@@ -64,21 +66,24 @@ public class MetaClient
    *
    * The user-agent is automatically set to MetaClient.
    *
-   * Instances of this class are currently limited to using the default ApiClient.
-   * This implies that the RoleApi, UserApi and GeneralApi implementations also
-   * are expected to be using the same default ApiClient object.
+   * Each instance has its own ApiClient, so the base path and headers of one client
+   * never affect another.  All instances share the connection pool and threads of
+   * ClientHttpTransport.
    *
    * @param path the base path
    */
   public MetaClient(String path, String jwt)
   {
+    // Create actual client using the shared transport.
+    _apiClient = new ApiClient();
+    _apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
+    
     // Process input.
-    ApiClient apiClient = Configuration.getDefaultApiClient();
-    if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
-    if (!StringUtils.isBlank(jwt)) apiClient.addDefaultHeader(TAPIS_JWT_HEADER, jwt);
+    if (!StringUtils.isBlank(path)) _apiClient.setBasePath(path);
+    if (!StringUtils.isBlank(jwt)) _apiClient.addDefaultHeader(TAPIS_JWT_HEADER, jwt);
     
     // Other defaults.
-    apiClient.setUserAgent(MetaClient_USER_AGENT);
+    _apiClient.setUserAgent(MetaClient_USER_AGENT);
   }
   
   /* **************************************************************************** */
@@ -89,7 +94,7 @@ public class MetaClient
   /* ---------------------------------------------------------------------------- */
   public MetaClient setBasePath(String path)
   {
-    Configuration.getDefaultApiClient().setBasePath(path);
+    _apiClient.setBasePath(path);
     return this;
   }
   
@@ -98,7 +103,7 @@ public class MetaClient
   /* ---------------------------------------------------------------------------- */
   public MetaClient addDefaultHeader(String key, String value)
   {
-    Configuration.getDefaultApiClient().addDefaultHeader(key, value);
+    _apiClient.addDefaultHeader(key, value);
     return this;
   }
   
@@ -107,7 +112,7 @@ public class MetaClient
   /* ---------------------------------------------------------------------------- */
   public MetaClient setUserAgent(String userAgent)
   {
-    Configuration.getDefaultApiClient().setUserAgent(userAgent);
+    _apiClient.setUserAgent(userAgent);
     return this;
   }
   
@@ -121,7 +126,7 @@ public class MetaClient
    */
   public MetaClient setConnectTimeout(int millis)
   {
-    Configuration.getDefaultApiClient().setConnectTimeout(millis);
+    _apiClient.setConnectTimeout(millis);
     return this;
   }
   
@@ -135,7 +140,7 @@ public class MetaClient
    */
   public MetaClient setReadTimeout(int millis)
   {
-    Configuration.getDefaultApiClient().setReadTimeout(millis);
+    _apiClient.setReadTimeout(millis);
     return this;
   }
   
@@ -144,7 +149,7 @@ public class MetaClient
   /* ---------------------------------------------------------------------------- */
   public MetaClient setDebugging(boolean debugging)
   {
-    Configuration.getDefaultApiClient().setDebugging(debugging);
+    _apiClient.setDebugging(debugging);
     return this;
   }
   
@@ -157,7 +162,7 @@ public class MetaClient
    */
   public int getConnectTimeout()
   {
-    return Configuration.getDefaultApiClient().getConnectTimeout();
+    return _apiClient.getConnectTimeout();
   }
   
   /* ---------------------------------------------------------------------------- */
@@ -169,7 +174,7 @@ public class MetaClient
    */
   public int getReadTimeout()
   {
-    return Configuration.getDefaultApiClient().getReadTimeout();
+    return _apiClient.getReadTimeout();
   }
   
   /* ---------------------------------------------------------------------------- */
@@ -177,25 +182,19 @@ public class MetaClient
   /* ---------------------------------------------------------------------------- */
   public boolean isDebugging()
   {
-    return Configuration.getDefaultApiClient().isDebugging();
+    return _apiClient.isDebugging();
   }
   
   /* ---------------------------------------------------------------------------- */
   /* close:                                                                       */
   /* ---------------------------------------------------------------------------- */
-  /** Close connections and stop threads that can sometimes prevent JVM shutdown.
+  /** Release resources held by this client.  Connections and dispatcher threads
+   * are owned by the shared ClientHttpTransport and are not affected by closing
+   * an individual client, since other clients in the process may be using them.
+   * Call ClientHttpTransport.shutdown() to close connections and stop threads
+   * when the application terminates.
    */
-  public void close()
-  {
-    try {
-      // Best effort attempt to shut things down.
-      var okClient = Configuration.getDefaultApiClient().getHttpClient();
-      if (okClient != null) {
-        var pool = okClient.connectionPool();
-        if (pool != null) pool.evictAll();
-      }
-    } catch (Exception e) {}
-  }
+  public void close() {}
   
   /* **************************************************************************** */
   /*                            Public Info Methods                            */
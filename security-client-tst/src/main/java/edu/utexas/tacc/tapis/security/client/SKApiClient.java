@@ -0,0 +1,69 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.security.client.gen.ApiClient;
+import edu.utexas.tacc.tapis.security.client.model.SKRequestContext;
+import okhttp3.Request;
+
+/** Generated ApiClient extension that applies a per-call SKRequestContext to the
+ * headers of requests as they are built.  The context is kept in a thread local
+ * that SKClient.withContext() sets for the duration of a call.  Since the generated
+ * code builds requests on the calling thread for both synchronous and asynchronous
+ * calls, the context headers are captured in the request itself and cannot leak
+ * into requests issued concurrently by other threads.
+ */
+final class SKApiClient
+ extends ApiClient
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The context that applies to requests built on the current thread.
+    private final ThreadLocal<SKRequestContext> _context = new ThreadLocal<>();
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* processHeaderParams:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Assign the call's header parameters and the client's default headers, then
+     * override them with any values from the current thread's context.
+     */
+    @Override
+    public void processHeaderParams(Map<String, String> headerParams, Request.Builder reqBuilder)
+    {
+        super.processHeaderParams(headerParams, reqBuilder);
+
+        // Apply the per-call context if one is set.
+        var context = _context.get();
+        if (context == null) return;
+        if (!StringUtils.isBlank(context.getJwt()))
+            reqBuilder.header(SKClient.TAPIS_JWT_HEADER, context.getJwt());
+        if (!StringUtils.isBlank(context.getTenant()))
+            reqBuilder.header(SKClient.TAPIS_JWT_TENANT, context.getTenant());
+        if (!StringUtils.isBlank(context.getUser()))
+            reqBuilder.header(SKClient.TAPIS_JWT_USER, context.getUser());
+    }
+
+    /* **************************************************************************** */
+    /*                                Package Methods                               */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getContext:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    SKRequestContext getContext() {return _context.get();}
+
+    /* ---------------------------------------------------------------------------- */
+    /* setContext:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Set the current thread's context, which can be null. */
+    void setContext(SKRequestContext context)
+    {
+        if (context == null) _context.remove();
+          else _context.set(context);
+    }
+}
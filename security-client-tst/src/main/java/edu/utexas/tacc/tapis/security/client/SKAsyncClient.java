@@ -0,0 +1,874 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.security.client.gen.ApiCallback;
+import edu.utexas.tacc.tapis.security.client.gen.ApiException;
+import edu.utexas.tacc.tapis.security.client.gen.api.RoleApi;
+import edu.utexas.tacc.tapis.security.client.gen.api.UserApi;
+import edu.utexas.tacc.tapis.security.client.gen.api.VaultApi;
+import edu.utexas.tacc.tapis.security.client.gen.model.Options;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqAddChildRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqAddRolePermission;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqCreateRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqGrantUserPermission;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqGrantUserRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqGrantUserRoleWithPermission;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqPreviewPathPrefix;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqRemoveChildRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqRemoveRolePermission;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqReplacePathPrefix;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqRevokeUserPermission;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqRevokeUserRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUpdateRoleDescription;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUpdateRoleName;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUpdateRoleOwner;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUserHasRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUserHasRoleMulti;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUserIsPermitted;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqUserIsPermittedMulti;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqValidateServicePwd;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqVersions;
+import edu.utexas.tacc.tapis.security.client.gen.model.ReqWriteSecret;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespAuthorized;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespBasic;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespChangeCount;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespName;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespNameArray;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespPathPrefixes;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespResourceUrl;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespSecret;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespSecretList;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespSecretMeta;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespSecretVersionMetadata;
+import edu.utexas.tacc.tapis.security.client.gen.model.RespVersions;
+import edu.utexas.tacc.tapis.security.client.gen.model.SkRole;
+import edu.utexas.tacc.tapis.security.client.gen.model.SkSecret;
+import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretList;
+import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretMetadata;
+import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretVersionMetadata;
+import edu.utexas.tacc.tapis.security.client.gen.model.Transformation;
+import edu.utexas.tacc.tapis.security.client.model.SKSecretDeleteParms;
+import edu.utexas.tacc.tapis.security.client.model.SKSecretMetaParms;
+import edu.utexas.tacc.tapis.security.client.model.SKSecretReadParms;
+import edu.utexas.tacc.tapis.security.client.model.SKSecretWriteParms;
+import okhttp3.Call;
+
+/** Non-blocking facade for the authorization and vault calls of an SKClient.  Each
+ * method issues its request asynchronously on the shared transport's dispatcher and
+ * immediately returns a future.  The future completes with the same value that the
+ * corresponding SKClient method returns, or exceptionally with a
+ * TapisClientException constructed exactly as the synchronous method would throw.
+ * Cancelling a future cancels its http call.  Decisions are not read from the
+ * owning client's decision cache, but update methods invalidate that cache.
+ *
+ * Instances are obtained from SKClient.getAsyncClient() and use the base path,
+ * default headers and timeouts of that client.  Calls made inside
+ * SKClient.withContext() use that call's context, since requests are built on the
+ * calling thread.
+ *
+ * Futures complete on dispatcher threads, so dependent stages that block or do
+ * substantial work should use the *Async() variants of CompletableFuture methods
+ * with an application executor.
+ */
+public final class SKAsyncClient
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The client that created this facade.
+    private final SKClient _owner;
+    
+    // Api objects bound to the owning SKClient's ApiClient.  The generated api
+    // objects hold no per-call state so they can be shared by concurrent calls.
+    private final RoleApi  _roleApi;
+    private final UserApi  _userApi;
+    private final VaultApi _vaultApi;
+
+    /* **************************************************************************** */
+    /*                                  Interfaces                                  */
+    /* **************************************************************************** */
+    // Start a generated asynchronous call.
+    @FunctionalInterface
+    private interface AsyncCall<R>
+    {
+        Call start(ApiCallback<R> callback) throws ApiException;
+    }
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    SKAsyncClient(SKClient owner, SKApiClient apiClient)
+    {
+        _owner    = owner;
+        _roleApi  = new RoleApi(apiClient);
+        _userApi  = new UserApi(apiClient);
+        _vaultApi = new VaultApi(apiClient);
+    }
+
+    /* **************************************************************************** */
+    /*                              Public Role Methods                             */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getRoleNames:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getRoleNames(String tenant)
+    {
+        return execute(cb -> _roleApi.getRoleNamesAsync(tenant, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRoleByName:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<SkRole> getRoleByName(String tenant, String roleName)
+    {
+        return execute(cb -> _roleApi.getRoleByNameAsync(roleName, tenant, false, cb),
+                       (RespRole resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* createRole:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<String> createRole(String roleTenant, String roleName,
+                                                String description)
+    {
+        // Assign input body.
+        var body = new ReqCreateRole();
+        body.setRoleTenant(roleTenant);
+        body.setRoleName(roleName);
+        body.setDescription(description);
+
+        return execute(cb -> _roleApi.createRoleAsync(body, false, cb),
+                       (RespResourceUrl resp) -> resp.getResult().getUrl());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* deleteRoleByName:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> deleteRoleByName(String tenant, String roleName)
+    {
+        return execute(cb -> _roleApi.deleteRoleByNameAsync(roleName, tenant, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(tenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* updateRoleName:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Void> updateRoleName(String roleTenant, String roleName,
+                                                  String newRoleName)
+    {
+        // Assign input body.
+        var body = new ReqUpdateRoleName();
+        body.setRoleTenant(roleTenant);
+        body.setNewRoleName(newRoleName);
+
+        return execute(cb -> _roleApi.updateRoleNameAsync(roleName, body, false, cb),
+                       (RespBasic resp) -> null,
+                       () -> _owner.invalidateTenantDecisions(roleTenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* updateRoleOwner:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Void> updateRoleOwner(String tenant, String roleName, String newOwner)
+    {
+        // Assign input body.
+        var body = new ReqUpdateRoleOwner();
+        body.setRoleTenant(tenant);
+        body.setNewOwner(newOwner);
+
+        return execute(cb -> _roleApi.updateRoleOwnerAsync(roleName, body, false, cb),
+                       (RespBasic resp) -> null);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* updateRoleDescription:                                                       */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Void> updateRoleDescription(String roleTenant, String roleName,
+                                                         String newDescription)
+    {
+        // Assign input body.
+        var body = new ReqUpdateRoleDescription();
+        body.setRoleTenant(roleTenant);
+        body.setNewDescription(newDescription);
+
+        return execute(cb -> _roleApi.updateRoleDescriptionAsync(roleName, body, false, cb),
+                       (RespBasic resp) -> null);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRolePermissions:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getRolePermissions(String roleTenant, String roleName,
+                                                              boolean immediate)
+    {
+        return execute(cb -> _roleApi.getRolePermissionsAsync(roleName, roleTenant, immediate, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* addRolePermission:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> addRolePermission(String roleTenant, String roleName,
+                                                        String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqAddRolePermission();
+        body.setRoleTenant(roleTenant);
+        body.setRoleName(roleName);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _roleApi.addRolePermissionAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(roleTenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* removeRolePermission:                                                        */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> removeRolePermission(String roleTenant, String roleName,
+                                                           String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqRemoveRolePermission();
+        body.setRoleTenant(roleTenant);
+        body.setRoleName(roleName);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _roleApi.removeRolePermissionAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(roleTenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* addChildRole:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> addChildRole(String roleTenant, String parentRoleName,
+                                                   String childRoleName)
+    {
+        // Assign input body.
+        var body = new ReqAddChildRole();
+        body.setRoleTenant(roleTenant);
+        body.setParentRoleName(parentRoleName);
+        body.setChildRoleName(childRoleName);
+
+        return execute(cb -> _roleApi.addChildRoleAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(roleTenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* removeChildRole:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> removeChildRole(String roleTenant, String parentRoleName,
+                                                      String childRoleName)
+    {
+        // Assign input body.
+        var body = new ReqRemoveChildRole();
+        body.setRoleTenant(roleTenant);
+        body.setParentRoleName(parentRoleName);
+        body.setChildRoleName(childRoleName);
+
+        return execute(cb -> _roleApi.removeChildRoleAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(roleTenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* previewPathPrefix:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<Transformation>> previewPathPrefix(String tenant, String schema,
+                                                                     String roleName,
+                                                                     String oldSystemId,
+                                                                     String newSystemId,
+                                                                     String oldPrefix,
+                                                                     String newPrefix)
+    {
+        // Assign input body.
+        var body = new ReqPreviewPathPrefix();
+        body.setTenant(tenant);
+        body.setSchema(schema);
+        body.setRoleName(roleName);
+        body.setOldSystemId(oldSystemId);
+        body.setNewSystemId(newSystemId);
+        body.setOldPrefix(oldPrefix);
+        body.setNewPrefix(newPrefix);
+
+        return execute(cb -> _roleApi.previewPathPrefixAsync(body, false, cb),
+                       (RespPathPrefixes resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* replacePathPrefix:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> replacePathPrefix(String tenant, String schema,
+                                                        String roleName,
+                                                        String oldSystemId, String newSystemId,
+                                                        String oldPrefix, String newPrefix)
+    {
+        // Assign input body.
+        var body = new ReqReplacePathPrefix();
+        body.setTenant(tenant);
+        body.setSchema(schema);
+        body.setRoleName(roleName);
+        body.setOldSystemId(oldSystemId);
+        body.setNewSystemId(newSystemId);
+        body.setOldPrefix(oldPrefix);
+        body.setNewPrefix(newPrefix);
+
+        return execute(cb -> _roleApi.replacePathPrefixAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(tenant));
+    }
+
+    /* **************************************************************************** */
+    /*                              Public User Methods                             */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getUserNames:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUserNames(String tenant)
+    {
+        return execute(cb -> _userApi.getUserNamesAsync(tenant, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUserRoles:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUserRoles(String tenant, String user)
+    {
+        return execute(cb -> _userApi.getUserRolesAsync(user, tenant, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUserPerms:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUserPerms(String tenant, String user)
+    {
+        return getUserPerms(tenant, user, null, null);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUserPerms:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUserPerms(String tenant, String user,
+                                                        String implies, String impliedBy)
+    {
+        return execute(cb -> _userApi.getUserPermsAsync(user, tenant, implies, impliedBy, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* grantUserRole:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> grantUserRole(String tenant, String user, String roleName)
+    {
+        // Assign input body.
+        var body = new ReqGrantUserRole();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleName(roleName);
+
+        return execute(cb -> _userApi.grantRoleAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateUserDecisions(tenant, user));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* revokeUserRole:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> revokeUserRole(String tenant, String user, String roleName)
+    {
+        // Assign input body.
+        var body = new ReqRevokeUserRole();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleName(roleName);
+
+        return execute(cb -> _userApi.revokeUserRoleAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateUserDecisions(tenant, user));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* grantRoleWithPermission:                                                     */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> grantRoleWithPermission(String tenant, String user,
+                                                              String roleName, String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqGrantUserRoleWithPermission();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleName(roleName);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _userApi.grantRoleWithPermissionAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateTenantDecisions(tenant));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* grantUserPermission:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> grantUserPermission(String tenant, String user,
+                                                          String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqGrantUserPermission();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _userApi.grantUserPermissionAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateUserDecisions(tenant, user));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* revokeUserPermission:                                                        */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Integer> revokeUserPermission(String tenant, String user,
+                                                           String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqRevokeUserPermission();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _userApi.revokeUserPermissionAsync(body, false, cb),
+                       SKAsyncClient::getChanges,
+                       () -> _owner.invalidateUserDecisions(tenant, user));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRole:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> hasRole(String tenant, String user, String roleName)
+    {
+        // Assign input body.
+        var body = new ReqUserHasRole();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleName(roleName);
+
+        return execute(cb -> _userApi.hasRoleAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRoleAny:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> hasRoleAny(String tenant, String user, String[] roleNames)
+    {
+        // Assign input body.
+        var body = new ReqUserHasRoleMulti();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleNames(Arrays.asList(roleNames));
+
+        return execute(cb -> _userApi.hasRoleAnyAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRoleAll:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> hasRoleAll(String tenant, String user, String[] roleNames)
+    {
+        // Assign input body.
+        var body = new ReqUserHasRoleMulti();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setRoleNames(Arrays.asList(roleNames));
+
+        return execute(cb -> _userApi.hasRoleAllAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermitted:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> isPermitted(String tenant, String user, String permSpec)
+    {
+        // Assign input body.
+        var body = new ReqUserIsPermitted();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setPermSpec(permSpec);
+
+        return execute(cb -> _userApi.isPermittedAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAny:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> isPermittedAny(String tenant, String user, String[] permSpecs)
+    {
+        // Assign input body.
+        var body = new ReqUserIsPermittedMulti();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setPermSpecs(Arrays.asList(permSpecs));
+
+        return execute(cb -> _userApi.isPermittedAnyAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAll:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> isPermittedAll(String tenant, String user, String[] permSpecs)
+    {
+        // Assign input body.
+        var body = new ReqUserIsPermittedMulti();
+        body.setTenant(tenant);
+        body.setUser(user);
+        body.setPermSpecs(Arrays.asList(permSpecs));
+
+        return execute(cb -> _userApi.isPermittedAllAsync(body, false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUsersWithRole:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUsersWithRole(String tenant, String roleName)
+    {
+        return execute(cb -> _userApi.getUsersWithRoleAsync(roleName, tenant, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUsersWithPermission:                                                      */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<String>> getUsersWithPermission(String tenant, String permSpec)
+    {
+        return execute(cb -> _userApi.getUsersWithPermissionAsync(permSpec, tenant, false, cb),
+                       (RespNameArray resp) -> resp.getResult().getNames());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getDefaultUserRole:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<String> getDefaultUserRole(String user)
+    {
+        return execute(cb -> _userApi.getDefaultUserRole1Async(user, false, cb),
+                       (RespName resp) -> resp.getResult().getName());
+    }
+
+    /* **************************************************************************** */
+    /*                             Public Vault Methods                             */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* readSecret:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<SkSecret> readSecret(SKSecretReadParms parms)
+    {
+        return execute(cb -> _vaultApi.readSecretAsync(parms.getSecretType().getUrlText(),
+                                                       parms.getSecretName(),
+                                                       parms.getTenant(),
+                                                       parms.getUser(),
+                                                       parms.getVersion(),
+                                                       false, // pretty
+                                                       parms.getSysId(),
+                                                       parms.getSysUser(),
+                                                       parms.getKeyType().name(),
+                                                       parms.getDbHost(),
+                                                       parms.getDbName(),
+                                                       parms.getDbService(),
+                                                       cb),
+                       (RespSecret resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* writeSecret:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<SkSecretMetadata> writeSecret(String tenant, String user,
+                                                           SKSecretWriteParms parms)
+    {
+        // Package the input.
+        ReqWriteSecret reqWriteSecret = new ReqWriteSecret();
+        reqWriteSecret.setTenant(tenant);
+        reqWriteSecret.setUser(user);
+        reqWriteSecret.setData(parms.getData());
+        if (parms.getOptions() == null) reqWriteSecret.setOptions(new Options());
+         else reqWriteSecret.setOptions(parms.getOptions());
+
+        return execute(cb -> _vaultApi.writeSecretAsync(parms.getSecretType().getUrlText(),
+                                                        parms.getSecretName(),
+                                                        reqWriteSecret,
+                                                        false, // pretty
+                                                        parms.getSysId(),
+                                                        parms.getSysUser(),
+                                                        parms.getKeyType().name(),
+                                                        parms.getDbHost(),
+                                                        parms.getDbName(),
+                                                        parms.getDbService(),
+                                                        cb),
+                       (RespSecretMeta resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* deleteSecret:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<Integer>> deleteSecret(String tenant, String user,
+                                                         SKSecretDeleteParms parms)
+    {
+        var reqVersions = makeReqVersions(tenant, user, parms);
+        return execute(cb -> _vaultApi.deleteSecretAsync(parms.getSecretType().getUrlText(),
+                                                         parms.getSecretName(),
+                                                         reqVersions,
+                                                         false, // pretty
+                                                         parms.getSysId(),
+                                                         parms.getSysUser(),
+                                                         parms.getKeyType().name(),
+                                                         parms.getDbHost(),
+                                                         parms.getDbName(),
+                                                         parms.getDbService(),
+                                                         cb),
+                       (RespVersions resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* undeleteSecret:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<Integer>> undeleteSecret(String tenant, String user,
+                                                           SKSecretDeleteParms parms)
+    {
+        var reqVersions = makeReqVersions(tenant, user, parms);
+        return execute(cb -> _vaultApi.undeleteSecretAsync(parms.getSecretType().getUrlText(),
+                                                           parms.getSecretName(),
+                                                           reqVersions,
+                                                           false, // pretty
+                                                           parms.getSysId(),
+                                                           parms.getSysUser(),
+                                                           parms.getKeyType().name(),
+                                                           parms.getDbHost(),
+                                                           parms.getDbName(),
+                                                           parms.getDbService(),
+                                                           cb),
+                       (RespVersions resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* destroySecret:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<List<Integer>> destroySecret(String tenant, String user,
+                                                          SKSecretDeleteParms parms)
+    {
+        var reqVersions = makeReqVersions(tenant, user, parms);
+        return execute(cb -> _vaultApi.destroySecretAsync(parms.getSecretType().getUrlText(),
+                                                          parms.getSecretName(),
+                                                          reqVersions,
+                                                          false, // pretty
+                                                          parms.getSysId(),
+                                                          parms.getSysUser(),
+                                                          parms.getKeyType().name(),
+                                                          parms.getDbHost(),
+                                                          parms.getDbName(),
+                                                          parms.getDbService(),
+                                                          cb),
+                       (RespVersions resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* readSecretMeta:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<SkSecretVersionMetadata> readSecretMeta(SKSecretMetaParms parms)
+    {
+        return execute(cb -> _vaultApi.readSecretMetaAsync(parms.getSecretType().getUrlText(),
+                                                           parms.getSecretName(),
+                                                           parms.getTenant(),
+                                                           parms.getUser(),
+                                                           false, // pretty
+                                                           parms.getSysId(),
+                                                           parms.getSysUser(),
+                                                           parms.getKeyType().name(),
+                                                           parms.getDbHost(),
+                                                           parms.getDbName(),
+                                                           parms.getDbService(),
+                                                           cb),
+                       (RespSecretVersionMetadata resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* listSecretMeta:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<SkSecretList> listSecretMeta(SKSecretMetaParms parms)
+    {
+        return execute(cb -> _vaultApi.listSecretMetaAsync(parms.getSecretType().getUrlText(),
+                                                           parms.getTenant(),
+                                                           parms.getUser(),
+                                                           false, // pretty
+                                                           parms.getSysId(),
+                                                           parms.getSysUser(),
+                                                           parms.getKeyType().name(),
+                                                           parms.getDbHost(),
+                                                           parms.getDbName(),
+                                                           parms.getDbService(),
+                                                           cb),
+                       (RespSecretList resp) -> resp.getResult());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* destroySecretMeta:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Void> destroySecretMeta(SKSecretMetaParms parms)
+    {
+        return execute(cb -> _vaultApi.destroySecretMetaAsync(parms.getSecretType().getUrlText(),
+                                                              parms.getSecretName(),
+                                                              parms.getTenant(),
+                                                              parms.getUser(),
+                                                              false, // pretty
+                                                              parms.getSysId(),
+                                                              parms.getSysUser(),
+                                                              parms.getKeyType().name(),
+                                                              parms.getDbHost(),
+                                                              parms.getDbName(),
+                                                              parms.getDbService(),
+                                                              cb),
+                       (RespBasic resp) -> null);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* validateServicePassword:                                                     */
+    /* ---------------------------------------------------------------------------- */
+    public CompletableFuture<Boolean> validateServicePassword(String tenant, String user,
+                                                              String serviceName, String password)
+    {
+        // Initialize parameter.
+        var reqValidateServicePwd = new ReqValidateServicePwd();
+        reqValidateServicePwd.setTenant(tenant);
+        reqValidateServicePwd.setUser(user);
+        reqValidateServicePwd.setPassword(password);
+
+        return execute(cb -> _vaultApi.validateServicePasswordAsync(serviceName,
+                                                                    reqValidateServicePwd,
+                                                                    false, cb),
+                       SKAsyncClient::isAuthorized);
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* execute:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Start an asynchronous call and return a future that completes with the
+     * extracted result value.  All failures, including those that occur before the
+     * request is sent and those that occur when extracting the result, complete the
+     * future with a TapisClientException.
+     *
+     * @param asyncCall the generated asynchronous call
+     * @param extractor the function that converts the response into the result
+     * @return the future result
+     */
+    private static <R, T> CompletableFuture<T> execute(AsyncCall<R> asyncCall,
+                                                       Function<R, T> extractor)
+    {
+        return execute(asyncCall, extractor, null);
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* execute:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Start an asynchronous update call and return a future that completes with
+     * the extracted result value.  The completion action is run when the call 
+     * finishes, whether or not it succeeds, and before the future completes.
+     *
+     * @param asyncCall the generated asynchronous call
+     * @param extractor the function that converts the response into the result
+     * @param completion the action to run when the call finishes or null
+     * @return the future result
+     */
+    private static <R, T> CompletableFuture<T> execute(AsyncCall<R> asyncCall,
+                                                       Function<R, T> extractor,
+                                                       Runnable completion)
+    {
+        var future = new CompletableFuture<T>();
+        var callback = new ApiCallback<R>() {
+            @Override
+            public void onFailure(ApiException e, int statusCode,
+                                  Map<String, List<String>> responseHeaders)
+            {
+                if (completion != null) completion.run();
+                future.completeExceptionally(
+                    Utils.makeTapisClientException(e.getCode(), e.getResponseBody(), e));
+            }
+            @Override
+            public void onSuccess(R result, int statusCode,
+                                  Map<String, List<String>> responseHeaders)
+            {
+                if (completion != null) completion.run();
+                try {future.complete(extractor.apply(result));}
+                catch (Exception e) {
+                    future.completeExceptionally(Utils.makeTapisClientException(-1, null, e));
+                }
+            }
+            @Override
+            public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {}
+            @Override
+            public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {}
+        };
+
+        // Start the call and propagate cancellation to it.
+        try {
+            Call call = asyncCall.start(callback);
+            future.whenComplete((r, t) -> {if (future.isCancelled()) call.cancel();});
+        }
+        catch (ApiException e) {
+            future.completeExceptionally(
+                Utils.makeTapisClientException(e.getCode(), e.getResponseBody(), e));
+        }
+        catch (Exception e) {
+            future.completeExceptionally(Utils.makeTapisClientException(-1, null, e));
+        }
+
+        return future;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isAuthorized:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    private static Boolean isAuthorized(RespAuthorized resp)
+    {
+        Boolean b = resp.getResult().getIsAuthorized();
+        return b == null ? false : b;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getChanges:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    private static Integer getChanges(RespChangeCount resp)
+    {
+        Integer x = resp.getResult().getChanges();
+        return x == null ? 0 : x;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* makeReqVersions:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    private static ReqVersions makeReqVersions(String tenant, String user,
+                                               SKSecretDeleteParms parms)
+    {
+        ReqVersions reqVersions = new ReqVersions();
+        reqVersions.setTenant(tenant);
+        reqVersions.setUser(user);
+        reqVersions.setVersions(parms.getVersions());
+        return reqVersions;
+    }
+}
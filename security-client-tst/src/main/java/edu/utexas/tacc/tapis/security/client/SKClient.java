@@ -1,13 +1,25 @@
 package edu.utexas.tacc.tapis.security.client;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.lang3.StringUtils;
 
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
 import edu.utexas.tacc.tapis.client.shared.Utils;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
-import edu.utexas.tacc.tapis.security.client.gen.ApiClient;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisAuthInterceptor;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisTokenSupplier;
+import edu.utexas.tacc.tapis.security.client.SKDecisionCache.CheckType;
 import edu.utexas.tacc.tapis.security.client.gen.ApiException;
 import edu.utexas.tacc.tapis.security.client.gen.api.GeneralApi;
 import edu.utexas.tacc.tapis.security.client.gen.api.RoleApi;
@@ -56,9 +68,12 @@ import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretList;
 import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretMetadata;
 import edu.utexas.tacc.tapis.security.client.gen.model.SkSecretVersionMetadata;
 import edu.utexas.tacc.tapis.security.client.gen.model.Transformation;
+import edu.utexas.tacc.tapis.security.client.model.SKAuthzCheck;
+import edu.utexas.tacc.tapis.security.client.model.SKAuthzResult;
 import edu.utexas.tacc.tapis.security.client.model.SKSecretDeleteParms;
 import edu.utexas.tacc.tapis.security.client.model.SKSecretMetaParms;
 import edu.utexas.tacc.tapis.security.client.model.SKSecretReadParms;
+import edu.utexas.tacc.tapis.security.client.model.SKRequestContext;
 import edu.utexas.tacc.tapis.security.client.model.SKSecretWriteParms;
 
 public class SKClient 
@@ -78,11 +93,33 @@ public class SKClient
     // Configuration defaults.
     private static final String SKCLIENT_USER_AGENT = "SKClient";
     
+    // Default maximum number of outstanding requests in a bulk call.
+    public static final int DEFAULT_BULK_CONCURRENCY = 16;
+    
     /* **************************************************************************** */
     /*                                    Fields                                    */
     /* **************************************************************************** */
     // This client instance's underlying generated client.
-    private final ApiClient _apiClient;
+    private final SKApiClient _apiClient;
+    
+    // Non-blocking facade that shares this client's ApiClient.
+    private final SKAsyncClient _asyncClient;
+    
+    // Optional authorization decision cache.
+    private volatile SKDecisionCache _decisionCache;
+    
+    /* **************************************************************************** */
+    /*                                  Interfaces                                  */
+    /* **************************************************************************** */
+    /** A call, or a sequence of calls, made on an SKClient by withContext(). 
+     *
+     * @param <T> the call's result type
+     */
+    @FunctionalInterface
+    public interface SKCall<T>
+    {
+        T call(SKClient client) throws TapisClientException;
+    }
     
     /* **************************************************************************** */
     /*                                 Constructors                                 */
@@ -112,16 +149,17 @@ public class SKClient
      * 
      * The user-agent is automatically set to SKClient.
      * 
-     * Instances of this class are currently limited to using the default ApiClient.
-     * This implies that the RoleApi, UserApi and GeneralApi implementations also
-     * are expected to be using the same default ApiClient object.
+     * Each instance has its own ApiClient, but all instances use the http client 
+     * provided by ClientHttpTransport so that connections and dispatcher threads
+     * are shared by all Tapis clients in the process.
      * 
      * @param path the base path 
      */
     public SKClient(String path, String jwt) 
     {
-    	// Create actual client.
-    	_apiClient = new ApiClient();
+    	// Create actual client using the shared transport.
+    	_apiClient = new SKApiClient();
+    	_apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
     	
         // Process input.
         if (!StringUtils.isBlank(path)) _apiClient.setBasePath(path);
@@ -129,6 +167,9 @@ public class SKClient
         
         // Other defaults.
         _apiClient.setUserAgent(SKCLIENT_USER_AGENT);
+        
+        // Create the asynchronous facade.
+        _asyncClient = new SKAsyncClient(this, _apiClient);
     }
     
     /* **************************************************************************** */
@@ -189,6 +230,29 @@ public class SKClient
         return this;
     }
     
+    /* ---------------------------------------------------------------------------- */
+    /* setTokenSupplier:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Obtain the X-Tapis-Token value of each request from a supplier rather than 
+     * from a fixed jwt, and renew the token when the Security Kernel rejects it.
+     * See TapisAuthInterceptor for details.  Calling this method again replaces the
+     * previous supplier.  The client should not also be given a jwt through its
+     * constructor.  Jwts specified using withContext() continue to take precedence.
+     * 
+     * @param supplier the source of tokens
+     * @return this object
+     */
+    public SKClient setTokenSupplier(TapisTokenSupplier supplier)
+    {
+        // The token is added ahead of the shared interceptors so that requests
+        // are only coalesced with requests that carry the same token.
+        var builder = _apiClient.getHttpClient().newBuilder();
+        builder.interceptors().removeIf(i -> i instanceof TapisAuthInterceptor);
+        builder.interceptors().add(0, new TapisAuthInterceptor(supplier));
+        _apiClient.setHttpClient(builder.build());
+        return this;
+    }
+    
     /* ---------------------------------------------------------------------------- */
     /* setDebugging:                                                                */
     /* ---------------------------------------------------------------------------- */
@@ -231,22 +295,83 @@ public class SKClient
     }
     
     /* ---------------------------------------------------------------------------- */
-    /* close:                                                                       */
+    /* getAsyncClient:                                                              */
     /* ---------------------------------------------------------------------------- */
-    /** Close connections and stop threads that can sometimes prevent JVM shutdown.
+    /** Get the non-blocking facade for this client.  The facade's methods return 
+     * CompletableFutures and use this client's base path, headers and timeouts.
+     * Asynchronous calls issued inside withContext() use that call's context.
+     * 
+     * @return this client's asynchronous facade
      */
-    public void close()
+    public SKAsyncClient getAsyncClient()
     {
-        try {
-            // Best effort attempt to shut things down.
-            var okClient = _apiClient.getHttpClient();
-            if (okClient != null) {
-                var pool = okClient.connectionPool();
-                if (pool != null) pool.evictAll();
-            }
-        } catch (Exception e) {}      
+        return _asyncClient;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* setDecisionCache:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Assign the cache used by the isPermitted*() and hasRole*() methods of this
+     * client.  Caching is disabled by default; a null value disables it again.  
+     * See SKDecisionCache for details.
+     * 
+     * @param cache the decision cache or null
+     * @return this client
+     */
+    public SKClient setDecisionCache(SKDecisionCache cache)
+    {
+        _decisionCache = cache;
+        return this;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* getDecisionCache:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    public SKDecisionCache getDecisionCache()
+    {
+        return _decisionCache;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* withContext:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Execute one or more calls on this client using the tenant, user and jwt of 
+     * the specified context.  The non-empty values in the context override the
+     * TAPIS_JWT_TENANT, TAPIS_JWT_USER and TAPIS_JWT_HEADER headers of requests 
+     * issued by the calling thread while the call executes.  Default headers set 
+     * with addDefaultHeader() are not modified, so a single client can safely serve
+     * concurrent requests on behalf of different users.  For example:
+     * 
+     *   boolean b = skClient.withContext(new SKRequestContext(tenant, user),
+     *                                    c -> c.isPermitted(tenant, user, permSpec));
+     * 
+     * Contexts can be nested; the previous context is restored when the call returns.
+     * 
+     * @param context the identity headers for the call, null for no override
+     * @param call the call(s) to execute on this client
+     * @return the result of the call
+     * @throws TapisClientException on error
+     */
+    public <T> T withContext(SKRequestContext context, SKCall<T> call)
+     throws TapisClientException
+    {
+        var previous = _apiClient.getContext();
+        _apiClient.setContext(context);
+        try {return call.call(this);}
+        finally {_apiClient.setContext(previous);}
     }
     
+    /* ---------------------------------------------------------------------------- */
+    /* close:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Release resources held by this client.  Connections and dispatcher threads
+     * are owned by the shared ClientHttpTransport and are not affected by closing
+     * an individual client, since other clients in the process may be using them.
+     * Call ClientHttpTransport.shutdown() to close connections and stop threads
+     * when the application terminates.
+     */
+    public void close() {}
+    
     /* **************************************************************************** */
     /*                              Public Role Methods                             */
     /* **************************************************************************** */
@@ -331,6 +456,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(tenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -358,6 +484,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(roleTenant);}
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -448,6 +575,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(roleTenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -475,6 +603,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(roleTenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -502,6 +631,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(roleTenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -529,6 +659,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(roleTenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -594,6 +725,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(tenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -694,6 +826,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateUserDecisions(tenant, user);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -721,6 +854,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateUserDecisions(tenant, user);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -750,6 +884,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateTenantDecisions(tenant);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -777,6 +912,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateUserDecisions(tenant, user);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -804,6 +940,7 @@ public class SKClient
         }
         catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e);}
         catch (Exception e) {Utils.throwTapisClientException(-1, null, e);}
+        finally {invalidateUserDecisions(tenant, user);}
         
         // Return result value.
         Integer x = resp.getResult().getChanges();
@@ -816,6 +953,15 @@ public class SKClient
     public boolean hasRole(String tenant, String user, String roleName)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.HAS_ROLE, tenant, user, roleName);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserHasRole();
         body.setTenant(tenant);
@@ -834,7 +980,9 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -843,6 +991,15 @@ public class SKClient
     public boolean hasRoleAny(String tenant, String user, String[] roleNames)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.HAS_ROLE_ANY, tenant, user, roleNames);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserHasRoleMulti();
         body.setTenant(tenant);
@@ -861,7 +1018,9 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -870,6 +1029,15 @@ public class SKClient
     public boolean hasRoleAll(String tenant, String user, String[] roleNames)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.HAS_ROLE_ALL, tenant, user, roleNames);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserHasRoleMulti();
         body.setTenant(tenant);
@@ -888,7 +1056,9 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -897,6 +1067,15 @@ public class SKClient
     public boolean isPermitted(String tenant, String user, String permSpec)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.IS_PERMITTED, tenant, user, permSpec);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserIsPermitted();
         body.setTenant(tenant);
@@ -915,7 +1094,9 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -924,6 +1105,15 @@ public class SKClient
     public boolean isPermittedAny(String tenant, String user, String[] permSpecs)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.IS_PERMITTED_ANY, tenant, user, permSpecs);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserIsPermittedMulti();
         body.setTenant(tenant);
@@ -942,7 +1132,9 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -951,6 +1143,15 @@ public class SKClient
     public boolean isPermittedAll(String tenant, String user, String[] permSpecs)
      throws TapisClientException
     {
+        // Use a cached decision if one is available.
+        var cache = _decisionCache;
+        var key = cache == null ? null : 
+            cache.newKey(CheckType.IS_PERMITTED_ALL, tenant, user, permSpecs);
+        if (key != null) {
+            Boolean cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        
         // Assign input body.
         var body = new ReqUserIsPermittedMulti();
         body.setTenant(tenant);
@@ -969,7 +1170,107 @@ public class SKClient
         
         // Return result value.
         Boolean b = resp.getResult().getIsAuthorized();
-        return b == null ? false : b;
+        boolean authorized = b == null ? false : b;
+        if (key != null) cache.put(key, authorized);
+        return authorized;
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedBulk:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    /** Convenience method that calls isPermittedBulk() with the default concurrency.
+     * 
+     * @param checks the authorization checks to perform
+     * @return the result of each distinct check in first-seen order
+     * @throws TapisClientException if the calling thread is interrupted
+     */
+    public Map<SKAuthzCheck, SKAuthzResult> isPermittedBulk(Collection<SKAuthzCheck> checks)
+     throws TapisClientException
+    {
+        return isPermittedBulk(checks, DEFAULT_BULK_CONCURRENCY);
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedBulk:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    /** Perform many isPermitted() checks concurrently.  Duplicate checks are 
+     * removed so that each distinct (tenant, user, permSpec) triple results in a
+     * single request.  At most maxConcurrency requests are outstanding at any time,
+     * and all requests are issued asynchronously over the shared transport, so a 
+     * batch requires roughly (distinct checks / maxConcurrency) round trips rather 
+     * than one round trip per check.
+     * 
+     * The failure of an individual check does not abort the batch.  Instead, the
+     * check's result records the exception that a single isPermitted() call would 
+     * have thrown.  The returned map contains one entry for each distinct check in
+     * the order that the checks were first encountered.  
+     * 
+     * Calls issued inside withContext() use that call's context for all checks.
+     * If a decision cache is assigned to this client, cached decisions are used
+     * and new decisions are cached.
+     * 
+     * @param checks the authorization checks to perform
+     * @param maxConcurrency the maximum number of outstanding requests, values less 
+     *                       than 1 are treated as 1
+     * @return the result of each distinct check in first-seen order
+     * @throws TapisClientException if the calling thread is interrupted
+     */
+    public Map<SKAuthzCheck, SKAuthzResult> isPermittedBulk(Collection<SKAuthzCheck> checks,
+                                                            int maxConcurrency)
+     throws TapisClientException
+    {
+        // Remove duplicates while preserving order.
+        var distinctChecks = new LinkedHashSet<SKAuthzCheck>(checks);
+        var requests = new ArrayList<CompletableFuture<Boolean>>(distinctChecks.size());
+        var results  = new LinkedHashMap<SKAuthzCheck, CompletableFuture<SKAuthzResult>>(
+                                                      2 * distinctChecks.size());
+        
+        // Issue the requests without exceeding the concurrency limit.
+        var permits = new Semaphore(Math.max(1, maxConcurrency));
+        try {
+            var cache = _decisionCache;
+            for (var check : distinctChecks) {
+                // Use a cached decision if one is available.
+                var key = cache == null ? null : 
+                    cache.newKey(CheckType.IS_PERMITTED, check.getTenant(), 
+                                 check.getUser(), check.getPermSpec());
+                Boolean cached = key == null ? null : cache.get(key);
+                if (cached != null) {
+                    results.put(check, CompletableFuture.completedFuture(
+                                       new SKAuthzResult(check, cached)));
+                    continue;
+                }
+                
+                // Issue the request.
+                permits.acquire();
+                var request = _asyncClient.isPermitted(check.getTenant(), check.getUser(), 
+                                                       check.getPermSpec());
+                request.whenComplete((b, t) -> permits.release());
+                if (key != null) request.thenAccept(b -> cache.put(key, b));
+                requests.add(request);
+                results.put(check, request.handle((b, t) -> t == null ? 
+                            new SKAuthzResult(check, b) : 
+                            new SKAuthzResult(check, toTapisClientException(t))));
+            }
+            
+            // Wait for all outstanding requests.  The result futures never 
+            // complete exceptionally. 
+            var resultMap = new LinkedHashMap<SKAuthzCheck, SKAuthzResult>(2 * results.size());
+            for (var entry : results.entrySet()) resultMap.put(entry.getKey(), entry.getValue().get());
+            return resultMap;
+        }
+        catch (InterruptedException e) {
+            // Abandon the batch.
+            for (var request : requests) request.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TapisClientException("Bulk authorization interrupted after issuing " +
+                                           requests.size() + " of " + distinctChecks.size() + 
+                                           " requests.", e);
+        }
+        catch (ExecutionException e) {
+            // Not expected since results are always completed normally.
+            throw toTapisClientException(e.getCause());
+        }
     }
     
     /* ---------------------------------------------------------------------------- */
@@ -1392,8 +1693,45 @@ public class SKClient
         return obj == null ? null : obj.toString();
     }
     
+    /* **************************************************************************** */
+    /*                                Package Methods                               */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* invalidateUserDecisions:                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard cached decisions about a user after a change to the user's roles or
+     * permissions.
+     */
+    void invalidateUserDecisions(String tenant, String user)
+    {
+        var cache = _decisionCache;
+        if (cache != null) cache.invalidateUser(tenant, user);
+    }
+    
+    /* ---------------------------------------------------------------------------- */
+    /* invalidateTenantDecisions:                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard cached decisions about all users in a tenant after a change to a
+     * role in the tenant.
+     */
+    void invalidateTenantDecisions(String tenant)
+    {
+        var cache = _decisionCache;
+        if (cache != null) cache.invalidateTenant(tenant);
+    }
+    
     /* **************************************************************************** */
     /*                               Private Methods                                */
     /* **************************************************************************** */
-
+    /* ---------------------------------------------------------------------------- */
+    /* toTapisClientException:                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Convert the exception that completed a future into a TapisClientException. */
+    private static TapisClientException toTapisClientException(Throwable t)
+    {
+        if (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+        if (t instanceof TapisClientException) return (TapisClientException) t;
+        if (t instanceof Exception) return Utils.makeTapisClientException(-1, null, (Exception) t);
+        return new TapisClientException(t.toString(), t);
+    }
 }
@@ -0,0 +1,293 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Size-bounded, time-limited cache of authorization decisions made by the
+ * isPermitted*() and hasRole*() methods of SKClient.  Caching is opt-in:  a cache
+ * is assigned to a client with SKClient.setDecisionCache() and can be shared by
+ * several clients that talk to the same Security Kernel.
+ *
+ * Decisions are keyed by check type, tenant, user and permission or role names.
+ * Positive and negative decisions have separate time-to-live values, so that a
+ * newly granted permission can take effect sooner than a cached grant is trusted.
+ * When the cache is full, the least recently used decision is evicted.
+ *
+ * SKClient invalidates affected decisions whenever it successfully or
+ * unsuccessfully issues a call that changes permissions or role membership.  User
+ * grants and revocations invalidate that user's decisions; changes to roles
+ * invalidate all decisions in the role's tenant.  A decision whose request was in
+ * flight when any invalidation occurred is not cached.  Changes made by other
+ * processes are only observed when decisions expire, so the TTLs bound how long a
+ * stale decision can be used.  Calls made through SKAsyncClient do not consult
+ * the cache, but its update methods do invalidate it.
+ *
+ * Hit, miss and eviction counters are provided to help tune the cache size and
+ * time-to-live values.
+ *
+ * This class is thread-safe.
+ */
+public final class SKDecisionCache
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Defaults.
+    public static final int  DEFAULT_MAX_ENTRIES         = 10000;
+    public static final long DEFAULT_POSITIVE_TTL_MILLIS = 60 * 1000;
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 10 * 1000;
+
+    /* **************************************************************************** */
+    /*                                     Enums                                    */
+    /* **************************************************************************** */
+    // The SKClient methods whose results are cached.
+    enum CheckType {IS_PERMITTED, IS_PERMITTED_ANY, IS_PERMITTED_ALL,
+                    HAS_ROLE, HAS_ROLE_ANY, HAS_ROLE_ALL}
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final int  _maxEntries;
+    private final long _positiveTtlNanos;
+    private final long _negativeTtlNanos;
+
+    // Access-ordered map of decisions.  All access is synchronized on the map.
+    private final LinkedHashMap<Key, Entry> _decisions;
+
+    // Incremented on every invalidation so that decisions obtained by requests
+    // that started before the invalidation are not cached.
+    private final AtomicLong _generation = new AtomicLong();
+
+    // Statistics.
+    private final LongAdder _hits      = new LongAdder();
+    private final LongAdder _misses    = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Create a cache using the default size and time-to-live values. */
+    public SKDecisionCache()
+    {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_POSITIVE_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Create a cache with the specified limits.  A time-to-live of 0 disables
+     * caching of the corresponding decisions.
+     *
+     * @param maxEntries the maximum number of cached decisions, must be positive
+     * @param positiveTtlMillis the lifetime of authorized decisions
+     * @param negativeTtlMillis the lifetime of unauthorized decisions
+     */
+    public SKDecisionCache(int maxEntries, long positiveTtlMillis, long negativeTtlMillis)
+    {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        if (positiveTtlMillis < 0 || negativeTtlMillis < 0)
+            throw new IllegalArgumentException("Time-to-live values cannot be negative.");
+
+        _maxEntries       = maxEntries;
+        _positiveTtlNanos = TimeUnit.MILLISECONDS.toNanos(positiveTtlMillis);
+        _negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        _decisions = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+            {
+                if (size() <= _maxEntries) return false;
+                _evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* invalidateUser:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard all decisions about a user.
+     *
+     * @param tenant the user's tenant
+     * @param user the user
+     */
+    public void invalidateUser(String tenant, String user)
+    {
+        _generation.incrementAndGet();
+        synchronized (_decisions) {
+            _decisions.keySet().removeIf(k -> Objects.equals(k.tenant, tenant) &&
+                                              Objects.equals(k.user, user));
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* invalidateTenant:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard all decisions about users in a tenant.
+     *
+     * @param tenant the tenant
+     */
+    public void invalidateTenant(String tenant)
+    {
+        _generation.incrementAndGet();
+        synchronized (_decisions) {
+            _decisions.keySet().removeIf(k -> Objects.equals(k.tenant, tenant));
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* invalidateAll:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard all decisions. */
+    public void invalidateAll()
+    {
+        _generation.incrementAndGet();
+        synchronized (_decisions) {_decisions.clear();}
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* size:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the number of cached decisions, which may include expired decisions
+     * that have not yet been removed.
+     *
+     * @return the number of cached decisions
+     */
+    public int size()
+    {
+        synchronized (_decisions) {return _decisions.size();}
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public long getHitCount() {return _hits.sum();}
+    public long getMissCount() {return _misses.sum();}
+    public long getEvictionCount() {return _evictions.sum();}
+    public int getMaxEntries() {return _maxEntries;}
+    public long getPositiveTtlMillis() {return TimeUnit.NANOSECONDS.toMillis(_positiveTtlNanos);}
+    public long getNegativeTtlMillis() {return TimeUnit.NANOSECONDS.toMillis(_negativeTtlNanos);}
+
+    /* **************************************************************************** */
+    /*                                Package Methods                               */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* newKey:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Create the key for a check.  The key records the cache's current generation,
+     * so it must be created before the corresponding request is issued.
+     */
+    Key newKey(CheckType checkType, String tenant, String user, String... names)
+    {
+        return new Key(checkType, tenant, user, names, _generation.get());
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* get:                                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Get an unexpired decision.
+     *
+     * @param key the check's key
+     * @return the cached decision or null if there is none
+     */
+    Boolean get(Key key)
+    {
+        Entry entry;
+        synchronized (_decisions) {
+            entry = _decisions.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                _decisions.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {_misses.increment(); return null;}
+        _hits.increment();
+        return entry.authorized;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* put:                                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Cache a decision unless the cache was invalidated after the key was created.
+     *
+     * @param key the check's key
+     * @param authorized the decision
+     */
+    void put(Key key, boolean authorized)
+    {
+        long ttl = authorized ? _positiveTtlNanos : _negativeTtlNanos;
+        if (ttl == 0) return;
+        synchronized (_decisions) {
+            // Checked while holding the lock so that an invalidation cannot
+            // complete between the check and the insertion.
+            if (key.generation != _generation.get()) return;
+            _decisions.put(key, new Entry(authorized, System.nanoTime() + ttl));
+        }
+    }
+
+    /* **************************************************************************** */
+    /*                                 Nested Classes                               */
+    /* **************************************************************************** */
+    // Cache key.  The generation is not part of the key's identity.
+    static final class Key
+    {
+        private final CheckType checkType;
+        private final String    tenant;
+        private final String    user;
+        private final String[]  names;
+        private final long      generation;
+        private final int       hash;
+
+        private Key(CheckType checkType, String tenant, String user, String[] names,
+                    long generation)
+        {
+            this.checkType  = checkType;
+            this.tenant     = tenant;
+            this.user       = user;
+            this.names      = names == null ? new String[0] : names.clone();
+            this.generation = generation;
+            this.hash = Objects.hash(checkType, tenant, user, Arrays.hashCode(this.names));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            var that = (Key) obj;
+            return checkType == that.checkType &&
+                   Objects.equals(tenant, that.tenant) &&
+                   Objects.equals(user, that.user) &&
+                   Arrays.equals(names, that.names);
+        }
+
+        @Override
+        public int hashCode() {return hash;}
+    }
+
+    // Cached decision.
+    private static final class Entry
+    {
+        private final boolean authorized;
+        private final long    expiresAt;  // System.nanoTime() value
+
+        private Entry(boolean authorized, long expiresAt)
+        {
+            this.authorized = authorized;
+            this.expiresAt  = expiresAt;
+        }
+    }
+}
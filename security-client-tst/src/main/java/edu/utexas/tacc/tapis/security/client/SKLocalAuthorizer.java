@@ -0,0 +1,323 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Client-side authorization using each user's complete permission list.  The
+ * first check for a user retrieves the user's permissions with
+ * SKClient.getUserPerms() and compiles them into an SKPermissionEvaluator.
+ * Subsequent checks are answered locally without network calls.
+ *
+ * A background thread periodically reloads the permissions of every user that has
+ * been checked recently, so grants and revocations made anywhere are observed
+ * within one refresh period.  Users that have not been checked for
+ * IDLE_REFRESH_PERIODS consecutive periods are dropped and reloaded on their next
+ * check.  If a reload fails, the user's previous permissions remain in effect
+ * and the failure is counted.  Call refresh() to reload a user's permissions
+ * immediately, for example after granting the user a permission.  When loads of
+ * the same user overlap, the permissions from the load that started last are
+ * kept, so a slow background reload cannot undo an explicit refresh.
+ *
+ * Permissions are obtained using the SKClient's identity and context, so the
+ * client must be authorized to read the permissions of the users being checked.
+ * Local evaluation uses standard wildcard semantics; see SKPermissionEvaluator.
+ *
+ * Refresh threads are daemon threads.  Call close() to stop refreshing.
+ *
+ * This class is thread-safe.
+ */
+public final class SKLocalAuthorizer
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Defaults.
+    public static final long DEFAULT_REFRESH_MILLIS = 60 * 1000;
+
+    // Users not checked in this many refresh periods are dropped.
+    public static final int IDLE_REFRESH_PERIODS = 10;
+
+    // Refresh thread name prefix.
+    private static final String THREAD_NAME_PREFIX = "SKLocalAuthorizer-";
+
+    // Used to number refresh threads.
+    private static final AtomicInteger _threadCount = new AtomicInteger();
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The client used to retrieve permissions.
+    private final SKClient _skClient;
+
+    // Refresh configuration.
+    private final long _refreshNanos;
+
+    // Compiled permissions keyed by tenant and user.
+    private final ConcurrentHashMap<UserKey, UserPerms> _users = new ConcurrentHashMap<>();
+
+    // Background refresh.
+    private final ScheduledExecutorService _scheduler;
+
+    // Statistics.
+    private final LongAdder _loads           = new LongAdder();
+    private final LongAdder _refreshFailures = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    public SKLocalAuthorizer(SKClient skClient)
+    {
+        this(skClient, DEFAULT_REFRESH_MILLIS);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Create an authorizer that refreshes permissions at the specified interval.
+     *
+     * @param skClient the client used to retrieve permissions
+     * @param refreshMillis the positive refresh interval
+     */
+    public SKLocalAuthorizer(SKClient skClient, long refreshMillis)
+    {
+        if (skClient == null) throw new NullPointerException("skClient cannot be null");
+        if (refreshMillis <= 0)
+            throw new IllegalArgumentException("refreshMillis must be positive: " + refreshMillis);
+
+        _skClient     = skClient;
+        _refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        _scheduler    = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, THREAD_NAME_PREFIX + _threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        _scheduler.scheduleWithFixedDelay(this::refreshAll, refreshMillis, refreshMillis,
+                                          TimeUnit.MILLISECONDS);
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isPermitted:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Local equivalent of SKClient.isPermitted().  Only the first check for a user
+     * makes a network call.
+     *
+     * @throws TapisClientException if the user's permissions cannot be retrieved
+     */
+    public boolean isPermitted(String tenant, String user, String permSpec)
+     throws TapisClientException
+    {
+        return getEvaluator(tenant, user).isPermitted(permSpec);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAny:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Local equivalent of SKClient.isPermittedAny().
+     *
+     * @throws TapisClientException if the user's permissions cannot be retrieved
+     */
+    public boolean isPermittedAny(String tenant, String user, String[] permSpecs)
+     throws TapisClientException
+    {
+        return getEvaluator(tenant, user).isPermittedAny(permSpecs);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAll:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Local equivalent of SKClient.isPermittedAll().
+     *
+     * @throws TapisClientException if the user's permissions cannot be retrieved
+     */
+    public boolean isPermittedAll(String tenant, String user, String[] permSpecs)
+     throws TapisClientException
+    {
+        return getEvaluator(tenant, user).isPermittedAll(permSpecs);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getEvaluator:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the current compiled permissions of a user, retrieving them if necessary.
+     * Concurrent first checks for the same user result in a single retrieval.
+     *
+     * @param tenant the user's tenant
+     * @param user the user
+     * @return the user's compiled permissions
+     * @throws TapisClientException if the user's permissions cannot be retrieved
+     */
+    public SKPermissionEvaluator getEvaluator(String tenant, String user)
+     throws TapisClientException
+    {
+        var key = new UserKey(tenant, user);
+        var perms = _users.computeIfAbsent(key, k -> new UserPerms());
+        perms.lastAccess = System.nanoTime();
+
+        // Fast path.
+        var evaluator = perms.evaluator;
+        if (evaluator != null) return evaluator;
+
+        // Only one thread loads a user's initial permissions.
+        synchronized (perms.initLock) {
+            if (perms.evaluator == null) load(key, perms);
+            return perms.evaluator;
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* refresh:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Reload a user's permissions now.
+     *
+     * @param tenant the user's tenant
+     * @param user the user
+     * @throws TapisClientException if the user's permissions cannot be retrieved
+     */
+    public void refresh(String tenant, String user)
+     throws TapisClientException
+    {
+        var key = new UserKey(tenant, user);
+        var perms = _users.computeIfAbsent(key, k -> new UserPerms());
+        perms.lastAccess = System.nanoTime();
+        load(key, perms);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* remove:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Discard a user's permissions; they are reloaded on the user's next check. */
+    public void remove(String tenant, String user)
+    {
+        _users.remove(new UserKey(tenant, user));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* close:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Stop background refresh.  Checks continue to work, but permissions are only
+     * loaded when a user is first checked or explicitly refreshed.
+     */
+    public void close()
+    {
+        _scheduler.shutdownNow();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public int getUserCount() {return _users.size();}
+    public long getLoadCount() {return _loads.sum();}
+    public long getRefreshFailureCount() {return _refreshFailures.sum();}
+    public long getRefreshMillis() {return TimeUnit.NANOSECONDS.toMillis(_refreshNanos);}
+
+    /* **************************************************************************** */
+    /*                                Package Methods                               */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* refreshAll:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Reload the permissions of recently checked users and drop idle users. This
+     * method runs on the refresh thread and never throws.
+     */
+    void refreshAll()
+    {
+        long now = System.nanoTime();
+        for (var entry : _users.entrySet()) {
+            var perms = entry.getValue();
+            if (now - perms.lastAccess > IDLE_REFRESH_PERIODS * _refreshNanos) {
+                _users.remove(entry.getKey(), perms);
+                continue;
+            }
+
+            // Users whose initial load is pending or failed are loaded on demand.
+            if (perms.evaluator == null) continue;
+            try {load(entry.getKey(), perms);}
+            catch (Exception e) {_refreshFailures.increment();}
+        }
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* load:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve a user's permissions and install them unless a load that started
+     * later has already installed its own.
+     */
+    private void load(UserKey key, UserPerms perms)
+     throws TapisClientException
+    {
+        _loads.increment();
+        long sequence = perms.loadSequence.incrementAndGet();
+        perms.install(sequence,
+                      new SKPermissionEvaluator(_skClient.getUserPerms(key.tenant, key.user)));
+    }
+
+    /* **************************************************************************** */
+    /*                                 Nested Classes                               */
+    /* **************************************************************************** */
+    // Map key.
+    private static final class UserKey
+    {
+        private final String tenant;
+        private final String user;
+        private final int    hash;
+
+        private UserKey(String tenant, String user)
+        {
+            this.tenant = tenant;
+            this.user   = user;
+            this.hash   = Objects.hash(tenant, user);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) return true;
+            if (!(obj instanceof UserKey)) return false;
+            var that = (UserKey) obj;
+            return Objects.equals(tenant, that.tenant) && Objects.equals(user, that.user);
+        }
+
+        @Override
+        public int hashCode() {return hash;}
+    }
+
+    // A user's compiled permissions.
+    private static final class UserPerms
+    {
+        private volatile SKPermissionEvaluator evaluator;
+        private volatile long                  lastAccess = System.nanoTime();
+
+        // Numbers loads in the order they start.
+        private final AtomicLong loadSequence = new AtomicLong();
+
+        // The number of the load that produced the evaluator, guarded by this.
+        private long installedSequence;
+
+        // Serializes initial loads.
+        private final Object initLock = new Object();
+
+        private synchronized void install(long sequence, SKPermissionEvaluator evaluator)
+        {
+            if (sequence < installedSequence) return;
+            installedSequence = sequence;
+            this.evaluator = evaluator;
+        }
+    }
+}
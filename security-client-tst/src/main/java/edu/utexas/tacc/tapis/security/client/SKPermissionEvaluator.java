@@ -0,0 +1,272 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Immutable, compiled form of a set of Shiro-style wildcard permissions, such as
+ * those returned by SKClient.getUserPerms().  The evaluator answers the same
+ * questions as SKClient.isPermitted(), isPermittedAny() and isPermittedAll()
+ * without contacting the Security Kernel.
+ *
+ * Permission specs consist of parts separated by colons, and each part consists of
+ * one or more subparts separated by commas.  A granted permission implies a
+ * requested permission when each part of the granted permission contains the
+ * wildcard (*) or all subparts of the corresponding requested part.  A granted
+ * permission with fewer parts than the request implies all the request's trailing
+ * parts, and a granted permission with more parts than the request implies the
+ * request only if its extra parts are wildcards.  Matching is case-sensitive.
+ *
+ * Granted permissions are compiled into a trie with one level per part.  Granted
+ * parts with multiple subparts are expanded into one path per subpart, and
+ * wildcard subparts are stored on a separate edge at each node.  Requests in which
+ * every part has a single subpart, the overwhelmingly common case, are evaluated
+ * by walking the trie, so their cost depends on the number of parts in the request
+ * and not on the number of granted permissions.  Requests containing a part with
+ * multiple subparts must be implied by a single granted permission, which the
+ * expanded trie cannot guarantee, so they are evaluated against each granted
+ * permission in turn.
+ *
+ * Granted permission specs that are not well-formed are ignored.  Requests that
+ * are not well-formed are not permitted.
+ *
+ * This class is thread-safe.
+ */
+public final class SKPermissionEvaluator
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Permission syntax.
+    private static final String WILDCARD         = "*";
+    private static final String PART_DIVIDER     = ":";
+    private static final String SUBPART_DIVIDER  = ",";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The root of the trie.
+    private final Node _root;
+
+    // The parsed, well-formed granted permissions for multi-subpart requests.
+    private final List<List<Set<String>>> _granted;
+
+    // The number of well-formed granted permissions.
+    private final int _size;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Compile the granted permission specs.
+     *
+     * @param permSpecs the granted permissions, null elements are ignored
+     */
+    public SKPermissionEvaluator(Collection<String> permSpecs)
+    {
+        var root    = new Node();
+        var granted = new ArrayList<List<Set<String>>>();
+        if (permSpecs != null)
+            for (var permSpec : permSpecs) {
+                var parts = parse(permSpec);
+                if (parts == null) continue;
+                granted.add(parts);
+                insert(root, parts, 0);
+            }
+        root.computeImpliesAtEnd();
+
+        _root    = root;
+        _granted = Collections.unmodifiableList(granted);
+        _size    = granted.size();
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isPermitted:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether any granted permission implies the requested permission.
+     *
+     * @param permSpec the requested permission
+     * @return true if permitted, false otherwise
+     */
+    public boolean isPermitted(String permSpec)
+    {
+        var parts = parse(permSpec);
+        if (parts == null) return false;
+
+        // Use the trie when each part has exactly one subpart.
+        boolean simple = true;
+        for (var part : parts) if (part.size() != 1) {simple = false; break;}
+        if (simple) {
+            var path = new String[parts.size()];
+            for (int i = 0; i < path.length; i++) path[i] = parts.get(i).iterator().next();
+            return matches(_root, path, 0);
+        }
+
+        // Otherwise a single granted permission must imply the whole request.
+        for (var granted : _granted) if (implies(granted, parts)) return true;
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAny:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether at least one requested permission is implied.
+     *
+     * @param permSpecs the requested permissions
+     * @return true if any is permitted, false otherwise
+     */
+    public boolean isPermittedAny(String[] permSpecs)
+    {
+        if (permSpecs == null) return false;
+        for (var permSpec : permSpecs) if (isPermitted(permSpec)) return true;
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isPermittedAll:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether all requested permissions are implied.  An empty request
+     * is not permitted.
+     *
+     * @param permSpecs the requested permissions
+     * @return true if all are permitted, false otherwise
+     */
+    public boolean isPermittedAll(String[] permSpecs)
+    {
+        if (permSpecs == null || permSpecs.length == 0) return false;
+        for (var permSpec : permSpecs) if (!isPermitted(permSpec)) return false;
+        return true;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* size:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the number of well-formed granted permissions.
+     *
+     * @return the number of compiled permissions
+     */
+    public int size() {return _size;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* parse:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Split a permission spec into parts, each of which is a set of subparts.
+     *
+     * @param permSpec the permission spec
+     * @return the parts or null if the spec is not well-formed
+     */
+    private static List<Set<String>> parse(String permSpec)
+    {
+        if (permSpec == null) return null;
+        permSpec = permSpec.trim();
+        if (permSpec.isEmpty()) return null;
+
+        var partStrings = permSpec.split(PART_DIVIDER);
+        var parts = new ArrayList<Set<String>>(partStrings.length);
+        for (var partString : partStrings) {
+            var subparts = new LinkedHashSet<String>();
+            for (var subpart : partString.split(SUBPART_DIVIDER)) {
+                if (subpart.isEmpty()) return null;
+                subparts.add(subpart);
+            }
+            if (subparts.isEmpty()) return null;
+            parts.add(subparts);
+        }
+        return parts;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* insert:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Add the path(s) of a granted permission to the trie starting at part index. */
+    private static void insert(Node node, List<Set<String>> parts, int index)
+    {
+        if (index == parts.size()) {node.terminal = true; return;}
+
+        // A part that contains the wildcard matches any subpart.
+        var part = parts.get(index);
+        if (part.contains(WILDCARD)) {
+            if (node.wildcard == null) node.wildcard = new Node();
+            insert(node.wildcard, parts, index + 1);
+            return;
+        }
+
+        // Expand each literal subpart into its own path.
+        for (var subpart : part)
+            insert(node.children.computeIfAbsent(subpart, k -> new Node()), parts, index + 1);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* matches:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Walk the trie to determine whether a single-subpart request is implied. */
+    private static boolean matches(Node node, String[] path, int index)
+    {
+        // A granted permission that ends here implies any remaining parts.
+        if (node.terminal) return true;
+
+        // The request ends here, so only wildcard-only extensions are implied.
+        if (index == path.length) return node.impliesAtEnd;
+
+        // Try the literal edge and then the wildcard edge.
+        var child = node.children.get(path[index]);
+        if (child != null && matches(child, path, index + 1)) return true;
+        return node.wildcard != null && matches(node.wildcard, path, index + 1);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* implies:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Shiro wildcard implication of one parsed permission by another. */
+    private static boolean implies(List<Set<String>> granted, List<Set<String>> requested)
+    {
+        int i = 0;
+        for (var requestedPart : requested) {
+            // Shorter granted permissions imply all trailing parts.
+            if (granted.size() - 1 < i) return true;
+            var grantedPart = granted.get(i++);
+            if (!grantedPart.contains(WILDCARD) && !grantedPart.containsAll(requestedPart))
+                return false;
+        }
+
+        // Longer granted permissions must end in wildcards.
+        for (; i < granted.size(); i++)
+            if (!granted.get(i).contains(WILDCARD)) return false;
+        return true;
+    }
+
+    /* **************************************************************************** */
+    /*                                 Nested Classes                               */
+    /* **************************************************************************** */
+    // Trie node.  Nodes are only modified during construction.
+    private static final class Node
+    {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node    wildcard;      // edge for granted wildcard parts
+        private boolean terminal;      // a granted permission ends here
+        private boolean impliesAtEnd;  // a request ending here is implied
+
+        // A request that ends at this node is implied if a granted permission ends
+        // here or continues from here with wildcard parts only.
+        private boolean computeImpliesAtEnd()
+        {
+            for (var child : children.values()) child.computeImpliesAtEnd();
+            boolean wildcardTail = wildcard != null && wildcard.computeImpliesAtEnd();
+            impliesAtEnd = terminal || wildcardTail;
+            return impliesAtEnd;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Immutable, in-memory copy of a tenant's role-based authorization graph:  its
+ * users, its roles, the roles assigned to each user and the permissions of each
+ * role.  A snapshot answers hasRole(), hasRoleAny(), hasRoleAll(), getUserRoles(),
+ * getUsersWithRole() and getRolePermissions() questions without network calls.
+ *
+ * A snapshot is built with build(), which retrieves the user and role names of the
+ * tenant and then retrieves each user's roles and each role's permissions with a
+ * bounded number of concurrent requests over the shared transport.  Names are
+ * dictionary-encoded:  each distinct role name and permission string is stored
+ * once and referenced by index, each user's role assignments are kept as a bitset
+ * over role indexes and the inverse assignments are kept as a bitset over user
+ * indexes, so membership tests are single bit lookups.
+ *
+ * The Security Kernel does not publish the parent/child edges of the role
+ * hierarchy, but it computes their transitive closure when it returns a user's
+ * roles (getUserRoles) and a role's non-immediate permissions
+ * (getRolePermissions).  The snapshot stores those closed sets, so a user has
+ * every role inherited through child roles and a role has every permission
+ * inherited from its children.
+ *
+ * A snapshot is never modified.  The refresh() methods return a new snapshot that
+ * reuses the data of the current snapshot except for users and roles that are new,
+ * stale or explicitly named, so periodic refreshes cost two list requests plus one
+ * request per changed or stale entry rather than a full rebuild.  Users and roles
+ * that no longer exist are dropped.
+ *
+ * This class is thread-safe.
+ */
+public final class SKTenantSnapshot
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The snapshot's tenant and creation time.
+    private final String _tenant;
+    private final long   _createdMillis;
+
+    // Dictionaries.
+    private final String[]             _roleNames;
+    private final Map<String, Integer> _roleIndex;
+    private final String[]             _userNames;
+    private final Map<String, Integer> _userIndex;
+    private final String[]             _permNames;
+
+    // Role assignments indexed by user and the inverse indexed by role.
+    private final BitSet[] _userRoles;
+    private final BitSet[] _roleUsers;
+
+    // Sorted permission indexes for each role.
+    private final int[][] _rolePerms;
+
+    // When each user's roles and each role's permissions were retrieved.
+    private final long[] _userFetchedMillis;
+    private final long[] _roleFetchedMillis;
+
+    // Users and roles for which data was retrieved.
+    private final BitSet _userLoaded;
+    private final BitSet _roleLoaded;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* constructor:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Encode the retrieved graph.  Role names that appear in user assignments but
+     * not in the tenant's role list are added to the role dictionary.
+     */
+    private SKTenantSnapshot(String tenant, List<String> userNames, List<String> roleNames,
+                             Map<String, Fetched> userRoles, Map<String, Fetched> rolePerms)
+    {
+        _tenant = tenant;
+        _createdMillis = System.currentTimeMillis();
+
+        // Users.
+        _userNames = userNames.toArray(new String[0]);
+        _userIndex = index(_userNames);
+
+        // Roles, including any that only appear in assignments.
+        var roleIndex = new LinkedHashMap<String, Integer>();
+        for (var role : roleNames) roleIndex.putIfAbsent(role, roleIndex.size());
+        for (var fetched : userRoles.values())
+            for (var role : fetched.names) roleIndex.putIfAbsent(role, roleIndex.size());
+        _roleNames = roleIndex.keySet().toArray(new String[0]);
+        _roleIndex = Collections.unmodifiableMap(new HashMap<>(roleIndex));
+
+        // Role assignments and their inverse.
+        _userRoles = new BitSet[_userNames.length];
+        _roleUsers = new BitSet[_roleNames.length];
+        _userFetchedMillis = new long[_userNames.length];
+        _userLoaded = new BitSet(_userNames.length);
+        for (int r = 0; r < _roleUsers.length; r++) _roleUsers[r] = new BitSet();
+        for (int u = 0; u < _userNames.length; u++) {
+            var bits = new BitSet(_roleNames.length);
+            var fetched = userRoles.get(_userNames[u]);
+            if (fetched != null) {
+                for (var role : fetched.names) {
+                    int r = roleIndex.get(role);
+                    bits.set(r);
+                    _roleUsers[r].set(u);
+                }
+                _userFetchedMillis[u] = fetched.fetchedMillis;
+                _userLoaded.set(u);
+            }
+            _userRoles[u] = bits;
+        }
+
+        // Role permissions.
+        var permIndex = new LinkedHashMap<String, Integer>();
+        _rolePerms = new int[_roleNames.length][];
+        _roleFetchedMillis = new long[_roleNames.length];
+        _roleLoaded = new BitSet(_roleNames.length);
+        for (int r = 0; r < _roleNames.length; r++) {
+            var fetched = rolePerms.get(_roleNames[r]);
+            if (fetched == null) {_rolePerms[r] = new int[0]; continue;}
+            var perms = new int[fetched.names.size()];
+            int i = 0;
+            for (var perm : fetched.names) {
+                Integer p = permIndex.putIfAbsent(perm, permIndex.size());
+                perms[i++] = p == null ? permIndex.size() - 1 : p;
+            }
+            Arrays.sort(perms);
+            _rolePerms[r] = perms;
+            _roleFetchedMillis[r] = fetched.fetchedMillis;
+            _roleLoaded.set(r);
+        }
+        _permNames = permIndex.keySet().toArray(new String[0]);
+    }
+
+    /* **************************************************************************** */
+    /*                            Public Static Methods                             */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* build:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Build a snapshot using the default concurrency. */
+    public static SKTenantSnapshot build(SKClient skClient, String tenant)
+     throws TapisClientException
+    {
+        return build(skClient, tenant, SKClient.DEFAULT_BULK_CONCURRENCY);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* build:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve a tenant's complete authorization graph.
+     *
+     * @param skClient the client used to retrieve the graph
+     * @param tenant the tenant
+     * @param maxConcurrency the maximum number of outstanding requests
+     * @return the new snapshot
+     * @throws TapisClientException if any part of the graph cannot be retrieved
+     */
+    public static SKTenantSnapshot build(SKClient skClient, String tenant, int maxConcurrency)
+     throws TapisClientException
+    {
+        return load(skClient, tenant, null, u -> true, r -> true, maxConcurrency);
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* refresh:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Create a new snapshot that retrieves data only for users and roles that are
+     * new or whose data is older than staleMillis.  A staleMillis value of 0
+     * reloads everything.
+     *
+     * @param skClient the client used to retrieve the graph
+     * @param staleMillis the age at which retrieved data is reloaded
+     * @param maxConcurrency the maximum number of outstanding requests
+     * @return the new snapshot
+     * @throws TapisClientException if any part of the graph cannot be retrieved
+     */
+    public SKTenantSnapshot refresh(SKClient skClient, long staleMillis, int maxConcurrency)
+     throws TapisClientException
+    {
+        long cutoff = System.currentTimeMillis() - staleMillis;
+        return load(skClient, _tenant, this,
+                    u -> getUserFetchedMillis(u) <= cutoff,
+                    r -> getRoleFetchedMillis(r) <= cutoff,
+                    maxConcurrency);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* refresh:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Create a new snapshot that retrieves data only for new users and roles and
+     * for the specified users and roles, such as those known to have changed.
+     *
+     * @param skClient the client used to retrieve the graph
+     * @param users users whose roles are reloaded, can be null
+     * @param roles roles whose permissions are reloaded, can be null
+     * @param maxConcurrency the maximum number of outstanding requests
+     * @return the new snapshot
+     * @throws TapisClientException if any part of the graph cannot be retrieved
+     */
+    public SKTenantSnapshot refresh(SKClient skClient, Collection<String> users,
+                                    Collection<String> roles, int maxConcurrency)
+     throws TapisClientException
+    {
+        var userSet = users == null ? Collections.<String>emptySet() : new HashSet<>(users);
+        var roleSet = roles == null ? Collections.<String>emptySet() : new HashSet<>(roles);
+        return load(skClient, _tenant, this, userSet::contains, roleSet::contains,
+                    maxConcurrency);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRole:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether a user has been assigned a role directly or transitively.
+     * Unknown users and roles result in false.
+     */
+    public boolean hasRole(String user, String roleName)
+    {
+        var roles = getRoleBits(user);
+        Integer r = _roleIndex.get(roleName);
+        return roles != null && r != null && roles.get(r);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRoleAny:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public boolean hasRoleAny(String user, String[] roleNames)
+    {
+        var roles = getRoleBits(user);
+        if (roles == null || roleNames == null) return false;
+        for (var roleName : roleNames) {
+            Integer r = _roleIndex.get(roleName);
+            if (r != null && roles.get(r)) return true;
+        }
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasRoleAll:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public boolean hasRoleAll(String user, String[] roleNames)
+    {
+        var roles = getRoleBits(user);
+        if (roles == null || roleNames == null || roleNames.length == 0) return false;
+        for (var roleName : roleNames) {
+            Integer r = _roleIndex.get(roleName);
+            if (r == null || !roles.get(r)) return false;
+        }
+        return true;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUserRoles:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the roles assigned to a user directly or transitively.
+     *
+     * @return the role names, empty if the user is unknown
+     */
+    public List<String> getUserRoles(String user)
+    {
+        var roles = getRoleBits(user);
+        if (roles == null) return Collections.emptyList();
+        var list = new ArrayList<String>(roles.cardinality());
+        for (int r = roles.nextSetBit(0); r >= 0; r = roles.nextSetBit(r + 1))
+            list.add(_roleNames[r]);
+        return list;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getUsersWithRole:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the users assigned a role directly or transitively.
+     *
+     * @return the user names, empty if the role is unknown
+     */
+    public List<String> getUsersWithRole(String roleName)
+    {
+        Integer r = _roleIndex.get(roleName);
+        if (r == null) return Collections.emptyList();
+        var users = _roleUsers[r];
+        var list = new ArrayList<String>(users.cardinality());
+        for (int u = users.nextSetBit(0); u >= 0; u = users.nextSetBit(u + 1))
+            list.add(_userNames[u]);
+        return list;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRolePermissions:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the permissions of a role, including those of its child roles.
+     *
+     * @return the permissions, empty if the role is unknown
+     */
+    public List<String> getRolePermissions(String roleName)
+    {
+        Integer r = _roleIndex.get(roleName);
+        if (r == null) return Collections.emptyList();
+        var perms = _rolePerms[r];
+        var list = new ArrayList<String>(perms.length);
+        for (int p : perms) list.add(_permNames[p]);
+        return list;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public String getTenant() {return _tenant;}
+    public long getCreatedMillis() {return _createdMillis;}
+    public List<String> getUserNames() {return Collections.unmodifiableList(Arrays.asList(_userNames));}
+    public List<String> getRoleNames() {return Collections.unmodifiableList(Arrays.asList(_roleNames));}
+    public int getUserCount() {return _userNames.length;}
+    public int getRoleCount() {return _roleNames.length;}
+    public int getPermissionCount() {return _permNames.length;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* load:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Retrieve the tenant's user and role names and then the roles of each user and
+     * the permissions of each role, reusing the previous snapshot's data for users
+     * and roles that are not selected for reload.
+     */
+    private static SKTenantSnapshot load(SKClient skClient, String tenant,
+                                         SKTenantSnapshot previous,
+                                         Predicate<String> reloadUser,
+                                         Predicate<String> reloadRole,
+                                         int maxConcurrency)
+     throws TapisClientException
+    {
+        // Get the current names concurrently.
+        var asyncClient = skClient.getAsyncClient();
+        var userNamesFuture = asyncClient.getUserNames(tenant);
+        var roleNamesFuture = asyncClient.getRoleNames(tenant);
+        var userNames = join(userNamesFuture);
+        var roleNames = join(roleNamesFuture);
+
+        // Reuse what we can.
+        var userRoles = new HashMap<String, Fetched>(2 * userNames.size());
+        var usersToFetch = new ArrayList<String>();
+        for (var user : userNames)
+            if (previous == null || !previous.isUserLoaded(user) || reloadUser.test(user))
+                usersToFetch.add(user);
+            else userRoles.put(user, new Fetched(previous.getUserRoles(user),
+                                                 previous.getUserFetchedMillis(user)));
+
+        var rolePerms = new HashMap<String, Fetched>(2 * roleNames.size());
+        var rolesToFetch = new ArrayList<String>();
+        for (var role : roleNames)
+            if (previous == null || !previous.isRoleLoaded(role) || reloadRole.test(role))
+                rolesToFetch.add(role);
+            else rolePerms.put(role, new Fetched(previous.getRolePermissions(role),
+                                                 previous.getRoleFetchedMillis(role)));
+
+        // Retrieve the rest.
+        var permits = new Semaphore(Math.max(1, maxConcurrency));
+        var userFutures = fetchAll(usersToFetch, permits,
+                                   user -> asyncClient.getUserRoles(tenant, user));
+        var roleFutures = fetchAll(rolesToFetch, permits,
+                                   role -> asyncClient.getRolePermissions(tenant, role, false));
+        try {
+            for (var entry : userFutures.entrySet())
+                userRoles.put(entry.getKey(), join(entry.getValue()));
+            for (var entry : roleFutures.entrySet())
+                rolePerms.put(entry.getKey(), join(entry.getValue()));
+        }
+        catch (TapisClientException e) {
+            // A partial snapshot is useless, so abandon outstanding requests.
+            for (var future : userFutures.values()) future.cancel(true);
+            for (var future : roleFutures.values()) future.cancel(true);
+            throw e;
+        }
+
+        return new SKTenantSnapshot(tenant, userNames, roleNames, userRoles, rolePerms);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* fetchAll:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Issue one request per name without exceeding the permits. */
+    private static Map<String, CompletableFuture<Fetched>> fetchAll(
+        List<String> names, Semaphore permits,
+        Function<String, CompletableFuture<List<String>>> request)
+     throws TapisClientException
+    {
+        var futures = new LinkedHashMap<String, CompletableFuture<Fetched>>(2 * names.size());
+        try {
+            for (var name : names) {
+                permits.acquire();
+                var future = request.apply(name);
+                future.whenComplete((r, t) -> permits.release());
+                futures.put(name, future.thenApply(list -> new Fetched(list, System.currentTimeMillis())));
+            }
+        }
+        catch (InterruptedException e) {
+            for (var future : futures.values()) future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TapisClientException("Snapshot retrieval interrupted.", e);
+        }
+        return futures;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* join:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Wait for a future and convert its failure into a TapisClientException. */
+    private static <T> T join(CompletableFuture<T> future)
+     throws TapisClientException
+    {
+        try {return future.get();}
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TapisClientException("Snapshot retrieval interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null)
+                cause = cause.getCause();
+            if (cause instanceof TapisClientException) throw (TapisClientException) cause;
+            if (cause instanceof Exception)
+                throw Utils.makeTapisClientException(-1, null, (Exception) cause);
+            throw Utils.makeTapisClientException(-1, null, e);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* index:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    private static Map<String, Integer> index(String[] names)
+    {
+        var map = new HashMap<String, Integer>(2 * names.length);
+        for (int i = 0; i < names.length; i++) map.putIfAbsent(names[i], i);
+        return Collections.unmodifiableMap(map);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRoleBits:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    private BitSet getRoleBits(String user)
+    {
+        Integer u = _userIndex.get(user);
+        return u == null ? null : _userRoles[u];
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* loaded and fetched times:                                                    */
+    /* ---------------------------------------------------------------------------- */
+    private boolean isUserLoaded(String user)
+    {
+        Integer u = _userIndex.get(user);
+        return u != null && _userLoaded.get(u);
+    }
+
+    private boolean isRoleLoaded(String role)
+    {
+        Integer r = _roleIndex.get(role);
+        return r != null && _roleLoaded.get(r);
+    }
+
+    private long getUserFetchedMillis(String user)
+    {
+        Integer u = _userIndex.get(user);
+        return u == null ? 0 : _userFetchedMillis[u];
+    }
+
+    private long getRoleFetchedMillis(String role)
+    {
+        Integer r = _roleIndex.get(role);
+        return r == null ? 0 : _roleFetchedMillis[r];
+    }
+
+    /* **************************************************************************** */
+    /*                                 Nested Classes                               */
+    /* **************************************************************************** */
+    // Retrieved names and when they were retrieved.
+    private static final class Fetched
+    {
+        private final List<String> names;
+        private final long         fetchedMillis;
+
+        private Fetched(List<String> names, long fetchedMillis)
+        {
+            this.names         = names == null ? Collections.<String>emptyList() : names;
+            this.fetchedMillis = fetchedMillis;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.utexas.tacc.tapis.security.client.model;
+
+import java.util.Objects;
+
+/** Immutable (tenant, user, permSpec) triple used as input to, and as the key of
+ * the result map returned by, SKClient.isPermittedBulk().  Two checks are equal
+ * when all three fields are equal, which allows duplicate checks in a batch to be
+ * issued only once.
+ */
+public final class SKAuthzCheck
+{
+    // Fields.
+    private final String tenant;
+    private final String user;
+    private final String permSpec;
+
+    // Constructor.
+    public SKAuthzCheck(String tenant, String user, String permSpec)
+    {
+        this.tenant   = tenant;
+        this.user     = user;
+        this.permSpec = permSpec;
+    }
+
+    // Accessors.
+    public String getTenant() {return tenant;}
+    public String getUser() {return user;}
+    public String getPermSpec() {return permSpec;}
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof SKAuthzCheck)) return false;
+        var that = (SKAuthzCheck) obj;
+        return Objects.equals(tenant, that.tenant) &&
+               Objects.equals(user, that.user) &&
+               Objects.equals(permSpec, that.permSpec);
+    }
+
+    @Override
+    public int hashCode() {return Objects.hash(tenant, user, permSpec);}
+
+    @Override
+    public String toString() {return tenant + "/" + user + ": " + permSpec;}
+}
@@ -0,0 +1,37 @@
+package edu.utexas.tacc.tapis.security.client.model;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** The outcome of one check in a bulk authorization request.  Exactly one of the
+ * authorized value or the exception is meaningful:  if the check could not be
+ * completed, isFailed() returns true and getException() returns the exception
+ * that the corresponding single isPermitted() call would have thrown.  A failed
+ * check is never reported as authorized.
+ */
+public final class SKAuthzResult
+{
+    // Fields.
+    private final SKAuthzCheck        check;
+    private final boolean             authorized;
+    private final TapisClientException exception;
+
+    // Constructors.
+    public SKAuthzResult(SKAuthzCheck check, boolean authorized)
+    {
+        this.check      = check;
+        this.authorized = authorized;
+        this.exception  = null;
+    }
+    public SKAuthzResult(SKAuthzCheck check, TapisClientException exception)
+    {
+        this.check      = check;
+        this.authorized = false;
+        this.exception  = exception;
+    }
+
+    // Accessors.
+    public SKAuthzCheck getCheck() {return check;}
+    public boolean isAuthorized() {return authorized;}
+    public boolean isFailed() {return exception != null;}
+    public TapisClientException getException() {return exception;}
+}
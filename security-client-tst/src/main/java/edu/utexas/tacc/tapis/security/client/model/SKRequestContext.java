@@ -0,0 +1,30 @@
+package edu.utexas.tacc.tapis.security.client.model;
+
+/** Immutable set of identity headers that apply to a single SKClient call.  A
+ * service that acts on behalf of many users can use one SKClient configured with
+ * its service JWT and supply a context per call, rather than creating a client per
+ * user.  Null fields do not override the client's default headers.
+ *
+ * See SKClient.withContext().
+ */
+public final class SKRequestContext
+{
+    // Fields.
+    private final String tenant;  // X-Tapis-Tenant value
+    private final String user;    // X-Tapis-User value
+    private final String jwt;     // X-Tapis-Token value
+
+    // Constructors.
+    public SKRequestContext(String tenant, String user) {this(tenant, user, null);}
+    public SKRequestContext(String tenant, String user, String jwt)
+    {
+        this.tenant = tenant;
+        this.user   = user;
+        this.jwt    = jwt;
+    }
+
+    // Accessors.
+    public String getTenant() {return tenant;}
+    public String getUser() {return user;}
+    public String getJwt() {return jwt;}
+}
@@ -0,0 +1,171 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.security.client.SKDecisionCache.CheckType;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+@Test(groups={"unit"})
+public class SKAsyncClientTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "dev";
+    private static final String ENVELOPE = ",\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private MockWebServer _server;
+    private SKClient      _skClient;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        _server = new MockWebServer();
+        _server.start();
+        _skClient = new SKClient(_server.url("/v3").toString(), "jwt");
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testCompletion:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCompletion() throws Exception
+    {
+        var asyncClient = _skClient.getAsyncClient();
+
+        // Futures complete with the same values the synchronous methods return.
+        _server.enqueue(success("{\"names\":[\"role1\",\"role2\"]}"));
+        Assert.assertEquals(asyncClient.getRoleNames(TENANT).get(10, TimeUnit.SECONDS), List.of("role1", "role2"));
+        var request = _server.takeRequest();
+        Assert.assertEquals(request.getMethod(), "GET");
+        Assert.assertEquals(request.getRequestUrl().encodedPath(), "/v3/security/role");
+        Assert.assertEquals(request.getHeader(SKClient.TAPIS_JWT_HEADER), "jwt");
+
+        _server.enqueue(success("{\"isAuthorized\":true}"));
+        Assert.assertTrue(asyncClient.isPermitted(TENANT, "bud", "system:dev:read:s1").get(10, TimeUnit.SECONDS));
+        request = _server.takeRequest();
+        Assert.assertEquals(request.getMethod(), "POST");
+        Assert.assertTrue(request.getBody().readUtf8().contains("\"permSpec\":\"system:dev:read:s1\""));
+
+        _server.enqueue(success("{\"url\":\"http://localhost/v3/security/role/role3\"}"));
+        Assert.assertEquals(asyncClient.createRole(TENANT, "role3", "a role").get(10, TimeUnit.SECONDS),
+                            "http://localhost/v3/security/role/role3");
+
+        // Missing values take the synchronous methods' defaults.
+        _server.enqueue(success("{}"));
+        Assert.assertEquals(asyncClient.grantUserRole(TENANT, "bud", "role3").get(10, TimeUnit.SECONDS),
+                            Integer.valueOf(0));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailure:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailure() throws Exception
+    {
+        var asyncClient = _skClient.getAsyncClient();
+
+        // Error responses complete the future with a TapisClientException.
+        _server.enqueue(new MockResponse().setResponseCode(404)
+                            .setBody("{\"status\":\"error\",\"message\":\"Role not found.\",\"version\":\"1.0\"}"));
+        var e = getFailure(asyncClient.getRoleByName(TENANT, "nosuchrole"));
+        Assert.assertEquals(e.getCode(), 404);
+        Assert.assertEquals(e.getMessage(), "Role not found.");
+        Assert.assertEquals(e.getCategory(), TapisClientException.Category.NOT_FOUND);
+
+        _server.enqueue(new MockResponse().setResponseCode(500).setBody("Internal error"));
+        e = getFailure(asyncClient.isPermitted(TENANT, "bud", "system:dev:read:s1"));
+        Assert.assertEquals(e.getCode(), 500);
+        Assert.assertEquals(e.getCategory(), TapisClientException.Category.SERVER);
+
+        // A result that cannot be extracted is a failure too.
+        _server.enqueue(success("null"));
+        e = getFailure(asyncClient.getRoleNames(TENANT));
+        Assert.assertEquals(e.getCode(), -1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testInvalidation:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testInvalidation() throws Exception
+    {
+        var cache = new SKDecisionCache();
+        _skClient.setDecisionCache(cache);
+        var asyncClient = _skClient.getAsyncClient();
+
+        // A completed update has removed the tenant's decisions.  Keys are
+        // created after each invalidation since they record its generation.
+        var bud = cache.newKey(CheckType.HAS_ROLE, TENANT, "bud", "role1");
+        var other = cache.newKey(CheckType.HAS_ROLE, "other", "bud", "role1");
+        cache.put(bud, false);
+        cache.put(other, false);
+        _server.enqueue(success("{\"changes\":1}"));
+        Assert.assertEquals(asyncClient.grantUserRole(TENANT, "bud", "role1").get(10, TimeUnit.SECONDS),
+                            Integer.valueOf(1));
+        Assert.assertNull(cache.get(bud));
+        Assert.assertEquals(cache.get(other), Boolean.FALSE);
+
+        // So has a failed one, since it may have been applied.
+        bud = cache.newKey(CheckType.HAS_ROLE, TENANT, "bud", "role1");
+        cache.put(bud, true);
+        Assert.assertEquals(cache.get(bud), Boolean.TRUE);
+        _server.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        getFailure(asyncClient.deleteRoleByName(TENANT, "role1"));
+        Assert.assertNull(cache.get(bud));
+
+        // Reads leave the cache alone.
+        bud = cache.newKey(CheckType.HAS_ROLE, TENANT, "bud", "role1");
+        cache.put(bud, true);
+        _server.enqueue(success("{\"names\":[\"role1\"]}"));
+        asyncClient.getUserRoles(TENANT, "bud").get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(cache.get(bud), Boolean.TRUE);
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** A successful response with the given result. */
+    private static MockResponse success(String result)
+    {
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                   .setBody("{\"result\":" + result + ENVELOPE);
+    }
+
+    /** The TapisClientException that completed a future. */
+    private static TapisClientException getFailure(Future<?> future) throws Exception
+    {
+        try {future.get(10, TimeUnit.SECONDS);}
+        catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TapisClientException, String.valueOf(e.getCause()));
+            return (TapisClientException) e.getCause();
+        }
+        Assert.fail("The future completed normally.");
+        return null;
+    }
+}
@@ -0,0 +1,153 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonParser;
+
+import edu.utexas.tacc.tapis.security.client.model.SKAuthzCheck;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class SKClientBulkTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "dev";
+
+    // The maximum number of concurrent requests in the bulk call.
+    private static final int MAX_CONCURRENCY = 4;
+
+    // How long the server takes to answer each check.
+    private static final long DELAY_MILLIS = 50;
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The number of requests received for each check.
+    private final Map<String, AtomicInteger> _requests = new ConcurrentHashMap<>();
+
+    // The number of requests in progress and its maximum.
+    private final AtomicInteger _inFlight    = new AtomicInteger();
+    private final AtomicInteger _maxInFlight = new AtomicInteger();
+
+    private MockWebServer _server;
+    private SKClient      _skClient;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        _requests.clear();
+        _inFlight.set(0);
+        _maxInFlight.set(0);
+        _server = new MockWebServer();
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                int inFlight = _inFlight.incrementAndGet();
+                _maxInFlight.accumulateAndGet(inFlight, Math::max);
+                try {Thread.sleep(DELAY_MILLIS); return answer(request);}
+                finally {_inFlight.decrementAndGet();}
+            }
+        });
+        _server.start();
+        _skClient = new SKClient(_server.url("/v3").toString(), "jwt");
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testBulk:                                                              */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBulk() throws Exception
+    {
+        // Each distinct check appears twice, and some of them fail.
+        var distinct = new ArrayList<SKAuthzCheck>();
+        for (int i = 0; i < 20; i++) {
+            String perm = i % 7 == 3 ? "fail:" + i : i % 2 == 0 ? "system:dev:read:s" + i : "deny:" + i;
+            distinct.add(new SKAuthzCheck(TENANT, "user" + (i % 3), perm));
+        }
+        var checks = new ArrayList<SKAuthzCheck>(distinct);
+        for (var check : distinct)
+            checks.add(new SKAuthzCheck(check.getTenant(), check.getUser(), check.getPermSpec()));
+
+        var results = _skClient.isPermittedBulk(checks, MAX_CONCURRENCY);
+
+        // One request was sent for each distinct check, at most four at a time.
+        Assert.assertEquals(_server.getRequestCount(), distinct.size());
+        Assert.assertEquals(_requests.size(), distinct.size());
+        for (var count : _requests.values()) Assert.assertEquals(count.get(), 1);
+        Assert.assertTrue(_maxInFlight.get() <= MAX_CONCURRENCY, "max in flight = " + _maxInFlight.get());
+        Assert.assertTrue(_maxInFlight.get() > 1, "max in flight = " + _maxInFlight.get());
+
+        // The results are in first-seen order, and failures are recorded per check.
+        Assert.assertEquals(new ArrayList<>(results.keySet()), distinct);
+        for (var check : distinct) {
+            var result = results.get(check);
+            Assert.assertSame(result.getCheck(), check);
+            if (check.getPermSpec().startsWith("fail:")) {
+                Assert.assertTrue(result.isFailed(), check.toString());
+                Assert.assertFalse(result.isAuthorized());
+                Assert.assertEquals(result.getException().getCode(), 500);
+            }
+            else {
+                Assert.assertFalse(result.isFailed(), check.toString());
+                Assert.assertEquals(result.isAuthorized(), check.getPermSpec().startsWith("system:"));
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testEmpty:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testEmpty() throws Exception
+    {
+        Assert.assertTrue(_skClient.isPermittedBulk(List.of()).isEmpty());
+        Assert.assertEquals(_server.getRequestCount(), 0);
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Answer an isPermitted request according to its permission's prefix. */
+    private MockResponse answer(RecordedRequest request)
+    {
+        if (!request.getRequestUrl().encodedPath().endsWith("/security/user/isPermitted"))
+            return new MockResponse().setResponseCode(404).setBody("{}");
+        var body = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        String user = body.get("user").getAsString();
+        String perm = body.get("permSpec").getAsString();
+        _requests.computeIfAbsent(user + " " + perm, k -> new AtomicInteger()).incrementAndGet();
+
+        if (perm.startsWith("fail:"))
+            return new MockResponse().setResponseCode(500).setBody("{\"status\":\"error\",\"message\":\"failed\"}");
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                   .setBody("{\"result\":{\"isAuthorized\":" + perm.startsWith("system:") +
+                            "},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}");
+    }
+}
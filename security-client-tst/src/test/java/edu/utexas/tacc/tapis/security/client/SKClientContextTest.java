@@ -0,0 +1,160 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.security.client.model.SKRequestContext;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class SKClientContextTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT  = "dev";
+    private static final String SERVICE = "service-jwt";
+
+    // The calls made by each thread.
+    private static final int CALLS = 20;
+
+    // The value echoed for a missing header.
+    private static final String NONE = "-";
+
+    // The user whose requests are refused.
+    private static final String REFUSED = "refused";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private MockWebServer   _server;
+    private SKClient        _skClient;
+    private ExecutorService _executor;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        // Echo each request's identity headers as its result.
+        _server = new MockWebServer();
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {return echo(request);}
+        });
+        _server.start();
+        _skClient = new SKClient(_server.url("/v3").toString(), SERVICE);
+        _executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        _executor.shutdownNow();
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testConcurrentContexts:                                                */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testConcurrentContexts() throws Exception
+    {
+        // Two threads call in lock step, each on behalf of its own user.
+        var barrier = new CyclicBarrier(2);
+        var contexts = List.of(new SKRequestContext(TENANT, "bud", "bud-jwt"),
+                               new SKRequestContext("other", "jane", "jane-jwt"));
+        var results = new ArrayList<Future<Void>>();
+        for (var context : contexts)
+            results.add(_executor.submit(() -> {
+                var expected = List.of(context.getJwt(), context.getTenant(), context.getUser());
+                for (int i = 0; i < CALLS; i++) {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    Assert.assertEquals(_skClient.withContext(context, c -> c.getUserNames(TENANT)), expected);
+
+                    // The context is gone once the call returns.
+                    Assert.assertEquals(_skClient.getUserNames(TENANT), List.of(SERVICE, NONE, NONE));
+                }
+                return null;
+            }));
+        for (var result : results) result.get(30, TimeUnit.SECONDS);
+        Assert.assertEquals(_server.getRequestCount(), 4 * CALLS);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testPartialContext:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testPartialContext() throws Exception
+    {
+        // Missing values keep the client's headers, and nested contexts are
+        // unwound in order.
+        var outer = new SKRequestContext(TENANT, "bud");
+        var inner = new SKRequestContext(null, "jane", "jane-jwt");
+        var names = _skClient.withContext(outer, c -> {
+            Assert.assertEquals(c.withContext(inner, c2 -> c2.getUserNames(TENANT)),
+                                List.of("jane-jwt", NONE, "jane"));
+            return c.getUserNames(TENANT);
+        });
+        Assert.assertEquals(names, List.of(SERVICE, TENANT, "bud"));
+        Assert.assertEquals(_skClient.getUserNames(TENANT), List.of(SERVICE, NONE, NONE));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailure:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailure() throws Exception
+    {
+        // The context is cleared when the call throws.
+        var context = new SKRequestContext(TENANT, REFUSED, "refused-jwt");
+        var e = Assert.expectThrows(TapisClientException.class,
+                                    () -> _skClient.withContext(context, c -> c.getUserNames(TENANT)));
+        Assert.assertEquals(e.getCode(), 403);
+        Assert.assertEquals(_skClient.getUserNames(TENANT), List.of(SERVICE, NONE, NONE));
+
+        // Including unchecked exceptions thrown by the caller's code.
+        Assert.assertThrows(IllegalStateException.class, () -> _skClient.withContext(context, c -> {
+            throw new IllegalStateException("caller failure");
+        }));
+        Assert.assertEquals(_skClient.getUserNames(TENANT), List.of(SERVICE, NONE, NONE));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Answer with the request's token, tenant and user headers. */
+    private static MockResponse echo(RecordedRequest request)
+    {
+        String user = header(request, SKClient.TAPIS_JWT_USER);
+        if (REFUSED.equals(user)) return new MockResponse().setResponseCode(403).setBody("{}");
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                   .setBody("{\"result\":{\"names\":[\"" + header(request, SKClient.TAPIS_JWT_HEADER) +
+                            "\",\"" + header(request, SKClient.TAPIS_JWT_TENANT) + "\",\"" + user +
+                            "\"]},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}");
+    }
+
+    private static String header(RecordedRequest request, String name)
+    {
+        String value = request.getHeader(name);
+        return value == null ? NONE : value;
+    }
+}
@@ -0,0 +1,138 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisTokenSupplier;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class SKClientTokenSupplierTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "dev";
+    private static final String NAMES =
+        "{\"result\":{\"names\":[\"role1\",\"role2\"]},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}";
+
+    // The number of concurrent callers.
+    private static final int CALLERS = 8;
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private MockWebServer   _server;
+    private ExecutorService _executor;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        // Reject the expired token after a delay, so that concurrent callers
+        // all send it before any of them renews it.
+        _server = new MockWebServer();
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                if (!Supplier.RENEWED.equals(request.getHeader(SKClient.TAPIS_JWT_HEADER)))
+                    return new MockResponse().setResponseCode(401).setBody("{}")
+                               .setHeadersDelay(200, TimeUnit.MILLISECONDS);
+                return new MockResponse().setBody(NAMES).setHeader("Content-Type", "application/json");
+            }
+        });
+        _server.start();
+        _executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        _executor.shutdownNow();
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testConcurrentRenewal:                                                 */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testConcurrentRenewal() throws Exception
+    {
+        var supplier = new Supplier();
+        var skClient = new SKClient(_server.url("/v3").toString(), null).setTokenSupplier(supplier);
+
+        // Call concurrently with the expired token.
+        var start = new CountDownLatch(1);
+        var results = new ArrayList<Future<List<String>>>();
+        for (int i = 0; i < CALLERS; i++)
+            results.add(_executor.submit(() -> {start.await(); return skClient.getRoleNames(TENANT);}));
+        start.countDown();
+        for (var result : results) Assert.assertEquals(result.get(10, TimeUnit.SECONDS), List.of("role1", "role2"));
+
+        // The 401s caused a single renewal.
+        Assert.assertEquals(supplier.renewals.get(), 1);
+        Assert.assertEquals(_server.getRequestCount(), 2 * CALLERS);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testReplaceSupplier:                                                   */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testReplaceSupplier() throws Exception
+    {
+        // The second supplier replaces the first rather than being added to it.
+        var first = new Supplier();
+        var second = new Supplier();
+        var skClient = new SKClient(_server.url("/v3").toString(), null)
+                           .setTokenSupplier(first).setTokenSupplier(second);
+        Assert.assertEquals(skClient.getRoleNames(TENANT), List.of("role1", "role2"));
+        Assert.assertEquals(first.gets.get(), 0);
+        Assert.assertEquals(second.renewals.get(), 1);
+    }
+
+    /* ********************************************************************** */
+    /*                                Supplier                                */
+    /* ********************************************************************** */
+    /** Supplies an expired token until it is renewed. */
+    private static final class Supplier
+     implements TapisTokenSupplier
+    {
+        private static final String EXPIRED = "expired";
+        private static final String RENEWED = "renewed";
+
+        private final AtomicInteger gets     = new AtomicInteger();
+        private final AtomicInteger renewals = new AtomicInteger();
+        private volatile String     token    = EXPIRED;
+
+        @Override
+        public String getToken() {gets.incrementAndGet(); return token;}
+
+        @Override
+        public String renewToken()
+        {
+            renewals.incrementAndGet();
+            token = RENEWED;
+            return token;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.security.client.SKDecisionCache.CheckType;
+
+@Test(groups={"unit"})
+public class SKDecisionCacheTest
+{
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testHits:                                                              */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testHits()
+    {
+        var cache = new SKDecisionCache();
+        var key = cache.newKey(CheckType.IS_PERMITTED, "dev", "bud", "system:dev:read:sys1");
+        Assert.assertNull(cache.get(key));
+        cache.put(key, true);
+
+        // Equal keys hit, keys that differ in any part miss.
+        Assert.assertEquals(cache.get(cache.newKey(CheckType.IS_PERMITTED, "dev", "bud",
+                                                   "system:dev:read:sys1")), Boolean.TRUE);
+        Assert.assertNull(cache.get(cache.newKey(CheckType.IS_PERMITTED_ANY, "dev", "bud",
+                                                 "system:dev:read:sys1")));
+        Assert.assertNull(cache.get(cache.newKey(CheckType.IS_PERMITTED, "dev", "jane",
+                                                 "system:dev:read:sys1")));
+        Assert.assertNull(cache.get(cache.newKey(CheckType.IS_PERMITTED, "dev", "bud",
+                                                 "system:dev:read:sys2")));
+
+        // Negative decisions are cached too.
+        var roleKey = cache.newKey(CheckType.HAS_ROLE_ALL, "dev", "bud", "role1", "role2");
+        cache.put(roleKey, false);
+        Assert.assertEquals(cache.get(roleKey), Boolean.FALSE);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.getHitCount(), 2);
+        Assert.assertEquals(cache.getMissCount(), 4);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testExpiration:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testExpiration() throws InterruptedException
+    {
+        // Negative decisions expire first.
+        var cache = new SKDecisionCache(100, 300, 50);
+        var granted = cache.newKey(CheckType.HAS_ROLE, "dev", "bud", "admin");
+        var denied = cache.newKey(CheckType.HAS_ROLE, "dev", "jane", "admin");
+        cache.put(granted, true);
+        cache.put(denied, false);
+        Thread.sleep(100);
+        Assert.assertEquals(cache.get(granted), Boolean.TRUE);
+        Assert.assertNull(cache.get(denied));
+        Thread.sleep(300);
+        Assert.assertNull(cache.get(granted));
+        Assert.assertEquals(cache.size(), 0);
+
+        // A time-to-live of 0 disables caching.
+        var positiveOnly = new SKDecisionCache(100, 60_000, 0);
+        positiveOnly.put(denied, false);
+        Assert.assertEquals(positiveOnly.size(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testInvalidation:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testInvalidation()
+    {
+        var cache = new SKDecisionCache();
+        var bud = cache.newKey(CheckType.IS_PERMITTED, "dev", "bud", "meta:dev");
+        var jane = cache.newKey(CheckType.IS_PERMITTED, "dev", "jane", "meta:dev");
+        var other = cache.newKey(CheckType.IS_PERMITTED, "other", "bud", "meta:other");
+        cache.put(bud, true);
+        cache.put(jane, true);
+        cache.put(other, true);
+
+        // A user's decisions, then a tenant's decisions, then all of them.
+        cache.invalidateUser("dev", "bud");
+        Assert.assertNull(cache.get(bud));
+        Assert.assertEquals(cache.get(jane), Boolean.TRUE);
+        cache.invalidateTenant("dev");
+        Assert.assertNull(cache.get(jane));
+        Assert.assertEquals(cache.get(other), Boolean.TRUE);
+        cache.invalidateAll();
+        Assert.assertEquals(cache.size(), 0);
+
+        // Decisions requested before an invalidation are not cached.
+        var inFlight = cache.newKey(CheckType.IS_PERMITTED, "dev", "bud", "meta:dev");
+        cache.invalidateUser("dev", "jane");
+        cache.put(inFlight, true);
+        Assert.assertNull(cache.get(inFlight));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testEviction:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testEviction()
+    {
+        // The least recently used decision is evicted.
+        var cache = new SKDecisionCache(2, 60_000, 60_000);
+        var first = cache.newKey(CheckType.HAS_ROLE, "dev", "bud", "role1");
+        var second = cache.newKey(CheckType.HAS_ROLE, "dev", "bud", "role2");
+        var third = cache.newKey(CheckType.HAS_ROLE, "dev", "bud", "role3");
+        cache.put(first, true);
+        cache.put(second, true);
+        cache.get(first);
+        cache.put(third, true);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.getEvictionCount(), 1);
+        Assert.assertNull(cache.get(second));
+        Assert.assertEquals(cache.get(first), Boolean.TRUE);
+    }
+}
@@ -0,0 +1,263 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class SKLocalAuthorizerTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "dev";
+    private static final String READ   = "system:dev:read:s1";
+    private static final String WRITE  = "system:dev:write:s1";
+
+    // A refresh interval long enough that only explicit refreshes happen.
+    private static final long NO_REFRESH_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The permissions returned for each user.
+    private final Map<String, List<String>> _perms = new ConcurrentHashMap<>();
+
+    // When set, the next request waits for the latch before it is answered.
+    private final AtomicReference<CountDownLatch> _gate = new AtomicReference<>();
+
+    // Counted down when a request reaches the gate.
+    private volatile CountDownLatch _arrived;
+
+    // Delay before each response, and whether requests fail.
+    private volatile long    _delayMillis;
+    private volatile boolean _failing;
+
+    private MockWebServer     _server;
+    private SKClient          _skClient;
+    private SKLocalAuthorizer _authorizer;
+    private ExecutorService   _executor;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        _perms.clear();
+        _perms.put("bud", List.of(READ));
+        _gate.set(null);
+        _arrived = new CountDownLatch(1);
+        _delayMillis = 0;
+        _failing = false;
+
+        _server = new MockWebServer();
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                return answer(request);
+            }
+        });
+        _server.start();
+        _skClient = new SKClient(_server.url("/v3").toString(), "jwt");
+        _executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        if (_authorizer != null) _authorizer.close();
+        var gate = _gate.getAndSet(null);
+        if (gate != null) gate.countDown();
+        _executor.shutdownNow();
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testSingleFlight:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testSingleFlight() throws Exception
+    {
+        // Concurrent first checks for a user share one slow load.
+        _delayMillis = 200;
+        _authorizer = new SKLocalAuthorizer(_skClient, NO_REFRESH_MILLIS);
+        var results = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < 8; i++)
+            results.add(_executor.submit(() -> _authorizer.isPermitted(TENANT, "bud", READ)));
+        for (var result : results) Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(_server.getRequestCount(), 1);
+        Assert.assertEquals(_authorizer.getLoadCount(), 1);
+
+        // Later checks are answered locally.
+        Assert.assertFalse(_authorizer.isPermitted(TENANT, "bud", WRITE));
+        Assert.assertTrue(_authorizer.isPermittedAny(TENANT, "bud", new String[] {WRITE, READ}));
+        Assert.assertFalse(_authorizer.isPermittedAll(TENANT, "bud", new String[] {WRITE, READ}));
+        Assert.assertEquals(_server.getRequestCount(), 1);
+        Assert.assertEquals(_authorizer.getUserCount(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testBackgroundRefresh:                                                 */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBackgroundRefresh() throws Exception
+    {
+        // A grant made elsewhere is observed after a refresh period.
+        _authorizer = new SKLocalAuthorizer(_skClient, 50);
+        Assert.assertFalse(_authorizer.isPermitted(TENANT, "bud", WRITE));
+        _perms.put("bud", List.of(READ, WRITE));
+        waitFor(() -> isPermitted("bud", WRITE));
+        Assert.assertTrue(_authorizer.getLoadCount() >= 2);
+        Assert.assertEquals(_authorizer.getRefreshFailureCount(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testIdleEviction:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testIdleEviction() throws Exception
+    {
+        // Users that are not checked are dropped after the idle periods.
+        _authorizer = new SKLocalAuthorizer(_skClient, 20);
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", READ));
+        Assert.assertEquals(_authorizer.getUserCount(), 1);
+        waitFor(() -> _authorizer.getUserCount() == 0);
+
+        // And are loaded again on their next check.
+        _authorizer.close();
+        int requests = _server.getRequestCount();
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", READ));
+        Assert.assertEquals(_server.getRequestCount(), requests + 1);
+        Assert.assertEquals(_authorizer.getUserCount(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailures:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailures() throws Exception
+    {
+        _authorizer = new SKLocalAuthorizer(_skClient, NO_REFRESH_MILLIS);
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", READ));
+
+        // Failed reloads are counted and keep the previous permissions.
+        _failing = true;
+        _perms.put("bud", List.of());
+        _authorizer.refreshAll();
+        Assert.assertEquals(_authorizer.getRefreshFailureCount(), 1);
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", READ));
+
+        // Explicit refreshes and initial loads report their failures to the caller.
+        var e = Assert.expectThrows(TapisClientException.class, () -> _authorizer.refresh(TENANT, "bud"));
+        Assert.assertEquals(e.getCode(), 500);
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", READ));
+        Assert.assertThrows(TapisClientException.class, () -> _authorizer.isPermitted(TENANT, "jane", READ));
+        Assert.assertEquals(_authorizer.getRefreshFailureCount(), 1);
+
+        // Users whose initial load failed are not reloaded in the background.
+        int requests = _server.getRequestCount();
+        _authorizer.refreshAll();
+        Assert.assertEquals(_server.getRequestCount(), requests + 1);
+        Assert.assertEquals(_authorizer.getRefreshFailureCount(), 2);
+
+        // A later check retries the initial load.
+        _failing = false;
+        _perms.put("jane", List.of(READ));
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "jane", READ));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testStaleReload:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testStaleReload() throws Exception
+    {
+        _authorizer = new SKLocalAuthorizer(_skClient, NO_REFRESH_MILLIS);
+        Assert.assertFalse(_authorizer.isPermitted(TENANT, "bud", WRITE));
+
+        // A background reload obtains the old permissions but is held up.
+        var gate = new CountDownLatch(1);
+        _gate.set(gate);
+        var reload = _executor.submit(() -> _authorizer.refreshAll());
+        Assert.assertTrue(_arrived.await(10, TimeUnit.SECONDS));
+
+        // Meanwhile the user is granted a permission and refreshed.
+        _perms.put("bud", List.of(READ, WRITE));
+        _authorizer.refresh(TENANT, "bud");
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", WRITE));
+
+        // The reload that started first finishes last without undoing the grant.
+        gate.countDown();
+        reload.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(_authorizer.getLoadCount(), 3);
+        Assert.assertTrue(_authorizer.isPermitted(TENANT, "bud", WRITE));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Answer a permissions request with the user's current permissions. */
+    private MockResponse answer(RecordedRequest request) throws InterruptedException
+    {
+        String prefix = "/v3/security/user/perms/";
+        String path = request.getRequestUrl().encodedPath();
+        if (!path.startsWith(prefix)) return new MockResponse().setResponseCode(404).setBody("{}");
+        var perms = _perms.getOrDefault(path.substring(prefix.length()), List.of());
+
+        // The permissions are read before the request waits.
+        var gate = _gate.getAndSet(null);
+        if (gate != null) {
+            _arrived.countDown();
+            gate.await(10, TimeUnit.SECONDS);
+        }
+        if (_delayMillis > 0) Thread.sleep(_delayMillis);
+        if (_failing) return new MockResponse().setResponseCode(500).setBody("{}");
+
+        var names = new StringBuilder();
+        for (var perm : perms) names.append(names.length() == 0 ? "\"" : ",\"").append(perm).append('"');
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                   .setBody("{\"result\":{\"names\":[" + names +
+                            "]},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}");
+    }
+
+    /** Check a permission, treating failures as unauthorized. */
+    private boolean isPermitted(String user, String permSpec)
+    {
+        try {return _authorizer.isPermitted(TENANT, user, permSpec);}
+        catch (TapisClientException e) {return false;}
+    }
+
+    /** Wait up to 5 seconds for a condition. */
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.nanoTime() - deadline < 0, "Condition not met in time.");
+            Thread.sleep(10);
+        }
+    }
+}
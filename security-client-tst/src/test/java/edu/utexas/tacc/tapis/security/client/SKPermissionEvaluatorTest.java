@@ -0,0 +1,120 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups={"unit"})
+public class SKPermissionEvaluatorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Granted permissions used by most tests.
+    private static final List<String> PERMS = Arrays.asList(
+        "system:dev:read:sys1",
+        "system:dev:*:sys2",
+        "files:dev:read,modify:sys3",
+        "meta:dev",
+        "jobs:dev:*:*",
+        "apps:*:execute:app1,app2");
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testExact:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testExact()
+    {
+        var evaluator = new SKPermissionEvaluator(PERMS);
+        Assert.assertEquals(evaluator.size(), PERMS.size());
+        Assert.assertTrue(evaluator.isPermitted("system:dev:read:sys1"));
+        Assert.assertFalse(evaluator.isPermitted("system:dev:modify:sys1"));
+        Assert.assertFalse(evaluator.isPermitted("system:dev:read:sys9"));
+        Assert.assertFalse(evaluator.isPermitted("System:dev:read:sys1"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testWildcards:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testWildcards()
+    {
+        var evaluator = new SKPermissionEvaluator(PERMS);
+        Assert.assertTrue(evaluator.isPermitted("system:dev:modify:sys2"));
+        Assert.assertTrue(evaluator.isPermitted("system:dev:*:sys2"));
+        Assert.assertFalse(evaluator.isPermitted("system:dev:*:sys1"));
+        Assert.assertTrue(evaluator.isPermitted("apps:other:execute:app2"));
+        Assert.assertFalse(evaluator.isPermitted("apps:other:read:app2"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testLengths:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testLengths()
+    {
+        var evaluator = new SKPermissionEvaluator(PERMS);
+
+        // Shorter grants imply all trailing parts.
+        Assert.assertTrue(evaluator.isPermitted("meta:dev:read:db1:coll1"));
+        Assert.assertFalse(evaluator.isPermitted("meta"));
+
+        // Longer grants imply shorter requests only with trailing wildcards.
+        Assert.assertTrue(evaluator.isPermitted("jobs:dev"));
+        Assert.assertTrue(evaluator.isPermitted("jobs:dev:read"));
+        Assert.assertFalse(evaluator.isPermitted("system:dev:read"));
+        Assert.assertFalse(evaluator.isPermitted("system:dev"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testSubparts:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testSubparts()
+    {
+        var evaluator = new SKPermissionEvaluator(PERMS);
+        Assert.assertTrue(evaluator.isPermitted("files:dev:read:sys3"));
+        Assert.assertTrue(evaluator.isPermitted("files:dev:modify:sys3"));
+        Assert.assertTrue(evaluator.isPermitted("files:dev:read,modify:sys3"));
+        Assert.assertFalse(evaluator.isPermitted("files:dev:read,delete:sys3"));
+
+        // A multi-subpart request must be implied by a single grant.
+        var split = new SKPermissionEvaluator(Arrays.asList("a:b:x", "a:c:x"));
+        Assert.assertTrue(split.isPermitted("a:b:x"));
+        Assert.assertTrue(split.isPermitted("a:c:x"));
+        Assert.assertFalse(split.isPermitted("a:b,c:x"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testMulti:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testMulti()
+    {
+        var evaluator = new SKPermissionEvaluator(PERMS);
+        String[] specs = {"system:dev:read:sys1", "system:dev:read:sys9"};
+        Assert.assertTrue(evaluator.isPermittedAny(specs));
+        Assert.assertFalse(evaluator.isPermittedAll(specs));
+        Assert.assertTrue(evaluator.isPermittedAll(new String[] {"meta:dev:x", "jobs:dev:y:z"}));
+        Assert.assertFalse(evaluator.isPermittedAll(new String[0]));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testMalformed:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testMalformed()
+    {
+        var evaluator = new SKPermissionEvaluator(Arrays.asList("a::b", "", null, "c:d"));
+        Assert.assertEquals(evaluator.size(), 1);
+        Assert.assertFalse(evaluator.isPermitted("a::b"));
+        Assert.assertFalse(evaluator.isPermitted(""));
+        Assert.assertFalse(evaluator.isPermitted(null));
+        Assert.assertTrue(evaluator.isPermitted("c:d"));
+    }
+}
@@ -0,0 +1,210 @@
+package edu.utexas.tacc.tapis.security.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class SKTenantSnapshotTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String TENANT = "dev";
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The served graph:  each user's roles and each role's permissions, both
+    // transitively closed as the Security Kernel returns them.
+    private final Map<String, List<String>> _userRoles = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> _rolePerms = new ConcurrentHashMap<>();
+
+    // Roles whose permission requests are refused.
+    private final Map<String, Boolean> _forbidden = new ConcurrentHashMap<>();
+
+    // The number of user role and role permission requests served.
+    private final AtomicInteger _detailRequests = new AtomicInteger();
+
+    private MockWebServer _server;
+    private SKClient      _skClient;
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @BeforeMethod
+    public void setup() throws Exception
+    {
+        // Admins inherit the reader role through the role hierarchy.
+        _userRoles.clear();
+        _rolePerms.clear();
+        _forbidden.clear();
+        _detailRequests.set(0);
+        _userRoles.put("bud", List.of("admin", "reader", "$!bud"));
+        _userRoles.put("jane", List.of("reader"));
+        _rolePerms.put("admin", List.of("files:dev:*:*", "system:dev:read:*"));
+        _rolePerms.put("reader", List.of("system:dev:read:*"));
+        _rolePerms.put("writer", List.of());
+
+        _server = new MockWebServer();
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {return answer(request);}
+        });
+        _server.start();
+        _skClient = new SKClient(_server.url("/v3").toString(), "jwt");
+    }
+
+    @AfterMethod
+    public void teardown() throws Exception
+    {
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testBuild:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBuild() throws Exception
+    {
+        var snapshot = SKTenantSnapshot.build(_skClient, TENANT, 2);
+        Assert.assertEquals(snapshot.getTenant(), TENANT);
+        Assert.assertEquals(snapshot.getUserCount(), 2);
+        Assert.assertEquals(_detailRequests.get(), 5);
+
+        // Roles that only appear in assignments are added to the dictionary,
+        // and each distinct permission is stored once.
+        Assert.assertEquals(snapshot.getRoleCount(), 4);
+        Assert.assertTrue(snapshot.getRoleNames().contains("$!bud"));
+        Assert.assertEquals(snapshot.getPermissionCount(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testLookup:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testLookup() throws Exception
+    {
+        var snapshot = SKTenantSnapshot.build(_skClient, TENANT);
+
+        // Role membership.
+        Assert.assertTrue(snapshot.hasRole("bud", "admin"));
+        Assert.assertTrue(snapshot.hasRole("bud", "reader"));
+        Assert.assertFalse(snapshot.hasRole("jane", "admin"));
+        Assert.assertFalse(snapshot.hasRole("nobody", "reader"));
+        Assert.assertFalse(snapshot.hasRole("bud", "nosuchrole"));
+        Assert.assertTrue(snapshot.hasRoleAny("jane", new String[] {"admin", "reader"}));
+        Assert.assertFalse(snapshot.hasRoleAny("jane", new String[] {"admin", "writer"}));
+        Assert.assertTrue(snapshot.hasRoleAll("bud", new String[] {"admin", "reader"}));
+        Assert.assertFalse(snapshot.hasRoleAll("jane", new String[] {"admin", "reader"}));
+        Assert.assertFalse(snapshot.hasRoleAll("bud", new String[0]));
+
+        // Listings.
+        Assert.assertEquals(sorted(snapshot.getUserRoles("bud")), List.of("$!bud", "admin", "reader"));
+        Assert.assertEquals(snapshot.getUserRoles("nobody"), List.of());
+        Assert.assertEquals(sorted(snapshot.getUsersWithRole("reader")), List.of("bud", "jane"));
+        Assert.assertEquals(snapshot.getUsersWithRole("writer"), List.of());
+        Assert.assertEquals(sorted(snapshot.getRolePermissions("admin")),
+                            List.of("files:dev:*:*", "system:dev:read:*"));
+        Assert.assertEquals(snapshot.getRolePermissions("nosuchrole"), List.of());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRefresh:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRefresh() throws Exception
+    {
+        var snapshot = SKTenantSnapshot.build(_skClient, TENANT);
+        _detailRequests.set(0);
+
+        // Jane is granted the writer role, ann is added and bud is removed.
+        _userRoles.put("jane", List.of("reader", "writer"));
+        _userRoles.put("ann", List.of("reader"));
+        _userRoles.remove("bud");
+
+        // Only the new user is retrieved while the rest is current.
+        var current = snapshot.refresh(_skClient, 60_000, 4);
+        Assert.assertEquals(_detailRequests.get(), 1);
+        Assert.assertTrue(current.hasRole("ann", "reader"));
+        Assert.assertFalse(current.hasRole("jane", "writer"));
+        Assert.assertFalse(current.hasRole("bud", "admin"));
+        Assert.assertEquals(current.getUserCount(), 2);
+
+        // Named users are reloaded.
+        _detailRequests.set(0);
+        var named = current.refresh(_skClient, List.of("jane"), null, 4);
+        Assert.assertEquals(_detailRequests.get(), 1);
+        Assert.assertTrue(named.hasRole("jane", "writer"));
+        Assert.assertTrue(named.getUsersWithRole("writer").contains("jane"));
+
+        // Everything is reloaded when it is stale, and the source is unchanged.
+        _detailRequests.set(0);
+        named.refresh(_skClient, 0, 4);
+        Assert.assertEquals(_detailRequests.get(), 5);
+        Assert.assertTrue(snapshot.hasRole("bud", "admin"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailure:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailure()
+    {
+        _forbidden.put("writer", Boolean.TRUE);
+        Assert.assertThrows(TapisClientException.class, () -> SKTenantSnapshot.build(_skClient, TENANT));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Serve the names of the users and roles and their details. */
+    private MockResponse answer(RecordedRequest request)
+    {
+        var url = request.getRequestUrl();
+        var path = url.encodedPath().substring("/v3/security".length());
+        List<String> names = null;
+        if (path.equals("/user")) names = new ArrayList<>(_userRoles.keySet());
+        else if (path.equals("/role")) names = new ArrayList<>(_rolePerms.keySet());
+        else if (path.startsWith("/user/roles/")) {
+            _detailRequests.incrementAndGet();
+            names = _userRoles.get(url.pathSegments().get(4));
+        }
+        else if (path.endsWith("/perms")) {
+            _detailRequests.incrementAndGet();
+            var role = url.pathSegments().get(3);
+            if (_forbidden.containsKey(role)) return new MockResponse().setResponseCode(403).setBody("{}");
+            names = _rolePerms.get(role);
+        }
+        if (names == null) return new MockResponse().setResponseCode(404).setBody("{}");
+
+        var buf = new StringBuilder("{\"result\":{\"names\":[");
+        for (int i = 0; i < names.size(); i++)
+            buf.append(i == 0 ? "\"" : ",\"").append(names.get(i)).append('"');
+        buf.append("]},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}");
+        return new MockResponse().setBody(buf.toString()).setHeader("Content-Type", "application/json");
+    }
+
+    private static List<String> sorted(List<String> list)
+    {
+        var copy = new ArrayList<>(list);
+        copy.sort(null);
+        return copy;
+    }
+}
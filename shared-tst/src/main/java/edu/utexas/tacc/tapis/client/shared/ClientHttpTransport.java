@@ -0,0 +1,403 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisCircuitBreakerInterceptor;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisCoalescingInterceptor;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisConcurrencyLimitInterceptor;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisHedgingInterceptor;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisRetryInterceptor;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/** This class owns the single OkHttpClient that all Tapis client modules use to
+ * communicate with Tapis services.  Each module's generated ApiClient is assigned
+ * this http client (or a client derived from it) so that the connection pool, the
+ * dispatcher and the dispatcher's thread pool are shared across every client
+ * instance and every Tapis service used in the process.  Reusing pooled connections
+ * avoids repeated TCP and TLS handshakes, and reusing dispatcher threads avoids
+ * thread churn when many short-lived client objects are created.
+ *
+ * The transport is configured by calling configure() before any client is created.
+ * If no configuration is specified, the defaults in ClientHttpTransportParms are
+ * used.  Clients that need different timeouts or interceptors should call
+ * newHttpClientBuilder(), which returns a builder that shares the pool and
+ * dispatcher of the transport client.
+ *
+ * The shared client retries failed requests with a TapisRetryInterceptor that is
+ * configured by the transport's retry parms.  Ahead of the retries, a
+ * TapisCircuitBreakerInterceptor gives each Tapis service its own circuit breaker
+ * and bulkhead, so requests to a failing or overloaded service fail fast instead
+ * of tying up the threads and connections that other services need.  When
+ * enabled, each attempt is then subject to the service's adaptive concurrency
+ * limit, enforced by a TapisConcurrencyLimitInterceptor, and the dispatcher's
+ * per-host limit is raised to the adaptive maximum so that the adaptive limit is
+ * the effective one.  When enabled, a TapisCoalescingInterceptor that runs before
+ * all of these lets concurrent identical read requests share one response, and
+ * when enabled, a TapisHedgingInterceptor that runs next sends a second copy of
+ * read requests that are slower than usual.
+ *
+ * The transport speaks http/2 on TLS connections whose servers support it, and
+ * can be configured to use http/2 with prior knowledge (h2c) on plaintext
+ * connections.  Over http/2, concurrent requests to a host are multiplexed over a
+ * single connection instead of each needing its own socket.
+ *
+ * Dispatcher threads are daemon threads so that they never prevent JVM shutdown.
+ *
+ * This class is non-instantiable.
+ */
+public final class ClientHttpTransport
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Dispatcher thread name prefix.
+    private static final String THREAD_NAME_PREFIX = "TapisClientHttp-";
+
+    // Idle dispatcher threads are retired after this many seconds.
+    private static final long THREAD_KEEP_ALIVE_SECS = 60;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The configuration used to create the next http client.
+    private static ClientHttpTransportParms _parms = new ClientHttpTransportParms();
+
+    // The lazily created, process-wide http client.
+    private static volatile OkHttpClient _httpClient;
+
+    // The retry interceptor of the current http client.
+    private static volatile TapisRetryInterceptor _retryInterceptor;
+
+    // The circuit breaker interceptor of the current http client.
+    private static volatile TapisCircuitBreakerInterceptor _circuitBreakerInterceptor;
+
+    // The concurrency limit interceptor of the current http client.
+    private static volatile TapisConcurrencyLimitInterceptor _concurrencyLimitInterceptor;
+
+    // The coalescing interceptor of the current http client.
+    private static volatile TapisCoalescingInterceptor _coalescingInterceptor;
+
+    // The hedging interceptor of the current http client.
+    private static volatile TapisHedgingInterceptor _hedgingInterceptor;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    // Private constructor to make it non-instantiable.
+    private ClientHttpTransport() {throw new AssertionError();}
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* configure:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Set the configuration of the shared transport.  This method is normally
+     * called once at application startup before any client is created.  If the
+     * shared http client already exists, a new one is created using the new
+     * configuration and the old client is allowed to drain.  Clients created before
+     * the call continue to use the old http client.
+     *
+     * @param parms the non-null transport configuration
+     */
+    public static synchronized void configure(ClientHttpTransportParms parms)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _parms = parms;
+        if (_httpClient != null) _httpClient = createHttpClient(parms);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getParms:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the configuration of the shared transport.
+     *
+     * @return the current configuration
+     */
+    public static synchronized ClientHttpTransportParms getParms() {return _parms;}
+
+    /* ---------------------------------------------------------------------------- */
+    /* getHttpClient:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the shared http client, creating it on first use.
+     *
+     * @return the process-wide http client
+     */
+    public static OkHttpClient getHttpClient()
+    {
+        // Double-checked locking on a volatile field.
+        OkHttpClient client = _httpClient;
+        if (client == null) {
+            synchronized (ClientHttpTransport.class) {
+                client = _httpClient;
+                if (client == null) _httpClient = client = createHttpClient(_parms);
+            }
+        }
+        return client;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* newHttpClientBuilder:                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Get a builder initialized with the shared http client's settings.  Clients
+     * built from the returned builder share the connection pool and dispatcher of
+     * the shared client, so they are inexpensive to create.
+     *
+     * @return a builder derived from the shared http client
+     */
+    public static OkHttpClient.Builder newHttpClientBuilder()
+    {
+        return getHttpClient().newBuilder();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getConnectionCount:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the total number of open connections in the shared pool.
+     *
+     * @return the number of pooled connections
+     */
+    public static int getConnectionCount()
+    {
+        return getHttpClient().connectionPool().connectionCount();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getIdleConnectionCount:                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the number of idle connections in the shared pool.
+     *
+     * @return the number of idle pooled connections
+     */
+    public static int getIdleConnectionCount()
+    {
+        return getHttpClient().connectionPool().idleConnectionCount();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRunningCallsCount:                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the number of calls currently executing in the shared dispatcher.
+     *
+     * @return the number of running calls
+     */
+    public static int getRunningCallsCount()
+    {
+        return getHttpClient().dispatcher().runningCallsCount();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getQueuedCallsCount:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the number of asynchronous calls waiting to be executed by the shared
+     * dispatcher.
+     *
+     * @return the number of queued calls
+     */
+    public static int getQueuedCallsCount()
+    {
+        return getHttpClient().dispatcher().queuedCallsCount();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getRetryInterceptor:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the retry interceptor of the shared http client, which provides retry
+     * statistics.
+     *
+     * @return the retry interceptor
+     */
+    public static TapisRetryInterceptor getRetryInterceptor()
+    {
+        getHttpClient();
+        return _retryInterceptor;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getCircuitBreakerInterceptor:                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the circuit breaker interceptor of the shared http client, which provides
+     * the circuit breakers and bulkheads of the services that have been called.
+     *
+     * @return the circuit breaker interceptor
+     */
+    public static TapisCircuitBreakerInterceptor getCircuitBreakerInterceptor()
+    {
+        getHttpClient();
+        return _circuitBreakerInterceptor;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getConcurrencyLimitInterceptor:                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the concurrency limit interceptor of the shared http client, which
+     * provides the current limits and queue depths of the services that have been
+     * called.
+     *
+     * @return the concurrency limit interceptor
+     */
+    public static TapisConcurrencyLimitInterceptor getConcurrencyLimitInterceptor()
+    {
+        getHttpClient();
+        return _concurrencyLimitInterceptor;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getCoalescingInterceptor:                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the coalescing interceptor of the shared http client, which provides
+     * coalescing statistics.
+     *
+     * @return the coalescing interceptor
+     */
+    public static TapisCoalescingInterceptor getCoalescingInterceptor()
+    {
+        getHttpClient();
+        return _coalescingInterceptor;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getHedgingInterceptor:                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the hedging interceptor of the shared http client, which provides the
+     * counts of hedges fired and won.
+     *
+     * @return the hedging interceptor
+     */
+    public static TapisHedgingInterceptor getHedgingInterceptor()
+    {
+        getHttpClient();
+        return _hedgingInterceptor;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* shutdown:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Close pooled connections and stop dispatcher threads.  This method is
+     * intended to be called when the application terminates.  A new http client
+     * is created if a client is used after shutdown.
+     */
+    public static synchronized void shutdown()
+    {
+        OkHttpClient client = _httpClient;
+        _httpClient = null;
+        if (client == null) return;
+
+        // Best effort attempt to shut things down.
+        try {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        } catch (Exception e) {}
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* createHttpClient:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    private static OkHttpClient createHttpClient(ClientHttpTransportParms parms)
+    {
+        // Create the dispatcher using daemon threads.  The per-host limit bounds
+        // the dispatcher threads that requests to one host can hold, including
+        // requests waiting for an adaptive concurrency limit, so a slow host
+        // cannot starve the others.  It never falls below the adaptive maximum,
+        // so that the adaptive limits can rise as far as they are configured to.
+        var limitParms = parms.getConcurrencyLimitParms();
+        int maxRequestsPerHost = parms.getMaxRequestsPerHost();
+        if (limitParms.isEnabled()) maxRequestsPerHost = Math.max(maxRequestsPerHost, limitParms.getMaxLimit());
+        var dispatcher = new Dispatcher(createExecutorService());
+        dispatcher.setMaxRequests(parms.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        // Create the connection pool.
+        var pool = new ConnectionPool(parms.getMaxIdleConnections(),
+                                      parms.getKeepAliveMillis(), TimeUnit.MILLISECONDS);
+
+        // Retry failed requests.
+        var retryInterceptor = new TapisRetryInterceptor(parms.getRetryParms());
+        _retryInterceptor = retryInterceptor;
+
+        // Let concurrent identical reads share a response.  This interceptor runs
+        // first so that waiting requests hold no other resources.
+        var coalescingInterceptor = new TapisCoalescingInterceptor(parms.getCoalescingParms());
+        _coalescingInterceptor = coalescingInterceptor;
+
+        // Isolate the services from each other.  This interceptor runs before the
+        // retries so that rejected requests are not retried.
+        var circuitBreakerInterceptor = new TapisCircuitBreakerInterceptor(parms.getCircuitBreakerParms());
+        _circuitBreakerInterceptor = circuitBreakerInterceptor;
+
+        // Adapt each service's concurrency to its latency when enabled.  This
+        // interceptor runs after the retries so that each attempt is measured
+        // separately.
+        var concurrencyLimitInterceptor = new TapisConcurrencyLimitInterceptor(limitParms);
+        _concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+
+        // Hedge slow reads.  The copies of a hedged request are clones of the
+        // caller's call, so they pass through the interceptors that follow.
+        var hedgingInterceptor = new TapisHedgingInterceptor(parms.getHedgingParms());
+        _hedgingInterceptor = hedgingInterceptor;
+
+        // Assemble the shared client.
+        return new OkHttpClient.Builder()
+            .addInterceptor(coalescingInterceptor)
+            .addInterceptor(hedgingInterceptor)
+            .addInterceptor(circuitBreakerInterceptor)
+            .addInterceptor(retryInterceptor)
+            .addInterceptor(concurrencyLimitInterceptor)
+            .dispatcher(dispatcher)
+            .connectionPool(pool)
+            .connectTimeout(parms.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .readTimeout(parms.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .writeTimeout(parms.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .callTimeout(parms.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .pingInterval(parms.getPingIntervalMillis(), TimeUnit.MILLISECONDS)
+            .retryOnConnectionFailure(parms.isRetryOnConnectionFailure())
+            .protocols(getProtocols(parms.getHttpProtocol()))
+            .build();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getProtocols:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** The OkHttp protocols for an http version.  OkHttp requires prior knowledge
+     * to be the only protocol when it's used.
+     */
+    private static List<Protocol> getProtocols(ClientHttpTransportParms.HttpProtocol httpProtocol)
+    {
+        switch (httpProtocol) {
+            case HTTP_1_1: return List.of(Protocol.HTTP_1_1);
+            case H2C:      return List.of(Protocol.H2_PRIOR_KNOWLEDGE);
+            default:       return List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* createExecutorService:                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Create an unbounded, caching thread pool like OkHttp's default, but with
+     * daemon threads.  The dispatcher enforces the concurrency limits.
+     */
+    private static ExecutorService createExecutorService()
+    {
+        final var threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            var thread = new Thread(r, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, THREAD_KEEP_ALIVE_SECS,
+                                      TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                      factory);
+    }
+}
@@ -0,0 +1,136 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisCircuitBreakerParms;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisCoalescingParms;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisConcurrencyLimitParms;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisHedgingParms;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisRetryParms;
+
+/** Configuration values for the process-wide http transport shared by all Tapis
+ * clients.  A parms object is passed to ClientHttpTransport.configure() before
+ * the first client is created.  All times are in milliseconds; a timeout of 0
+ * means no timeout.  Fluent-style setters allow configuration in one statement.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class ClientHttpTransportParms
+{
+    // The http versions the transport can use.
+    //
+    //  HTTP_1_1 - http/1.1 only
+    //  HTTP_2   - http/2 negotiated with ALPN on TLS connections, http/1.1 on
+    //             plaintext connections
+    //  H2C      - http/2 without TLS using prior knowledge, for deployments in
+    //             which every Tapis service is reached over plaintext http, for
+    //             example through a service mesh sidecar.  https urls cannot be
+    //             used in this mode.
+    public enum HttpProtocol {HTTP_1_1, HTTP_2, H2C}
+
+    // Defaults.
+    public static final int  DEFAULT_MAX_IDLE_CONNECTIONS   = 32;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS      = 5 * 60 * 1000;
+    public static final int  DEFAULT_MAX_REQUESTS           = 256;
+    public static final int  DEFAULT_MAX_REQUESTS_PER_HOST  = 64;
+    public static final int  DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
+    public static final int  DEFAULT_READ_TIMEOUT_MILLIS    = 10 * 1000;
+    public static final int  DEFAULT_WRITE_TIMEOUT_MILLIS   = 10 * 1000;
+    public static final int  DEFAULT_CALL_TIMEOUT_MILLIS    = 0;
+    public static final int  DEFAULT_PING_INTERVAL_MILLIS   = 0;
+    public static final HttpProtocol DEFAULT_HTTP_PROTOCOL  = HttpProtocol.HTTP_2;
+
+    // Fields.
+    private int     maxIdleConnections       = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private long    keepAliveMillis          = DEFAULT_KEEP_ALIVE_MILLIS;
+    private int     maxRequests              = DEFAULT_MAX_REQUESTS;
+    private int     maxRequestsPerHost       = DEFAULT_MAX_REQUESTS_PER_HOST;
+    private int     connectTimeoutMillis     = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private int     readTimeoutMillis        = DEFAULT_READ_TIMEOUT_MILLIS;
+    private int     writeTimeoutMillis       = DEFAULT_WRITE_TIMEOUT_MILLIS;
+    private int     callTimeoutMillis        = DEFAULT_CALL_TIMEOUT_MILLIS;
+    private int     pingIntervalMillis       = DEFAULT_PING_INTERVAL_MILLIS;
+    private boolean retryOnConnectionFailure = true;
+    private HttpProtocol httpProtocol        = DEFAULT_HTTP_PROTOCOL;
+    private TapisRetryParms retryParms       = new TapisRetryParms();
+    private TapisCircuitBreakerParms circuitBreakerParms = new TapisCircuitBreakerParms();
+    private TapisConcurrencyLimitParms concurrencyLimitParms = new TapisConcurrencyLimitParms();
+    private TapisCoalescingParms coalescingParms = new TapisCoalescingParms();
+    private TapisHedgingParms hedgingParms = new TapisHedgingParms();
+
+    // Accessors.
+    public int getMaxIdleConnections() {return maxIdleConnections;}
+    public ClientHttpTransportParms setMaxIdleConnections(int maxIdleConnections)
+        {if (maxIdleConnections >= 0) this.maxIdleConnections = maxIdleConnections; return this;}
+
+    public long getKeepAliveMillis() {return keepAliveMillis;}
+    public ClientHttpTransportParms setKeepAliveMillis(long keepAliveMillis)
+        {if (keepAliveMillis > 0) this.keepAliveMillis = keepAliveMillis; return this;}
+
+    public int getMaxRequests() {return maxRequests;}
+    public ClientHttpTransportParms setMaxRequests(int maxRequests)
+        {if (maxRequests > 0) this.maxRequests = maxRequests; return this;}
+
+    // The dispatcher's per-host limit on asynchronous calls, which also caps the
+    // dispatcher threads that waiting requests to one host can hold.  When the
+    // adaptive concurrency limits are enabled, their maximum limit is used
+    // instead if it is higher.
+    public int getMaxRequestsPerHost() {return maxRequestsPerHost;}
+    public ClientHttpTransportParms setMaxRequestsPerHost(int maxRequestsPerHost)
+        {if (maxRequestsPerHost > 0) this.maxRequestsPerHost = maxRequestsPerHost; return this;}
+
+    public int getConnectTimeoutMillis() {return connectTimeoutMillis;}
+    public ClientHttpTransportParms setConnectTimeoutMillis(int connectTimeoutMillis)
+        {if (connectTimeoutMillis >= 0) this.connectTimeoutMillis = connectTimeoutMillis; return this;}
+
+    public int getReadTimeoutMillis() {return readTimeoutMillis;}
+    public ClientHttpTransportParms setReadTimeoutMillis(int readTimeoutMillis)
+        {if (readTimeoutMillis >= 0) this.readTimeoutMillis = readTimeoutMillis; return this;}
+
+    public int getWriteTimeoutMillis() {return writeTimeoutMillis;}
+    public ClientHttpTransportParms setWriteTimeoutMillis(int writeTimeoutMillis)
+        {if (writeTimeoutMillis >= 0) this.writeTimeoutMillis = writeTimeoutMillis; return this;}
+
+    public int getCallTimeoutMillis() {return callTimeoutMillis;}
+    public ClientHttpTransportParms setCallTimeoutMillis(int callTimeoutMillis)
+        {if (callTimeoutMillis >= 0) this.callTimeoutMillis = callTimeoutMillis; return this;}
+
+    // The interval of http/2 pings, which detect broken connections that carry
+    // many multiplexed requests; 0 disables pings.
+    public int getPingIntervalMillis() {return pingIntervalMillis;}
+    public ClientHttpTransportParms setPingIntervalMillis(int pingIntervalMillis)
+        {if (pingIntervalMillis >= 0) this.pingIntervalMillis = pingIntervalMillis; return this;}
+
+    // The http versions used to connect to services.
+    public HttpProtocol getHttpProtocol() {return httpProtocol;}
+    public ClientHttpTransportParms setHttpProtocol(HttpProtocol httpProtocol)
+        {if (httpProtocol != null) this.httpProtocol = httpProtocol; return this;}
+
+    public boolean isRetryOnConnectionFailure() {return retryOnConnectionFailure;}
+    public ClientHttpTransportParms setRetryOnConnectionFailure(boolean retryOnConnectionFailure)
+        {this.retryOnConnectionFailure = retryOnConnectionFailure; return this;}
+
+    // Retries of failed requests, enabled by default with up to three attempts and
+    // disabled with a maximum of one attempt.
+    public TapisRetryParms getRetryParms() {return retryParms;}
+    public ClientHttpTransportParms setRetryParms(TapisRetryParms retryParms)
+        {if (retryParms != null) this.retryParms = retryParms; return this;}
+
+    // Per-service circuit breakers and bulkheads, disabled with setEnabled(false).
+    public TapisCircuitBreakerParms getCircuitBreakerParms() {return circuitBreakerParms;}
+    public ClientHttpTransportParms setCircuitBreakerParms(TapisCircuitBreakerParms circuitBreakerParms)
+        {if (circuitBreakerParms != null) this.circuitBreakerParms = circuitBreakerParms; return this;}
+
+    // Adaptive per-service concurrency limits, enabled with setEnabled(true).
+    public TapisConcurrencyLimitParms getConcurrencyLimitParms() {return concurrencyLimitParms;}
+    public ClientHttpTransportParms setConcurrencyLimitParms(TapisConcurrencyLimitParms concurrencyLimitParms)
+        {if (concurrencyLimitParms != null) this.concurrencyLimitParms = concurrencyLimitParms; return this;}
+
+    // Coalescing of concurrent identical read requests, enabled with setEnabled(true).
+    public TapisCoalescingParms getCoalescingParms() {return coalescingParms;}
+    public ClientHttpTransportParms setCoalescingParms(TapisCoalescingParms coalescingParms)
+        {if (coalescingParms != null) this.coalescingParms = coalescingParms; return this;}
+
+    // Hedging of slow read requests, enabled with setEnabled(true).
+    public TapisHedgingParms getHedgingParms() {return hedgingParms;}
+    public ClientHttpTransportParms setHedgingParms(TapisHedgingParms hedgingParms)
+        {if (hedgingParms != null) this.hedgingParms = hedgingParms; return this;}
+}
@@ -1,23 +1,70 @@
 package edu.utexas.tacc.tapis.client.shared;
 
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
 import edu.utexas.tacc.tapis.client.shared.javatime.ClientConverters;
 
 public class ClientTapisGsonUtils
 {
+	/* **************************************************************************** */
+	/*                                   Constants                                  */
+	/* **************************************************************************** */
+	// Reports adapters and factories that cannot be loaded.  The JDK logger is used
+	// since the shared library has no logging dependency.
+	private static final Logger _log = Logger.getLogger(ClientTapisGsonUtils.class.getName());
+
+	// Types whose adapters are created when the shared gson objects are built, in
+	// addition to the model types of the generated type adapter factories.
+	private static final List<Type> WARM_TYPES = List.of(
+	    String.class, Integer.class, Long.class, Boolean.class, Double.class, Object.class,
+	    JsonElement.class, JsonObject.class, JsonArray.class,
+	    Instant.class, LocalDate.class, LocalDateTime.class, OffsetDateTime.class, ZonedDateTime.class,
+	    new TypeToken<List<String>>(){}.getType(), new TypeToken<Map<String,Object>>(){}.getType());
+
+	/* **************************************************************************** */
+	/*                                    Fields                                    */
+	/* **************************************************************************** */
+	// Type adapter factories generated for the client model packages on the classpath.
+	private static final List<ClientTypeAdapterFactory> _typeAdapterFactories =
+	    loadTypeAdapterFactories();
+
+	// The shared gson objects.  Gson objects are immutable and thread-safe, and each
+	// caches the type adapters it creates, so sharing them avoids re-registering the
+	// converters and re-creating adapters on every use.
+	private static final Gson _gson       = warm(getGsonBuilder(false).create());
+	private static final Gson _prettyGson = warm(getGsonBuilder(true).create());
+
 	/* **************************************************************************** */
 	/*                                Public Methods                                */
 	/* **************************************************************************** */
 	/* ---------------------------------------------------------------------------- */
 	/* getGsonBuilder:                                                              */
 	/* ---------------------------------------------------------------------------- */
-	/** Provide a gson builder with registered serializers and deserializers.  This
+	/** Provide a new gson builder with registered serializers and deserializers.  This
 	 * method relies on open source software from the gson-javatime-serialisers project
 	 * to format Java date/time objects reasonably.  In addition, we always serialize 
 	 * nulls. 
 	 * Disabled HTML escaping of characters such as =, <, >, & . That was an requirement for 
 	 * _links object in the job submission response. A detailed discussion on HTML escaping in
 	 *  gson can be found in: https://groups.google.com/forum/#!topic/google-gson/JDHUo9DWyyM\ .
+	 * The type adapter factories generated at build time for the client model classes
+	 * are also registered so that those classes are not serialized by reflection.
+	 * Use this method to customize gson; otherwise use the shared gson objects
+	 * returned by getGson().
 	 * 
 	 * @param prettyPrint true to turn on pretty printing, false otherwise
 	 * @return a gson builder
@@ -28,6 +75,7 @@ public class ClientTapisGsonUtils
 		GsonBuilder builder = new GsonBuilder().serializeNulls().disableHtmlEscaping();
 		if (prettyPrint) builder.setPrettyPrinting();
 		ClientConverters.registerAll(builder);
+		for (var factory : _typeAdapterFactories) builder.registerTypeAdapterFactory(factory);
 		
 		return builder;
 	}
@@ -35,31 +83,31 @@ public class ClientTapisGsonUtils
 	/* ---------------------------------------------------------------------------- */
 	/* getGson:                                                                     */
 	/* ---------------------------------------------------------------------------- */
-	/** Provide a gson object with registered serializers and deserializers.
+	/** Provide the shared gson object with registered serializers and deserializers.
 	 * Pretty printing is turned off by default.
 	 * 
 	 * @return a gson object
 	 */
 	public static Gson getGson()
 	{
-		return getGsonBuilder(false).create();
+		return _gson;
 	}
 	
     /* ---------------------------------------------------------------------------- */
     /* getGson:                                                                     */
     /* ---------------------------------------------------------------------------- */
-    /** Provide a gson object with registered serializers and deserializers.
+    /** Provide the shared gson object with registered serializers and deserializers.
      * Specify whether or not to turn on pretty printing.
      * 
      * @return a gson object
      */
     public static Gson getGson(boolean prettyPrint)
     {
-        return getGsonBuilder(prettyPrint).create();
+        return prettyPrint ? _prettyGson : _gson;
     }
 
     /* ---------------------------------------------------------------------------- */
-    /* getGson:                                                                     */
+    /* addTo:                                                                       */
     /* ---------------------------------------------------------------------------- */
     /** Add an element to an existing json object allowing for some flexibility on
      * how strings are interpreted.
@@ -81,16 +129,10 @@ public class ClientTapisGsonUtils
         }
         else if (value instanceof String) {
             // Strings can represent json arrays, objects or just plain strings.
-            // Get rid unnecessary spaces.
+            // Get rid unnecessary spaces.  Json is read directly into a tree by a
+            // streaming parser.
             String v = ((String) value).trim();
-            if (v.startsWith("[")){
-                 Gson gson = getGson();
-                 obj.add(key, gson.fromJson(v, JsonArray.class));
-             }
-            else if (v.startsWith("{")){
-                Gson gson = getGson();
-                obj.add(key, gson.fromJson(v, JsonObject.class));
-            }
+            if (v.startsWith("[") || v.startsWith("{")) obj.add(key, JsonParser.parseString(v));
             else obj.addProperty(key, (String)v);
         }
         else if (value instanceof Number) {
@@ -105,4 +147,58 @@ public class ClientTapisGsonUtils
             
         return obj;
     }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* warm:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Create the adapters for commonly used types so that their first use does not
+     * pay for adapter creation.  Failures are logged and reported again on first use.
+     * 
+     * @param gson the gson object to warm
+     * @return the gson object
+     */
+    private static Gson warm(Gson gson)
+    {
+        var types = new ArrayList<Type>(WARM_TYPES);
+        for (var factory : _typeAdapterFactories) types.addAll(factory.getTypes());
+        for (var type : types) {
+            try {gson.getAdapter(TypeToken.get(type));}
+            catch (RuntimeException e) {
+                _log.log(Level.WARNING, "Unable to create the gson adapter for " + type.getTypeName() +
+                         ": " + e.getMessage(), e);
+            }
+        }
+        return gson;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* loadTypeAdapterFactories:                                                    */
+    /* ---------------------------------------------------------------------------- */
+    /** Discover the generated model type adapter factories.  A factory that cannot
+     * be loaded is logged and skipped, leaving its models to Gson's reflective
+     * adapter.
+     * 
+     * @return the factories found on the classpath
+     */
+    private static List<ClientTypeAdapterFactory> loadTypeAdapterFactories()
+    {
+        var factories = new ArrayList<ClientTypeAdapterFactory>();
+        var iterator = ServiceLoader.load(ClientTypeAdapterFactory.class,
+                                          ClientTapisGsonUtils.class.getClassLoader()).iterator();
+        try {
+            while (iterator.hasNext()) {
+                try {factories.add(iterator.next());}
+                catch (ServiceConfigurationError e) {
+                    _log.log(Level.WARNING, "Skipping a gson type adapter factory: " + e.getMessage(), e);
+                }
+            }
+        }
+        catch (ServiceConfigurationError e) {
+            _log.log(Level.WARNING, "Unable to discover gson type adapter factories: " + e.getMessage(), e);
+        }
+        return List.copyOf(factories);
+    }
 }
@@ -0,0 +1,23 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import java.util.List;
+
+import com.google.gson.TypeAdapterFactory;
+
+/** Service interface implemented by the type adapter factories that the
+ * gson-codegen annotation processor generates for each client's model package.
+ * The factories are discovered with a ServiceLoader and registered by
+ * {@link ClientTapisGsonUtils#getGsonBuilder(boolean)}, so their adapters replace
+ * Gson's reflection based adapters for the generated model classes.  Types that a
+ * factory does not handle are left to Gson.
+ */
+public interface ClientTypeAdapterFactory
+ extends TypeAdapterFactory
+{
+    /** The classes for which this factory creates adapters.  ClientTapisGsonUtils
+     * creates their adapters in advance when it builds its shared gson objects.
+     *
+     * @return the model classes
+     */
+    default List<Class<?>> getTypes() {return List.of();}
+}
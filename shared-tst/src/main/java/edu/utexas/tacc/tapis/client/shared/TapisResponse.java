@@ -0,0 +1,43 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import com.google.gson.JsonElement;
+
+/** The standard envelope of Tapis service responses with a typed result.  Instances
+ * are created by TapisResponseDecoder, which reads the envelope fields and decodes
+ * the result directly into its target type in a single pass over the response.
+ *
+ * @param <T> the result type
+ */
+public final class TapisResponse<T>
+{
+    // Fields.
+    private final String      status;
+    private final String      message;
+    private final String      version;
+    private final T           result;
+    private final JsonElement metadata;
+
+    // Constructor.
+    TapisResponse(String status, String message, String version, T result, JsonElement metadata)
+    {
+        this.status   = status;
+        this.message  = message;
+        this.version  = version;
+        this.result   = result;
+        this.metadata = metadata;
+    }
+
+    // Accessors.
+    public String getStatus() {return status;}
+    public String getMessage() {return message;}
+    public String getVersion() {return version;}
+    public T getResult() {return result;}
+    public JsonElement getMetadata() {return metadata;}
+
+    @Override
+    public String toString()
+    {
+        return "TapisResponse[status=" + status + ", message=" + message +
+               ", version=" + version + "]";
+    }
+}
@@ -0,0 +1,181 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/** Decodes Tapis response envelopes directly from response bodies.  The generated
+ * clients deserialize responses into untyped maps, which the client front-ends
+ * then serialize back to json and parse again to obtain typed results.  This class
+ * instead reads the envelope with a streaming parser and decodes the result field
+ * directly into its target type, so each response is parsed once and no
+ * intermediate tree is built.
+ *
+ * The execute methods run okhttp calls created by the generated *Call() methods,
+ * which carry the generated client's base path, headers and http client.  Non-2xx
+ * responses and transport failures are converted to TapisClientExceptions in the
+ * same way as the generated clients' ApiExceptions.
+ *
+ * This class is non-instantiable.
+ */
+public final class TapisResponseDecoder
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Envelope field names.
+    private static final String STATUS   = "status";
+    private static final String MESSAGE  = "message";
+    private static final String VERSION  = "version";
+    private static final String RESULT   = "result";
+    private static final String METADATA = "metadata";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Response deserializer.
+    private static final Gson _gson = ClientTapisGsonUtils.getGson();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    // Private constructor to make it non-instantiable.
+    private TapisResponseDecoder() {throw new AssertionError();}
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* execute:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Execute a call and decode its response.
+     *
+     * @param call the unexecuted call
+     * @param resultType the type of the result field
+     * @return the decoded response
+     * @throws TapisClientException if the call fails, returns a non-2xx status or
+     *                              its response cannot be decoded
+     */
+    public static <T> TapisResponse<T> execute(Call call, Type resultType)
+     throws TapisClientException
+    {
+        try (Response response = call.execute()) {return decode(response, resultType);}
+        catch (TapisClientException e) {throw e;}
+        catch (Exception e) {throw Utils.makeTapisClientException(-1, null, e);}
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* executeAsync:                                                                */
+    /* ---------------------------------------------------------------------------- */
+    /** Enqueue a call on the http client's dispatcher and decode its response on the
+     * dispatcher thread.  The future completes exceptionally with a
+     * TapisClientException on any failure.  Cancelling the future cancels the call.
+     *
+     * @param call the unexecuted call
+     * @param resultType the type of the result field
+     * @return the future decoded response
+     */
+    public static <T> CompletableFuture<TapisResponse<T>> executeAsync(Call call, Type resultType)
+    {
+        var future = new CompletableFuture<TapisResponse<T>>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call c, IOException e)
+            {
+                future.completeExceptionally(Utils.makeTapisClientException(-1, null, e));
+            }
+            @Override
+            public void onResponse(Call c, Response response)
+            {
+                try (response) {future.complete(decode(response, resultType));}
+                catch (TapisClientException e) {future.completeExceptionally(e);}
+                catch (Exception e) {
+                    future.completeExceptionally(Utils.makeTapisClientException(-1, null, e));
+                }
+            }
+        });
+        future.whenComplete((r, t) -> {if (future.isCancelled()) call.cancel();});
+        return future;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* decode:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Decode a response envelope from a reader.  Fields other than the envelope
+     * fields are skipped.  A missing or null result yields a null result.
+     *
+     * @param reader the source of the json envelope
+     * @param resultType the type of the result field
+     * @return the decoded response
+     * @throws IOException if the json is malformed or cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TapisResponse<T> decode(Reader reader, Type resultType)
+     throws IOException
+    {
+        var resultAdapter = _gson.getAdapter((TypeToken<T>) TypeToken.get(resultType));
+        String status = null, message = null, version = null;
+        T result = null;
+        JsonElement metadata = null;
+
+        var json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case STATUS:   status   = nextString(json); break;
+                case MESSAGE:  message  = nextString(json); break;
+                case VERSION:  version  = nextString(json); break;
+                case RESULT:   result   = resultAdapter.read(json); break;
+                case METADATA: metadata = _gson.getAdapter(JsonElement.class).read(json); break;
+                default:       json.skipValue();
+            }
+        }
+        json.endObject();
+        return new TapisResponse<>(status, message, version, result, metadata);
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* decode:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    private static <T> TapisResponse<T> decode(Response response, Type resultType)
+     throws TapisClientException, IOException
+    {
+        var body = response.body();
+        if (!response.isSuccessful()) {
+            // Read at most the maximum error body size.
+            String respBody = body == null ? null : response.peekBody(Utils.MAX_ERROR_BODY_SIZE).string();
+            throw Utils.makeTapisClientException(response.code(), respBody,
+                      new IOException("HTTP " + response.code() + " " + response.message()));
+        }
+        if (body == null) return new TapisResponse<>(null, null, null, null, null);
+        return decode(body.charStream(), resultType);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* nextString:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    private static String nextString(JsonReader json) throws IOException
+    {
+        if (json.peek() == JsonToken.NULL) {json.nextNull(); return null;}
+        if (json.peek() == JsonToken.BEGIN_OBJECT || json.peek() == JsonToken.BEGIN_ARRAY) {
+            json.skipValue();
+            return null;
+        }
+        return json.nextString();
+    }
+}
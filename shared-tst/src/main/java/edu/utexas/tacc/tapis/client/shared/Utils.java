@@ -1,8 +1,10 @@
 package edu.utexas.tacc.tapis.client.shared;
 
+import java.util.Collection;
+import java.util.Set;
+
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
 import org.apache.commons.lang3.StringUtils;
-import com.google.gson.Gson;
 
 /**
  * Utility class containing code shared among clients.
@@ -16,6 +18,10 @@ public class Utils
   // Error msg to use in unlikely event we are unable to extract one from underlying exception
   private static final String ERR_MSG = "Exception encountered but unable to extract message from response or underlying exception";
 
+  // The maximum number of bytes read from an error response body and the maximum
+  // number of its characters retained in an exception.  Longer bodies are truncated.
+  public static final int MAX_ERROR_BODY_SIZE = 64 * 1024;
+
   // ************************************************************************
   // ************************* Enums ****************************************
   // ************************************************************************
@@ -25,8 +31,8 @@ public class Utils
   // ************************************************************************
   // *********************** Fields *****************************************
   // ************************************************************************
-  // Response serializer.
-  private static final Gson _gson = ClientTapisGsonUtils.getGson();
+  // Status codes for which exceptions are created without stack traces.
+  private static volatile Set<Integer> _stacklessCodes = Set.of();
 
   // ************************************************************************
   // *********************** Constructors ***********************************
@@ -43,60 +49,64 @@ public class Utils
   public static void throwTapisClientException(int code, String respBody, Exception e)
           throws TapisClientException
   {
-    // Initialize fields to be assigned to tapis exception.
-    TapisResponse tapisResponse = null;
+    throw makeTapisClientException(code, respBody, e);
+  }
+
+  /* ---------------------------------------------------------------------------- */
+  /* makeTapisClientException:                                                    */
+  /* ---------------------------------------------------------------------------- */
+  /** Create the same exception that throwTapisClientException() throws.  This is 
+   * used by asynchronous calls that complete futures rather than throw.
+   * 
+   * @param code the http status code or -1 if there's no response
+   * @param respBody the response body or null
+   * @param e the underlying exception
+   * @return the new client exception
+   */
+  public static TapisClientException makeTapisClientException(int code, String respBody, Exception e)
+  {
+    // Without a response body the message comes from the underlying exception.
+    // If no other msg available fall back to default msg.
     String msg = null;
+    if (respBody == null && e != null) msg = e.getMessage();
+    if (StringUtils.isBlank(msg)) msg = ERR_MSG;
 
-    // Use information from the thrown ApiException.  If the body was sent by
-    // SK, then it should be json.  Otherwise, we treat it as plain text.
+    // Create the client exception, skipping the stack trace for expected codes.
+    var clientException = new TapisClientException(msg, e, !_stacklessCodes.contains(code));
+    clientException.setCode(code);
+
+    // The response body is decoded only if the message or one of the tapis
+    // exception fields is accessed.  If the body was sent by a Tapis service, then
+    // it should be json.  Otherwise, it's treated as plain text.
     if (respBody != null)
     {
-      try {tapisResponse = _gson.fromJson(respBody, TapisResponse.class);}
-      catch (Exception e1) {msg = respBody;} // not proper json
-    }
-    else msg = e.getMessage();
-    // If top level msg is empty attempt to use msg from response body
-    // If no other msg available fall back to default msg
-    if (StringUtils.isBlank(msg))
-    {
-      if (tapisResponse != null) msg = tapisResponse.message;
-      else msg = ERR_MSG;
+      if (respBody.length() > MAX_ERROR_BODY_SIZE) respBody = respBody.substring(0, MAX_ERROR_BODY_SIZE);
+      clientException.setResponseBody(respBody);
     }
+    return clientException;
+  }
 
-    // Use the extracted information if there's any.
-    if (StringUtils.isBlank(msg))
-      if (tapisResponse != null) msg = tapisResponse.message;
-      else msg = EMsg.ERROR_STATUS.name();
-
-    // Create the client exception.
-    var clientException = new TapisClientException(msg, e);
-
-    // Fill in as many of the tapis exception fields as possible.
-    clientException.setCode(code);
-    if (tapisResponse != null)
-    {
-      clientException.setStatus(tapisResponse.status);
-      clientException.setTapisMessage(tapisResponse.message);
-      clientException.setVersion(tapisResponse.version);
-      clientException.setResult(tapisResponse.result);
-    }
-    // Throw the client exception.
-    throw clientException;
+  /* ---------------------------------------------------------------------------- */
+  /* setStacklessCodes:                                                           */
+  /* ---------------------------------------------------------------------------- */
+  /** Create the exceptions for the given http status codes without stack traces.
+   * Capturing a stack trace is the main cost of creating an exception, so this
+   * helps callers that routinely expect certain codes, such as 404 when probing for
+   * the existence of a resource.  No codes are stackless by default.
+   * 
+   * @param codes the status codes, -1 for failures without a response
+   */
+  public static void setStacklessCodes(Collection<Integer> codes)
+  {
+    _stacklessCodes = codes == null ? Set.of() : Set.copyOf(codes);
   }
 
-  /* **************************************************************************** */
-  /*                               Private Methods                                */
-  /* **************************************************************************** */
+  /* ---------------------------------------------------------------------------- */
+  /* getStacklessCodes:                                                           */
+  /* ---------------------------------------------------------------------------- */
+  public static Set<Integer> getStacklessCodes() { return _stacklessCodes; }
 
   /* **************************************************************************** */
-  /*                                TapisResponse                                 */
+  /*                               Private Methods                                */
   /* **************************************************************************** */
-  // Data transfer class to hold generic response content temporarily.
-  private static final class TapisResponse
-  {
-    private String status;
-    private String message;
-    private String version;
-    private Object result;
-  }
 }
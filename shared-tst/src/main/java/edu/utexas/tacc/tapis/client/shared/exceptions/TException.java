@@ -12,4 +12,9 @@ public class TException
 	// exceptions that still can be tapisified.
 	public TException(String message) {super(message);}
 	public TException(String message, Throwable cause) {super(message, cause);}
+	
+	// Allows subclasses to create exceptions without stack traces.
+	protected TException(String message, Throwable cause, boolean enableSuppression,
+	                     boolean writableStackTrace)
+	{super(message, cause, enableSuppression, writableStackTrace);}
 }
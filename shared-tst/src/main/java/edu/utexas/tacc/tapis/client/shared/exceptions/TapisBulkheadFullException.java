@@ -0,0 +1,29 @@
+package edu.utexas.tacc.tapis.client.shared.exceptions;
+
+import java.io.IOException;
+
+/** Thrown by TapisCircuitBreakerInterceptor and TapisConcurrencyLimitInterceptor
+ * when a request is rejected without being sent because its service already has
+ * the maximum number of requests in progress.  The generated clients wrap it like any other IOException, and
+ * TapisClientExceptions caused by it have the BULKHEAD_FULL category.
+ */
+public class TapisBulkheadFullException
+ extends IOException
+{
+    private static final long serialVersionUID = 3904870134407152312L;
+
+    // The service whose concurrency limit was reached.
+    private final String service;
+
+    // Constructors.
+    public TapisBulkheadFullException(String service)
+    {
+        super("Too many concurrent requests to " + service + "; the request was not sent.");
+        this.service = service;
+    }
+
+    // Accessors.
+    public String getService() {
+        return service;
+    }
+}
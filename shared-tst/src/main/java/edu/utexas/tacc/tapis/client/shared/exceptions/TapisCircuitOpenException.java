@@ -0,0 +1,29 @@
+package edu.utexas.tacc.tapis.client.shared.exceptions;
+
+import java.io.IOException;
+
+/** Thrown by TapisCircuitBreakerInterceptor when a request is rejected without
+ * being sent because the circuit of its service is open.  The generated clients
+ * wrap it like any other IOException, and TapisClientExceptions caused by it have
+ * the CIRCUIT_OPEN category.
+ */
+public class TapisCircuitOpenException
+ extends IOException
+{
+    private static final long serialVersionUID = -5185049620957823413L;
+
+    // The service whose circuit is open.
+    private final String service;
+
+    // Constructors.
+    public TapisCircuitOpenException(String service)
+    {
+        super("The circuit for " + service + " is open; the request was not sent.");
+        this.service = service;
+    }
+
+    // Accessors.
+    public String getService() {
+        return service;
+    }
+}
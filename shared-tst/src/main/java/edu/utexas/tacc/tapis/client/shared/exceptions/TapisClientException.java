@@ -1,10 +1,32 @@
 package edu.utexas.tacc.tapis.client.shared.exceptions;
 
-public class TapisClientException 
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.client.shared.TapisResponse;
+import edu.utexas.tacc.tapis.client.shared.TapisResponseDecoder;
+
+public class TapisClientException
  extends TException
 {
     private static final long serialVersionUID = 2070468207317431854L;
-    
+
+    // Error categories that let callers branch on the kind of failure.
+    //
+    //  NOT_FOUND - 404 or 410 status
+    //  AUTH      - 401 or 403 status
+    //  THROTTLED - 429 status
+    //  CLIENT    - any other non-2xx status below 500
+    //  SERVER        - 5xx status
+    //  CIRCUIT_OPEN  - not sent because the service's circuit breaker is open
+    //  BULKHEAD_FULL - not sent because the service has too many requests in progress
+    //  TRANSPORT     - no response was received
+    //  OTHER         - the failure did not involve a request
+    public enum Category {NOT_FOUND, AUTH, THROTTLED, CLIENT, SERVER, CIRCUIT_OPEN, BULKHEAD_FULL,
+                          TRANSPORT, OTHER}
+
     // Fields.
     private int    code;
     private String status;
@@ -12,10 +34,32 @@ public class TapisClientException
     private String version;
     private Object result;
 
+    // The response body whose decoding is deferred until one of the fields it
+    // supplies is accessed.  Null once decoded or if there is no body.
+    private volatile String responseBody;
+
+    // The message decoded from the response body, which replaces the constructor's
+    // message if the body is a json object or plain text.
+    private String  bodyMessage;
+    private boolean hasBodyMessage;
+
     // Constructors.
     public TapisClientException(String message) {super(message);}
     public TapisClientException(String message, Throwable cause) {super(message, cause);}
-    
+
+    /** Create an exception that optionally does not capture a stack trace, which
+     * makes creating it much cheaper.  Stackless exceptions are intended for
+     * expected failures, such as the 404s returned when probing for existence.
+     *
+     * @param message the message used if none is decoded from a response body
+     * @param cause the underlying exception
+     * @param writableStackTrace false to omit the stack trace
+     */
+    public TapisClientException(String message, Throwable cause, boolean writableStackTrace)
+    {
+        super(message, cause, true, writableStackTrace);
+    }
+
     // Accessors.
     public int getCode() {
         return code;
@@ -24,27 +68,104 @@ public class TapisClientException
         this.code = code;
     }
     public String getStatus() {
+        decodeResponseBody();
         return status;
     }
     public void setStatus(String status) {
+        decodeResponseBody();
         this.status = status;
     }
     public String getTapisMessage() {
+        decodeResponseBody();
         return tapisMessage;
     }
     public void setTapisMessage(String tapisMessage) {
+        decodeResponseBody();
         this.tapisMessage = tapisMessage;
     }
     public String getVersion() {
+        decodeResponseBody();
         return version;
     }
     public void setVersion(String version) {
+        decodeResponseBody();
         this.version = version;
     }
     public Object getResult() {
+        decodeResponseBody();
         return result;
     }
     public void setResult(Object result) {
+        decodeResponseBody();
         this.result = result;
     }
+
+    /** The message decoded from the response body if there is one, otherwise the
+     * constructor's message.
+     */
+    @Override
+    public String getMessage() {
+        decodeResponseBody();
+        return hasBodyMessage ? bodyMessage : super.getMessage();
+    }
+
+    /** Categorize the exception by its code or, when there is no http status, by
+     * its causes.  Code -1 and an IOException cause both indicate that no response
+     * was received.
+     */
+    public Category getCategory() {
+        if (code == 404 || code == 410) return Category.NOT_FOUND;
+        if (code == 401 || code == 403) return Category.AUTH;
+        if (code == 429) return Category.THROTTLED;
+        if (code >= 500) return Category.SERVER;
+        if (code > 0) return Category.CLIENT;
+
+        // Generated clients report transport failures with code 0.
+        for (Throwable t = getCause(); t != null && t != t.getCause(); t = t.getCause()) {
+            if (t instanceof TapisCircuitOpenException) return Category.CIRCUIT_OPEN;
+            if (t instanceof TapisBulkheadFullException) return Category.BULKHEAD_FULL;
+            if (t instanceof IOException) return Category.TRANSPORT;
+        }
+        if (code < 0) return Category.TRANSPORT;
+        return Category.OTHER;
+    }
+
+    /** Assign a response body to be decoded on first access to the message, status,
+     * tapis message, version or result.  A json body supplies the status, tapis
+     * message, version and result, and its tapis message becomes this exception's
+     * message.  Any other non-blank body becomes the message.
+     *
+     * @param responseBody the undecoded response body
+     */
+    public void setResponseBody(String responseBody) {
+        decodeResponseBody();
+        this.responseBody = responseBody;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* decodeResponseBody:                                                          */
+    /* ---------------------------------------------------------------------------- */
+    private void decodeResponseBody()
+    {
+        if (responseBody == null) return;
+        synchronized (this) {
+            String body = responseBody;
+            if (body == null) return;
+
+            // A blank body leaves the constructor's message in place.
+            if (!StringUtils.isBlank(body)) {
+                try {
+                    TapisResponse<Object> resp = TapisResponseDecoder.decode(new StringReader(body), Object.class);
+                    status = resp.getStatus();
+                    tapisMessage = resp.getMessage();
+                    version = resp.getVersion();
+                    result = resp.getResult();
+                    bodyMessage = resp.getMessage();
+                }
+                catch (Exception e) {bodyMessage = body;} // not proper json
+                hasBodyMessage = true;
+            }
+            responseBody = null;
+        }
+    }
 }
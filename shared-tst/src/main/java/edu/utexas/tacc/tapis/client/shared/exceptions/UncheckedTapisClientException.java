@@ -0,0 +1,21 @@
+package edu.utexas.tacc.tapis.client.shared.exceptions;
+
+/** Wraps a TapisClientException where a checked exception cannot be thrown, such as
+ * in Iterator and Stream implementations.  The wrapped exception is available
+ * from getCause().
+ */
+public class UncheckedTapisClientException
+ extends RuntimeException
+{
+    private static final long serialVersionUID = -5404562410283846233L;
+
+    // Constructors.
+    public UncheckedTapisClientException(TapisClientException cause)
+    {
+        super(cause.getMessage(), cause);
+    }
+
+    // Accessors.
+    @Override
+    public synchronized TapisClientException getCause() {return (TapisClientException) super.getCause();}
+}
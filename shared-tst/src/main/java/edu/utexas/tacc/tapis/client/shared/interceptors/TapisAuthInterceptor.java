@@ -0,0 +1,153 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/** OkHttp application interceptor that adds the current JWT from a
+ * TapisTokenSupplier to each request and transparently renews it when a service
+ * rejects it.  Install the interceptor first on a client derived from the shared
+ * transport, so that the shared interceptors see the token, and assign that client
+ * to a generated ApiClient, for example:
+ *
+ *   var builder = ClientHttpTransport.newHttpClientBuilder();
+ *   builder.interceptors().add(0, new TapisAuthInterceptor(supplier));
+ *   apiClient.setHttpClient(builder.build());
+ *
+ * The client should then not be given a JWT through its constructor or
+ * addDefaultHeader(), since requests that already carry an X-Tapis-Token header
+ * are passed through unchanged.  This also lets per-call JWTs take precedence.
+ *
+ * When a request that carries a supplied token receives a 401 response, the token
+ * is renewed once and the request is retried once with the new token.  Requests
+ * with one-shot bodies are not retried.  Renewal is serialized:  a thread that
+ * receives a 401 first checks whether another thread has already replaced the
+ * rejected token and, if so, retries with the replacement instead of renewing
+ * again.  Concurrent 401s caused by one expired token therefore result in a
+ * single token request.
+ *
+ * Supplier failures are reported as IOExceptions, which the generated clients
+ * convert to ApiExceptions.
+ */
+public final class TapisAuthInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Header that carries the JWT.
+    public static final String TAPIS_JWT_HEADER = "X-Tapis-Token";
+
+    // Status code that causes renewal.
+    private static final int HTTP_UNAUTHORIZED = 401;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The token source.
+    private final TapisTokenSupplier _supplier;
+
+    // Serializes renewals.
+    private final Object _renewLock = new Object();
+
+    // Statistics.
+    private final LongAdder _renewals = new LongAdder();
+    private final LongAdder _retries  = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisAuthInterceptor(TapisTokenSupplier supplier)
+    {
+        if (supplier == null) throw new NullPointerException("supplier cannot be null");
+        _supplier = supplier;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        // Requests with explicit tokens are not our concern.
+        var request = chain.request();
+        if (request.header(TAPIS_JWT_HEADER) != null) return chain.proceed(request);
+
+        // Send the request with the current token.
+        String token = getToken();
+        if (token == null) return chain.proceed(request);
+        var response = chain.proceed(withToken(request, token));
+        if (response.code() != HTTP_UNAUTHORIZED) return response;
+
+        // Determine whether the request can be retried.
+        var body = request.body();
+        if (body != null && body.isOneShot()) return response;
+        String renewed;
+        try {renewed = renew(token);}
+        catch (IOException | RuntimeException e) {
+            // Release the rejected response's connection.
+            response.close();
+            throw e;
+        }
+        if (renewed == null || renewed.equals(token)) return response;
+
+        // Retry once with the new token.
+        response.close();
+        _retries.increment();
+        return chain.proceed(withToken(request, renewed));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisTokenSupplier getSupplier() {return _supplier;}
+    public long getRenewalCount() {return _renewals.sum();}
+    public long getRetryCount() {return _retries.sum();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getToken:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    private String getToken() throws IOException
+    {
+        try {return _supplier.getToken();}
+        catch (TapisClientException e) {
+            throw new IOException("Unable to obtain a Tapis token: " + e.getMessage(), e);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* renew:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Replace the rejected token unless another thread already has. */
+    private String renew(String rejected) throws IOException
+    {
+        synchronized (_renewLock) {
+            String current = getToken();
+            if (!Objects.equals(current, rejected)) return current;
+            _renewals.increment();
+            try {return _supplier.renewToken();}
+            catch (TapisClientException e) {
+                throw new IOException("Unable to renew a Tapis token: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* withToken:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    private static Request withToken(Request request, String token)
+    {
+        return request.newBuilder().header(TAPIS_JWT_HEADER, token).build();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Limits the number of calls in progress to one Tapis service so that a slow
+ * service cannot tie up every thread that calls Tapis.  Each service has its own
+ * pool of permits, so calls to other services are unaffected when one service's
+ * permits are exhausted.  This class is thread-safe.
+ */
+public final class TapisBulkhead
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The service and its permits.
+    private final String    _service;
+    private final int       _maxConcurrentCalls;
+    private final Semaphore _permits;
+
+    // Statistics.
+    private final LongAdder _rejections = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisBulkhead(String service, int maxConcurrentCalls)
+    {
+        if (service == null) throw new NullPointerException("service cannot be null");
+        if (maxConcurrentCalls < 1) throw new IllegalArgumentException("maxConcurrentCalls must be positive");
+        _service = service;
+        _maxConcurrentCalls = maxConcurrentCalls;
+        _permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquire:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Obtain a permit, waiting up to the given time for one to be released.
+     *
+     * @param maxWaitMillis the maximum wait, 0 to not wait
+     * @return true if a permit was obtained, false if the call is rejected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire(long maxWaitMillis) throws InterruptedException
+    {
+        boolean acquired = maxWaitMillis <= 0 ? _permits.tryAcquire()
+                               : _permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        if (!acquired) _rejections.increment();
+        return acquired;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* release:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    public void release() {_permits.release();}
+
+    // Accessors.
+    public String getService() {return _service;}
+    public int getMaxConcurrentCalls() {return _maxConcurrentCalls;}
+    public int getConcurrentCalls() {return _maxConcurrentCalls - _permits.availablePermits();}
+    public int getWaitingCalls() {return _permits.getQueueLength();}
+    public long getRejectionCount() {return _rejections.sum();}
+}
@@ -0,0 +1,202 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.concurrent.TimeUnit;
+
+/** Circuit breaker for one Tapis service.  While the circuit is closed, calls are
+ * allowed and their outcomes are recorded in a window of the most recent calls.
+ * When the window holds at least the minimum number of calls and the percentage
+ * of failures reaches the threshold, the circuit opens and calls are rejected.
+ * After the open period the circuit becomes half-open and admits a limited number
+ * of trial calls.  If they all succeed the circuit closes; if any fails the
+ * circuit opens again.
+ *
+ * Callers invoke tryAcquire() before a call and then exactly one of onSuccess(),
+ * onFailure() or release() when it completes.  This class is thread-safe.
+ */
+public final class TapisCircuitBreaker
+{
+    /* **************************************************************************** */
+    /*                                    Enums                                     */
+    /* **************************************************************************** */
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The service and configuration.
+    private final String _service;
+    private final int    _failureRateThreshold;
+    private final int    _minimumCalls;
+    private final long   _openNanos;
+    private final int    _halfOpenCalls;
+
+    // Ring buffer of recent outcomes, true for failures.
+    private final boolean[] _window;
+    private int _windowNext;
+    private int _windowCount;
+    private int _windowFailures;
+
+    // Current state.
+    private State _state = State.CLOSED;
+    private long  _openedAtNanos;
+    private int   _halfOpenPermits;
+    private int   _halfOpenSuccesses;
+
+    // Statistics.
+    private long _successes;
+    private long _failures;
+    private long _rejections;
+    private long _opens;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisCircuitBreaker(String service, TapisCircuitBreakerParms parms)
+    {
+        if (service == null) throw new NullPointerException("service cannot be null");
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _service = service;
+        _failureRateThreshold = parms.getFailureRateThreshold();
+        _minimumCalls = Math.min(parms.getMinimumCalls(), parms.getWindowSize());
+        _openNanos = TimeUnit.MILLISECONDS.toNanos(parms.getOpenMillis());
+        _halfOpenCalls = parms.getHalfOpenCalls();
+        _window = new boolean[parms.getWindowSize()];
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquire:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether a call is allowed.
+     *
+     * @return true if the call may proceed, false if it's rejected
+     */
+    public synchronized boolean tryAcquire()
+    {
+        if (_state == State.CLOSED) return true;
+
+        // Move to half-open once the open period has elapsed.
+        if (_state == State.OPEN) {
+            if (System.nanoTime() - _openedAtNanos < _openNanos) {
+                _rejections++;
+                return false;
+            }
+            _state = State.HALF_OPEN;
+            _halfOpenPermits = _halfOpenCalls;
+            _halfOpenSuccesses = 0;
+        }
+
+        // Admit a limited number of trial calls.
+        if (_halfOpenPermits > 0) {
+            _halfOpenPermits--;
+            return true;
+        }
+        _rejections++;
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* onSuccess:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public synchronized void onSuccess()
+    {
+        _successes++;
+        if (_state == State.HALF_OPEN) {
+            if (++_halfOpenSuccesses >= _halfOpenCalls) close();
+        }
+        else if (_state == State.CLOSED) record(false);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* onFailure:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public synchronized void onFailure()
+    {
+        _failures++;
+        if (_state == State.HALF_OPEN) open();
+        else if (_state == State.CLOSED) {
+            record(true);
+            if (_windowCount >= _minimumCalls &&
+                _windowFailures * 100L >= (long) _failureRateThreshold * _windowCount)
+                open();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* release:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Complete an admitted call without recording an outcome, for example when it
+     * was cancelled.
+     */
+    public synchronized void release()
+    {
+        if (_state == State.HALF_OPEN && _halfOpenPermits < _halfOpenCalls - _halfOpenSuccesses)
+            _halfOpenPermits++;
+    }
+
+    // Accessors.
+    public String getService() {return _service;}
+    public synchronized State getState() {return _state;}
+    public synchronized long getSuccessCount() {return _successes;}
+    public synchronized long getFailureCount() {return _failures;}
+    public synchronized long getRejectionCount() {return _rejections;}
+    public synchronized long getOpenCount() {return _opens;}
+
+    /** The percentage of failures among the calls in the window, or -1 if there
+     * are fewer than the minimum number of calls.
+     */
+    public synchronized int getFailureRate()
+    {
+        if (_windowCount < _minimumCalls) return -1;
+        return (int) (_windowFailures * 100L / _windowCount);
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* record:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    private void record(boolean failure)
+    {
+        if (_windowCount == _window.length) {
+            if (_window[_windowNext]) _windowFailures--;
+        }
+        else _windowCount++;
+        _window[_windowNext] = failure;
+        if (failure) _windowFailures++;
+        _windowNext = (_windowNext + 1) % _window.length;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* open:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    private void open()
+    {
+        _state = State.OPEN;
+        _openedAtNanos = System.nanoTime();
+        _opens++;
+        clearWindow();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* close:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    private void close()
+    {
+        _state = State.CLOSED;
+        clearWindow();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* clearWindow:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    private void clearWindow()
+    {
+        _windowNext = 0;
+        _windowCount = 0;
+        _windowFailures = 0;
+    }
+}
@@ -0,0 +1,187 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisBulkheadFullException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisCircuitOpenException;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/** OkHttp application interceptor that isolates Tapis services from each other.
+ * Each service, identified by the scheme, host, port and service root of its
+ * requests' urls (for example https://tacc.tapis.io:443/v3/systems), gets its own
+ * TapisCircuitBreaker and TapisBulkhead.  The shared transport installs
+ * one on its http client, so it applies to all client modules.
+ *
+ * Requests to a service whose circuit is open fail immediately with a
+ * TapisCircuitOpenException, and requests to a service that has reached its limit
+ * of concurrent requests fail with a TapisBulkheadFullException.  Neither request
+ * is sent.  The generated clients wrap these exceptions like other transport
+ * failures, and the resulting TapisClientExceptions have the CIRCUIT_OPEN or
+ * BULKHEAD_FULL category.  A degraded service therefore stops consuming threads
+ * and connections that calls to healthy services need.
+ *
+ * 5xx responses and transport failures count as failures of the service.  Other
+ * responses count as successes.  Cancelled calls and requests rejected without
+ * being sent by an interceptor that follows, such as the concurrency limiter,
+ * are not counted, so client-side throttling cannot open a circuit.  The
+ * interceptor is installed ahead of the retry interceptor, so a request and its
+ * retries count as one call and requests rejected here are not retried.
+ */
+public final class TapisCircuitBreakerInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final TapisCircuitBreakerParms _parms;
+
+    // The circuit breakers and bulkheads keyed by service.
+    private final ConcurrentHashMap<String,TapisCircuitBreaker> _circuitBreakers =
+        new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String,TapisBulkhead> _bulkheads =
+        new ConcurrentHashMap<>();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /**
+     * @param parms the circuit breaker and bulkhead configuration
+     */
+    public TapisCircuitBreakerInterceptor(TapisCircuitBreakerParms parms)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _parms = parms;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        var request = chain.request();
+        if (!_parms.isEnabled()) return chain.proceed(request);
+        String service = getServiceKey(request.url());
+
+        // Fail fast when the service's circuit is open.
+        var circuitBreaker = _circuitBreakers.computeIfAbsent(service,
+                                 k -> new TapisCircuitBreaker(k, _parms));
+        if (!circuitBreaker.tryAcquire()) throw new TapisCircuitOpenException(service);
+
+        // Limit the number of requests in progress to the service.
+        var bulkhead = _bulkheads.computeIfAbsent(service,
+                           k -> new TapisBulkhead(k, _parms.getMaxConcurrentCalls()));
+        boolean acquired;
+        try {acquired = bulkhead.tryAcquire(_parms.getMaxWaitMillis());}
+        catch (InterruptedException e) {
+            circuitBreaker.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + service + ".");
+        }
+        if (!acquired) {
+            circuitBreaker.release();
+            throw new TapisBulkheadFullException(service);
+        }
+
+        // Send the request and record its outcome.
+        boolean recorded = false;
+        try {
+            Response response = chain.proceed(request);
+            if (response.code() >= 500) circuitBreaker.onFailure();
+            else circuitBreaker.onSuccess();
+            recorded = true;
+            return response;
+        }
+        catch (IOException e) {
+            if (!chain.call().isCanceled() && !isRejection(e)) {
+                circuitBreaker.onFailure();
+                recorded = true;
+            }
+            throw e;
+        }
+        finally {
+            if (!recorded) circuitBreaker.release();
+            bulkhead.release();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getServiceKey:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    /** The key that identifies the service of a url, consisting of the scheme, host,
+     * port and service root.  The service root is the first path segment, preceded
+     * by the api version segment if there is one, so that /v3/security/user and
+     * /v3/security/role, or /security/user and /security/role, are one service.
+     *
+     * @param url a request url
+     * @return the service key
+     */
+    public static String getServiceKey(HttpUrl url)
+    {
+        var buf = new StringBuilder(64);
+        buf.append(url.scheme()).append("://").append(url.host()).append(':').append(url.port());
+        var segments = url.pathSegments();
+        int depth = !segments.isEmpty() && isVersion(segments.get(0)) ? 2 : 1;
+        for (int i = 0; i < Math.min(depth, segments.size()); i++) {
+            if (segments.get(i).isEmpty()) break;
+            buf.append('/').append(segments.get(i));
+        }
+        return buf.toString();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisCircuitBreakerParms getParms() {return _parms;}
+
+    /** The circuit breaker of a service or null if it has not been called. */
+    public TapisCircuitBreaker getCircuitBreaker(String service) {return _circuitBreakers.get(service);}
+
+    /** The bulkhead of a service or null if it has not been called. */
+    public TapisBulkhead getBulkhead(String service) {return _bulkheads.get(service);}
+
+    /** The circuit states of the services that have been called, keyed by service. */
+    public Map<String,TapisCircuitBreaker.State> getCircuitStates()
+    {
+        var states = new TreeMap<String,TapisCircuitBreaker.State>();
+        for (var entry : _circuitBreakers.entrySet()) states.put(entry.getKey(), entry.getValue().getState());
+        return states;
+    }
+
+    /* **************************************************************************** */
+    /*                                Package Methods                               */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isRejection:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Whether a failure is a local rejection of a request that was never sent. */
+    static boolean isRejection(IOException e)
+    {
+        return e instanceof TapisBulkheadFullException || e instanceof TapisCircuitOpenException;
+    }
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isVersion:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Whether a path segment is an api version such as v3. */
+    private static boolean isVersion(String segment)
+    {
+        if (segment.length() < 2 || segment.charAt(0) != 'v') return false;
+        for (int i = 1; i < segment.length(); i++)
+            if (!Character.isDigit(segment.charAt(i))) return false;
+        return true;
+    }
+}
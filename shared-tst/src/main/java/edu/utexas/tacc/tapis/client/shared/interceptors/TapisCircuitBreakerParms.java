@@ -0,0 +1,73 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+/** Configuration values for TapisCircuitBreakerInterceptor, which applies a
+ * circuit breaker and a bulkhead to each Tapis service.  All times are in
+ * milliseconds.  Fluent-style setters allow configuration in one statement.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class TapisCircuitBreakerParms
+{
+    // Defaults.
+    public static final int  DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final int  DEFAULT_WINDOW_SIZE            = 50;
+    public static final int  DEFAULT_MINIMUM_CALLS          = 20;
+    public static final long DEFAULT_OPEN_MILLIS            = 30 * 1000;
+    public static final int  DEFAULT_HALF_OPEN_CALLS        = 3;
+    public static final int  DEFAULT_MAX_CONCURRENT_CALLS   = 128;
+    public static final long DEFAULT_MAX_WAIT_MILLIS        = 0;
+
+    // Fields.
+    private boolean enabled              = true;
+    private int     failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private int     windowSize           = DEFAULT_WINDOW_SIZE;
+    private int     minimumCalls         = DEFAULT_MINIMUM_CALLS;
+    private long    openMillis           = DEFAULT_OPEN_MILLIS;
+    private int     halfOpenCalls        = DEFAULT_HALF_OPEN_CALLS;
+    private int     maxConcurrentCalls   = DEFAULT_MAX_CONCURRENT_CALLS;
+    private long    maxWaitMillis        = DEFAULT_MAX_WAIT_MILLIS;
+
+    // Accessors.
+    public boolean isEnabled() {return enabled;}
+    public TapisCircuitBreakerParms setEnabled(boolean enabled)
+        {this.enabled = enabled; return this;}
+
+    // The percentage of failed calls in the window that opens the circuit.
+    public int getFailureRateThreshold() {return failureRateThreshold;}
+    public TapisCircuitBreakerParms setFailureRateThreshold(int failureRateThreshold)
+        {if (failureRateThreshold > 0 && failureRateThreshold <= 100) this.failureRateThreshold = failureRateThreshold; return this;}
+
+    // The number of most recent calls whose outcomes determine the failure rate.
+    public int getWindowSize() {return windowSize;}
+    public TapisCircuitBreakerParms setWindowSize(int windowSize)
+        {if (windowSize > 0) this.windowSize = windowSize; return this;}
+
+    // The number of calls in the window before the failure rate is evaluated.
+    public int getMinimumCalls() {return minimumCalls;}
+    public TapisCircuitBreakerParms setMinimumCalls(int minimumCalls)
+        {if (minimumCalls > 0) this.minimumCalls = minimumCalls; return this;}
+
+    // How long an open circuit rejects calls before allowing trial calls.
+    public long getOpenMillis() {return openMillis;}
+    public TapisCircuitBreakerParms setOpenMillis(long openMillis)
+        {if (openMillis > 0) this.openMillis = openMillis; return this;}
+
+    // The number of successful trial calls that close a half-open circuit.
+    public int getHalfOpenCalls() {return halfOpenCalls;}
+    public TapisCircuitBreakerParms setHalfOpenCalls(int halfOpenCalls)
+        {if (halfOpenCalls > 0) this.halfOpenCalls = halfOpenCalls; return this;}
+
+    // The bulkhead's limit on calls in progress to one service, including calls
+    // waiting for the service's concurrency limit.  The default is half the
+    // transport's default maxRequests, so one service cannot hold every thread,
+    // and is above its default maxRequestsPerHost, so asynchronous calls queued
+    // by the dispatcher are not rejected here.
+    public int getMaxConcurrentCalls() {return maxConcurrentCalls;}
+    public TapisCircuitBreakerParms setMaxConcurrentCalls(int maxConcurrentCalls)
+        {if (maxConcurrentCalls > 0) this.maxConcurrentCalls = maxConcurrentCalls; return this;}
+
+    // How long a call waits for the bulkhead before it is rejected.
+    public long getMaxWaitMillis() {return maxWaitMillis;}
+    public TapisCircuitBreakerParms setMaxWaitMillis(long maxWaitMillis)
+        {if (maxWaitMillis >= 0) this.maxWaitMillis = maxWaitMillis; return this;}
+}
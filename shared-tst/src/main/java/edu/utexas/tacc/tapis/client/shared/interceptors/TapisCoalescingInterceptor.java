@@ -0,0 +1,250 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/** OkHttp application interceptor that coalesces concurrent identical read
+ * requests ("single flight").  When a request arrives while an identical request
+ * is in progress, it waits for that request's response instead of sending its own.
+ * Requests are identical when their methods, urls and headers are equal; since the
+ * headers include the X-Tapis-Token or other credentials, only requests made with
+ * the same identity share a response.  Only requests whose methods are configured
+ * as coalescable, by default GET and HEAD, and that have no body are coalesced.
+ *
+ * The shared transport installs one as its first interceptor when coalescing is
+ * enabled, so waiting requests do not count against circuit breakers or
+ * concurrency limits.  Interceptors that add credentials, such as
+ * TapisAuthInterceptor, must run before this one so that the credentials are part
+ * of the comparison.
+ *
+ * The first request's response body is buffered, up to a configured size, and
+ * each waiting request receives its own copy, which its generated client then
+ * deserializes into its own model objects.  Model objects are mutable, so they are
+ * not shared.  If the body is too large, or the first request is cancelled, the
+ * waiting requests are sent individually.  If the first request fails with a
+ * transport error, the waiting requests fail with an IOException caused by it.
+ *
+ * Responses are shared only while the first request is in progress; nothing is
+ * cached after it completes.  The copies sent by a TapisHedgingInterceptor are not
+ * coalesced, since they would otherwise wait for the request they copy.
+ */
+public final class TapisCoalescingInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // How often a waiting request checks whether its own call was cancelled.
+    private static final long CANCEL_CHECK_MILLIS = 100;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final TapisCoalescingParms _parms;
+
+    // The requests in progress keyed by request.  A null result means that the
+    // waiting requests must send their own.
+    private final ConcurrentHashMap<String,CompletableFuture<SharedResponse>> _inFlight =
+        new ConcurrentHashMap<>();
+
+    // Statistics.
+    private final LongAdder _requests  = new LongAdder();
+    private final LongAdder _coalesced = new LongAdder();
+    private final LongAdder _unshared  = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /**
+     * @param parms the coalescing configuration
+     */
+    public TapisCoalescingInterceptor(TapisCoalescingParms parms)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _parms = parms;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        var request = chain.request();
+        if (!_parms.isEnabled() || request.body() != null ||
+            !_parms.getMethods().contains(request.method()) ||
+            TapisHedgingInterceptor.isCopy(chain.call()))
+            return chain.proceed(request);
+        _requests.increment();
+
+        // Either send the request or wait for the identical one in progress.
+        String key = getKey(request);
+        var flight = new CompletableFuture<SharedResponse>();
+        var existing = _inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            var shared = await(chain, existing);
+            if (shared != null) {
+                _coalesced.increment();
+                return shared.toResponse(request);
+            }
+            _unshared.increment();
+            return chain.proceed(request);
+        }
+        return send(chain, key, flight);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisCoalescingParms getParms() {return _parms;}
+    public long getRequestCount() {return _requests.sum();}
+    public long getCoalescedCount() {return _coalesced.sum();}
+    public long getUnsharedCount() {return _unshared.sum();}
+    public int getInFlightCount() {return _inFlight.size();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* send:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Send the request and share its response with the requests that arrive while
+     * it is in progress.
+     */
+    private Response send(Chain chain, String key, CompletableFuture<SharedResponse> flight)
+     throws IOException
+    {
+        SharedResponse shared = null;
+        try {
+            var response = chain.proceed(chain.request());
+            shared = SharedResponse.of(response, _parms.getMaxBodySize());
+            return shared == null ? response : shared.toResponse(chain.request());
+        }
+        catch (IOException e) {
+            if (!chain.call().isCanceled()) {
+                _inFlight.remove(key, flight);
+                flight.completeExceptionally(e);
+            }
+            throw e;
+        }
+        finally {
+            // Later requests start a new flight.
+            _inFlight.remove(key, flight);
+            flight.complete(shared);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* await:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Wait for the response of the identical request in progress.
+     *
+     * @return the shared response or null if this request must be sent
+     */
+    private static SharedResponse await(Chain chain, CompletableFuture<SharedResponse> flight)
+     throws IOException
+    {
+        while (true) {
+            if (chain.call().isCanceled()) throw new IOException("Canceled");
+            try {return flight.get(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);}
+            catch (TimeoutException e) {}
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a coalesced request.");
+            }
+            catch (ExecutionException e) {
+                var cause = e.getCause();
+                throw new IOException("Coalesced request failed: " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getKey:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    private static String getKey(Request request)
+    {
+        var buf = new StringBuilder(256);
+        buf.append(request.method()).append(' ').append(request.url()).append('\n');
+        Headers headers = request.headers();
+        for (int i = 0; i < headers.size(); i++)
+            buf.append(headers.name(i).toLowerCase()).append(':').append(headers.value(i)).append('\n');
+        return buf.toString();
+    }
+
+    /* **************************************************************************** */
+    /*                                SharedResponse                                */
+    /* **************************************************************************** */
+    /** A buffered response that can be given to any number of requests. */
+    private static final class SharedResponse
+    {
+        private final Protocol  protocol;
+        private final int       code;
+        private final String    message;
+        private final Headers   headers;
+        private final MediaType contentType;
+        private final byte[]    body;
+        private final long      sentMillis;
+        private final long      receivedMillis;
+
+        private SharedResponse(Response response, byte[] body)
+        {
+            protocol = response.protocol();
+            code = response.code();
+            message = response.message();
+            headers = response.headers();
+            contentType = response.body() == null ? null : response.body().contentType();
+            this.body = body;
+            sentMillis = response.sentRequestAtMillis();
+            receivedMillis = response.receivedResponseAtMillis();
+        }
+
+        /** Buffer a response's body, closing the response.  Return null and leave
+         * the response open if the body is larger than the maximum size.  The
+         * response is also closed if reading its body fails.
+         */
+        private static SharedResponse of(Response response, int maxBodySize) throws IOException
+        {
+            var responseBody = response.body();
+            if (responseBody == null) return new SharedResponse(response, new byte[0]);
+            long length = responseBody.contentLength();
+            if (length > maxBodySize) return null;
+            if (length < 0) {
+                long peeked;
+                try {peeked = response.peekBody(maxBodySize + 1L).contentLength();}
+                catch (IOException | RuntimeException e) {
+                    // Release the connection before reporting the failure.
+                    response.close();
+                    throw e;
+                }
+                if (peeked > maxBodySize) return null;
+            }
+            try (responseBody) {return new SharedResponse(response, responseBody.bytes());}
+        }
+
+        private Response toResponse(Request request)
+        {
+            return new Response.Builder().request(request).protocol(protocol).code(code).message(message)
+                       .headers(headers).body(ResponseBody.create(body, contentType))
+                       .sentRequestAtMillis(sentMillis).receivedResponseAtMillis(receivedMillis).build();
+        }
+    }
+}
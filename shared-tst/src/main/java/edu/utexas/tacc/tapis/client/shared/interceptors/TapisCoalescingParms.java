@@ -0,0 +1,37 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.Set;
+
+/** Configuration values for TapisCoalescingInterceptor, which lets concurrent
+ * identical read requests share one response.  Coalescing is disabled by default.
+ * Fluent-style setters allow configuration in one statement.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class TapisCoalescingParms
+{
+    // Defaults.
+    public static final int         DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+    public static final Set<String> DEFAULT_METHODS       = Set.of("GET", "HEAD");
+
+    // Fields.
+    private boolean     enabled     = false;
+    private int         maxBodySize = DEFAULT_MAX_BODY_SIZE;
+    private Set<String> methods     = DEFAULT_METHODS;
+
+    // Accessors.
+    public boolean isEnabled() {return enabled;}
+    public TapisCoalescingParms setEnabled(boolean enabled)
+        {this.enabled = enabled; return this;}
+
+    // The largest response body that is buffered and shared.  Waiting requests
+    // send their own request when a response is larger.
+    public int getMaxBodySize() {return maxBodySize;}
+    public TapisCoalescingParms setMaxBodySize(int maxBodySize)
+        {if (maxBodySize >= 0) this.maxBodySize = maxBodySize; return this;}
+
+    // The http methods of requests that are coalesced, which must be safe to share.
+    public Set<String> getMethods() {return methods;}
+    public TapisCoalescingParms setMethods(Set<String> methods)
+        {if (methods != null) this.methods = Set.copyOf(methods); return this;}
+}
@@ -0,0 +1,125 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisBulkheadFullException;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/** OkHttp application interceptor that gives each Tapis service an adaptive
+ * concurrency limit.  Services are identified as in TapisCircuitBreakerInterceptor,
+ * and each gets a TapisConcurrencyLimiter that raises its limit while latency
+ * stays flat and lowers it when latency rises or requests fail.  The shared
+ * transport installs one on its http client, so it applies to all client modules
+ * when enabled.  The transport raises the dispatcher's per-host limit to the
+ * maximum limit, which then bounds the dispatcher threads that requests waiting
+ * for one host's limits can hold.
+ *
+ * A request that arrives when its service is at its limit waits for another
+ * request to complete.  If it waits longer than the configured maximum it fails
+ * with a TapisBulkheadFullException without being sent.  The interceptor is
+ * installed after the retry interceptor, so every attempt is limited and measured
+ * separately and the delays between retries do not count as latency.
+ *
+ * Transport failures and 429 and 503 responses indicate overload.  Cancelled
+ * requests do not change the limit.
+ */
+public final class TapisConcurrencyLimitInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final TapisConcurrencyLimitParms _parms;
+
+    // The limiters keyed by service.
+    private final ConcurrentHashMap<String,TapisConcurrencyLimiter> _limiters =
+        new ConcurrentHashMap<>();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /**
+     * @param parms the limiter configuration
+     */
+    public TapisConcurrencyLimitInterceptor(TapisConcurrencyLimitParms parms)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _parms = parms;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        var request = chain.request();
+        if (!_parms.isEnabled()) return chain.proceed(request);
+        String service = TapisCircuitBreakerInterceptor.getServiceKey(request.url());
+        var limiter = _limiters.computeIfAbsent(service, k -> new TapisConcurrencyLimiter(k, _parms));
+
+        // Wait for the service to be below its limit.
+        boolean acquired;
+        try {acquired = limiter.tryAcquire(_parms.getMaxWaitMillis());}
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + service + ".");
+        }
+        if (!acquired) throw new TapisBulkheadFullException(service);
+
+        // Send the request and measure it.
+        int inFlight = limiter.getInFlight();
+        long startNanos = System.nanoTime();
+        boolean completed = false;
+        try {
+            Response response = chain.proceed(request);
+            if (response.code() == 429 || response.code() == 503) limiter.onDropped(startNanos);
+            else limiter.onSuccess(startNanos, inFlight);
+            completed = true;
+            return response;
+        }
+        catch (IOException e) {
+            if (!chain.call().isCanceled()) {
+                limiter.onDropped(startNanos);
+                completed = true;
+            }
+            throw e;
+        }
+        finally {
+            if (!completed) limiter.release();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisConcurrencyLimitParms getParms() {return _parms;}
+
+    /** The limiter of a service or null if it has not been called. */
+    public TapisConcurrencyLimiter getLimiter(String service) {return _limiters.get(service);}
+
+    /** The current limits of the services that have been called, keyed by service. */
+    public Map<String,Integer> getLimits()
+    {
+        var limits = new TreeMap<String,Integer>();
+        for (var entry : _limiters.entrySet()) limits.put(entry.getKey(), entry.getValue().getLimit());
+        return limits;
+    }
+
+    /** The number of requests waiting for each service, keyed by service. */
+    public Map<String,Integer> getQueueDepths()
+    {
+        var depths = new TreeMap<String,Integer>();
+        for (var entry : _limiters.entrySet()) depths.put(entry.getKey(), entry.getValue().getQueueDepth());
+        return depths;
+    }
+}
@@ -0,0 +1,74 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+/** Configuration values for TapisConcurrencyLimitInterceptor, which adapts the
+ * number of concurrent requests allowed to each Tapis service.  The limits are
+ * disabled by default.  When enabled they apply to synchronous calls as well as
+ * asynchronous ones, and the maximum limit replaces the transport's
+ * maxRequestsPerHost if it is higher.  All times are in milliseconds.
+ * Fluent-style setters allow configuration in one statement.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class TapisConcurrencyLimitParms
+{
+    // Defaults.
+    public static final int    DEFAULT_INITIAL_LIMIT     = 20;
+    public static final int    DEFAULT_MIN_LIMIT         = 4;
+    public static final int    DEFAULT_MAX_LIMIT         = 64;
+    public static final double DEFAULT_BACKOFF_RATIO     = 0.9;
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+    public static final int    DEFAULT_MIN_RTT_WINDOW    = 500;
+    public static final long   DEFAULT_MAX_WAIT_MILLIS   = 10 * 1000;
+
+    // Fields.
+    private boolean enabled          = false;
+    private int     initialLimit     = DEFAULT_INITIAL_LIMIT;
+    private int     minLimit         = DEFAULT_MIN_LIMIT;
+    private int     maxLimit         = DEFAULT_MAX_LIMIT;
+    private double  backoffRatio     = DEFAULT_BACKOFF_RATIO;
+    private double  latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+    private int     minRttWindow     = DEFAULT_MIN_RTT_WINDOW;
+    private long    maxWaitMillis    = DEFAULT_MAX_WAIT_MILLIS;
+
+    // Accessors.
+    public boolean isEnabled() {return enabled;}
+    public TapisConcurrencyLimitParms setEnabled(boolean enabled)
+        {this.enabled = enabled; return this;}
+
+    // The limit of a service before any requests complete.
+    public int getInitialLimit() {return initialLimit;}
+    public TapisConcurrencyLimitParms setInitialLimit(int initialLimit)
+        {if (initialLimit > 0) this.initialLimit = initialLimit; return this;}
+
+    // The lowest limit that backing off can reach.
+    public int getMinLimit() {return minLimit;}
+    public TapisConcurrencyLimitParms setMinLimit(int minLimit)
+        {if (minLimit > 0) this.minLimit = minLimit; return this;}
+
+    // The highest limit that increases can reach.  The dispatcher's per-host
+    // limit is raised to this value when it is lower.
+    public int getMaxLimit() {return maxLimit;}
+    public TapisConcurrencyLimitParms setMaxLimit(int maxLimit)
+        {if (maxLimit > 0) this.maxLimit = maxLimit; return this;}
+
+    // The factor applied to the limit when latency rises or a request fails.
+    public double getBackoffRatio() {return backoffRatio;}
+    public TapisConcurrencyLimitParms setBackoffRatio(double backoffRatio)
+        {if (backoffRatio >= 0.5 && backoffRatio < 1) this.backoffRatio = backoffRatio; return this;}
+
+    // How many times the minimum latency the smoothed latency can reach before
+    // the limit is reduced.
+    public double getLatencyTolerance() {return latencyTolerance;}
+    public TapisConcurrencyLimitParms setLatencyTolerance(double latencyTolerance)
+        {if (latencyTolerance > 1) this.latencyTolerance = latencyTolerance; return this;}
+
+    // The number of requests over which the minimum latency is measured.
+    public int getMinRttWindow() {return minRttWindow;}
+    public TapisConcurrencyLimitParms setMinRttWindow(int minRttWindow)
+        {if (minRttWindow > 0) this.minRttWindow = minRttWindow; return this;}
+
+    // How long a request waits for the limit before it is rejected.
+    public long getMaxWaitMillis() {return maxWaitMillis;}
+    public TapisConcurrencyLimitParms setMaxWaitMillis(long maxWaitMillis)
+        {if (maxWaitMillis >= 0) this.maxWaitMillis = maxWaitMillis; return this;}
+}
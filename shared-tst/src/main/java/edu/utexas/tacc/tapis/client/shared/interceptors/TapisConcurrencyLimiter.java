@@ -0,0 +1,204 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.concurrent.TimeUnit;
+
+/** Adaptive limit on the number of concurrent requests to one Tapis service.  The
+ * limit is adjusted by additive increase, multiplicative decrease (AIMD) using
+ * latency as the congestion signal:
+ *
+ *  - The minimum latency measured over a window of recent requests approximates
+ *    the service's latency without queueing.
+ *  - While the smoothed latency stays within a tolerance of the minimum and the
+ *    service is using at least half of its limit, each completed request raises
+ *    the limit by one.
+ *  - When the smoothed latency exceeds the tolerance while the service is using
+ *    at least half of its limit, or a request fails with a transport error or
+ *    is throttled, the limit is multiplied by the backoff ratio.  Latency that
+ *    rises while the limit is mostly unused is not caused by queueing and does
+ *    not reduce the limit.  Only requests that started after the last backoff cause another
+ *    one, so a burst of slow responses reduces the limit once.
+ *
+ * The limit therefore grows until the service starts queueing requests and then
+ * tracks the concurrency the service can sustain.  Requests that arrive when the
+ * limit is reached wait for a request to complete.
+ *
+ * Callers invoke tryAcquire() before a request and then exactly one of onSuccess(),
+ * onDropped() or release() when it completes.  This class is thread-safe.
+ */
+public final class TapisConcurrencyLimiter
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // The weight of each latency sample in the smoothed latency.
+    private static final double SMOOTHING = 0.2;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The service and configuration.
+    private final String _service;
+    private final int    _minLimit;
+    private final int    _maxLimit;
+    private final double _backoffRatio;
+    private final double _latencyTolerance;
+    private final int    _minRttWindow;
+
+    // Current limit and usage.
+    private double _limit;
+    private int    _inFlight;
+    private int    _waiting;
+
+    // Latency tracking in nanoseconds.
+    private long   _minRtt;
+    private long   _windowMinRtt = Long.MAX_VALUE;
+    private int    _windowSamples;
+    private double _smoothedRtt;
+    private long   _lastBackoffNanos;
+
+    // Statistics.
+    private long _requests;
+    private long _rejections;
+    private long _backoffs;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisConcurrencyLimiter(String service, TapisConcurrencyLimitParms parms)
+    {
+        if (service == null) throw new NullPointerException("service cannot be null");
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _service = service;
+        _minLimit = Math.min(parms.getMinLimit(), parms.getMaxLimit());
+        _maxLimit = parms.getMaxLimit();
+        _backoffRatio = parms.getBackoffRatio();
+        _latencyTolerance = parms.getLatencyTolerance();
+        _minRttWindow = parms.getMinRttWindow();
+        _limit = Math.max(_minLimit, Math.min(_maxLimit, parms.getInitialLimit()));
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquire:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Start a request, waiting up to the given time if the limit is reached.
+     *
+     * @param maxWaitMillis the maximum wait, 0 to not wait
+     * @return true if the request may proceed, false if it's rejected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean tryAcquire(long maxWaitMillis) throws InterruptedException
+    {
+        if (_inFlight >= (int) _limit) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            _waiting++;
+            try {
+                while (_inFlight >= (int) _limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        _rejections++;
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            finally {_waiting--;}
+        }
+        _inFlight++;
+        _requests++;
+        return true;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* onSuccess:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Complete a request that received a response.
+     *
+     * @param startNanos the System.nanoTime() when the request was sent
+     * @param inFlight the number of requests in progress when it was sent
+     */
+    public synchronized void onSuccess(long startNanos, int inFlight)
+    {
+        complete();
+        long rtt = Math.max(1, System.nanoTime() - startNanos);
+
+        // Track the minimum latency of the current and previous windows.
+        if (_minRtt == 0 || rtt < _minRtt) _minRtt = rtt;
+        if (rtt < _windowMinRtt) _windowMinRtt = rtt;
+        if (++_windowSamples >= _minRttWindow) {
+            _minRtt = _windowMinRtt;
+            _windowMinRtt = Long.MAX_VALUE;
+            _windowSamples = 0;
+        }
+        _smoothedRtt = _smoothedRtt == 0 ? rtt : _smoothedRtt + SMOOTHING * (rtt - _smoothedRtt);
+
+        // Adjust the limit only when it is in use.
+        if (inFlight * 2 < _limit) return;
+        if (_smoothedRtt > _minRtt * _latencyTolerance) backoff(startNanos);
+        else if (_limit < _maxLimit) {
+            _limit = Math.min(_maxLimit, _limit + 1);
+            notifyAll();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* onDropped:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Complete a request that failed or was throttled, which indicates overload.
+     *
+     * @param startNanos the System.nanoTime() when the request was sent
+     */
+    public synchronized void onDropped(long startNanos)
+    {
+        complete();
+        backoff(startNanos);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* release:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Complete a request without adjusting the limit, for example when it was
+     * cancelled.
+     */
+    public synchronized void release()
+    {
+        complete();
+    }
+
+    // Accessors.
+    public String getService() {return _service;}
+    public synchronized int getLimit() {return (int) _limit;}
+    public synchronized int getInFlight() {return _inFlight;}
+    public synchronized int getQueueDepth() {return _waiting;}
+    public synchronized long getMinRttMicros() {return TimeUnit.NANOSECONDS.toMicros(_minRtt);}
+    public synchronized long getSmoothedRttMicros() {return TimeUnit.NANOSECONDS.toMicros((long) _smoothedRtt);}
+    public synchronized long getRequestCount() {return _requests;}
+    public synchronized long getRejectionCount() {return _rejections;}
+    public synchronized long getBackoffCount() {return _backoffs;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* complete:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    private void complete()
+    {
+        _inFlight--;
+        if (_waiting > 0) notify();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* backoff:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Reduce the limit unless it was already reduced after the request started. */
+    private void backoff(long startNanos)
+    {
+        if (_backoffs > 0 && startNanos - _lastBackoffNanos < 0) return;
+        _limit = Math.max(_minLimit, _limit * _backoffRatio);
+        _lastBackoffNanos = System.nanoTime();
+        _backoffs++;
+    }
+}
@@ -0,0 +1,393 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/** OkHttp application interceptor that hedges slow read requests.  When a request
+ * has not received a response within the configured latency percentile of recent
+ * requests to the same service, an identical request is sent and whichever
+ * response arrives first is used.  The other request is cancelled.  Hedging cuts
+ * the tail latency caused by occasional slow service replicas.
+ *
+ * Only idempotent requests are hedged:  requests whose methods are configured as
+ * hedgeable, by default GET and HEAD, and requests to configured read-only paths,
+ * by default the Security Kernel's POST queries such as isPermitted.  Requests
+ * with one-shot bodies are never hedged.  No request is hedged until enough
+ * latencies have been measured for its service.
+ *
+ * The extra load is capped by a TapisRetryBudget that allows the configured
+ * number of hedges per hedgeable request, so hedging cannot double the load on a
+ * service that is slow for every request.
+ *
+ * The copies of a hedged request are clones of the caller's call, so each copy is
+ * sent by the caller's own http client with its timeouts and interceptors.  A
+ * copy passes through this interceptor again without being hedged, and through
+ * the interceptors after it, which in the shared transport are the circuit
+ * breaker, retry and concurrency limit interceptors.  The retry interceptor does
+ * not count the second copy as a request in its budget.  If one copy fails while
+ * the other is in progress, the other's outcome is used.
+ *
+ * The primary copy is executed on the caller's thread, and only the second copy
+ * is executed on this interceptor's own bounded thread pool, never on the
+ * dispatcher.  A caller's dispatcher thread is therefore never waiting for a
+ * dispatcher slot that only another waiting caller could free.  When every
+ * hedging thread is busy, the second copy is not sent.
+ *
+ * The hedge delay is a percentile of the primary copies' latencies.  A primary
+ * that is cancelled because the second copy won is recorded with the time it ran,
+ * which is a lower bound on its latency.  The percentile only depends on whether
+ * latencies are above or below it, and such a lower bound is always above the
+ * delay.  The second copies' latencies are not recorded.
+ */
+public final class TapisHedgingInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // How often a hedged request checks whether the caller's call was cancelled.
+    private static final long CANCEL_CHECK_MILLIS = 100;
+
+    // Sends hedges when their delays expire.
+    private static final ScheduledThreadPoolExecutor _scheduler = createScheduler();
+
+    // The copies in progress, which are not hedged again, and the second copies
+    // among them.
+    private static final Set<Call> _copies = ConcurrentHashMap.newKeySet();
+    private static final Set<Call> _hedges = ConcurrentHashMap.newKeySet();
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final TapisHedgingParms  _parms;
+    private final TapisRetryBudget   _budget;
+    private final ThreadPoolExecutor _executor;
+
+    // The latency trackers keyed by method and service.
+    private final ConcurrentHashMap<String,TapisLatencyTracker> _trackers =
+        new ConcurrentHashMap<>();
+
+    // Statistics.
+    private final LongAdder _requests        = new LongAdder();
+    private final LongAdder _hedgesFired     = new LongAdder();
+    private final LongAdder _hedgesWon       = new LongAdder();
+    private final LongAdder _budgetExhausted = new LongAdder();
+    private final LongAdder _threadsBusy     = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /**
+     * @param parms the hedging configuration
+     */
+    public TapisHedgingInterceptor(TapisHedgingParms parms)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        _parms = parms;
+        _budget = new TapisRetryBudget(parms.getHedgeRatio(), 0);
+        _executor = createExecutor(parms.getMaxThreads());
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        var request = chain.request();
+        if (isCopy(chain.call()) || !isHedgeable(request)) return chain.proceed(request);
+        _requests.increment();
+        _budget.recordRequest();
+        String key = request.method() + " " + TapisCircuitBreakerInterceptor.getServiceKey(request.url());
+        var tracker = _trackers.computeIfAbsent(key,
+                          k -> new TapisLatencyTracker(_parms.getPercentile(), _parms.getMinSamples()));
+
+        // Requests are only hedged once the service's latency is known.
+        long percentileMillis = tracker.getPercentileMillis();
+        if (percentileMillis >= 0)
+            return hedge(chain, tracker, Math.max(_parms.getMinDelayMillis(), percentileMillis));
+        long startNanos = System.nanoTime();
+        var response = chain.proceed(request);
+        tracker.record(System.nanoTime() - startNanos);
+        return response;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisHedgingParms getParms() {return _parms;}
+    public TapisRetryBudget getBudget() {return _budget;}
+    public long getRequestCount() {return _requests.sum();}
+    public long getHedgesFiredCount() {return _hedgesFired.sum();}
+    public long getHedgesWonCount() {return _hedgesWon.sum();}
+    public long getBudgetExhaustedCount() {return _budgetExhausted.sum();}
+    public long getThreadsBusyCount() {return _threadsBusy.sum();}
+
+    /** The current hedge delays in milliseconds, or -1 if not yet known, keyed by
+     * method and service.
+     */
+    public Map<String,Long> getDelays()
+    {
+        var delays = new TreeMap<String,Long>();
+        for (var entry : _trackers.entrySet()) {
+            long millis = entry.getValue().getPercentileMillis();
+            delays.put(entry.getKey(), millis < 0 ? -1 : Math.max(_parms.getMinDelayMillis(), millis));
+        }
+        return delays;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isCopy:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Whether a call is a copy sent by a hedging interceptor.  Copies are not
+     * hedged or coalesced again.
+     */
+    static boolean isCopy(Call call) {return _copies.contains(call);}
+
+    /* ---------------------------------------------------------------------------- */
+    /* isHedge:                                                                     */
+    /* ---------------------------------------------------------------------------- */
+    /** Whether a call is the second copy of a hedged request.  Second copies are
+     * not counted as requests by retry budgets.
+     */
+    static boolean isHedge(Call call) {return _hedges.contains(call);}
+
+    /* ---------------------------------------------------------------------------- */
+    /* getTracker:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** The latency tracker for a method and service, or null if there is none. */
+    TapisLatencyTracker getTracker(String key) {return _trackers.get(key);}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isHedgeable:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    private boolean isHedgeable(Request request)
+    {
+        if (!_parms.isEnabled()) return false;
+        var body = request.body();
+        if (body != null && body.isOneShot()) return false;
+        if (_parms.getMethods().contains(request.method())) return true;
+        String path = request.url().encodedPath();
+        for (var readOnlyPath : _parms.getReadOnlyPaths())
+            if (path.endsWith(readOnlyPath)) return true;
+        return false;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hedge:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    /** Send a copy of the request on this thread and a second copy on a hedging
+     * thread after the delay if there's no response by then.  The copy is a clone of
+     * the caller's call so that it can be cancelled when the second copy wins.
+     * Cancellation of the caller's call is checked periodically and cancels both.
+     */
+    private Response hedge(Chain chain, TapisLatencyTracker tracker, long delayMillis)
+     throws IOException
+    {
+        var race = new Race();
+        var primary = chain.call().clone();
+        race.start(primary);
+        var timer = _scheduler.schedule(() -> {
+            if (race.isDone()) return;
+            if (!_budget.tryAcquireRetry()) {
+                _budgetExhausted.increment();
+                return;
+            }
+            if (send(race, chain.call().clone())) _hedgesFired.increment();
+            else if (!race.isDone()) _threadsBusy.increment();
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        var watcher = _scheduler.scheduleWithFixedDelay(() -> {
+            if (chain.call().isCanceled()) race.cancelAll();
+        }, CANCEL_CHECK_MILLIS, CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+
+        try {
+            // Record the primary's latency if it answered or lost to the second copy.
+            long startNanos = System.nanoTime();
+            _copies.add(primary);
+            try {race.onResponse(primary, primary.execute());}
+            catch (IOException e) {race.onFailure(primary, e);}
+            catch (RuntimeException | Error e) {race.cancelAll(); throw e;}
+            finally {_copies.remove(primary);}
+            timer.cancel(false);
+            if (race.isAnswered()) tracker.record(System.nanoTime() - startNanos);
+
+            // Wait for the second copy if the primary failed.
+            Call winner = race.await(chain);
+            if (winner != primary) _hedgesWon.increment();
+            return race.response();
+        }
+        finally {
+            timer.cancel(false);
+            watcher.cancel(false);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* send:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Execute a second copy on a hedging thread, returning false if the race is
+     * already decided or no thread is free.
+     */
+    private boolean send(Race race, Call copy)
+    {
+        if (!race.start(copy)) return false;
+        _copies.add(copy);
+        _hedges.add(copy);
+        try {
+            _executor.execute(() -> {
+                try {race.onResponse(copy, copy.execute());}
+                catch (IOException e) {race.onFailure(copy, e);}
+                catch (Throwable e) {race.onFailure(copy, new IOException(e));}
+                finally {
+                    _copies.remove(copy);
+                    _hedges.remove(copy);
+                }
+            });
+            return true;
+        }
+        catch (RejectedExecutionException e) {
+            _copies.remove(copy);
+            _hedges.remove(copy);
+            race.remove(copy);
+            return false;
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* createExecutor:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Create the pool that runs the second copies.  It has no queue, so a copy either
+     * starts at once or is rejected, and idle threads exit.
+     */
+    private static ThreadPoolExecutor createExecutor(int maxThreads)
+    {
+        var count = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            var thread = new Thread(r, "TapisClientHedge-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* createScheduler:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    private static ScheduledThreadPoolExecutor createScheduler()
+    {
+        var scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            var thread = new Thread(r, "TapisClientHedgeTimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /* **************************************************************************** */
+    /*                                     Race                                     */
+    /* **************************************************************************** */
+    /** The copies of one request.  The first response wins and the other copies are
+     * cancelled.  The request fails only if every copy fails.
+     */
+    private static final class Race
+    {
+        private final List<Call> calls = new ArrayList<>(2);
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        private Call        winner;
+        private int         failures;
+        private IOException firstFailure;
+
+        /** Add a copy, returning false if the race is already decided. */
+        private synchronized boolean start(Call call)
+        {
+            if (result.isDone()) return false;
+            calls.add(call);
+            return true;
+        }
+
+        /** Remove a copy that could not be sent. */
+        private synchronized void remove(Call call)
+        {
+            calls.remove(call);
+            if (!result.isDone() && !calls.isEmpty() && failures >= calls.size())
+                result.completeExceptionally(firstFailure);
+        }
+
+        private boolean isDone() {return result.isDone();}
+
+        /** Whether some copy has a response. */
+        private synchronized boolean isAnswered() {return winner != null;}
+
+        private void onResponse(Call call, Response response)
+        {
+            synchronized (this) {
+                if (result.isDone()) {
+                    response.close();
+                    return;
+                }
+                winner = call;
+                result.complete(response);
+                for (var other : calls) if (other != call) other.cancel();
+            }
+        }
+
+        private synchronized void onFailure(Call call, IOException e)
+        {
+            if (result.isDone()) return;
+            if (firstFailure == null) firstFailure = e;
+            if (++failures >= calls.size()) result.completeExceptionally(firstFailure);
+        }
+
+        /** Wait for the outcome, returning the winning call.  The caller's call is
+         * cancelled by the watcher, which cancels every copy.
+         */
+        private Call await(Chain chain) throws IOException
+        {
+            try {result.get();}
+            catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a hedged request.");
+            }
+            catch (ExecutionException e) {
+                if (chain.call().isCanceled()) throw new IOException("Canceled");
+                throw (IOException) e.getCause();
+            }
+            synchronized (this) {return winner;}
+        }
+
+        private Response response() {return result.getNow(null);}
+
+        private synchronized void cancelAll()
+        {
+            for (var call : calls) call.cancel();
+        }
+    }
+}
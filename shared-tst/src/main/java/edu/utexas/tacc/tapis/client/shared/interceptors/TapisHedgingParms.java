@@ -0,0 +1,79 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.Set;
+
+/** Configuration values for TapisHedgingInterceptor, which sends a second copy of
+ * a slow read request and uses whichever response arrives first.  Hedging is
+ * disabled by default.  All times are in milliseconds.  Fluent-style setters allow
+ * configuration in one statement.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class TapisHedgingParms
+{
+    // Defaults.
+    public static final int         DEFAULT_PERCENTILE       = 95;
+    public static final int         DEFAULT_MIN_SAMPLES      = 50;
+    public static final long        DEFAULT_MIN_DELAY_MILLIS = 5;
+    public static final double      DEFAULT_HEDGE_RATIO      = 0.05;
+    public static final int         DEFAULT_MAX_THREADS      = 64;
+    public static final Set<String> DEFAULT_METHODS          = Set.of("GET", "HEAD");
+
+    // The Security Kernel endpoints that use POST to submit queries.
+    public static final Set<String> DEFAULT_READ_ONLY_PATHS  = Set.of(
+        "/security/user/hasRole", "/security/user/hasRoleAll", "/security/user/hasRoleAny",
+        "/security/user/isAdmin", "/security/user/isPermitted", "/security/user/isPermittedAll",
+        "/security/user/isPermittedAny");
+
+    // Fields.
+    private boolean     enabled        = false;
+    private int         percentile     = DEFAULT_PERCENTILE;
+    private int         minSamples     = DEFAULT_MIN_SAMPLES;
+    private long        minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+    private double      hedgeRatio     = DEFAULT_HEDGE_RATIO;
+    private int         maxThreads     = DEFAULT_MAX_THREADS;
+    private Set<String> methods        = DEFAULT_METHODS;
+    private Set<String> readOnlyPaths  = DEFAULT_READ_ONLY_PATHS;
+
+    // Accessors.
+    public boolean isEnabled() {return enabled;}
+    public TapisHedgingParms setEnabled(boolean enabled)
+        {this.enabled = enabled; return this;}
+
+    // The latency percentile after which a hedge is sent.
+    public int getPercentile() {return percentile;}
+    public TapisHedgingParms setPercentile(int percentile)
+        {if (percentile > 0 && percentile < 100) this.percentile = percentile; return this;}
+
+    // The number of latencies measured before requests are hedged.
+    public int getMinSamples() {return minSamples;}
+    public TapisHedgingParms setMinSamples(int minSamples)
+        {if (minSamples > 0) this.minSamples = minSamples; return this;}
+
+    // The shortest delay before a hedge is sent.
+    public long getMinDelayMillis() {return minDelayMillis;}
+    public TapisHedgingParms setMinDelayMillis(long minDelayMillis)
+        {if (minDelayMillis >= 0) this.minDelayMillis = minDelayMillis; return this;}
+
+    // The hedges allowed per hedgeable request, which caps the added load.
+    public double getHedgeRatio() {return hedgeRatio;}
+    public TapisHedgingParms setHedgeRatio(double hedgeRatio)
+        {if (hedgeRatio >= 0 && hedgeRatio <= 1) this.hedgeRatio = hedgeRatio; return this;}
+
+    // The most threads sending the second copies of hedged requests.  When
+    // every thread is busy, slow requests are not hedged.
+    public int getMaxThreads() {return maxThreads;}
+    public TapisHedgingParms setMaxThreads(int maxThreads)
+        {if (maxThreads > 0) this.maxThreads = maxThreads; return this;}
+
+    // The http methods of requests that are hedged, which must be idempotent.
+    public Set<String> getMethods() {return methods;}
+    public TapisHedgingParms setMethods(Set<String> methods)
+        {if (methods != null) this.methods = Set.copyOf(methods); return this;}
+
+    // The url path endings of requests that are hedged regardless of method
+    // because they do not change anything.
+    public Set<String> getReadOnlyPaths() {return readOnlyPaths;}
+    public TapisHedgingParms setReadOnlyPaths(Set<String> readOnlyPaths)
+        {if (readOnlyPaths != null) this.readOnlyPaths = Set.copyOf(readOnlyPaths); return this;}
+}
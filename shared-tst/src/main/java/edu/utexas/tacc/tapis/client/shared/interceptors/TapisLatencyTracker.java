@@ -0,0 +1,97 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Tracks the latency distribution of recent requests.  Latencies are kept in a
+ * fixed-size ring buffer and the configured percentile is recomputed after every
+ * few samples, so reading it is inexpensive.  This class is thread-safe.
+ */
+public final class TapisLatencyTracker
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // The number of latencies kept.
+    private static final int WINDOW_SIZE = 1024;
+
+    // The percentile is recomputed after this many samples.
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final int _percentile;
+    private final int _minSamples;
+
+    // Ring buffer of latencies in nanoseconds.
+    private final long[] _samples = new long[WINDOW_SIZE];
+    private int  _next;
+    private long _count;
+
+    // The latency at the percentile or -1 if not yet known.
+    private long _percentileNanos = -1;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /**
+     * @param percentile the percentile to track, between 1 and 99
+     * @param minSamples the number of samples needed before the percentile is known
+     */
+    public TapisLatencyTracker(int percentile, int minSamples)
+    {
+        if (percentile < 1 || percentile > 99)
+            throw new IllegalArgumentException("percentile must be between 1 and 99");
+        _percentile = percentile;
+        _minSamples = Math.max(1, Math.min(minSamples, WINDOW_SIZE));
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* record:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    public synchronized void record(long latencyNanos)
+    {
+        _samples[_next] = latencyNanos;
+        _next = (_next + 1) % WINDOW_SIZE;
+        _count++;
+        if (_count == _minSamples || (_count > _minSamples && _count % RECOMPUTE_INTERVAL == 0))
+            recompute();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getPercentileMillis:                                                         */
+    /* ---------------------------------------------------------------------------- */
+    /** The latency at the tracked percentile.
+     *
+     * @return the latency in milliseconds or -1 if there are too few samples
+     */
+    public synchronized long getPercentileMillis()
+    {
+        if (_percentileNanos < 0) return -1;
+        return TimeUnit.NANOSECONDS.toMillis(_percentileNanos);
+    }
+
+    // Accessors.
+    public int getPercentile() {return _percentile;}
+    public synchronized long getSampleCount() {return _count;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* recompute:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    private void recompute()
+    {
+        int n = (int) Math.min(_count, WINDOW_SIZE);
+        long[] sorted = Arrays.copyOf(_samples, n);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(n * _percentile / 100.0) - 1;
+        _percentileNanos = sorted[Math.max(0, index)];
+    }
+}
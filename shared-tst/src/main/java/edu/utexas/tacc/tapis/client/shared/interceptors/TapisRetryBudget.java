@@ -0,0 +1,157 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Limits retries to a fraction of the requests sent so that retries cannot
+ * multiply the load on a service that is already failing.  Each request deposits
+ * the retry ratio into a balance and each retry withdraws one from it, so with
+ * a ratio of 0.1 at most one retry is allowed per ten requests over time.  The
+ * balance is capped so that a long healthy period does not accumulate enough
+ * credit to allow a burst of retries during an outage.  In addition, a small
+ * number of retries per second is always allowed so that retries remain possible
+ * at low request rates.
+ *
+ * All TapisRetryInterceptors share the process budget by default.  This class is
+ * thread-safe.
+ */
+public final class TapisRetryBudget
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Defaults.
+    public static final double DEFAULT_RETRY_RATIO            = 0.1;
+    public static final int    DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+
+    // The balance is capped at the credit deposited by this many requests.
+    private static final int MAX_BALANCE_REQUESTS = 1000;
+
+    // Balances are kept in thousandths of a retry.
+    private static final long UNIT = 1000;
+
+    // The budget shared by default.
+    private static final TapisRetryBudget _processBudget = new TapisRetryBudget();
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final double _retryRatio;
+    private final int    _minRetriesPerSecond;
+    private final long   _deposit;
+    private final long   _maxBalance;
+
+    // The ratio based balance in thousandths of a retry.
+    private final AtomicLong _balance = new AtomicLong();
+
+    // The retries allowed in the current second regardless of the balance.  The
+    // second is packed into the high bits and the remaining count into the low 32.
+    private final AtomicLong _reserve = new AtomicLong();
+
+    // Statistics.
+    private final LongAdder _requests = new LongAdder();
+    private final LongAdder _granted  = new LongAdder();
+    private final LongAdder _denied   = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisRetryBudget()
+    {
+        this(DEFAULT_RETRY_RATIO, DEFAULT_MIN_RETRIES_PER_SECOND);
+    }
+
+    /**
+     * @param retryRatio the retries allowed per request, between 0 and 1
+     * @param minRetriesPerSecond the retries allowed each second regardless of ratio
+     */
+    public TapisRetryBudget(double retryRatio, int minRetriesPerSecond)
+    {
+        if (retryRatio < 0 || retryRatio > 1)
+            throw new IllegalArgumentException("retryRatio must be between 0 and 1");
+        if (minRetriesPerSecond < 0)
+            throw new IllegalArgumentException("minRetriesPerSecond cannot be negative");
+        _retryRatio = retryRatio;
+        _minRetriesPerSecond = minRetriesPerSecond;
+        _deposit = Math.round(retryRatio * UNIT);
+        _maxBalance = Math.max(UNIT, _deposit * MAX_BALANCE_REQUESTS);
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getProcessBudget:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** The budget shared by all interceptors that are not given their own. */
+    public static TapisRetryBudget getProcessBudget() {return _processBudget;}
+
+    /* ---------------------------------------------------------------------------- */
+    /* recordRequest:                                                               */
+    /* ---------------------------------------------------------------------------- */
+    /** Credit the budget for a new request, not counting retries. */
+    public void recordRequest()
+    {
+        _requests.increment();
+        if (_deposit == 0) return;
+        _balance.accumulateAndGet(_deposit, (cur, d) -> Math.min(cur + d, _maxBalance));
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquireRetry:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    /** Withdraw one retry from the budget.
+     *
+     * @return true if the retry is allowed, false if the budget is exhausted
+     */
+    public boolean tryAcquireRetry()
+    {
+        if (tryAcquireReserve() || tryAcquireBalance()) {
+            _granted.increment();
+            return true;
+        }
+        _denied.increment();
+        return false;
+    }
+
+    // Accessors.
+    public double getRetryRatio() {return _retryRatio;}
+    public int getMinRetriesPerSecond() {return _minRetriesPerSecond;}
+    public double getBalance() {return (double) _balance.get() / UNIT;}
+    public long getRequestCount() {return _requests.sum();}
+    public long getGrantedCount() {return _granted.sum();}
+    public long getDeniedCount() {return _denied.sum();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquireReserve:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    private boolean tryAcquireReserve()
+    {
+        if (_minRetriesPerSecond == 0) return false;
+        long second = System.nanoTime() / 1_000_000_000L;
+        while (true) {
+            long cur = _reserve.get();
+            long curSecond = cur >>> 32;
+            long remaining = curSecond == (second & 0xffffffffL) ? cur & 0xffffffffL : _minRetriesPerSecond;
+            if (remaining == 0) return false;
+            long next = ((second & 0xffffffffL) << 32) | (remaining - 1);
+            if (_reserve.compareAndSet(cur, next)) return true;
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* tryAcquireBalance:                                                           */
+    /* ---------------------------------------------------------------------------- */
+    private boolean tryAcquireBalance()
+    {
+        while (true) {
+            long cur = _balance.get();
+            if (cur < UNIT) return false;
+            if (_balance.compareAndSet(cur, cur - UNIT)) return true;
+        }
+    }
+}
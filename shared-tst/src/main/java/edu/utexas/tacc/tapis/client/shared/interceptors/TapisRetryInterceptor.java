@@ -0,0 +1,240 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/** OkHttp application interceptor that retries requests that fail with transport
+ * errors or with transient status codes such as 502 and 503.  The shared
+ * transport installs one on its http client, so it applies to all client modules.
+ *
+ * Only requests whose http method is retryable, by default the idempotent methods,
+ * are retried, and requests with one-shot bodies are never retried.  The delay
+ * before each retry is chosen at random between zero and an exponentially growing
+ * bound ("full jitter"), which spreads out the retries of many clients that failed
+ * at the same time.  A response's Retry-After header, in seconds or as an http
+ * date, sets the delay instead; if it asks for more than the configured maximum,
+ * the response is returned without retrying.  Retries that would extend past the
+ * call's timeout are not attempted.  Requests rejected locally without being sent,
+ * because a circuit is open or a bulkhead or concurrency limit is full, are not
+ * retried; they already waited or failed fast by design.
+ *
+ * Every retry must also be granted by a TapisRetryBudget, the process budget by
+ * default, which limits retries to a fraction of all requests so that an outage
+ * is not amplified by retry traffic.  The second copies sent by a hedging
+ * interceptor are not counted as requests, since they are extra load themselves.
+ *
+ * When a request is not retried, the last response is returned or the last
+ * transport exception is thrown, so callers see the same failures they would
+ * without the interceptor.
+ */
+public final class TapisRetryInterceptor
+ implements Interceptor
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Response header with the server's requested delay.
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Configuration.
+    private final TapisRetryParms  _parms;
+    private final TapisRetryBudget _budget;
+
+    // Statistics.
+    private final LongAdder _requests        = new LongAdder();
+    private final LongAdder _attempts        = new LongAdder();
+    private final LongAdder _retries         = new LongAdder();
+    private final LongAdder _giveUps         = new LongAdder();
+    private final LongAdder _budgetExhausted = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    /** Create an interceptor that uses the process retry budget.
+     *
+     * @param parms the retry configuration
+     */
+    public TapisRetryInterceptor(TapisRetryParms parms)
+    {
+        this(parms, TapisRetryBudget.getProcessBudget());
+    }
+
+    /**
+     * @param parms the retry configuration
+     * @param budget the budget that grants retries
+     */
+    public TapisRetryInterceptor(TapisRetryParms parms, TapisRetryBudget budget)
+    {
+        if (parms == null) throw new NullPointerException("parms cannot be null");
+        if (budget == null) throw new NullPointerException("budget cannot be null");
+        _parms = parms;
+        _budget = budget;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* intercept:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        var request = chain.request();
+        _requests.increment();
+        if (!TapisHedgingInterceptor.isHedge(chain.call())) _budget.recordRequest();
+        boolean retryable = isRetryable(request);
+        long startNanos = System.nanoTime();
+
+        for (int attempt = 1; ; attempt++) {
+            // Send the request and decide whether its outcome can be retried.
+            _attempts.increment();
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+                if (!_parms.getRetryableCodes().contains(response.code())) return response;
+            }
+            catch (IOException e) {
+                if (chain.call().isCanceled() || TapisCircuitBreakerInterceptor.isRejection(e)) throw e;
+                failure = e;
+            }
+            if (!retryable) return done(response, failure);
+
+            // Determine the delay and whether the retry is allowed.
+            long delayMillis = getDelayMillis(response, attempt);
+            if (attempt >= _parms.getMaxAttempts() || delayMillis < 0 ||
+                !fitsTimeout(chain, startNanos, delayMillis))
+            {
+                _giveUps.increment();
+                return done(response, failure);
+            }
+            if (!_budget.tryAcquireRetry()) {
+                _budgetExhausted.increment();
+                _giveUps.increment();
+                return done(response, failure);
+            }
+
+            // Wait and retry.
+            if (response != null) response.close();
+            sleep(delayMillis);
+            _retries.increment();
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisRetryParms getParms() {return _parms;}
+    public TapisRetryBudget getBudget() {return _budget;}
+    public long getRequestCount() {return _requests.sum();}
+    public long getAttemptCount() {return _attempts.sum();}
+    public long getRetryCount() {return _retries.sum();}
+    public long getGiveUpCount() {return _giveUps.sum();}
+    public long getBudgetExhaustedCount() {return _budgetExhausted.sum();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isRetryable:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    private boolean isRetryable(Request request)
+    {
+        if (_parms.getMaxAttempts() < 2) return false;
+        if (!_parms.getRetryableMethods().contains(request.method())) return false;
+        var body = request.body();
+        return body == null || !body.isOneShot();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* getDelayMillis:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** The delay before the next attempt, or -1 if the server asked for a longer
+     * delay than allowed.
+     */
+    private long getDelayMillis(Response response, int attempt)
+    {
+        // The server's delay takes precedence.
+        if (response != null) {
+            long retryAfter = parseRetryAfter(response.header(RETRY_AFTER_HEADER));
+            if (retryAfter >= 0) return retryAfter <= _parms.getMaxRetryAfterMillis() ? retryAfter : -1;
+        }
+
+        // Full jitter: a random delay up to the capped exponential bound.
+        int shift = Math.min(attempt - 1, 30);
+        long bound = Math.min(_parms.getMaxDelayMillis(), _parms.getBaseDelayMillis() << shift);
+        if (bound <= 0) bound = _parms.getMaxDelayMillis();
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* parseRetryAfter:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    /** Parse a Retry-After value in seconds or as an http date.
+     *
+     * @return the delay in milliseconds or -1 if there's no valid value
+     */
+    static long parseRetryAfter(String value)
+    {
+        if (value == null || value.isBlank()) return -1;
+        value = value.trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(Math.min(seconds, Integer.MAX_VALUE));
+        }
+        catch (NumberFormatException e) {}
+        try {
+            Instant when = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, when.toEpochMilli() - System.currentTimeMillis());
+        }
+        catch (Exception e) {return -1;}
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* fitsTimeout:                                                                 */
+    /* ---------------------------------------------------------------------------- */
+    /** Whether a retry after the delay would start before the call times out. */
+    private static boolean fitsTimeout(Chain chain, long startNanos, long delayMillis)
+    {
+        long timeoutNanos = chain.call().timeout().timeoutNanos();
+        if (timeoutNanos == 0) return true;
+        return System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(delayMillis) < timeoutNanos;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* sleep:                                                                       */
+    /* ---------------------------------------------------------------------------- */
+    private static void sleep(long millis) throws InterruptedIOException
+    {
+        if (millis <= 0) return;
+        try {Thread.sleep(millis);}
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry.");
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* done:                                                                        */
+    /* ---------------------------------------------------------------------------- */
+    /** Return the final response or throw the final failure. */
+    private static Response done(Response response, IOException failure) throws IOException
+    {
+        if (failure != null) throw failure;
+        return response;
+    }
+}
@@ -0,0 +1,57 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.util.Set;
+
+/** Configuration values for TapisRetryInterceptor.  All times are in milliseconds.
+ * Fluent-style setters allow configuration in one statement.  A maximum of one
+ * attempt disables retries.
+ *
+ * Setters ignore values that are out of range so that the defaults are retained.
+ */
+public final class TapisRetryParms
+{
+    // Defaults.
+    public static final int          DEFAULT_MAX_ATTEMPTS           = 3;
+    public static final long         DEFAULT_BASE_DELAY_MILLIS      = 100;
+    public static final long         DEFAULT_MAX_DELAY_MILLIS       = 5 * 1000;
+    public static final long         DEFAULT_MAX_RETRY_AFTER_MILLIS = 30 * 1000;
+    public static final Set<Integer> DEFAULT_RETRYABLE_CODES        = Set.of(429, 502, 503, 504);
+    public static final Set<String>  DEFAULT_IDEMPOTENT_METHODS     =
+        Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+
+    // Fields.
+    private int          maxAttempts         = DEFAULT_MAX_ATTEMPTS;
+    private long         baseDelayMillis     = DEFAULT_BASE_DELAY_MILLIS;
+    private long         maxDelayMillis      = DEFAULT_MAX_DELAY_MILLIS;
+    private long         maxRetryAfterMillis = DEFAULT_MAX_RETRY_AFTER_MILLIS;
+    private Set<Integer> retryableCodes      = DEFAULT_RETRYABLE_CODES;
+    private Set<String>  retryableMethods    = DEFAULT_IDEMPOTENT_METHODS;
+
+    // Accessors.
+    public int getMaxAttempts() {return maxAttempts;}
+    public TapisRetryParms setMaxAttempts(int maxAttempts)
+        {if (maxAttempts > 0) this.maxAttempts = maxAttempts; return this;}
+
+    public long getBaseDelayMillis() {return baseDelayMillis;}
+    public TapisRetryParms setBaseDelayMillis(long baseDelayMillis)
+        {if (baseDelayMillis > 0) this.baseDelayMillis = baseDelayMillis; return this;}
+
+    public long getMaxDelayMillis() {return maxDelayMillis;}
+    public TapisRetryParms setMaxDelayMillis(long maxDelayMillis)
+        {if (maxDelayMillis > 0) this.maxDelayMillis = maxDelayMillis; return this;}
+
+    // Responses whose Retry-After header asks for a longer wait are not retried.
+    public long getMaxRetryAfterMillis() {return maxRetryAfterMillis;}
+    public TapisRetryParms setMaxRetryAfterMillis(long maxRetryAfterMillis)
+        {if (maxRetryAfterMillis >= 0) this.maxRetryAfterMillis = maxRetryAfterMillis; return this;}
+
+    // Status codes that are retried.  Transport failures are always retryable.
+    public Set<Integer> getRetryableCodes() {return retryableCodes;}
+    public TapisRetryParms setRetryableCodes(Set<Integer> retryableCodes)
+        {if (retryableCodes != null) this.retryableCodes = Set.copyOf(retryableCodes); return this;}
+
+    // Http methods that are retried, the idempotent methods by default.
+    public Set<String> getRetryableMethods() {return retryableMethods;}
+    public TapisRetryParms setRetryableMethods(Set<String> retryableMethods)
+        {if (retryableMethods != null) this.retryableMethods = Set.copyOf(retryableMethods); return this;}
+}
@@ -0,0 +1,28 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Source of the serialized JWTs that TapisAuthInterceptor places in the
+ * X-Tapis-Token header of outgoing requests.  Implementations are typically backed
+ * by a Tokens service or Authenticator client and cache the current token.
+ *
+ * Implementations must be thread-safe.  After renewToken() returns, getToken()
+ * must return the renewed token (or a newer one) until it is renewed again.
+ */
+public interface TapisTokenSupplier
+{
+    /** Get the current token, obtaining one if necessary.
+     *
+     * @return the serialized token or null if no token is available
+     * @throws TapisClientException if a token cannot be obtained
+     */
+    String getToken() throws TapisClientException;
+
+    /** Discard the current token and obtain a new one.  This method is called when
+     * a service rejects the current token.
+     *
+     * @return the new serialized token or null if no token is available
+     * @throws TapisClientException if a token cannot be obtained
+     */
+    String renewToken() throws TapisClientException;
+}
@@ -32,6 +32,8 @@ import java.time.*;
 
 /**
  * The {@code Converters} class contains static methods for registering Java Time converters.
+ * Streaming adapters from {@link ClientJavaTimeAdapters} are registered in place of the
+ * tree-model Client*Converter classes, which remain available for direct registration.
  */
 @SuppressWarnings({ "UnusedReturnValue", "WeakerAccess" })
 public class ClientConverters
@@ -58,7 +60,7 @@ public class ClientConverters
   public static final Type INSTANT_TYPE = new TypeToken<Instant>(){}.getType();
 
   /**
-   * Registers all the Java Time converters.
+   * Registers all the Java Time adapters.
    * @param builder The GSON builder to register the converters with.
    * @return A reference to {@code builder}.
    */
@@ -78,85 +80,92 @@ public class ClientConverters
   }
 
   /**
-   * Registers the {@link ClientLocalDateConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#LOCAL_DATE} adapter, which parses the
+   * same inputs as {@link ClientLocalDateConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerLocalDate(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(LOCAL_DATE_TYPE, new ClientLocalDateConverter());
+    builder.registerTypeAdapter(LOCAL_DATE_TYPE, ClientJavaTimeAdapters.LOCAL_DATE);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientLocalDateTimeConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#LOCAL_DATE_TIME} adapter, which parses the
+   * same inputs as {@link ClientLocalDateTimeConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerLocalDateTime(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(LOCAL_DATE_TIME_TYPE, new ClientLocalDateTimeConverter());
+    builder.registerTypeAdapter(LOCAL_DATE_TIME_TYPE, ClientJavaTimeAdapters.LOCAL_DATE_TIME);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientLocalTimeConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#LOCAL_TIME} adapter, which parses the
+   * same inputs as {@link ClientLocalTimeConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerLocalTime(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(LOCAL_TIME_TYPE, new ClientLocalTimeConverter());
+    builder.registerTypeAdapter(LOCAL_TIME_TYPE, ClientJavaTimeAdapters.LOCAL_TIME);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientOffsetDateTimeConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#OFFSET_DATE_TIME} adapter, which parses the
+   * same inputs as {@link ClientOffsetDateTimeConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerOffsetDateTime(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(OFFSET_DATE_TIME_TYPE, new ClientOffsetDateTimeConverter());
+    builder.registerTypeAdapter(OFFSET_DATE_TIME_TYPE, ClientJavaTimeAdapters.OFFSET_DATE_TIME);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientOffsetTimeConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#OFFSET_TIME} adapter, which parses the
+   * same inputs as {@link ClientOffsetTimeConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerOffsetTime(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(OFFSET_TIME_TYPE, new ClientOffsetTimeConverter());
+    builder.registerTypeAdapter(OFFSET_TIME_TYPE, ClientJavaTimeAdapters.OFFSET_TIME);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientZonedDateTimeConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#ZONED_DATE_TIME} adapter, which parses the
+   * same inputs as {@link ClientZonedDateTimeConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerZonedDateTime(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(ZONED_DATE_TIME_TYPE, new ClientZonedDateTimeConverter());
+    builder.registerTypeAdapter(ZONED_DATE_TIME_TYPE, ClientJavaTimeAdapters.ZONED_DATE_TIME);
 
     return builder;
   }
 
   /**
-   * Registers the {@link ClientInstantConverter} converter.
+   * Registers the streaming {@link ClientJavaTimeAdapters#INSTANT} adapter, which parses the
+   * same inputs as {@link ClientInstantConverter}.
    * @param builder The GSON builder to register the converter with.
    * @return A reference to {@code builder}.
    */
   public static GsonBuilder registerInstant(GsonBuilder builder)
   {
-    builder.registerTypeAdapter(INSTANT_TYPE, new ClientInstantConverter());
+    builder.registerTypeAdapter(INSTANT_TYPE, ClientJavaTimeAdapters.INSTANT);
     
     return builder;
   }
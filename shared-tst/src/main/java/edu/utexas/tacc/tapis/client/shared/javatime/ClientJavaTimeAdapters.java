@@ -0,0 +1,326 @@
+package edu.utexas.tacc.tapis.client.shared.javatime;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming Gson type adapters for the Java Time types handled by the Client*Converter
+ * classes.  The converters use Gson's tree model, which wraps every value in a
+ * {@code JsonPrimitive} and parses it with a {@code DateTimeFormatter}.  These
+ * adapters read and write values directly from and to the json stream and parse
+ * the common ISO-8601 forms by hand:
+ * <pre>
+ *   date         yyyy-MM-dd
+ *   time         HH:mm:ss[.fraction]
+ *   offset       Z | +HH:MM | -HH:MM
+ * </pre>
+ * where the fraction has one to nine digits.  Any other input, such as a time
+ * without seconds, an expanded year or a zone region id, is parsed by the same
+ * formatter the corresponding converter uses, so the adapters accept exactly what
+ * the converters accept.  Values are written with the converters' formatters.
+ * <p>
+ * The adapters are registered by {@link ClientConverters#registerAll}.  They are
+ * stateless and thread-safe.
+ */
+public final class ClientJavaTimeAdapters
+{
+  /** Adapter for {@link LocalDate}. */
+  public static final TypeAdapter<LocalDate> LOCAL_DATE =
+      new LocalDateAdapter().nullSafe();
+
+  /** Adapter for {@link LocalDateTime}. */
+  public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME =
+      new LocalDateTimeAdapter().nullSafe();
+
+  /** Adapter for {@link LocalTime}. */
+  public static final TypeAdapter<LocalTime> LOCAL_TIME =
+      new LocalTimeAdapter().nullSafe();
+
+  /** Adapter for {@link OffsetDateTime}. */
+  public static final TypeAdapter<OffsetDateTime> OFFSET_DATE_TIME =
+      new OffsetDateTimeAdapter().nullSafe();
+
+  /** Adapter for {@link OffsetTime}. */
+  public static final TypeAdapter<OffsetTime> OFFSET_TIME =
+      new OffsetTimeAdapter().nullSafe();
+
+  /** Adapter for {@link ZonedDateTime}. */
+  public static final TypeAdapter<ZonedDateTime> ZONED_DATE_TIME =
+      new ZonedDateTimeAdapter().nullSafe();
+
+  /** Adapter for {@link Instant}. */
+  public static final TypeAdapter<Instant> INSTANT =
+      new InstantAdapter().nullSafe();
+
+  /** Lengths of the fixed-width fields. */
+  private static final int DATE_LENGTH = 10;  // yyyy-MM-dd
+  private static final int TIME_LENGTH = 8;   // HH:mm:ss
+
+  /** Multipliers that scale a fraction of n digits to nanoseconds. */
+  private static final int[] NANO_SCALE =
+      {0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1};
+
+  /** Private constructor to make it non-instantiable. */
+  private ClientJavaTimeAdapters() { throw new AssertionError(); }
+
+  // ---------------------------------------------------------------------------
+  // Adapters
+  // ---------------------------------------------------------------------------
+  private static final class LocalDateAdapter extends TypeAdapter<LocalDate>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    @Override
+    public void write(JsonWriter out, LocalDate value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public LocalDate read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      LocalDate value = null;
+      if (s.length() == DATE_LENGTH) value = parseDate(s, 0);
+      return value != null ? value : FORMATTER.parse(s, LocalDate::from);
+    }
+  }
+
+  private static final class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    @Override
+    public void write(JsonWriter out, LocalDateTime value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      LocalDateTime value = parseDateTime(s, s.length());
+      return value != null ? value : FORMATTER.parse(s, LocalDateTime::from);
+    }
+  }
+
+  private static final class LocalTimeAdapter extends TypeAdapter<LocalTime>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_TIME;
+
+    @Override
+    public void write(JsonWriter out, LocalTime value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public LocalTime read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      LocalTime value = parseTime(s, 0, s.length());
+      return value != null ? value : FORMATTER.parse(s, LocalTime::from);
+    }
+  }
+
+  private static final class OffsetDateTimeAdapter extends TypeAdapter<OffsetDateTime>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    @Override
+    public void write(JsonWriter out, OffsetDateTime value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public OffsetDateTime read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      OffsetDateTime value = parseOffsetDateTime(s);
+      return value != null ? value : FORMATTER.parse(s, OffsetDateTime::from);
+    }
+  }
+
+  private static final class OffsetTimeAdapter extends TypeAdapter<OffsetTime>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_OFFSET_TIME;
+
+    @Override
+    public void write(JsonWriter out, OffsetTime value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public OffsetTime read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      OffsetTime value = null;
+      int offsetStart = findOffset(s, 0);
+      if (offsetStart > 0) {
+        ZoneOffset offset = parseOffset(s, offsetStart);
+        LocalTime time = offset == null ? null : parseTime(s, 0, offsetStart);
+        if (time != null) value = OffsetTime.of(time, offset);
+      }
+      return value != null ? value : FORMATTER.parse(s, OffsetTime::from);
+    }
+  }
+
+  private static final class ZonedDateTimeAdapter extends TypeAdapter<ZonedDateTime>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+
+    @Override
+    public void write(JsonWriter out, ZonedDateTime value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public ZonedDateTime read(JsonReader in) throws IOException
+    {
+      // Values with region ids are left to the formatter.
+      String s = in.nextString();
+      OffsetDateTime value = parseOffsetDateTime(s);
+      return value != null ? value.toZonedDateTime() : FORMATTER.parse(s, ZonedDateTime::from);
+    }
+  }
+
+  private static final class InstantAdapter extends TypeAdapter<Instant>
+  {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_INSTANT;
+
+    @Override
+    public void write(JsonWriter out, Instant value) throws IOException
+    {
+      out.value(FORMATTER.format(value));
+    }
+
+    @Override
+    public Instant read(JsonReader in) throws IOException
+    {
+      String s = in.nextString();
+      OffsetDateTime value = parseOffsetDateTime(s);
+      return value != null ? value.toInstant() : FORMATTER.parse(s, Instant::from);
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // Fast path parsing
+  // ---------------------------------------------------------------------------
+  // Each method returns null when its input is not in the fast path form or does
+  // not denote a valid value, in which case the caller falls back to a formatter.
+
+  /** Parse yyyy-MM-dd at the start position. */
+  private static LocalDate parseDate(String s, int start)
+  {
+    if (s.length() < start + DATE_LENGTH || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-')
+      return null;
+    int year  = digits(s, start, 4);
+    int month = digits(s, start + 5, 2);
+    int day   = digits(s, start + 8, 2);
+    if (year < 0 || month < 0 || day < 0) return null;
+    try { return LocalDate.of(year, month, day); }
+    catch (DateTimeException e) { return null; }
+  }
+
+  /** Parse HH:mm:ss[.fraction] that occupies the range [start, end). */
+  private static LocalTime parseTime(String s, int start, int end)
+  {
+    if (end - start < TIME_LENGTH || s.charAt(start + 2) != ':' || s.charAt(start + 5) != ':')
+      return null;
+    int hour   = digits(s, start, 2);
+    int minute = digits(s, start + 3, 2);
+    int second = digits(s, start + 6, 2);
+    if (hour < 0 || minute < 0 || second < 0) return null;
+
+    // Optional fraction of one to nine digits.
+    int nano = 0;
+    int pos = start + TIME_LENGTH;
+    if (pos < end) {
+      if (s.charAt(pos) != '.') return null;
+      int fractionDigits = end - pos - 1;
+      if (fractionDigits < 1 || fractionDigits > 9) return null;
+      int fraction = digits(s, pos + 1, fractionDigits);
+      if (fraction < 0) return null;
+      nano = fraction * NANO_SCALE[fractionDigits];
+    }
+    try { return LocalTime.of(hour, minute, second, nano); }
+    catch (DateTimeException e) { return null; }
+  }
+
+  /** Parse yyyy-MM-ddTHH:mm:ss[.fraction] that occupies the range [0, end). */
+  private static LocalDateTime parseDateTime(String s, int end)
+  {
+    if (end <= DATE_LENGTH || s.charAt(DATE_LENGTH) != 'T') return null;
+    LocalDate date = parseDate(s, 0);
+    if (date == null) return null;
+    LocalTime time = parseTime(s, DATE_LENGTH + 1, end);
+    if (time == null) return null;
+    return LocalDateTime.of(date, time);
+  }
+
+  /** Parse a date-time followed by an offset. */
+  private static OffsetDateTime parseOffsetDateTime(String s)
+  {
+    int offsetStart = findOffset(s, DATE_LENGTH + 1);
+    if (offsetStart < 0) return null;
+    ZoneOffset offset = parseOffset(s, offsetStart);
+    if (offset == null) return null;
+    LocalDateTime dateTime = parseDateTime(s, offsetStart);
+    if (dateTime == null) return null;
+    return OffsetDateTime.of(dateTime, offset);
+  }
+
+  /** Find the start of a trailing Z, +HH:MM or -HH:MM offset or return -1. */
+  private static int findOffset(String s, int minStart)
+  {
+    int len = s.length();
+    if (len > minStart && s.charAt(len - 1) == 'Z') return len - 1;
+    if (len - 6 >= minStart) {
+      char sign = s.charAt(len - 6);
+      if (sign == '+' || sign == '-') return len - 6;
+    }
+    return -1;
+  }
+
+  /** Parse an offset that extends from start to the end of the string. */
+  private static ZoneOffset parseOffset(String s, int start)
+  {
+    if (s.charAt(start) == 'Z') return ZoneOffset.UTC;
+    if (s.charAt(start + 3) != ':') return null;
+    int hours   = digits(s, start + 1, 2);
+    int minutes = digits(s, start + 4, 2);
+    if (hours < 0 || minutes < 0) return null;
+    int sign = s.charAt(start) == '-' ? -1 : 1;
+    try { return ZoneOffset.ofHoursMinutes(sign * hours, sign * minutes); }
+    catch (DateTimeException e) { return null; }
+  }
+
+  /** Parse count decimal digits at start or return -1 if any is not a digit. */
+  private static int digits(String s, int start, int count)
+  {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
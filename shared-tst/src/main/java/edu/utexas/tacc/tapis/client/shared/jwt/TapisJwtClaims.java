@@ -0,0 +1,137 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.time.Instant;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/** Immutable view of the claims in a Tapis JWT.  The frequently used claims are
+ * extracted once when the object is created; other claims can be retrieved by
+ * name.  Instances are created by TapisJwtReader and say nothing about whether the
+ * token's signature is valid.
+ */
+public final class TapisJwtClaims
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // Claim names.
+    public static final String CLAIM_ISSUER         = "iss";
+    public static final String CLAIM_SUBJECT        = "sub";
+    public static final String CLAIM_EXPIRATION     = "exp";
+    public static final String CLAIM_TENANT_ID      = "tapis/tenant_id";
+    public static final String CLAIM_USERNAME       = "tapis/username";
+    public static final String CLAIM_TOKEN_TYPE     = "tapis/token_type";
+    public static final String CLAIM_ACCOUNT_TYPE   = "tapis/account_type";
+    public static final String CLAIM_DELEGATION     = "tapis/delegation";
+    public static final String CLAIM_DELEGATION_SUB = "tapis/delegation_sub";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Extracted claims.
+    private final String  issuer;
+    private final String  subject;
+    private final long    expiresAtSeconds;  // 0 if absent
+    private final String  tenantId;
+    private final String  username;
+    private final String  tokenType;
+    private final String  accountType;
+    private final boolean delegation;
+    private final String  delegationSub;
+
+    // All claims, never exposed.
+    private final JsonObject claims;
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    TapisJwtClaims(JsonObject claims)
+    {
+        this.claims           = claims;
+        this.issuer           = getString(claims, CLAIM_ISSUER);
+        this.subject          = getString(claims, CLAIM_SUBJECT);
+        this.expiresAtSeconds = getLong(claims, CLAIM_EXPIRATION);
+        this.tenantId         = getString(claims, CLAIM_TENANT_ID);
+        this.username         = getString(claims, CLAIM_USERNAME);
+        this.tokenType        = getString(claims, CLAIM_TOKEN_TYPE);
+        this.accountType      = getString(claims, CLAIM_ACCOUNT_TYPE);
+        this.delegation       = Boolean.parseBoolean(getString(claims, CLAIM_DELEGATION));
+        this.delegationSub    = getString(claims, CLAIM_DELEGATION_SUB);
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* isExpired:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Determine whether the token expires within the specified number of seconds.
+     * Tokens without an expiration claim never expire.
+     *
+     * @param marginSeconds the number of seconds of validity required
+     * @return true if the token has or will soon expire
+     */
+    public boolean isExpired(long marginSeconds)
+    {
+        if (expiresAtSeconds == 0) return false;
+        return System.currentTimeMillis() / 1000 + marginSeconds >= expiresAtSeconds;
+    }
+
+    /** Determine whether the token has expired. */
+    public boolean isExpired() {return isExpired(0);}
+
+    /* ---------------------------------------------------------------------------- */
+    /* getClaimAsString:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    /** Get any claim's value.  Non-string values are returned in their JSON form.
+     *
+     * @param name the claim name
+     * @return the claim value or null if the claim is absent or null
+     */
+    public String getClaimAsString(String name)
+    {
+        var element = claims.get(name);
+        if (element == null || element.isJsonNull()) return null;
+        if (element.isJsonPrimitive()) return element.getAsString();
+        return element.toString();
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* hasClaim:                                                                    */
+    /* ---------------------------------------------------------------------------- */
+    public boolean hasClaim(String name) {return claims.has(name);}
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public String getIssuer() {return issuer;}
+    public String getSubject() {return subject;}
+    public long getExpiresAtSeconds() {return expiresAtSeconds;}
+    public Instant getExpiresAt()
+        {return expiresAtSeconds == 0 ? null : Instant.ofEpochSecond(expiresAtSeconds);}
+    public String getTenantId() {return tenantId;}
+    public String getUsername() {return username;}
+    public String getTokenType() {return tokenType;}
+    public String getAccountType() {return accountType;}
+    public boolean isDelegation() {return delegation;}
+    public String getDelegationSub() {return delegationSub;}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    private static String getString(JsonObject obj, String name)
+    {
+        JsonElement element = obj.get(name);
+        if (element == null || element.isJsonNull() || !element.isJsonPrimitive()) return null;
+        return element.getAsString();
+    }
+
+    private static long getLong(JsonObject obj, String name)
+    {
+        JsonElement element = obj.get(name);
+        if (element == null || element.isJsonNull() || !element.isJsonPrimitive()) return 0;
+        try {return element.getAsLong();}
+        catch (NumberFormatException e) {return 0;}
+    }
+}
@@ -0,0 +1,22 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.security.PublicKey;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Source of the public keys that TapisJwtVerifier uses to check the signatures of
+ * tokens issued by a tenant.  Implementations are expected to cache keys, since a
+ * key is requested for every verification.
+ */
+public interface TapisJwtKeyResolver
+{
+    /** Get a tenant's token signing key.
+     *
+     * @param tenantId the tenant that issued the token
+     * @param refresh true if the previously returned key failed to verify a token
+     *                and should be reacquired from its source if possible
+     * @return the tenant's public key or null if the tenant has none
+     * @throws TapisClientException if the key could not be acquired
+     */
+    PublicKey getPublicKey(String tenantId, boolean refresh) throws TapisClientException;
+}
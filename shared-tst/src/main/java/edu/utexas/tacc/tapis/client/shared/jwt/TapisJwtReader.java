@@ -0,0 +1,104 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.JsonParser;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Decodes the claims of serialized JWTs without contacting any service and
+ * without a JWT library.  Only the claims segment is base64url-decoded and parsed;
+ * the signature is not checked, so the claims must not be trusted for
+ * authentication.  See TapisJwtVerifier for signature verification.
+ *
+ * Decoded claims are cached per token string, so repeated reads of the same token
+ * cost a hash lookup.  The cache is bounded by MAX_CACHED_TOKENS; when the bound
+ * is reached the cache is cleared, which is inexpensive and keeps memory bounded
+ * as tokens are replaced over time.
+ *
+ * This class is non-instantiable.
+ */
+public final class TapisJwtReader
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // The maximum number of cached claims objects.
+    public static final int MAX_CACHED_TOKENS = 4096;
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // Decoded claims keyed by serialized token.
+    private static final ConcurrentHashMap<String, TapisJwtClaims> _cache =
+        new ConcurrentHashMap<>();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    // Private constructor to make it non-instantiable.
+    private TapisJwtReader() {throw new AssertionError();}
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* getClaims:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    /** Get the claims of a serialized JWT.
+     *
+     * @param jwt the serialized token
+     * @return the token's claims
+     * @throws TapisClientException if the token is not a well-formed JWT
+     */
+    public static TapisJwtClaims getClaims(String jwt)
+     throws TapisClientException
+    {
+        if (jwt == null) throw new TapisClientException("Unable to decode a null JWT.");
+        var claims = _cache.get(jwt);
+        if (claims != null) return claims;
+
+        // Decode and cache.
+        claims = decode(jwt);
+        if (_cache.size() >= MAX_CACHED_TOKENS) _cache.clear();
+        _cache.put(jwt, claims);
+        return claims;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* clearCache:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    public static void clearCache() {_cache.clear();}
+
+    /* **************************************************************************** */
+    /*                               Package Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* decode:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Decode the claims segment of a JWT without caching. */
+    static TapisJwtClaims decode(String jwt)
+     throws TapisClientException
+    {
+        // Find the claims segment.
+        int first = jwt.indexOf('.');
+        int second = first < 0 ? -1 : jwt.indexOf('.', first + 1);
+        if (second < 0)
+            throw new TapisClientException("Unable to decode JWT: it does not have three segments.");
+
+        // Decode and parse the claims.
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(jwt.substring(first + 1, second));
+            var json = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8));
+            if (!json.isJsonObject())
+                throw new TapisClientException("Unable to decode JWT: its claims are not a JSON object.");
+            return new TapisJwtClaims(json.getAsJsonObject());
+        }
+        catch (TapisClientException e) {throw e;}
+        catch (Exception e) {
+            throw new TapisClientException("Unable to decode JWT claims: " + e.getMessage(), e);
+        }
+    }
+}
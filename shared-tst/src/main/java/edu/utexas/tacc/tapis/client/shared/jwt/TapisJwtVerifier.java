@@ -0,0 +1,255 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonParser;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/** Verifies Tapis JWTs locally.  A token is accepted when its header specifies
+ * RS256, its signature verifies with the public key of the tenant named in its
+ * tapis/tenant_id claim, and it has an exp claim that has not passed.  Keys come
+ * from a TapisJwtKeyResolver, which is typically backed by the Tenants service.
+ *
+ * When a signature does not verify with the resolver's current key, the key is
+ * requested again with refresh set, and the signature is checked once more if
+ * a different key is returned.  This accommodates key rotation without
+ * contacting the key source for every token.
+ *
+ * Tokens whose signatures have been verified are remembered, so repeated
+ * verification of the same token only checks its expiration.  The verified token
+ * cache is bounded by MAX_CACHED_TOKENS and is cleared when the bound is reached.
+ *
+ * Instances are thread-safe.
+ */
+public final class TapisJwtVerifier
+{
+    /* **************************************************************************** */
+    /*                                   Constants                                  */
+    /* **************************************************************************** */
+    // The only supported signature algorithm.
+    public static final String JWT_ALGORITHM = "RS256";
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    // The maximum number of remembered verified tokens.
+    public static final int MAX_CACHED_TOKENS = 4096;
+
+    // PEM delimiters stripped from public keys.
+    private static final String PEM_BEGIN = "-----BEGIN PUBLIC KEY-----";
+    private static final String PEM_END   = "-----END PUBLIC KEY-----";
+
+    /* **************************************************************************** */
+    /*                                    Fields                                    */
+    /* **************************************************************************** */
+    // The key source.
+    private final TapisJwtKeyResolver _keyResolver;
+
+    // Seconds of tolerated clock difference when checking expiration.
+    private final long _clockSkewSeconds;
+
+    // Claims of tokens with verified signatures keyed by serialized token.
+    private final ConcurrentHashMap<String, TapisJwtClaims> _verified =
+        new ConcurrentHashMap<>();
+
+    // Statistics.
+    private final LongAdder _verifications = new LongAdder();
+    private final LongAdder _keyRefreshes  = new LongAdder();
+    private final LongAdder _rejections    = new LongAdder();
+
+    /* **************************************************************************** */
+    /*                                 Constructors                                 */
+    /* **************************************************************************** */
+    public TapisJwtVerifier(TapisJwtKeyResolver keyResolver) {this(keyResolver, 0);}
+
+    /** Create a verifier.
+     *
+     * @param keyResolver the source of tenant public keys
+     * @param clockSkewSeconds seconds a token is still accepted after it expires
+     */
+    public TapisJwtVerifier(TapisJwtKeyResolver keyResolver, long clockSkewSeconds)
+    {
+        if (keyResolver == null) throw new NullPointerException("keyResolver cannot be null");
+        if (clockSkewSeconds < 0)
+            throw new IllegalArgumentException("clockSkewSeconds cannot be negative");
+        _keyResolver = keyResolver;
+        _clockSkewSeconds = clockSkewSeconds;
+    }
+
+    /* **************************************************************************** */
+    /*                                Public Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* verify:                                                                      */
+    /* ---------------------------------------------------------------------------- */
+    /** Verify a serialized JWT and return its claims.
+     *
+     * @param jwt the serialized token
+     * @return the claims of the valid token
+     * @throws TapisClientException if the token is malformed, is not signed by its
+     *                              tenant's key, has expired or if the tenant's
+     *                              key cannot be acquired
+     */
+    public TapisJwtClaims verify(String jwt)
+     throws TapisClientException
+    {
+        // Check the signature unless that has already been done.
+        var claims = _verified.get(jwt);
+        if (claims == null) {
+            claims = verifySignature(jwt);
+            if (_verified.size() >= MAX_CACHED_TOKENS) _verified.clear();
+            _verified.put(jwt, claims);
+        }
+
+        // Expiration is checked on every call.
+        if (claims.isExpired(-_clockSkewSeconds)) {
+            _rejections.increment();
+            throw new TapisClientException("JWT for user " + claims.getUsername() +
+                                           " in tenant " + claims.getTenantId() + " has expired.");
+        }
+        return claims;
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* parsePublicKey:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    /** Parse an RSA public key in PEM format or as bare base64-encoded X.509 data.
+     *
+     * @param pem the encoded key
+     * @return the public key
+     * @throws TapisClientException if the key cannot be parsed
+     */
+    public static PublicKey parsePublicKey(String pem)
+     throws TapisClientException
+    {
+        if (pem == null) throw new TapisClientException("Unable to parse a null public key.");
+        try {
+            String encoded = pem.replace(PEM_BEGIN, "").replace(PEM_END, "").replaceAll("\\s", "");
+            var spec = new X509EncodedKeySpec(Base64.getDecoder().decode(encoded));
+            return KeyFactory.getInstance("RSA").generatePublic(spec);
+        }
+        catch (Exception e) {
+            throw new TapisClientException("Unable to parse RSA public key: " + e.getMessage(), e);
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* clearCache:                                                                  */
+    /* ---------------------------------------------------------------------------- */
+    /** Forget all verified tokens, for example after a tenant's key is revoked. */
+    public void clearCache() {_verified.clear();}
+
+    /* ---------------------------------------------------------------------------- */
+    /* accessors:                                                                   */
+    /* ---------------------------------------------------------------------------- */
+    public TapisJwtKeyResolver getKeyResolver() {return _keyResolver;}
+    public long getClockSkewSeconds() {return _clockSkewSeconds;}
+    public long getVerificationCount() {return _verifications.sum();}
+    public long getKeyRefreshCount() {return _keyRefreshes.sum();}
+    public long getRejectionCount() {return _rejections.sum();}
+
+    /* **************************************************************************** */
+    /*                               Private Methods                                */
+    /* **************************************************************************** */
+    /* ---------------------------------------------------------------------------- */
+    /* verifySignature:                                                             */
+    /* ---------------------------------------------------------------------------- */
+    private TapisJwtClaims verifySignature(String jwt)
+     throws TapisClientException
+    {
+        // The reader validates the token's structure.
+        var claims = TapisJwtReader.getClaims(jwt);
+        int first = jwt.indexOf('.');
+        int second = jwt.indexOf('.', first + 1);
+        checkAlgorithm(jwt.substring(0, first));
+
+        // Decode the signature.
+        byte[] signature;
+        try {signature = Base64.getUrlDecoder().decode(jwt.substring(second + 1));}
+        catch (IllegalArgumentException e) {
+            _rejections.increment();
+            throw new TapisClientException("Unable to decode JWT signature: " + e.getMessage(), e);
+        }
+        byte[] signed = jwt.substring(0, second).getBytes(StandardCharsets.US_ASCII);
+
+        // Try the current key and then, if it fails, a refreshed key.
+        String tenantId = claims.getTenantId();
+        if (tenantId == null) {
+            _rejections.increment();
+            throw new TapisClientException("JWT does not contain a " +
+                                           TapisJwtClaims.CLAIM_TENANT_ID + " claim.");
+        }
+        if (claims.getExpiresAtSeconds() == 0) {
+            _rejections.increment();
+            throw new TapisClientException("JWT does not contain an " +
+                                           TapisJwtClaims.CLAIM_EXPIRATION + " claim.");
+        }
+        _verifications.increment();
+        var key = _keyResolver.getPublicKey(tenantId, false);
+        if (key != null && isValidSignature(key, signed, signature)) return claims;
+
+        _keyRefreshes.increment();
+        var refreshedKey = _keyResolver.getPublicKey(tenantId, true);
+        if (refreshedKey == null) {
+            _rejections.increment();
+            throw new TapisClientException("No public key is available for tenant " + tenantId + ".");
+        }
+        if (!refreshedKey.equals(key) && isValidSignature(refreshedKey, signed, signature))
+            return claims;
+
+        _rejections.increment();
+        throw new TapisClientException("JWT signature is not valid for tenant " + tenantId + ".");
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* checkAlgorithm:                                                              */
+    /* ---------------------------------------------------------------------------- */
+    private void checkAlgorithm(String encodedHeader)
+     throws TapisClientException
+    {
+        String alg;
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(encodedHeader);
+            var header = JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8))
+                                   .getAsJsonObject();
+            var element = header.get("alg");
+            alg = element == null || element.isJsonNull() ? null : element.getAsString();
+        }
+        catch (Exception e) {
+            _rejections.increment();
+            throw new TapisClientException("Unable to decode JWT header: " + e.getMessage(), e);
+        }
+        if (!JWT_ALGORITHM.equals(alg)) {
+            _rejections.increment();
+            throw new TapisClientException("Unsupported JWT algorithm: " + alg + ".");
+        }
+    }
+
+    /* ---------------------------------------------------------------------------- */
+    /* isValidSignature:                                                            */
+    /* ---------------------------------------------------------------------------- */
+    private static boolean isValidSignature(PublicKey key, byte[] signed, byte[] signature)
+     throws TapisClientException
+    {
+        try {
+            var verifier = Signature.getInstance(SIGNATURE_ALGORITHM);
+            verifier.initVerify(key);
+            verifier.update(signed);
+            return verifier.verify(signature);
+        }
+        catch (InvalidKeyException | SignatureException e) {
+            return false;
+        }
+        catch (Exception e) {
+            throw new TapisClientException("Unable to verify JWT signature: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransportParms.HttpProtocol;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisConcurrencyLimitParms;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@Test(groups={"unit"})
+public class ClientHttpTransportTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // The number of concurrent requests.
+    private static final int REQUESTS = 50;
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testH2c:                                                               */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testH2c() throws Exception
+    {
+        // Concurrent requests are multiplexed over one plaintext connection.
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setHttpProtocol(HttpProtocol.H2C));
+        var server = new CountingServer(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        try {
+            var protocols = sendConcurrently(server);
+            Assert.assertEquals(protocols.size(), REQUESTS);
+            for (var protocol : protocols) Assert.assertEquals(protocol, Protocol.H2_PRIOR_KNOWLEDGE);
+            Assert.assertEquals(server.connections.get(), 1);
+        }
+        finally {server.close();}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testHttp11:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testHttp11() throws Exception
+    {
+        // Each concurrent request needs its own connection.
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setHttpProtocol(HttpProtocol.HTTP_1_1));
+        var server = new CountingServer(List.of(Protocol.HTTP_1_1));
+        try {
+            var protocols = sendConcurrently(server);
+            Assert.assertEquals(protocols.size(), REQUESTS);
+            for (var protocol : protocols) Assert.assertEquals(protocol, Protocol.HTTP_1_1);
+            Assert.assertTrue(server.connections.get() > 1, "connections = " + server.connections.get());
+        }
+        finally {server.close();}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testPerHostLimit:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testPerHostLimit()
+    {
+        // The adaptive limits are off by default, leaving the fixed per-host limit.
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setMaxRequestsPerHost(16));
+        Assert.assertFalse(ClientHttpTransport.getParms().getConcurrencyLimitParms().isEnabled());
+        Assert.assertEquals(ClientHttpTransport.getHttpClient().dispatcher().getMaxRequestsPerHost(), 16);
+        ClientHttpTransport.shutdown();
+
+        // When enabled, the adaptive maximum replaces a lower per-host limit.
+        var limitParms = new TapisConcurrencyLimitParms().setEnabled(true).setMaxLimit(100);
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setMaxRequestsPerHost(16)
+                                          .setConcurrencyLimitParms(limitParms));
+        Assert.assertEquals(ClientHttpTransport.getHttpClient().dispatcher().getMaxRequestsPerHost(), 100);
+        ClientHttpTransport.shutdown();
+
+        // A higher per-host limit is kept.
+        limitParms = new TapisConcurrencyLimitParms().setEnabled(true).setMaxLimit(8);
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setMaxRequestsPerHost(16)
+                                          .setConcurrencyLimitParms(limitParms));
+        Assert.assertEquals(ClientHttpTransport.getHttpClient().dispatcher().getMaxRequestsPerHost(), 16);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testSlowHost:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testSlowHost() throws Exception
+    {
+        // Requests to a slow host wait for its concurrency limit of one.  The
+        // per-host limit keeps them from holding every dispatcher thread.
+        var limitParms = new TapisConcurrencyLimitParms().setEnabled(true).setInitialLimit(1).setMinLimit(1)
+                             .setMaxLimit(1);
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setMaxRequests(8).setMaxRequestsPerHost(4)
+                                          .setConcurrencyLimitParms(limitParms));
+        var release = new CountDownLatch(1);
+        var slow = new MockWebServer();
+        var fast = new MockWebServer();
+        slow.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                release.await(30, TimeUnit.SECONDS);
+                return new MockResponse().setBody("{}");
+            }
+        });
+        fast.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {return new MockResponse().setBody("{}");}
+        });
+        slow.start(InetAddress.getByName("127.0.0.1"), 0);
+        fast.start(InetAddress.getByName("127.0.0.1"), 0);
+        try {
+            // The two servers are different hosts to the dispatcher.
+            var slowDone = send(slow.url("/v3/systems").newBuilder().host("localhost").build(), 8);
+            Thread.sleep(200);
+            var fastDone = send(fast.url("/v3/files").newBuilder().host("127.0.0.1").build(), 4);
+            Assert.assertTrue(fastDone.await(5, TimeUnit.SECONDS), "incomplete = " + fastDone.getCount());
+            Assert.assertEquals(slowDone.getCount(), 8);
+
+            release.countDown();
+            Assert.assertTrue(slowDone.await(10, TimeUnit.SECONDS), "incomplete = " + slowDone.getCount());
+        }
+        finally {
+            release.countDown();
+            slow.shutdown();
+            fast.shutdown();
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* reset:                                                                 */
+    /* ---------------------------------------------------------------------- */
+    @AfterMethod
+    public void reset()
+    {
+        ClientHttpTransport.shutdown();
+        ClientHttpTransport.configure(new ClientHttpTransportParms());
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Send concurrent requests through the shared client, returning the
+     * protocols of the responses.
+     */
+    private static ConcurrentLinkedQueue<Protocol> sendConcurrently(CountingServer server)
+     throws InterruptedException
+    {
+        var protocols = new ConcurrentLinkedQueue<Protocol>();
+        var latch = new CountDownLatch(REQUESTS);
+        var client = ClientHttpTransport.getHttpClient();
+        for (int i = 0; i < REQUESTS; i++) {
+            var request = new Request.Builder().url(server.server.url("/v3/systems/s" + i)).build();
+            client.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException
+                {
+                    try (response) {
+                        response.body().string();
+                        protocols.add(response.protocol());
+                    }
+                    finally {latch.countDown();}
+                }
+                @Override
+                public void onFailure(Call call, IOException e) {latch.countDown();}
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        return protocols;
+    }
+
+    /** Send asynchronous requests, returning a latch that counts down as they
+     * succeed.
+     */
+    private static CountDownLatch send(HttpUrl url, int count)
+    {
+        var latch = new CountDownLatch(count);
+        var client = ClientHttpTransport.getHttpClient();
+        for (int i = 0; i < count; i++) {
+            client.newCall(new Request.Builder().url(url).build()).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException
+                {
+                    try (response) {
+                        response.body().string();
+                        if (response.isSuccessful()) latch.countDown();
+                    }
+                }
+                @Override
+                public void onFailure(Call call, IOException e) {}
+            });
+        }
+        return latch;
+    }
+
+    /* ********************************************************************** */
+    /*                             CountingServer                             */
+    /* ********************************************************************** */
+    /** Server that answers slowly enough for requests to overlap and counts the
+     * connections opened.
+     */
+    private static final class CountingServer
+     extends Dispatcher
+    {
+        private final MockWebServer server = new MockWebServer();
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private CountingServer(List<Protocol> protocols) throws IOException
+        {
+            server.setProtocols(protocols);
+            server.setDispatcher(this);
+            server.start();
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request)
+        {
+            if (request.getSequenceNumber() == 0) connections.incrementAndGet();
+            return new MockResponse().setBody("{\"status\":\"success\"}")
+                       .setHeadersDelay(100, TimeUnit.MILLISECONDS);
+        }
+
+        private void close() throws IOException {server.shutdown();}
+    }
+}
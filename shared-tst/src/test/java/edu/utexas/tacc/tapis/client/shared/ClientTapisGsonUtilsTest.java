@@ -0,0 +1,52 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+
+@Test(groups={"unit"})
+public class ClientTapisGsonUtilsTest
+{
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testSharedGson:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testSharedGson()
+    {
+        Assert.assertSame(ClientTapisGsonUtils.getGson(), ClientTapisGsonUtils.getGson());
+        Assert.assertSame(ClientTapisGsonUtils.getGson(false), ClientTapisGsonUtils.getGson());
+        Assert.assertSame(ClientTapisGsonUtils.getGson(true), ClientTapisGsonUtils.getGson(true));
+
+        // Both serialize nulls and only one pretty prints.
+        var obj = new JsonObject();
+        obj.add("a", null);
+        Assert.assertEquals(ClientTapisGsonUtils.getGson().toJson(obj), "{\"a\":null}");
+        Assert.assertEquals(ClientTapisGsonUtils.getGson(true).toJson(obj), "{\n  \"a\": null\n}");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testAddTo:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testAddTo()
+    {
+        var obj = new JsonObject();
+        ClientTapisGsonUtils.addTo(obj, "array", " [1, \"x\", {\"y\": true}] ");
+        ClientTapisGsonUtils.addTo(obj, "object", "{\"k\": [null, 2.5]}");
+        ClientTapisGsonUtils.addTo(obj, "string", " plain ");
+        ClientTapisGsonUtils.addTo(obj, "number", 3);
+        ClientTapisGsonUtils.addTo(obj, "null", null);
+        Assert.assertEquals(obj.toString(),
+            "{\"array\":[1,\"x\",{\"y\":true}],\"object\":{\"k\":[null,2.5]},\"string\":\"plain\"," +
+            "\"number\":3,\"null\":null}");
+
+        // Malformed and trailing content are rejected.
+        Assert.assertThrows(JsonSyntaxException.class, () -> ClientTapisGsonUtils.addTo(obj, "bad", "[1,"));
+        Assert.assertThrows(JsonSyntaxException.class, () -> ClientTapisGsonUtils.addTo(obj, "bad", "{} {}"));
+    }
+}
@@ -0,0 +1,80 @@
+package edu.utexas.tacc.tapis.client.shared;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.reflect.TypeToken;
+
+@Test(groups={"unit"})
+public class TapisResponseDecoderTest
+{
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testDecode:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testDecode() throws IOException
+    {
+        // The result precedes the other fields and unknown fields are skipped.
+        String json = "{\"result\":{\"name\":\"sys1\",\"port\":22,\"tags\":[\"a\",\"b\"]}," +
+                      "\"extra\":{\"x\":[1,2]},\"status\":\"success\",\"message\":\"ok\"," +
+                      "\"version\":\"1.0\",\"metadata\":{\"total\":1}}";
+        TapisResponse<Item> resp = TapisResponseDecoder.decode(new StringReader(json), Item.class);
+        Assert.assertEquals(resp.getStatus(), "success");
+        Assert.assertEquals(resp.getMessage(), "ok");
+        Assert.assertEquals(resp.getVersion(), "1.0");
+        Assert.assertEquals(resp.getResult().name, "sys1");
+        Assert.assertEquals(resp.getResult().port, 22);
+        Assert.assertEquals(resp.getResult().tags, List.of("a", "b"));
+        Assert.assertEquals(resp.getMetadata().getAsJsonObject().get("total").getAsInt(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testDecodeList:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testDecodeList() throws IOException
+    {
+        String json = "{\"status\":\"success\",\"message\":null,\"result\":[{\"name\":\"x\"},{\"name\":\"y\"}]}";
+        TapisResponse<List<Item>> resp = TapisResponseDecoder.decode(new StringReader(json),
+                                             new TypeToken<List<Item>>(){}.getType());
+        Assert.assertNull(resp.getMessage());
+        Assert.assertEquals(resp.getResult().size(), 2);
+        Assert.assertEquals(resp.getResult().get(1).name, "y");
+
+        // Null and missing results.
+        resp = TapisResponseDecoder.decode(new StringReader("{\"result\":null}"), Item.class);
+        Assert.assertNull(resp.getResult());
+        resp = TapisResponseDecoder.decode(new StringReader("{\"status\":\"error\"}"), Item.class);
+        Assert.assertNull(resp.getResult());
+        Assert.assertEquals(resp.getStatus(), "error");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testMalformed:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testMalformed()
+    {
+        Assert.assertThrows(IOException.class, () ->
+            TapisResponseDecoder.decode(new StringReader("{\"result\":"), Item.class));
+        Assert.assertThrows(Exception.class, () ->
+            TapisResponseDecoder.decode(new StringReader("[]"), Item.class));
+    }
+
+    /* ********************************************************************** */
+    /*                                  Item                                  */
+    /* ********************************************************************** */
+    private static final class Item
+    {
+        private String       name;
+        private int          port;
+        private List<String> tags;
+    }
+}
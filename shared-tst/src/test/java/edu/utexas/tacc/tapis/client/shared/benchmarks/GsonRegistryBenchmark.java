@@ -0,0 +1,94 @@
+package edu.utexas.tacc.tapis.client.shared.benchmarks;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import edu.utexas.tacc.tapis.client.shared.ClientTapisGsonUtils;
+
+/** Compares the shared gson objects of ClientTapisGsonUtils with building a gson
+ * object per use, which is what getGson() and addTo() did before the shared
+ * objects were introduced.  Run with:
+ * <pre>
+ *   mvn -pl shared-tst test-compile
+ *   java -cp "$(cat cp.txt):target/test-classes:target/classes" org.openjdk.jmh.Main GsonRegistryBenchmark
+ * </pre>
+ * where cp.txt is written by mvn dependency:build-classpath -Dmdep.outputFile=cp.txt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonRegistryBenchmark
+{
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private final String _json   = "{\"name\":\"sys1\",\"port\":22,\"tags\":[\"a\",\"b\"],\"created\":\"2020-06-01T12:30:45.123Z\"}";
+    private final String _array  = "[{\"project\":\"myproj1\",\"testdata\":\"abc1\"},{\"project\":\"myproj2\"}]";
+    private final String _object = "{\"project\":\"myproj1\",\"testdata\":\"abc1\",\"sizes\":[1,2,3]}";
+
+    /* ********************************************************************** */
+    /*                               Benchmarks                               */
+    /* ********************************************************************** */
+    // Round trip a small object.
+    @Benchmark
+    public String roundTripNewGson()
+    {
+        Gson gson = ClientTapisGsonUtils.getGsonBuilder(false).create();
+        return gson.toJson(gson.fromJson(_json, Item.class));
+    }
+
+    @Benchmark
+    public String roundTripSharedGson()
+    {
+        Gson gson = ClientTapisGsonUtils.getGson();
+        return gson.toJson(gson.fromJson(_json, Item.class));
+    }
+
+    // Add embedded json strings to an object.
+    @Benchmark
+    public JsonObject addToNewGson()
+    {
+        var obj = new JsonObject();
+        obj.add("array", ClientTapisGsonUtils.getGsonBuilder(false).create().fromJson(_array, JsonArray.class));
+        obj.add("object", ClientTapisGsonUtils.getGsonBuilder(false).create().fromJson(_object, JsonObject.class));
+        return obj;
+    }
+
+    @Benchmark
+    public JsonObject addToStreaming()
+    {
+        var obj = new JsonObject();
+        ClientTapisGsonUtils.addTo(obj, "array", _array);
+        ClientTapisGsonUtils.addTo(obj, "object", _object);
+        return obj;
+    }
+
+    /* ********************************************************************** */
+    /*                                  Item                                  */
+    /* ********************************************************************** */
+    public static final class Item
+    {
+        private String         name;
+        private int            port;
+        private List<String>   tags;
+        private OffsetDateTime created;
+    }
+}
@@ -0,0 +1,151 @@
+package edu.utexas.tacc.tapis.client.shared.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransportParms;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransportParms.HttpProtocol;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/** Compares the shared transport speaking http/1.1 with speaking h2c to a local
+ * plaintext server that stands in for an in-cluster service.  Each operation
+ * sends a burst of concurrent asynchronous GETs through the shared http client,
+ * using the default transport configuration otherwise, and waits for all of them.
+ * Over http/1.1 each request in flight needs its own connection; over h2c the
+ * requests are multiplexed over a single connection.  The number of connections
+ * the server accepted is printed when each trial ends.  Run with:
+ * <pre>
+ *   mvn -pl shared-tst test-compile
+ *   java -cp "$(cat cp.txt):target/test-classes:target/classes" org.openjdk.jmh.Main Http2TransportBenchmark
+ * </pre>
+ * where cp.txt is written by mvn dependency:build-classpath -Dmdep.outputFile=cp.txt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Http2TransportBenchmark
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // The number of concurrent requests in each operation.
+    private static final int REQUESTS = 200;
+
+    // The simulated service time of the server.
+    private static final long SERVICE_MILLIS = 5;
+
+    private static final String BODY =
+        "{\"result\":{\"isAuthorized\":true},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}";
+
+    // The server logs every request, which would dominate the measurement.
+    private static final Logger SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    @Param({"HTTP_1_1", "H2C"})
+    public HttpProtocol protocol;
+
+    private MockWebServer _server;
+    private OkHttpClient  _client;
+    private Request       _request;
+    private final AtomicInteger _connections = new AtomicInteger();
+
+    /* ********************************************************************** */
+    /*                             Setup/Teardown                             */
+    /* ********************************************************************** */
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        // Start the stand-in server with the protocol under test.
+        SERVER_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        _server = new MockWebServer();
+        _server.setProtocols(List.of(protocol == HttpProtocol.H2C ? Protocol.H2_PRIOR_KNOWLEDGE
+                                                                  : Protocol.HTTP_1_1));
+        _server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                // The first request on each connection has sequence number 0.
+                if (request.getSequenceNumber() == 0) _connections.incrementAndGet();
+                return new MockResponse().setBody(BODY)
+                           .setHeader("Content-Type", "application/json")
+                           .setHeadersDelay(SERVICE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+        _server.start();
+
+        ClientHttpTransport.configure(new ClientHttpTransportParms().setHttpProtocol(protocol));
+        _client = ClientHttpTransport.getHttpClient();
+        _request = new Request.Builder().url(_server.url("/v3/security/user/hasRole")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException
+    {
+        System.out.println();
+        System.out.println(protocol + ": connections accepted = " + _connections.get() +
+                           ", pooled connections = " + _client.connectionPool().connectionCount());
+        ClientHttpTransport.shutdown();
+        _server.shutdown();
+    }
+
+    /* ********************************************************************** */
+    /*                               Benchmarks                               */
+    /* ********************************************************************** */
+    // Send a burst of concurrent requests and wait for all of them.
+    @Benchmark
+    public int fanOut() throws InterruptedException
+    {
+        var latch = new CountDownLatch(REQUESTS);
+        var succeeded = new AtomicInteger();
+        for (int i = 0; i < REQUESTS; i++) {
+            _client.newCall(_request).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException
+                {
+                    try (response) {
+                        response.body().string();
+                        if (response.isSuccessful()) succeeded.incrementAndGet();
+                    }
+                    finally {latch.countDown();}
+                }
+                @Override
+                public void onFailure(Call call, IOException e) {latch.countDown();}
+            });
+        }
+        latch.await();
+        return succeeded.get();
+    }
+}
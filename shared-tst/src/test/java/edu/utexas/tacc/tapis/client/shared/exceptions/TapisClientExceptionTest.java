@@ -0,0 +1,152 @@
+package edu.utexas.tacc.tapis.client.shared.exceptions;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException.Category;
+
+@Test(groups={"unit"})
+public class TapisClientExceptionTest
+{
+    /* ********************************************************************** */
+    /*                               Clean Up                                 */
+    /* ********************************************************************** */
+    @AfterMethod
+    public void cleanUp()
+    {
+        Utils.setStacklessCodes(null);
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testJsonBody:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testJsonBody()
+    {
+        String body = "{\"status\":\"error\",\"message\":\"System not found\",\"version\":\"1.0\"," +
+                      "\"result\":{\"names\":[\"a\"]},\"metadata\":{}}";
+        var e = Utils.makeTapisClientException(404, body, new IOException("HTTP 404"));
+        Assert.assertEquals(e.getCode(), 404);
+        Assert.assertEquals(e.getCategory(), Category.NOT_FOUND);
+        Assert.assertEquals(e.getMessage(), "System not found");
+        Assert.assertEquals(e.getStatus(), "error");
+        Assert.assertEquals(e.getTapisMessage(), "System not found");
+        Assert.assertEquals(e.getVersion(), "1.0");
+        Assert.assertEquals(e.getResult(), Map.of("names", List.of("a")));
+
+        // Fields assigned after creation are not overwritten by decoding.
+        var e2 = Utils.makeTapisClientException(500, body, new IOException("HTTP 500"));
+        e2.setStatus("replaced");
+        Assert.assertEquals(e2.getStatus(), "replaced");
+        Assert.assertEquals(e2.getVersion(), "1.0");
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testOtherBodies:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testOtherBodies()
+    {
+        // Plain text becomes the message.
+        var e = Utils.makeTapisClientException(502, "Bad Gateway", new IOException("HTTP 502"));
+        Assert.assertEquals(e.getMessage(), "Bad Gateway");
+        Assert.assertNull(e.getStatus());
+        Assert.assertEquals(e.getCategory(), Category.SERVER);
+
+        // Blank bodies and missing messages fall back to a default message.
+        e = Utils.makeTapisClientException(401, " ", new IOException("HTTP 401"));
+        Assert.assertTrue(e.getMessage().startsWith("Exception encountered"));
+        Assert.assertEquals(e.getCategory(), Category.AUTH);
+
+        // Without a body the cause supplies the message.
+        e = Utils.makeTapisClientException(-1, null, new IOException("Connection refused"));
+        Assert.assertEquals(e.getMessage(), "Connection refused");
+        Assert.assertEquals(e.getCategory(), Category.TRANSPORT);
+
+        // Oversized bodies are truncated.
+        String big = "x".repeat(Utils.MAX_ERROR_BODY_SIZE + 100);
+        e = Utils.makeTapisClientException(400, big, new IOException("HTTP 400"));
+        Assert.assertEquals(e.getMessage().length(), Utils.MAX_ERROR_BODY_SIZE);
+        Assert.assertEquals(e.getCategory(), Category.CLIENT);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testCategories:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCategories()
+    {
+        var e = new TapisClientException("local failure");
+        Assert.assertEquals(e.getCategory(), Category.OTHER);
+        e.setCode(410);
+        Assert.assertEquals(e.getCategory(), Category.NOT_FOUND);
+        e.setCode(403);
+        Assert.assertEquals(e.getCategory(), Category.AUTH);
+        e.setCode(429);
+        Assert.assertEquals(e.getCategory(), Category.THROTTLED);
+        e.setCode(503);
+        Assert.assertEquals(e.getCategory(), Category.SERVER);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testGeneratedTransportFailure:                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testGeneratedTransportFailure()
+    {
+        // Generated clients wrap transport failures in an ApiException with code 0.
+        var apiException = new Exception("java.net.ConnectException: Connection refused",
+                                         new ConnectException("Connection refused"));
+        var e = Utils.makeTapisClientException(0, null, apiException);
+        Assert.assertEquals(e.getCode(), 0);
+        Assert.assertEquals(e.getCategory(), Category.TRANSPORT);
+
+        // Code 0 without an IOException cause did not involve a request.
+        e = Utils.makeTapisClientException(0, null, new IllegalStateException("bad input"));
+        Assert.assertEquals(e.getCategory(), Category.OTHER);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testStackless:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testStackless()
+    {
+        var cause = new IOException("HTTP 404");
+        Assert.assertTrue(Utils.makeTapisClientException(404, "{}", cause).getStackTrace().length > 0);
+
+        Utils.setStacklessCodes(Set.of(404));
+        var e = Utils.makeTapisClientException(404, "{}", cause);
+        Assert.assertEquals(e.getStackTrace().length, 0);
+        Assert.assertSame(e.getCause(), cause);
+        Assert.assertTrue(Utils.makeTapisClientException(500, "{}", cause).getStackTrace().length > 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testUnchecked:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testUnchecked()
+    {
+        // The wrapper keeps the wrapped exception's message, code and category.
+        var e = Utils.makeTapisClientException(404, "{\"message\":\"Tenant not found\"}",
+                                               new IOException("HTTP 404"));
+        RuntimeException unchecked = new UncheckedTapisClientException(e);
+        Assert.assertEquals(unchecked.getMessage(), "Tenant not found");
+        Assert.assertSame(unchecked.getCause(), e);
+        TapisClientException cause = ((UncheckedTapisClientException) unchecked).getCause();
+        Assert.assertEquals(cause.getCode(), 404);
+        Assert.assertEquals(cause.getCategory(), Category.NOT_FOUND);
+    }
+}
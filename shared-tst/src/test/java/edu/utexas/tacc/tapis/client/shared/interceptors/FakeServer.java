@@ -0,0 +1,163 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/** Interceptor that stands in for a Tapis service in the interceptor tests.  It is
+ * installed as the last interceptor of an http client and answers requests without
+ * a network.
+ *
+ * Each request is answered with the next queued outcome, a status code or a
+ * transport failure, or with the current code or failure when the queue is empty.
+ * Before answering, the server optionally makes a nested call, waits until it is
+ * released and waits for a delay.  Delays are taken from the queued delays or the
+ * request's X-Delay header; a negative delay fails the request after its absolute
+ * value.  A cancelled call stops waiting and fails as a socket would.
+ */
+final class FakeServer
+ implements Interceptor
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    // Request header with the delay in milliseconds.
+    static final String DELAY_HEADER = "X-Delay";
+
+    // A call made by the server while it handles a request.
+    interface NestedCall {Response call() throws IOException;}
+
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // The answer when no outcome is queued.
+    volatile int     code = 200;
+    volatile boolean fail;
+    volatile String  body = "{}";
+
+    // Queued outcomes and delays.
+    final ConcurrentLinkedQueue<Object> outcomes = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<Long>   delays   = new ConcurrentLinkedQueue<>();
+
+    // The nested call and its failure, if any.
+    volatile NestedCall  nested;
+    volatile IOException nestedFailure;
+
+    // Statistics.
+    final AtomicInteger calls     = new AtomicInteger();
+    final AtomicInteger cancelled = new AtomicInteger();
+
+    // Requests wait here when the server is held.
+    private volatile CountDownLatch _hold;
+
+    // A client with only this server installed.
+    private volatile OkHttpClient _client;
+
+    /* ********************************************************************** */
+    /*                             Configuration                              */
+    /* ********************************************************************** */
+    FakeServer respond(int code) {return respond(code, -1);}
+    FakeServer respond(int code, int retryAfterSeconds)
+    {
+        outcomes.add(new int[] {code, retryAfterSeconds});
+        return this;
+    }
+    FakeServer fail() {return fail(new IOException("Connection reset"));}
+    FakeServer fail(IOException failure) {outcomes.add(failure); return this;}
+
+    /** Make requests wait until release() is called. */
+    FakeServer hold() {_hold = new CountDownLatch(1); return this;}
+    void release() {var hold = _hold; if (hold != null) hold.countDown();}
+
+    /** A client whose requests are answered by this server. */
+    OkHttpClient client()
+    {
+        if (_client == null) _client = new OkHttpClient.Builder().addInterceptor(this).build();
+        return _client;
+    }
+
+    /* ********************************************************************** */
+    /*                              Interceptor                               */
+    /* ********************************************************************** */
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        calls.incrementAndGet();
+        var nestedCall = nested;
+        if (nestedCall != null) {
+            nestedFailure = null;
+            try {nestedCall.call().close();}
+            catch (IOException e) {nestedFailure = e;}
+        }
+        var hold = _hold;
+        if (hold != null) {
+            try {hold.await(5, TimeUnit.SECONDS);}
+            catch (InterruptedException e) {throw new IOException(e);}
+        }
+
+        // Wait, noticing cancellation.
+        long delay = getDelay(chain.request());
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.abs(delay));
+        while (System.nanoTime() - end < 0) {
+            if (chain.call().isCanceled()) {
+                cancelled.incrementAndGet();
+                throw new IOException("Canceled");
+            }
+            sleep(1);
+        }
+        if (delay < 0) throw new IOException("Connection reset");
+
+        // Answer with the next outcome.
+        var outcome = outcomes.poll();
+        if (outcome instanceof IOException) throw (IOException) outcome;
+        if (outcome == null && fail) throw new IOException("Connection reset");
+        var answer = outcome != null ? (int[]) outcome : new int[] {code, -1};
+        var builder = new Response.Builder().request(chain.request()).protocol(Protocol.HTTP_1_1)
+                          .code(answer[0]).message("status " + answer[0])
+                          .body(ResponseBody.create(body, MediaType.get("application/json")));
+        if (answer[1] >= 0)
+            builder.header(TapisRetryInterceptor.RETRY_AFTER_HEADER, Integer.toString(answer[1]));
+        return builder.build();
+    }
+
+    /* ********************************************************************** */
+    /*                             Test Helpers                               */
+    /* ********************************************************************** */
+    /** Send a request through a client with the interceptor ahead of the server. */
+    static Response call(Interceptor interceptor, FakeServer server, Request request) throws IOException
+    {
+        var client = new OkHttpClient.Builder().addInterceptor(interceptor).addInterceptor(server).build();
+        return client.newCall(request).execute();
+    }
+
+    static Response call(Interceptor interceptor, FakeServer server, String url) throws IOException
+    {
+        return call(interceptor, server, new Request.Builder().url(url).build());
+    }
+
+    static void sleep(long millis)
+    {
+        try {Thread.sleep(millis);} catch (InterruptedException e) {}
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    private long getDelay(Request request)
+    {
+        Long queued = delays.poll();
+        if (queued != null) return queued;
+        var header = request.header(DELAY_HEADER);
+        return header == null ? 0 : Long.parseLong(header);
+    }
+}
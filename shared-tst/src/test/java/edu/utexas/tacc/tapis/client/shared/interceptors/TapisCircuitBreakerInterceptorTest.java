@@ -0,0 +1,196 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import static edu.utexas.tacc.tapis.client.shared.interceptors.FakeServer.call;
+
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisBulkheadFullException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisCircuitOpenException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import okhttp3.HttpUrl;
+
+@Test(groups={"unit"})
+public class TapisCircuitBreakerInterceptorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String SYSTEMS = "http://localhost:80/v3/systems";
+    private static final String FILES   = "http://localhost:80/v3/files";
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testOpenAndClose:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testOpenAndClose() throws Exception
+    {
+        var parms = new TapisCircuitBreakerParms().setWindowSize(10).setMinimumCalls(4)
+                        .setFailureRateThreshold(50).setOpenMillis(50).setHalfOpenCalls(2);
+        var breaker = new TapisCircuitBreakerInterceptor(parms);
+        var server = new FakeServer();
+
+        // Two successes and two failures reach the threshold.
+        server.code = 200;
+        call(breaker, server, SYSTEMS + "/s1").close();
+        call(breaker, server, SYSTEMS + "/s2").close();
+        server.code = 503;
+        call(breaker, server, SYSTEMS + "/s1").close();
+        var circuit = breaker.getCircuitBreaker(SYSTEMS);
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.CLOSED);
+        server.fail = true;
+        Assert.assertThrows(IOException.class, () -> call(breaker, server, SYSTEMS));
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.OPEN);
+        Assert.assertEquals(circuit.getOpenCount(), 1);
+
+        // Requests fail fast without being sent, but other services are unaffected.
+        server.fail = false;
+        server.code = 200;
+        int calls = server.calls.get();
+        var e = Assert.expectThrows(TapisCircuitOpenException.class, () -> call(breaker, server, SYSTEMS + "/s1"));
+        Assert.assertEquals(e.getService(), SYSTEMS);
+        Assert.assertEquals(server.calls.get(), calls);
+        call(breaker, server, FILES + "/ops/s1").close();
+        Assert.assertEquals(server.calls.get(), calls + 1);
+        Assert.assertEquals(breaker.getCircuitStates().get(FILES), TapisCircuitBreaker.State.CLOSED);
+
+        // After the open period, a failed trial call reopens the circuit.
+        Thread.sleep(60);
+        server.code = 500;
+        call(breaker, server, SYSTEMS).close();
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.OPEN);
+        Assert.assertEquals(circuit.getOpenCount(), 2);
+
+        // Successful trial calls close it.
+        Thread.sleep(60);
+        server.code = 200;
+        call(breaker, server, SYSTEMS).close();
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.HALF_OPEN);
+        call(breaker, server, SYSTEMS).close();
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.CLOSED);
+        Assert.assertEquals(circuit.getFailureRate(), -1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testHalfOpenPermits:                                                   */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testHalfOpenPermits() throws Exception
+    {
+        var parms = new TapisCircuitBreakerParms().setWindowSize(2).setMinimumCalls(1)
+                        .setOpenMillis(10).setHalfOpenCalls(1);
+        var circuit = new TapisCircuitBreaker(SYSTEMS, parms);
+        Assert.assertTrue(circuit.tryAcquire());
+        circuit.onFailure();
+        Assert.assertFalse(circuit.tryAcquire());
+
+        // Only the configured number of trial calls are admitted, and a released
+        // permit can be reused.
+        Thread.sleep(20);
+        Assert.assertTrue(circuit.tryAcquire());
+        Assert.assertFalse(circuit.tryAcquire());
+        circuit.release();
+        Assert.assertTrue(circuit.tryAcquire());
+        circuit.onSuccess();
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.CLOSED);
+        Assert.assertEquals(circuit.getRejectionCount(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testBulkhead:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBulkhead() throws IOException
+    {
+        // The server calls the same service while the first request is in
+        // progress, which exceeds the limit of one concurrent call.
+        var breaker = new TapisCircuitBreakerInterceptor(new TapisCircuitBreakerParms().setMaxConcurrentCalls(1));
+        var server = new FakeServer();
+        server.code = 200;
+        server.nested = () -> call(breaker, new FakeServer(), SYSTEMS + "/s2");
+        call(breaker, server, SYSTEMS + "/s1").close();
+        Assert.assertTrue(server.nestedFailure instanceof TapisBulkheadFullException);
+
+        // Rejections do not count as failures and the permit is returned.
+        var bulkhead = breaker.getBulkhead(SYSTEMS);
+        Assert.assertEquals(bulkhead.getRejectionCount(), 1);
+        Assert.assertEquals(bulkhead.getConcurrentCalls(), 0);
+        Assert.assertEquals(breaker.getCircuitBreaker(SYSTEMS).getFailureCount(), 0);
+
+        // Other services have their own permits.
+        server.nested = () -> call(breaker, new FakeServer(), FILES);
+        call(breaker, server, SYSTEMS + "/s1").close();
+        Assert.assertNull(server.nestedFailure);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testLocalRejection:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testLocalRejection() throws IOException
+    {
+        // Requests rejected by the concurrency limiter were never sent, so they
+        // cannot open the circuit.
+        var parms = new TapisCircuitBreakerParms().setWindowSize(10).setMinimumCalls(4);
+        var breaker = new TapisCircuitBreakerInterceptor(parms);
+        var server = new FakeServer();
+        for (int i = 0; i < 10; i++) server.fail(new TapisBulkheadFullException(SYSTEMS));
+        for (int i = 0; i < 10; i++)
+            Assert.assertThrows(TapisBulkheadFullException.class, () -> call(breaker, server, SYSTEMS));
+        var circuit = breaker.getCircuitBreaker(SYSTEMS);
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.CLOSED);
+        Assert.assertEquals(circuit.getFailureCount(), 0);
+        Assert.assertEquals(breaker.getBulkhead(SYSTEMS).getConcurrentCalls(), 0);
+
+        // The service's own failures still count.
+        for (int i = 0; i < 4; i++) server.fail();
+        for (int i = 0; i < 4; i++) Assert.assertThrows(IOException.class, () -> call(breaker, server, SYSTEMS));
+        Assert.assertEquals(circuit.getState(), TapisCircuitBreaker.State.OPEN);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testCategories:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCategories()
+    {
+        // Generated clients wrap transport exceptions and report code 0.
+        TapisClientException e =
+            Utils.makeTapisClientException(0, null, new Exception(new TapisCircuitOpenException(SYSTEMS)));
+        Assert.assertEquals(e.getCategory(), TapisClientException.Category.CIRCUIT_OPEN);
+        e = Utils.makeTapisClientException(0, null, new Exception(new TapisBulkheadFullException(SYSTEMS)));
+        Assert.assertEquals(e.getCategory(), TapisClientException.Category.BULKHEAD_FULL);
+        e = Utils.makeTapisClientException(0, null, new Exception(new IOException("Connection reset")));
+        Assert.assertEquals(e.getCategory(), TapisClientException.Category.TRANSPORT);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testServiceKey:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testServiceKey()
+    {
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("https://tacc.tapis.io/v3/systems/s1?limit=10")), "https://tacc.tapis.io:443/v3/systems");
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("http://localhost:8080/v3")), "http://localhost:8080/v3");
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("http://localhost:8080/")), "http://localhost:8080");
+
+        // The endpoints of one service share its key.
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("https://tacc.tapis.io/v3/security/user/roles/u1")), "https://tacc.tapis.io:443/v3/security");
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("https://tacc.tapis.io/v3/security/vault/secret")), "https://tacc.tapis.io:443/v3/security");
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("http://localhost:8080/security/user")), "http://localhost:8080/security");
+        Assert.assertEquals(TapisCircuitBreakerInterceptor.getServiceKey(
+            HttpUrl.get("http://localhost:8080/security/role")), "http://localhost:8080/security");
+    }
+}
@@ -0,0 +1,146 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import okhttp3.Request;
+
+@Test(groups={"unit"})
+public class TapisCoalescingInterceptorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String URL = "http://localhost/v3/systems/s1";
+
+    /* ********************************************************************** */
+    /*                                Fields                                  */
+    /* ********************************************************************** */
+    private final ExecutorService _executor = Executors.newCachedThreadPool();
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testCoalesce:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCoalesce() throws Exception
+    {
+        var coalescing = new TapisCoalescingInterceptor(new TapisCoalescingParms().setEnabled(true));
+        var server = heldServer("{\"result\":1}");
+
+        // Identical requests made while the first is in progress share its response.
+        var results = start(coalescing, server, 8, "jwt-a");
+        server.release();
+        for (var result : results) Assert.assertEquals(result.get(), "200 {\"result\":1}");
+        Assert.assertEquals(server.calls.get(), 1);
+        Assert.assertEquals(coalescing.getCoalescedCount(), 7);
+        Assert.assertEquals(coalescing.getInFlightCount(), 0);
+
+        // Nothing is cached once the request completes.
+        Assert.assertEquals(call(coalescing, server, "jwt-a"), "200 {\"result\":1}");
+        Assert.assertEquals(server.calls.get(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testIdentity:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testIdentity() throws Exception
+    {
+        // Requests with different tokens are sent separately.
+        var coalescing = new TapisCoalescingInterceptor(new TapisCoalescingParms().setEnabled(true));
+        var server = heldServer("{}");
+        var results = start(coalescing, server, 1, "jwt-a");
+        results.addAll(start(coalescing, server, 1, "jwt-b"));
+        server.release();
+        for (var result : results) Assert.assertEquals(result.get(), "200 {}");
+        Assert.assertEquals(server.calls.get(), 2);
+        Assert.assertEquals(coalescing.getCoalescedCount(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailure:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailure() throws Exception
+    {
+        // A transport failure is reported to every waiting request.
+        var coalescing = new TapisCoalescingInterceptor(new TapisCoalescingParms().setEnabled(true));
+        var server = heldServer(null);
+        var results = start(coalescing, server, 4, "jwt-a");
+        server.release();
+        for (var result : results) {
+            var e = Assert.expectThrows(ExecutionException.class, result::get);
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        Assert.assertEquals(server.calls.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testLargeBody:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testLargeBody() throws Exception
+    {
+        // Responses too large to buffer are not shared.
+        var parms = new TapisCoalescingParms().setEnabled(true).setMaxBodySize(4);
+        var coalescing = new TapisCoalescingInterceptor(parms);
+        var server = heldServer("{\"result\":1}");
+        var results = start(coalescing, server, 3, "jwt-a");
+        server.release();
+        for (var result : results) Assert.assertEquals(result.get(), "200 {\"result\":1}");
+        Assert.assertEquals(server.calls.get(), 3);
+        Assert.assertEquals(coalescing.getUnsharedCount(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* cleanup:                                                               */
+    /* ---------------------------------------------------------------------- */
+    @AfterClass
+    public void cleanup() {_executor.shutdownNow();}
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** A held server that answers with the body, or fails if there's no body. */
+    private static FakeServer heldServer(String body)
+    {
+        var server = new FakeServer().hold();
+        if (body == null) server.fail = true;
+        else server.body = body;
+        return server;
+    }
+
+    /** Start concurrent requests after the first one has reached the server. */
+    private ArrayList<Future<String>> start(TapisCoalescingInterceptor coalescing, FakeServer server,
+                                            int count, String jwt)
+     throws InterruptedException
+    {
+        var results = new ArrayList<Future<String>>();
+        int calls = server.calls.get();
+        results.add(_executor.submit(() -> call(coalescing, server, jwt)));
+        for (int i = 0; i < 500 && server.calls.get() == calls; i++) Thread.sleep(2);
+        for (int i = 1; i < count; i++) results.add(_executor.submit(() -> call(coalescing, server, jwt)));
+        Thread.sleep(200);
+        return results;
+    }
+
+    private static String call(TapisCoalescingInterceptor coalescing, FakeServer server, String jwt)
+     throws IOException
+    {
+        var request = new Request.Builder().url(URL).header("X-Tapis-Token", jwt).build();
+        try (var response = FakeServer.call(coalescing, server, request)) {
+            return response.code() + " " + response.body().string();
+        }
+    }
+}
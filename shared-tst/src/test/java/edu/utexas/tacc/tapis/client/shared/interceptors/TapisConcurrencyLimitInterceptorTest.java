@@ -0,0 +1,132 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import static edu.utexas.tacc.tapis.client.shared.interceptors.FakeServer.call;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisBulkheadFullException;
+
+@Test(groups={"unit"})
+public class TapisConcurrencyLimitInterceptorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String SYSTEMS = "http://localhost:80/v3/systems";
+    private static final long   MILLIS  = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testIncreaseAndBackoff:                                                */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testIncreaseAndBackoff() throws InterruptedException
+    {
+        var parms = new TapisConcurrencyLimitParms().setInitialLimit(10).setMinLimit(2).setMaxLimit(30);
+        var limiter = new TapisConcurrencyLimiter(SYSTEMS, parms);
+
+        // Flat latency with the limit in use raises the limit up to the maximum.
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(limiter.tryAcquire(0));
+            limiter.onSuccess(System.nanoTime() - 5 * MILLIS, limiter.getLimit());
+        }
+        Assert.assertEquals(limiter.getLimit(), 30);
+        Assert.assertEquals(limiter.getMinRttMicros() / 1000, 5);
+
+        // Light use neither raises nor, when latency varies, lowers the limit.
+        var idle = new TapisConcurrencyLimiter(SYSTEMS, parms);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(idle.tryAcquire(0));
+            idle.onSuccess(System.nanoTime() - (i % 2 == 0 ? 5 : 50) * MILLIS, 1);
+        }
+        Assert.assertEquals(idle.getLimit(), 10);
+        Assert.assertEquals(idle.getBackoffCount(), 0);
+
+        // Rising latency lowers the limit once for requests that were already
+        // in progress.
+        long start = System.nanoTime() - 50 * MILLIS;
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(limiter.tryAcquire(0));
+            limiter.onSuccess(start, limiter.getLimit());
+        }
+        Assert.assertEquals(limiter.getLimit(), 27);
+        Assert.assertEquals(limiter.getBackoffCount(), 1);
+
+        // Later slow requests lower it again, down to the minimum.
+        for (int i = 0; i < 40; i++) {
+            Assert.assertTrue(limiter.tryAcquire(0));
+            limiter.onDropped(System.nanoTime());
+        }
+        Assert.assertEquals(limiter.getLimit(), 2);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testQueue:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testQueue() throws Exception
+    {
+        var parms = new TapisConcurrencyLimitParms().setInitialLimit(1).setMinLimit(1).setMaxLimit(1);
+        var limiter = new TapisConcurrencyLimiter(SYSTEMS, parms);
+        Assert.assertTrue(limiter.tryAcquire(0));
+        Assert.assertFalse(limiter.tryAcquire(0));
+        Assert.assertFalse(limiter.tryAcquire(10));
+        Assert.assertEquals(limiter.getRejectionCount(), 2);
+
+        // A waiting request proceeds when the running one completes.
+        var acquired = new CountDownLatch(1);
+        var waiter = new Thread(() -> {
+            try {if (limiter.tryAcquire(10000)) acquired.countDown();}
+            catch (InterruptedException e) {}
+        });
+        waiter.start();
+        for (int i = 0; i < 500 && limiter.getQueueDepth() == 0; i++) Thread.sleep(2);
+        Assert.assertEquals(limiter.getQueueDepth(), 1);
+        limiter.release();
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        Assert.assertEquals(limiter.getQueueDepth(), 0);
+        Assert.assertEquals(limiter.getInFlight(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testInterceptor:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testInterceptor() throws IOException
+    {
+        var parms = new TapisConcurrencyLimitParms().setEnabled(true).setInitialLimit(1).setMinLimit(1)
+                        .setMaxLimit(4).setMaxWaitMillis(0);
+        var interceptor = new TapisConcurrencyLimitInterceptor(parms);
+
+        // A second concurrent request to the service exceeds the limit.
+        var server = new FakeServer();
+        server.nested = () -> call(interceptor, new FakeServer(), SYSTEMS + "/s2");
+        call(interceptor, server, SYSTEMS + "/s1").close();
+        Assert.assertTrue(server.nestedFailure instanceof TapisBulkheadFullException);
+        var limiter = interceptor.getLimiter(SYSTEMS);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+        Assert.assertEquals(limiter.getRejectionCount(), 1);
+
+        // Throttling and transport failures count as overload.
+        server = new FakeServer();
+        server.code = 503;
+        call(interceptor, server, SYSTEMS).close();
+        Assert.assertEquals(limiter.getBackoffCount(), 1);
+        server.fail = true;
+        var failing = server;
+        Assert.assertThrows(IOException.class, () -> call(interceptor, failing, SYSTEMS));
+        Assert.assertEquals(limiter.getBackoffCount(), 2);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+        Assert.assertEquals(interceptor.getLimits().get(SYSTEMS), Integer.valueOf(1));
+        Assert.assertEquals(interceptor.getQueueDepths().get(SYSTEMS), Integer.valueOf(0));
+    }
+}
@@ -0,0 +1,353 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+@Test(groups={"unit"})
+public class TapisHedgingInterceptorTest
+{
+    /* ********************************************************************** */
+    /*                               Constants                                */
+    /* ********************************************************************** */
+    private static final String SYSTEM       = "http://localhost/v3/systems/s1";
+    private static final String IS_PERMITTED = "http://localhost/v3/security/user/isPermitted";
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testHedge:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testHedge() throws IOException
+    {
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(5).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+
+        // No request is hedged until enough latencies are measured.
+        for (int i = 0; i < 5; i++) Assert.assertEquals(get(client, SYSTEM, 10), "200 {}");
+        Assert.assertEquals(server.calls.get(), 5);
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 0);
+        Assert.assertTrue(hedging.getDelays().get("GET http://localhost:80/v3/systems") >= 10);
+
+        // A slow request is hedged and the faster hedge's response is used.
+        server.delays.add(5000L);
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(get(client, SYSTEM, 10), "200 {}");
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertEquals(server.calls.get(), 7);
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        Assert.assertEquals(hedging.getHedgesWonCount(), 1);
+
+        // The slow request was cancelled.
+        for (int i = 0; i < 500 && server.cancelled.get() == 0; i++) FakeServer.sleep(2);
+        Assert.assertEquals(server.cancelled.get(), 1);
+
+        // Fast requests are not hedged.
+        Assert.assertEquals(get(client, SYSTEM, 1), "200 {}");
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testEligibility:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testEligibility() throws IOException
+    {
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        var json = MediaType.get("application/json");
+
+        // Read-only POSTs are hedged; other POSTs are not.
+        post(client, IS_PERMITTED, RequestBody.create("{}", json), 10);
+        server.delays.add(1000L);
+        post(client, IS_PERMITTED, RequestBody.create("{}", json), 10);
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        post(client, SYSTEM, RequestBody.create("{}", json), 10);
+        server.delays.add(300L);
+        post(client, SYSTEM, RequestBody.create("{}", json), 10);
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        Assert.assertEquals(hedging.getRequestCount(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testBudget:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBudget() throws IOException
+    {
+        // With a ratio of 0.5, every request is slow and only half are hedged.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(0.5);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        get(client, SYSTEM, 5);
+        for (int i = 0; i < 8; i++) {
+            server.delays.add(100L);
+            get(client, SYSTEM, 5);
+        }
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 4);
+        Assert.assertEquals(hedging.getBudgetExhaustedCount(), 4);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testFailure:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testFailure() throws IOException
+    {
+        // A failed copy gives way to the other copy.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        get(client, SYSTEM, 5);
+        server.delays.add(-200L);
+        Assert.assertEquals(get(client, SYSTEM, 5), "200 {}");
+        Assert.assertEquals(hedging.getHedgesWonCount(), 1);
+
+        // The request fails when every copy fails.
+        server.delays.add(-200L);
+        server.delays.add(-1L);
+        Assert.assertThrows(IOException.class, () -> get(client, SYSTEM, 5));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testCallerClient:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCallerClient() throws IOException
+    {
+        // Both copies are sent by the caller's client, with its interceptors and
+        // timeouts, including a client derived from the original one.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var readTimeouts = new ConcurrentLinkedQueue<Integer>();
+        var client = new OkHttpClient.Builder().addInterceptor(hedging)
+                         .addInterceptor(chain -> {
+                             readTimeouts.add(chain.readTimeoutMillis());
+                             return chain.proceed(chain.request());
+                         })
+                         .addInterceptor(server).build();
+        get(client, SYSTEM, 5);
+        var derived = client.newBuilder().readTimeout(1234, TimeUnit.MILLISECONDS).build();
+        readTimeouts.clear();
+        server.delays.add(1000L);
+        Assert.assertEquals(get(derived, SYSTEM, 5), "200 {}");
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        Assert.assertEquals(readTimeouts.size(), 2);
+        for (var readTimeout : readTimeouts) Assert.assertEquals(readTimeout.intValue(), 1234);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testSaturatedDispatcher:                                               */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testSaturatedDispatcher() throws Exception
+    {
+        // Asynchronous calls fill every dispatcher slot while they are hedged.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        client.dispatcher().setMaxRequests(8);
+        client.dispatcher().setMaxRequestsPerHost(8);
+        get(client, SYSTEM, 5);
+
+        int requests = 16;
+        var done = new CountDownLatch(requests);
+        var succeeded = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            var request = new Request.Builder().url(SYSTEM).header(FakeServer.DELAY_HEADER, "100").build();
+            client.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response)
+                {
+                    try (response) {if (response.isSuccessful()) succeeded.incrementAndGet();}
+                    finally {done.countDown();}
+                }
+                @Override
+                public void onFailure(Call call, IOException e) {done.countDown();}
+            });
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS), "incomplete = " + done.getCount());
+        Assert.assertEquals(succeeded.get(), requests);
+        Assert.assertTrue(hedging.getHedgesFiredCount() > 0);
+
+        // The dispatcher releases each call after its callback returns.
+        for (int i = 0; i < 500 && client.dispatcher().runningCallsCount() > 0; i++) FakeServer.sleep(2);
+        Assert.assertEquals(client.dispatcher().runningCallsCount(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testThreadsBusy:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testThreadsBusy() throws Exception
+    {
+        // Without a free hedging thread the request is not hedged.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1)
+                        .setMaxThreads(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        get(client, SYSTEM, 5);
+
+        // The only hedging thread sends the second copy of a slow request.
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var slow = executor.submit(() -> get(client, SYSTEM, 1000));
+            for (int i = 0; i < 500 && server.calls.get() < 3; i++) FakeServer.sleep(2);
+            Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+
+            // So another slow request is only sent once, on the caller's thread.
+            Assert.assertEquals(get(client, SYSTEM, 200), "200 {}");
+            Assert.assertEquals(server.calls.get(), 4);
+            Assert.assertEquals(hedging.getThreadsBusyCount(), 1);
+            Assert.assertEquals(slow.get(10, TimeUnit.SECONDS), "200 {}");
+            Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        }
+        finally {executor.shutdownNow();}
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testCallerThread:                                                      */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testCallerThread() throws IOException
+    {
+        // The primary copy is sent on the caller's thread and only the second
+        // copy on a hedging thread.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var threads = new ConcurrentLinkedQueue<Thread>();
+        var client = new OkHttpClient.Builder().addInterceptor(hedging)
+                         .addInterceptor(chain -> {
+                             threads.add(Thread.currentThread());
+                             return chain.proceed(chain.request());
+                         })
+                         .addInterceptor(server).build();
+        get(client, SYSTEM, 5);
+        threads.clear();
+        Assert.assertEquals(get(client, SYSTEM, 1), "200 {}");
+        Assert.assertEquals(new ArrayList<>(threads), List.of(Thread.currentThread()));
+
+        threads.clear();
+        server.delays.add(1000L);
+        Assert.assertEquals(get(client, SYSTEM, 5), "200 {}");
+        Assert.assertEquals(hedging.getHedgesWonCount(), 1);
+        Assert.assertEquals(threads.size(), 2);
+        Assert.assertSame(threads.poll(), Thread.currentThread());
+        Assert.assertTrue(threads.poll().getName().startsWith("TapisClientHedge-"));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testLatency:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testLatency() throws IOException
+    {
+        // Only the primary copies' latencies are recorded.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var client = hedgingClient(hedging, server);
+        get(client, SYSTEM, 20);
+        var tracker = hedging.getTracker("GET http://localhost:80/v3/systems");
+        Assert.assertEquals(tracker.getSampleCount(), 1);
+        long delayMillis = hedging.getDelays().get("GET http://localhost:80/v3/systems");
+
+        // A primary that loses to the second copy is recorded once, with at least
+        // the time it ran for.
+        server.delays.add(1000L);
+        long start = System.nanoTime();
+        Assert.assertEquals(get(client, SYSTEM, 20), "200 {}");
+        Assert.assertEquals(hedging.getHedgesWonCount(), 1);
+        Assert.assertEquals(tracker.getSampleCount(), 2);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= delayMillis);
+
+        // A primary that fails is not recorded, even though the second copy answers.
+        server.delays.add(-100L);
+        Assert.assertEquals(get(client, SYSTEM, 300), "200 {}");
+        Assert.assertEquals(hedging.getHedgesWonCount(), 2);
+        Assert.assertEquals(tracker.getSampleCount(), 2);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRetryBudget:                                                       */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRetryBudget() throws IOException
+    {
+        // Second copies are not counted as requests by the retry budget.
+        var server = new FakeServer();
+        var parms = new TapisHedgingParms().setEnabled(true).setMinSamples(1).setHedgeRatio(1);
+        var hedging = new TapisHedgingInterceptor(parms);
+        var budget = new TapisRetryBudget();
+        var retry = new TapisRetryInterceptor(new TapisRetryParms(), budget);
+        var client = new OkHttpClient.Builder().addInterceptor(hedging).addInterceptor(retry)
+                         .addInterceptor(server).build();
+        get(client, SYSTEM, 5);
+        server.delays.add(1000L);
+        Assert.assertEquals(get(client, SYSTEM, 5), "200 {}");
+        Assert.assertEquals(hedging.getHedgesFiredCount(), 1);
+        Assert.assertEquals(retry.getRequestCount(), 3);
+        Assert.assertEquals(budget.getRequestCount(), 2);
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    private static OkHttpClient hedgingClient(TapisHedgingInterceptor hedging, FakeServer server)
+    {
+        var builder = server.client().newBuilder();
+        builder.interceptors().add(0, hedging);
+        return builder.build();
+    }
+
+    /** Send a request that the server answers after the given delay unless a
+     * queued delay overrides it.
+     */
+    private static String get(OkHttpClient client, String url, long delayMillis) throws IOException
+    {
+        return send(client, new Request.Builder().url(url)
+                                .header(FakeServer.DELAY_HEADER, Long.toString(delayMillis)).build());
+    }
+
+    private static String post(OkHttpClient client, String url, RequestBody body, long delayMillis)
+     throws IOException
+    {
+        return send(client, new Request.Builder().url(url).post(body)
+                                .header(FakeServer.DELAY_HEADER, Long.toString(delayMillis)).build());
+    }
+
+    private static String send(OkHttpClient client, Request request) throws IOException
+    {
+        try (var response = client.newCall(request).execute()) {
+            return response.code() + " " + response.body().string();
+        }
+    }
+}
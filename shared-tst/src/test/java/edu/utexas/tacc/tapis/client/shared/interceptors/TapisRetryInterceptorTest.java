@@ -0,0 +1,152 @@
+package edu.utexas.tacc.tapis.client.shared.interceptors;
+
+import static edu.utexas.tacc.tapis.client.shared.interceptors.FakeServer.call;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisBulkheadFullException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisCircuitOpenException;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+@Test(groups={"unit"})
+public class TapisRetryInterceptorTest
+{
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testRetry:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRetry() throws IOException
+    {
+        var server = new FakeServer().respond(503).fail().respond(200);
+        var retry = new TapisRetryInterceptor(fastParms(), new TapisRetryBudget());
+        try (var response = call(retry, server, get())) {Assert.assertEquals(response.code(), 200);}
+        Assert.assertEquals(server.calls.get(), 3);
+        Assert.assertEquals(retry.getAttemptCount(), 3);
+        Assert.assertEquals(retry.getRetryCount(), 2);
+        Assert.assertEquals(retry.getGiveUpCount(), 0);
+
+        // Attempts are limited.
+        server = new FakeServer().respond(502).respond(502).respond(502).respond(200);
+        try (var response = call(retry, server, get())) {Assert.assertEquals(response.code(), 502);}
+        Assert.assertEquals(server.calls.get(), 3);
+        Assert.assertEquals(retry.getGiveUpCount(), 1);
+
+        // Other codes are returned immediately.
+        server = new FakeServer().respond(500).respond(200);
+        try (var response = call(retry, server, get())) {Assert.assertEquals(response.code(), 500);}
+        Assert.assertEquals(server.calls.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testNonIdempotent:                                                     */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testNonIdempotent() throws IOException
+    {
+        var server = new FakeServer().respond(503).respond(200);
+        var retry = new TapisRetryInterceptor(fastParms(), new TapisRetryBudget());
+        var post = new Request.Builder().url("http://localhost/v3/systems")
+                       .post(RequestBody.create("{}", MediaType.get("application/json"))).build();
+        try (var response = call(retry, server, post)) {Assert.assertEquals(response.code(), 503);}
+        Assert.assertEquals(server.calls.get(), 1);
+
+        // Transport failures of non-idempotent requests are thrown.
+        var failing = new FakeServer().fail().respond(200);
+        Assert.assertThrows(IOException.class, () -> call(retry, failing, post));
+        Assert.assertEquals(failing.calls.get(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRejection:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRejection()
+    {
+        // Requests rejected locally are not retried and spend no budget.
+        var budget = new TapisRetryBudget();
+        var retry = new TapisRetryInterceptor(fastParms(), budget);
+        var server = new FakeServer().fail(new TapisBulkheadFullException("http://localhost/v3")).respond(200);
+        Assert.assertThrows(TapisBulkheadFullException.class, () -> call(retry, server, get()));
+        Assert.assertEquals(server.calls.get(), 1);
+
+        var open = new FakeServer().fail(new TapisCircuitOpenException("http://localhost/v3")).respond(200);
+        Assert.assertThrows(TapisCircuitOpenException.class, () -> call(retry, open, get()));
+        Assert.assertEquals(open.calls.get(), 1);
+        Assert.assertEquals(retry.getRetryCount(), 0);
+        Assert.assertEquals(budget.getGrantedCount(), 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRetryAfter:                                                        */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRetryAfter() throws IOException
+    {
+        // A short Retry-After is honored and a long one is not waited for.
+        var retry = new TapisRetryInterceptor(fastParms().setMaxRetryAfterMillis(5000), new TapisRetryBudget());
+        var server = new FakeServer().respond(429, 0).respond(200);
+        try (var response = call(retry, server, get())) {Assert.assertEquals(response.code(), 200);}
+        server = new FakeServer().respond(503, 120).respond(200);
+        try (var response = call(retry, server, get())) {Assert.assertEquals(response.code(), 503);}
+        Assert.assertEquals(server.calls.get(), 1);
+
+        Assert.assertEquals(TapisRetryInterceptor.parseRetryAfter("3"), 3000);
+        Assert.assertEquals(TapisRetryInterceptor.parseRetryAfter("-3"), -1);
+        Assert.assertEquals(TapisRetryInterceptor.parseRetryAfter("soon"), -1);
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60));
+        long millis = TapisRetryInterceptor.parseRetryAfter(date);
+        Assert.assertTrue(millis > 50000 && millis <= 60000, "millis = " + millis);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testBudget:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testBudget() throws IOException
+    {
+        // A budget of one retry per ten requests with no per second minimum.
+        var budget = new TapisRetryBudget(0.1, 0);
+        var retry = new TapisRetryInterceptor(fastParms(), budget);
+        var server = new FakeServer();
+        for (int i = 0; i < 100; i++) server.respond(503);
+        for (int i = 0; i < 50; i++) call(retry, server, get()).close();
+
+        // Fifty requests earn five retries, after which every request gives up
+        // when it is denied a retry.
+        Assert.assertEquals(retry.getRetryCount(), 5);
+        Assert.assertEquals(server.calls.get(), 55);
+        Assert.assertEquals(budget.getGrantedCount(), 5);
+        Assert.assertEquals(retry.getBudgetExhaustedCount(), 50);
+        Assert.assertEquals(retry.getGiveUpCount(), 50);
+
+        // The per second minimum allows retries without any credit.
+        budget = new TapisRetryBudget(0, 2);
+        Assert.assertTrue(budget.tryAcquireRetry());
+        Assert.assertTrue(budget.tryAcquireRetry());
+        Assert.assertFalse(budget.tryAcquireRetry());
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    private static TapisRetryParms fastParms()
+    {
+        return new TapisRetryParms().setBaseDelayMillis(1).setMaxDelayMillis(2);
+    }
+
+    private static Request get()
+    {
+        return new Request.Builder().url("http://localhost/v3/systems").build();
+    }
+}
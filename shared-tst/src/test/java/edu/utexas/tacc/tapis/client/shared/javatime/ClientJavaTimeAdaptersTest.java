@@ -0,0 +1,112 @@
+package edu.utexas.tacc.tapis.client.shared.javatime;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+@Test(groups={"unit"})
+public class ClientJavaTimeAdaptersTest
+{
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    // Gson with the streaming adapters.
+    private static final Gson _adapters = ClientConverters.registerAll(new GsonBuilder()).create();
+
+    // Gson with the formatter-based converters.
+    private static final Gson _converters = new GsonBuilder()
+        .registerTypeAdapter(LocalDate.class, new ClientLocalDateConverter())
+        .registerTypeAdapter(LocalDateTime.class, new ClientLocalDateTimeConverter())
+        .registerTypeAdapter(LocalTime.class, new ClientLocalTimeConverter())
+        .registerTypeAdapter(OffsetDateTime.class, new ClientOffsetDateTimeConverter())
+        .registerTypeAdapter(OffsetTime.class, new ClientOffsetTimeConverter())
+        .registerTypeAdapter(ZonedDateTime.class, new ClientZonedDateTimeConverter())
+        .registerTypeAdapter(Instant.class, new ClientInstantConverter())
+        .create();
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testDateTimes:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testDateTimes()
+    {
+        // Fast path and fallback forms.
+        String[] values = {
+            "2020-02-29T23:59:59Z", "2021-06-01T10:15:30.1Z", "2021-06-01T10:15:30.123456789Z",
+            "2021-06-01T10:15:30.123+05:30", "2021-06-01T10:15:30-08:00", "2021-06-01T10:15:30+00:00",
+            "2021-06-01T10:15Z", "2021-06-01t10:15:30z", "+12021-06-01T10:15:30Z",
+            "2021-06-01T10:15:30+01:00[Europe/Paris]", "2021-06-01T10:15:30+01:00:30",
+            "2021-06-01T10:15:30", "2021-02-30T10:15:30Z", "2021-06-01T24:00:00Z",
+            "2021-06-01T10:15:30.Z", "2021-06-01T10:15:30+19:00", "junk", ""};
+        for (String v : values) {
+            compare(v, Instant.class);
+            compare(v, OffsetDateTime.class);
+            compare(v, ZonedDateTime.class);
+            compare(v, LocalDateTime.class);
+            compare(v.replaceAll("(Z|[+-]\\d\\d:\\d\\d.*)$", ""), LocalDateTime.class);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testDatesAndTimes:                                                     */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testDatesAndTimes()
+    {
+        String[] dates = {"2021-06-01", "2021-13-01", "2021-6-01", "+12021-06-01", "2021-06-01Z"};
+        for (String v : dates) compare(v, LocalDate.class);
+
+        String[] times = {"10:15:30", "10:15:30.5", "10:15", "25:00:00", "10:15:30.1234567890",
+                          "10:15:30+01:00", "10:15:30.25Z", "10:15:30-03:30", "10:15+01:00"};
+        for (String v : times) {
+            compare(v, LocalTime.class);
+            compare(v, OffsetTime.class);
+        }
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testWrite:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testWrite()
+    {
+        var odt = OffsetDateTime.parse("2021-06-01T10:15:00.120+05:30");
+        Object[] values = {odt, odt.toInstant(), odt.toZonedDateTime(), odt.toLocalDateTime(),
+                           odt.toLocalDate(), odt.toLocalTime(), odt.toOffsetTime()};
+        for (Object v : values)
+            Assert.assertEquals(_adapters.toJson(v), _converters.toJson(v), v.getClass().getName());
+        Assert.assertEquals(_adapters.toJson(null, Instant.class), "null");
+        Assert.assertNull(_adapters.fromJson("null", Instant.class));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    /** Check that both implementations produce the same value or both fail. */
+    private static void compare(String value, Class<?> type)
+    {
+        String json = "\"" + value + "\"";
+        Object expected, actual;
+        try {expected = _converters.fromJson(json, type);}
+        catch (RuntimeException e) {expected = null;}
+        try {actual = _adapters.fromJson(json, type);}
+        catch (RuntimeException e) {
+            if (expected != null) throw e;
+            actual = null;
+        }
+        Assert.assertEquals(actual, expected, type.getSimpleName() + " " + value);
+    }
+}
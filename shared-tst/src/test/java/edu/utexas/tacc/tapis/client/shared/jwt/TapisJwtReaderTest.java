@@ -0,0 +1,81 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+@Test(groups={"unit"})
+public class TapisJwtReaderTest
+{
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testClaims:                                                            */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testClaims() throws TapisClientException
+    {
+        long exp = System.currentTimeMillis() / 1000 + 3600;
+        String jwt = makeJwt("{\"iss\":\"https://dev.develop.tapis.io/v3/tokens\"," +
+                             "\"sub\":\"testuser2@dev\",\"exp\":" + exp + "," +
+                             "\"tapis/tenant_id\":\"dev\",\"tapis/username\":\"testuser2\"," +
+                             "\"tapis/token_type\":\"access\",\"tapis/account_type\":\"user\"," +
+                             "\"tapis/delegation\":false,\"tapis/extra\":{\"a\":1}}");
+        var claims = TapisJwtReader.getClaims(jwt);
+        Assert.assertEquals(claims.getTenantId(), "dev");
+        Assert.assertEquals(claims.getUsername(), "testuser2");
+        Assert.assertEquals(claims.getSubject(), "testuser2@dev");
+        Assert.assertEquals(claims.getAccountType(), "user");
+        Assert.assertEquals(claims.getExpiresAtSeconds(), exp);
+        Assert.assertFalse(claims.isDelegation());
+        Assert.assertFalse(claims.isExpired());
+        Assert.assertTrue(claims.isExpired(7200));
+        Assert.assertEquals(claims.getClaimAsString("tapis/extra"), "{\"a\":1}");
+        Assert.assertNull(claims.getClaimAsString("missing"));
+
+        // Repeated reads are served from the cache.
+        Assert.assertSame(TapisJwtReader.getClaims(jwt), claims);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testExpired:                                                           */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testExpired() throws TapisClientException
+    {
+        var claims = TapisJwtReader.getClaims(makeJwt("{\"exp\":1000}"));
+        Assert.assertTrue(claims.isExpired());
+        Assert.assertNull(claims.getTenantId());
+
+        // Tokens without an expiration do not expire.
+        claims = TapisJwtReader.getClaims(makeJwt("{\"sub\":\"x\"}"));
+        Assert.assertFalse(claims.isExpired(Long.MAX_VALUE / 2));
+        Assert.assertNull(claims.getExpiresAt());
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testMalformed:                                                         */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testMalformed()
+    {
+        String[] bad = {null, "", "abc", "abc.def", "a.!!!.c", makeJwt("[1,2]"), makeJwt("{not json")};
+        for (String jwt : bad)
+            Assert.assertThrows(TapisClientException.class, () -> TapisJwtReader.getClaims(jwt));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    private static String makeJwt(String claims)
+    {
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8)) +
+               "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".sig";
+    }
+}
@@ -0,0 +1,179 @@
+package edu.utexas.tacc.tapis.client.shared.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+@Test(groups={"unit"})
+public class TapisJwtVerifierTest
+{
+    /* ********************************************************************** */
+    /*                                 Fields                                 */
+    /* ********************************************************************** */
+    private KeyPair _keyPair;
+    private KeyPair _rotatedKeyPair;
+
+    /* ********************************************************************** */
+    /*                               Set Up                                   */
+    /* ********************************************************************** */
+    @BeforeClass
+    public void setUp() throws Exception
+    {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        _keyPair = generator.generateKeyPair();
+        _rotatedKeyPair = generator.generateKeyPair();
+    }
+
+    /* ********************************************************************** */
+    /*                              Test Methods                              */
+    /* ********************************************************************** */
+    /* ---------------------------------------------------------------------- */
+    /* testValid:                                                             */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testValid() throws Exception
+    {
+        var resolver = new TestResolver();
+        resolver.current.put("dev", _keyPair.getPublic());
+        var verifier = new TapisJwtVerifier(resolver);
+
+        String jwt = sign(_keyPair.getPrivate(), "RS256", claims("dev", 3600));
+        var claims = verifier.verify(jwt);
+        Assert.assertEquals(claims.getTenantId(), "dev");
+        Assert.assertEquals(claims.getUsername(), "testuser2");
+
+        // The second verification only checks expiration.
+        verifier.verify(jwt);
+        Assert.assertEquals(verifier.getVerificationCount(), 1);
+        Assert.assertEquals(resolver.refreshes, 0);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRotation:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRotation() throws Exception
+    {
+        // The resolver has the old key cached and the new key at its source.
+        var resolver = new TestResolver();
+        resolver.current.put("dev", _keyPair.getPublic());
+        resolver.source.put("dev", _rotatedKeyPair.getPublic());
+        var verifier = new TapisJwtVerifier(resolver);
+
+        String jwt = sign(_rotatedKeyPair.getPrivate(), "RS256", claims("dev", 3600));
+        Assert.assertEquals(verifier.verify(jwt).getTenantId(), "dev");
+        Assert.assertEquals(resolver.refreshes, 1);
+        Assert.assertEquals(verifier.getKeyRefreshCount(), 1);
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testRejected:                                                          */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testRejected() throws Exception
+    {
+        var resolver = new TestResolver();
+        resolver.current.put("dev", _keyPair.getPublic());
+        resolver.source.put("dev", _keyPair.getPublic());
+        var verifier = new TapisJwtVerifier(resolver, 30);
+
+        // Signed with another key.
+        String forged = sign(_rotatedKeyPair.getPrivate(), "RS256", claims("dev", 3600));
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(forged));
+        Assert.assertEquals(resolver.refreshes, 1);
+
+        // Modified claims.
+        String jwt = sign(_keyPair.getPrivate(), "RS256", claims("dev", 3600));
+        String[] parts = jwt.split("\\.");
+        String tampered = parts[0] + "." + encode(claims("admin", 3600)) + "." + parts[2];
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(tampered));
+
+        // Unsupported algorithm.
+        String none = sign(_keyPair.getPrivate(), "none", claims("dev", 3600));
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(none));
+
+        // Expired beyond the clock skew, but accepted within it.
+        String expired = sign(_keyPair.getPrivate(), "RS256", claims("dev", -60));
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(expired));
+        verifier.verify(sign(_keyPair.getPrivate(), "RS256", claims("dev", -10)));
+
+        // No expiration.
+        String noExp = sign(_keyPair.getPrivate(), "RS256", claims("dev", 3600).replaceFirst("\"exp\":\\d+,", ""));
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(noExp));
+
+        // Unknown tenant.
+        String unknown = sign(_keyPair.getPrivate(), "RS256", claims("other", 3600));
+        Assert.assertThrows(TapisClientException.class, () -> verifier.verify(unknown));
+    }
+
+    /* ---------------------------------------------------------------------- */
+    /* testParsePublicKey:                                                    */
+    /* ---------------------------------------------------------------------- */
+    @Test
+    public void testParsePublicKey() throws Exception
+    {
+        String encoded = Base64.getMimeEncoder().encodeToString(_keyPair.getPublic().getEncoded());
+        String pem = "-----BEGIN PUBLIC KEY-----\n" + encoded + "\n-----END PUBLIC KEY-----\n";
+        Assert.assertEquals(TapisJwtVerifier.parsePublicKey(pem), _keyPair.getPublic());
+        Assert.assertThrows(TapisClientException.class, () -> TapisJwtVerifier.parsePublicKey("junk"));
+    }
+
+    /* ********************************************************************** */
+    /*                            Private Methods                             */
+    /* ********************************************************************** */
+    private static String claims(String tenant, long expiresInSeconds)
+    {
+        long exp = System.currentTimeMillis() / 1000 + expiresInSeconds;
+        return "{\"sub\":\"testuser2@" + tenant + "\",\"exp\":" + exp +
+               ",\"tapis/tenant_id\":\"" + tenant + "\",\"tapis/username\":\"testuser2\"}";
+    }
+
+    private static String sign(PrivateKey key, String alg, String claims) throws Exception
+    {
+        String signed = encode("{\"alg\":\"" + alg + "\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        var signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(key);
+        signer.update(signed.getBytes(StandardCharsets.US_ASCII));
+        return signed + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signer.sign());
+    }
+
+    private static String encode(String s)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* ********************************************************************** */
+    /*                             TestResolver                               */
+    /* ********************************************************************** */
+    /** Resolver with a cached key per tenant that is replaced from a source on refresh. */
+    private static final class TestResolver
+     implements TapisJwtKeyResolver
+    {
+        private final Map<String, PublicKey> current = new HashMap<>();
+        private final Map<String, PublicKey> source  = new HashMap<>();
+        private int refreshes;
+
+        @Override
+        public synchronized PublicKey getPublicKey(String tenantId, boolean refresh)
+        {
+            if (refresh) {
+                refreshes++;
+                if (source.containsKey(tenantId)) current.put(tenantId, source.get(tenantId));
+            }
+            return current.get(tenantId);
+        }
+    }
+}
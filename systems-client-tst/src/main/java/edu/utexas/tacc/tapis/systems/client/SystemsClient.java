@@ -10,10 +10,10 @@ import com.google.gson.Gson;
 
 import edu.utexas.tacc.tapis.client.shared.Utils;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
 import edu.utexas.tacc.tapis.client.shared.ClientTapisGsonUtils;
 import edu.utexas.tacc.tapis.systems.client.gen.ApiClient;
 import edu.utexas.tacc.tapis.systems.client.gen.ApiException;
-import edu.utexas.tacc.tapis.systems.client.gen.Configuration;
 import edu.utexas.tacc.tapis.systems.client.gen.api.CredentialsApi;
 import edu.utexas.tacc.tapis.systems.client.gen.api.PermissionsApi;
 import edu.utexas.tacc.tapis.systems.client.gen.api.SystemsApi;
@@ -59,6 +59,8 @@ public class SystemsClient
   // ************************************************************************
   // Response body serializer
   private static final Gson gson = ClientTapisGsonUtils.getGson();
+  // This client instance's underlying generated client and the api objects that use it.
+  private final ApiClient apiClient;
   private final SystemsApi sysApi;
   private final PermissionsApi permsApi;
   private final CredentialsApi credsApi;
@@ -68,13 +70,11 @@ public class SystemsClient
   // *********************** Constructors ***********************************
   // ************************************************************************
 
-  public SystemsClient()
-  {
-    sysApi = new SystemsApi();
-    permsApi = new PermissionsApi();
-    credsApi = new CredentialsApi();
-    generalApi = new GeneralApi();
-  }
+  /**
+   * Constructor that uses the compiled-in basePath value in ApiClient.  This
+   * constructor is only appropriate for test code.
+   */
+  public SystemsClient() { this(null, null); }
 
   /**
    * Constructor that overrides the compiled-in basePath value in ApiClient.  This
@@ -83,19 +83,24 @@ public class SystemsClient
    * The path includes the URL prefix up to and including the service root.  By
    * default this value is http://localhost/v3/service_name.  In production environments
    * the protocol is https and the host/port will be specific to that environment.
+   * <p>
+   * Each instance has its own ApiClient, so the base path and headers of one client
+   * never affect another.  All instances share the connection pool and threads of
+   * ClientHttpTransport.  Configure an instance before sharing it among threads.
    *
    * @param path the base path
    * @param jwt the token to set in an HTTP header
    */
   public SystemsClient(String path, String jwt)
   {
-    ApiClient apiClient = Configuration.getDefaultApiClient();
+    apiClient = new ApiClient();
+    apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
     if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
     if (!StringUtils.isBlank(jwt)) apiClient.addDefaultHeader(TAPIS_JWT_HEADER, jwt);
-    sysApi = new SystemsApi();
-    permsApi = new PermissionsApi();
-    credsApi = new CredentialsApi();
-    generalApi = new GeneralApi();
+    sysApi = new SystemsApi(apiClient);
+    permsApi = new PermissionsApi(apiClient);
+    credsApi = new CredentialsApi(apiClient);
+    generalApi = new GeneralApi(apiClient);
   }
 
   // ************************************************************************
@@ -107,24 +112,24 @@ public class SystemsClient
    */
   public ApiClient getApiClient()
   {
-    return Configuration.getDefaultApiClient();
+    return apiClient;
   }
 
   /**
-   * Update base path for default client.
+   * Update base path for this client.
    */
   public SystemsClient setBasePath(String basePath)
   {
-    Configuration.getDefaultApiClient().setBasePath(basePath);
+    apiClient.setBasePath(basePath);
     return this;
   }
 
   /**
-   * Add http header to default client
+   * Add http header to this client
    */
   public SystemsClient addDefaultHeader(String key, String val)
   {
-    Configuration.getDefaultApiClient().addDefaultHeader(key, val);
+    apiClient.addDefaultHeader(key, val);
     return this;
   }
 
@@ -0,0 +1,146 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.UncheckedTapisClientException;
+import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
+
+/**
+ * Iterator over all tenants that retrieves them from the Tenants service one page
+ * at a time.  When a page arrives, the request for the following page is started
+ * immediately, so the next page is usually available by the time the current one
+ * has been consumed.  Only the current page and the page being retrieved are held
+ * in memory.
+ * <p>
+ * Iteration ends with the first page that holds fewer tenants than the page size.
+ * A failed page request is thrown from hasNext() or next() as an
+ * UncheckedTapisClientException.  Call close() to cancel the outstanding request
+ * when iteration is abandoned.  Instances are not thread-safe.
+ */
+public final class TenantIterator
+ implements Iterator<Tenant>, AutoCloseable
+{
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  // The client used to retrieve pages.
+  private final TenantsClient _tenantsClient;
+  private final int           _pageSize;
+
+  // The page being consumed and the position in it.
+  private List<Tenant> _page = Collections.emptyList();
+  private int          _index;
+
+  // The request for the next page, null when there are no more pages.
+  private CompletableFuture<List<Tenant>> _next;
+
+  // The offset of the page after the one requested.
+  private int _offset;
+
+  // Statistics.
+  private int _pageCount;
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  /**
+   * Create an iterator and request the first page.
+   *
+   * @param tenantsClient the client used to retrieve pages
+   * @param pageSize the number of tenants requested at a time
+   */
+  public TenantIterator(TenantsClient tenantsClient, int pageSize)
+  {
+    if (tenantsClient == null) throw new NullPointerException("tenantsClient cannot be null");
+    if (pageSize < 1) throw new IllegalArgumentException("pageSize must be positive");
+    _tenantsClient = tenantsClient;
+    _pageSize = pageSize;
+    _next = request();
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  @Override
+  public boolean hasNext()
+  {
+    // Advance to the next non-empty page if the current one is consumed.
+    while (_index >= _page.size()) {
+      if (_next == null) return false;
+      var page = await(_next);
+      _pageCount++;
+      _page = page == null ? Collections.emptyList() : page;
+      _index = 0;
+
+      // Prefetch unless this is the last page.
+      _next = _page.size() < _pageSize ? null : request();
+    }
+    return true;
+  }
+
+  @Override
+  public Tenant next()
+  {
+    if (!hasNext()) throw new NoSuchElementException();
+    var tenant = _page.get(_index);
+    _page.set(_index++, null); // release consumed tenants
+    return tenant;
+  }
+
+  /**
+   * Cancel the outstanding page request and end the iteration.
+   */
+  @Override
+  public void close()
+  {
+    if (_next != null) _next.cancel(true);
+    _next = null;
+    _page = Collections.emptyList();
+    _index = 0;
+  }
+
+  // Accessors.
+  public int getPageSize() { return _pageSize; }
+  public int getPageCount() { return _pageCount; }
+
+  // ************************************************************************
+  // *********************** Private Methods ********************************
+  // ************************************************************************
+  /**
+   * Start the request for the page at the current offset.
+   */
+  private CompletableFuture<List<Tenant>> request()
+  {
+    var future = _tenantsClient.getTenantsAsync(_pageSize, _offset);
+    _offset += _pageSize;
+    return future;
+  }
+
+  /**
+   * Wait for a page request to complete.
+   */
+  private static List<Tenant> await(CompletableFuture<List<Tenant>> future)
+  {
+    try {return future.get();}
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedTapisClientException(
+          new TapisClientException("Interrupted while waiting for tenants.", e));
+    }
+    catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof TapisClientException)
+        throw new UncheckedTapisClientException((TapisClientException) cause);
+      if (cause instanceof Exception)
+        throw new UncheckedTapisClientException(Utils.makeTapisClientException(-1, null, (Exception) cause));
+      throw new UncheckedTapisClientException(Utils.makeTapisClientException(-1, null, e));
+    }
+  }
+}
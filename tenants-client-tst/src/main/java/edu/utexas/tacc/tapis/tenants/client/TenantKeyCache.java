@@ -0,0 +1,241 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.security.PublicKey;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.jwt.TapisJwtKeyResolver;
+import edu.utexas.tacc.tapis.client.shared.jwt.TapisJwtVerifier;
+import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
+
+/**
+ * Cache of the token signing keys of tenants, used by TapisJwtVerifier to check
+ * JWTs without calling a service for each token.  A tenant's key is retrieved from
+ * the Tenants service the first time it is needed and parsed once.
+ * <p>
+ * A refresh is requested when a token fails to verify with the cached key, which
+ * happens after a tenant's key is rotated but also for every forged token.  To
+ * keep invalid tokens from causing a Tenants service call each, a tenant's key is
+ * reacquired at most once per minimum refresh interval.  Concurrent requests for
+ * the same tenant's key result in a single service call.
+ * <p>
+ * Failed retrievals are remembered for the failure interval.  During it, requests
+ * for the tenant's key fail, or return a previously cached key, without calling
+ * the service, so tokens naming unknown tenants cannot flood the Tenants service.
+ * <p>
+ * Typical use:
+ * <pre>
+ *   var verifier = new TapisJwtVerifier(new TenantKeyCache(tenantsClient));
+ *   TapisJwtClaims claims = verifier.verify(jwt);
+ * </pre>
+ */
+public final class TenantKeyCache
+ implements TapisJwtKeyResolver
+{
+  // ************************************************************************
+  // *********************** Constants **************************************
+  // ************************************************************************
+  // Default minimum time between reacquisitions of a tenant's key.
+  public static final long DEFAULT_MIN_REFRESH_MILLIS = 30_000;
+
+  // Default time during which a failed retrieval is not retried.
+  public static final long DEFAULT_FAILURE_MILLIS = 5_000;
+
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  // The source of tenant definitions.
+  private final TenantsClient _tenantsClient;
+
+  // Minimum time between reacquisitions of a tenant's key.
+  private final long _minRefreshMillis;
+
+  // Time during which a failed retrieval is not retried.
+  private final long _failureMillis;
+
+  // Cached keys, recent failures and the per-tenant locks that serialize
+  // acquisition.  A lock is removed when its acquisition completes.
+  private final ConcurrentHashMap<String, CachedKey>     _keys     = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CachedFailure> _failures = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Object>        _locks    = new ConcurrentHashMap<>();
+
+  // Statistics.
+  private final LongAdder _fetches       = new LongAdder();
+  private final LongAdder _fetchFailures = new LongAdder();
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  public TenantKeyCache(TenantsClient tenantsClient)
+  {
+    this(tenantsClient, DEFAULT_MIN_REFRESH_MILLIS);
+  }
+
+  public TenantKeyCache(TenantsClient tenantsClient, long minRefreshMillis)
+  {
+    this(tenantsClient, minRefreshMillis, DEFAULT_FAILURE_MILLIS);
+  }
+
+  /**
+   * @param tenantsClient the client used to retrieve tenants
+   * @param minRefreshMillis minimum time between reacquisitions of a tenant's key
+   * @param failureMillis time during which a failed retrieval is not retried
+   */
+  public TenantKeyCache(TenantsClient tenantsClient, long minRefreshMillis, long failureMillis)
+  {
+    if (tenantsClient == null) throw new NullPointerException("tenantsClient cannot be null");
+    if (minRefreshMillis < 0) throw new IllegalArgumentException("minRefreshMillis cannot be negative");
+    if (failureMillis < 0) throw new IllegalArgumentException("failureMillis cannot be negative");
+    _tenantsClient = tenantsClient;
+    _minRefreshMillis = minRefreshMillis;
+    _failureMillis = failureMillis;
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  /**
+   * Get a tenant's public key, retrieving it from the Tenants service if it is not
+   * cached or if a refresh is requested and the minimum refresh interval has passed.
+   */
+  @Override
+  public PublicKey getPublicKey(String tenantId, boolean refresh) throws TapisClientException
+  {
+    if (StringUtils.isBlank(tenantId)) return null;
+
+    // Fast path.
+    CachedKey cached = _keys.get(tenantId);
+    if (cached != null && !(refresh && cached.isRefreshable())) return cached.key;
+    CachedFailure failure = getFailure(tenantId);
+    if (failure != null) return failed(tenantId, cached, failure);
+
+    // Only one thread retrieves a tenant's key; the others use its result.  A
+    // thread that finds the lock removed by the thread that completed the
+    // retrieval sees its result in the rechecks.
+    Object lock = _locks.computeIfAbsent(tenantId, k -> new Object());
+    try
+    {
+      synchronized (lock)
+      {
+        CachedKey current = _keys.get(tenantId);
+        if (current != null && current != cached) return current.key;
+        if (current != null && !(refresh && current.isRefreshable())) return current.key;
+        failure = getFailure(tenantId);
+        if (failure != null) return failed(tenantId, current, failure);
+        return fetch(tenantId).key;
+      }
+    }
+    finally { _locks.remove(tenantId, lock); }
+  }
+
+  /**
+   * Discard a tenant's cached key.
+   */
+  public void invalidate(String tenantId)
+  {
+    if (tenantId != null) { _keys.remove(tenantId); _failures.remove(tenantId); }
+  }
+
+  /**
+   * Discard all cached keys.
+   */
+  public void invalidateAll() { _keys.clear(); _failures.clear(); }
+
+  // Accessors.
+  public TenantsClient getTenantsClient() { return _tenantsClient; }
+  public long getMinRefreshMillis() { return _minRefreshMillis; }
+  public long getFailureMillis() { return _failureMillis; }
+  public int size() { return _keys.size(); }
+  public long getFetchCount() { return _fetches.sum(); }
+  public long getFetchFailureCount() { return _fetchFailures.sum(); }
+
+  // ************************************************************************
+  // *********************** Private Methods ********************************
+  // ************************************************************************
+  /**
+   * The tenant's last failed retrieval if it is within the failure interval.
+   */
+  private CachedFailure getFailure(String tenantId)
+  {
+    CachedFailure failure = _failures.get(tenantId);
+    if (failure == null || !failure.isExpired()) return failure;
+    _failures.remove(tenantId, failure);
+    return null;
+  }
+
+  /**
+   * Answer a request made while the tenant's last retrieval failure is recent:
+   * a previously cached key is still used, otherwise the failure is reported.
+   */
+  private PublicKey failed(String tenantId, CachedKey cached, CachedFailure failure) throws TapisClientException
+  {
+    if (cached != null) return cached.key;
+    throw new TapisClientException("The key of tenant " + tenantId + " is unavailable: " +
+                                   failure.cause.getMessage(), failure.cause);
+  }
+
+  /**
+   * Retrieve and cache a tenant's key.  Called while holding the tenant's lock.
+   * Failures leave any previously cached key in place and are remembered.
+   */
+  private CachedKey fetch(String tenantId) throws TapisClientException
+  {
+    _fetches.increment();
+    PublicKey key;
+    try
+    {
+      Tenant tenant = _tenantsClient.getTenant(tenantId);
+      String pem = tenant == null ? null : tenant.getPublicKey();
+      key = StringUtils.isBlank(pem) ? null : TapisJwtVerifier.parsePublicKey(pem);
+    }
+    catch (TapisClientException e)
+    {
+      _fetchFailures.increment();
+      _failures.values().removeIf(CachedFailure::isExpired);
+      _failures.put(tenantId, new CachedFailure(e, _failureMillis));
+      throw e;
+    }
+
+    // Tenants without keys are cached too, so they are not requested repeatedly.
+    var cached = new CachedKey(key, _minRefreshMillis);
+    _keys.put(tenantId, cached);
+    _failures.remove(tenantId);
+    return cached;
+  }
+
+  // ************************************************************************
+  // *********************** Private Classes ********************************
+  // ************************************************************************
+  /** A parsed key and the time after which it may be reacquired. */
+  private static final class CachedKey
+  {
+    private final PublicKey key;
+    private final long      refreshableAt;
+
+    private CachedKey(PublicKey key, long minRefreshMillis)
+    {
+      this.key = key;
+      this.refreshableAt = System.currentTimeMillis() + minRefreshMillis;
+    }
+
+    private boolean isRefreshable() { return System.currentTimeMillis() >= refreshableAt; }
+  }
+
+  /** A failed retrieval and the time after which it may be retried. */
+  private static final class CachedFailure
+  {
+    private final TapisClientException cause;
+    private final long                 expiresAt;
+
+    private CachedFailure(TapisClientException cause, long failureMillis)
+    {
+      this.cause = cause;
+      this.expiresAt = System.currentTimeMillis() + failureMillis;
+    }
+
+    private boolean isExpired() { return System.currentTimeMillis() >= expiresAt; }
+  }
+}
@@ -0,0 +1,281 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
+
+/**
+ * In-memory registry of all tenants, loaded from the Tenants service one page at
+ * a time and refreshed in the background.  Lookups are served from an immutable
+ * map keyed by tenant id, so they take constant time and never block, including
+ * while a refresh is in progress.  A refresh builds a new map and replaces the
+ * old one in one step.
+ * <p>
+ * A lookup of a tenant that is not in the registry forces a refresh so that newly
+ * created tenants are found without waiting for the next scheduled refresh.
+ * Forced refreshes occur at most once per minimum miss refresh interval, so
+ * repeated lookups of nonexistent tenants do not each call the service.
+ * Concurrent refreshes are serialized, and threads that waited for a refresh use
+ * its result rather than starting another.
+ * <p>
+ * The registry is loaded on first use.  If a background refresh fails, the
+ * previous tenants continue to be served.  Refresh threads are daemon threads;
+ * call close() to stop background refresh.  This class is thread-safe.
+ */
+public final class TenantRegistry
+{
+  // ************************************************************************
+  // *********************** Constants **************************************
+  // ************************************************************************
+  // Defaults.
+  public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000;
+  public static final long DEFAULT_MIN_MISS_REFRESH_MILLIS = 10 * 1000;
+
+  // Refresh thread name prefix.
+  private static final String THREAD_NAME_PREFIX = "TenantRegistry-";
+
+  // Used to number refresh threads.
+  private static final AtomicInteger _threadCount = new AtomicInteger();
+
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  // The client used to retrieve tenants.
+  private final TenantsClient _tenantsClient;
+
+  // Configuration.
+  private final long _refreshIntervalMillis;
+  private final long _minMissRefreshMillis;
+
+  // The current tenants, replaced as a whole on refresh.  Null until loaded.
+  private volatile Map<String, Tenant> _tenants;
+
+  // Completion time of the last successful refresh.
+  private volatile long _lastRefreshMillis;
+
+  // Serializes refreshes.
+  private final Object _refreshLock = new Object();
+
+  // Background refresh, started on first load.
+  private final ScheduledExecutorService _scheduler;
+  private boolean _scheduled;
+
+  // Statistics.
+  private final LongAdder _hits            = new LongAdder();
+  private final LongAdder _misses          = new LongAdder();
+  private final LongAdder _refreshes       = new LongAdder();
+  private final LongAdder _refreshFailures = new LongAdder();
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  /**
+   * Create a registry with the default refresh intervals.
+   *
+   * @param tenantsClient the client used to retrieve tenants
+   */
+  public TenantRegistry(TenantsClient tenantsClient)
+  {
+    this(tenantsClient, DEFAULT_REFRESH_INTERVAL_MILLIS, DEFAULT_MIN_MISS_REFRESH_MILLIS);
+  }
+
+  /**
+   * Create a registry.
+   *
+   * @param tenantsClient the client used to retrieve tenants
+   * @param refreshIntervalMillis time between background refreshes, 0 for none
+   * @param minMissRefreshMillis minimum time between refreshes forced by lookup misses
+   */
+  public TenantRegistry(TenantsClient tenantsClient, long refreshIntervalMillis,
+                        long minMissRefreshMillis)
+  {
+    if (tenantsClient == null) throw new NullPointerException("tenantsClient cannot be null");
+    if (refreshIntervalMillis < 0 || minMissRefreshMillis < 0)
+      throw new IllegalArgumentException("Refresh intervals cannot be negative.");
+
+    _tenantsClient = tenantsClient;
+    _refreshIntervalMillis = refreshIntervalMillis;
+    _minMissRefreshMillis = minMissRefreshMillis;
+    _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      var thread = new Thread(r, THREAD_NAME_PREFIX + _threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  /**
+   * Get a tenant, refreshing the registry if the tenant is not found.
+   *
+   * @param tenantId the tenant id
+   * @return the tenant or null if it does not exist
+   * @throws TapisClientException if the registry cannot be loaded
+   */
+  public Tenant getTenant(String tenantId) throws TapisClientException
+  {
+    if (StringUtils.isBlank(tenantId)) return null;
+    var tenants = _tenants;
+    if (tenants == null) tenants = load();
+    var tenant = tenants.get(tenantId);
+    if (tenant != null) {
+      _hits.increment();
+      return tenant;
+    }
+
+    // Look again after a forced refresh.
+    _misses.increment();
+    return refreshForMiss(tenants).get(tenantId);
+  }
+
+  /**
+   * Get the Security Kernel base path of a tenant.
+   *
+   * @param tenantId the tenant id
+   * @return the base path or null if the tenant does not exist
+   * @throws TapisClientException if the registry cannot be loaded
+   */
+  public String getSKBasePath(String tenantId) throws TapisClientException
+  {
+    var tenant = getTenant(tenantId);
+    if (tenant == null) return null;
+    return tenant.getSecurityKernel();
+  }
+
+  /**
+   * Get all tenants.
+   *
+   * @return an unmodifiable collection of tenants
+   * @throws TapisClientException if the registry cannot be loaded
+   */
+  public Collection<Tenant> getTenants() throws TapisClientException
+  {
+    var tenants = _tenants;
+    if (tenants == null) tenants = load();
+    return tenants.values();
+  }
+
+  /**
+   * Reload all tenants from the Tenants service now.
+   *
+   * @throws TapisClientException if the tenants cannot be retrieved, in which
+   *                              case the previous tenants remain in use
+   */
+  public void refresh() throws TapisClientException
+  {
+    synchronized (_refreshLock) {doRefresh();}
+  }
+
+  /**
+   * Stop background refresh.  Tenants continue to be served and refreshes
+   * forced by misses continue to occur.
+   */
+  public void close() { _scheduler.shutdownNow(); }
+
+  // Accessors.
+  public TenantsClient getTenantsClient() { return _tenantsClient; }
+  public int size() { var tenants = _tenants; return tenants == null ? 0 : tenants.size(); }
+  public long getLastRefreshMillis() { return _lastRefreshMillis; }
+  public long getHitCount() { return _hits.sum(); }
+  public long getMissCount() { return _misses.sum(); }
+  public long getRefreshCount() { return _refreshes.sum(); }
+  public long getRefreshFailureCount() { return _refreshFailures.sum(); }
+  public long getRefreshIntervalMillis() { return _refreshIntervalMillis; }
+  public long getMinMissRefreshMillis() { return _minMissRefreshMillis; }
+
+  // ************************************************************************
+  // *********************** Private Methods ********************************
+  // ************************************************************************
+  /**
+   * Perform the initial load unless another thread already has.
+   */
+  private Map<String, Tenant> load() throws TapisClientException
+  {
+    synchronized (_refreshLock)
+    {
+      if (_tenants == null) doRefresh();
+      return _tenants;
+    }
+  }
+
+  /**
+   * Refresh because a lookup in the given map failed, unless the map has since
+   * been replaced or the last refresh was too recent.
+   */
+  private Map<String, Tenant> refreshForMiss(Map<String, Tenant> missed) throws TapisClientException
+  {
+    synchronized (_refreshLock)
+    {
+      if (_tenants != missed) return _tenants;
+      if (System.currentTimeMillis() - _lastRefreshMillis < _minMissRefreshMillis) return missed;
+      doRefresh();
+      return _tenants;
+    }
+  }
+
+  /**
+   * Retrieve all tenants and replace the current map.  Called while holding the
+   * refresh lock.
+   */
+  private void doRefresh() throws TapisClientException
+  {
+    _refreshes.increment();
+    var tenants = new HashMap<String, Tenant>();
+    try
+    {
+      // Request pages until a short page, or a page without new tenants in case
+      // the service ignores the offset.
+      int pageSize = TenantsClient.DEFAULT_TENANT_PAGE_SIZE;
+      for (int offset = 0; ; offset += pageSize)
+      {
+        List<Tenant> page = _tenantsClient.getTenants(pageSize, offset);
+        if (page == null) break;
+        int size = tenants.size();
+        for (var tenant : page)
+          if (tenant != null && tenant.getTenantId() != null) tenants.put(tenant.getTenantId(), tenant);
+        if (page.size() < pageSize || tenants.size() == size) break;
+      }
+    }
+    catch (TapisClientException e) {_refreshFailures.increment(); throw e;}
+
+    _tenants = Collections.unmodifiableMap(tenants);
+    _lastRefreshMillis = System.currentTimeMillis();
+    startBackgroundRefresh();
+  }
+
+  /**
+   * Schedule periodic refresh after the first successful load.
+   */
+  private void startBackgroundRefresh()
+  {
+    if (_scheduled || _refreshIntervalMillis == 0) return;
+    _scheduled = true;
+    try {
+      _scheduler.scheduleWithFixedDelay(this::backgroundRefresh, _refreshIntervalMillis,
+                                        _refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (Exception e) {} // closed
+  }
+
+  /**
+   * Scheduled refresh; failures leave the current tenants in place.
+   */
+  private void backgroundRefresh()
+  {
+    try {refresh();}
+    catch (Exception e) {} // counted in doRefresh
+  }
+}
@@ -2,19 +2,23 @@ package edu.utexas.tacc.tapis.tenants.client;
 
 import java.lang.reflect.Type;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import edu.utexas.tacc.tapis.client.shared.Utils;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
-import edu.utexas.tacc.tapis.client.shared.ClientTapisGsonUtils;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
+import edu.utexas.tacc.tapis.client.shared.TapisResponse;
+import edu.utexas.tacc.tapis.client.shared.TapisResponseDecoder;
 import edu.utexas.tacc.tapis.tenants.client.gen.ApiClient;
 import edu.utexas.tacc.tapis.tenants.client.gen.ApiException;
-import edu.utexas.tacc.tapis.tenants.client.gen.Configuration;
 import edu.utexas.tacc.tapis.tenants.client.gen.api.TenantsApi;
 import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
 
@@ -29,6 +33,8 @@ public class TenantsClient
   // ************************************************************************
   // *********************** Constants **************************************
   // ************************************************************************
+  // Default number of tenants retrieved per request when iterating.
+  public static final int DEFAULT_TENANT_PAGE_SIZE = 100;
 
   // ************************************************************************
   // ************************* Enums ****************************************
@@ -37,14 +43,20 @@ public class TenantsClient
   // ************************************************************************
   // *********************** Fields *****************************************
   // ************************************************************************
-  // Response serializer.
-  private static final Gson _gson = ClientTapisGsonUtils.getGson();
+  // The result type of list responses.
+  private static final Type TENANT_LIST_TYPE = new TypeToken<List<Tenant>>(){}.getType();
+
+  // This client instance's underlying generated client.
+  private final ApiClient _apiClient;
+
+  // Lazily created tenant registry that uses this client.
+  private TenantRegistry _tenantRegistry;
 
   // ************************************************************************
   // *********************** Constructors ***********************************
   // ************************************************************************
 
-  public TenantsClient() { }
+  public TenantsClient() { this(null); }
 
   /**
    * Constructor that overrides the compiled-in basePath value in ApiClient.  This
@@ -53,13 +65,18 @@ public class TenantsClient
    * The path includes the URL prefix up to and including the service root.  By
    * default this value is http://localhost:8080.  In production environments
    * the protocol is https and the host/port will be specific to that environment.
+   * <p>
+   * Each instance has its own ApiClient, so the base path and headers of one client
+   * never affect another.  All instances share the connection pool and threads of
+   * ClientHttpTransport.
    *
    * @param path the base path
    */
   public TenantsClient(String path)
   {
-    ApiClient apiClient = Configuration.getDefaultApiClient();
-    if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
+    _apiClient = new ApiClient();
+    _apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
+    if (!StringUtils.isBlank(path)) _apiClient.setBasePath(path);
   }
 
   // ************************************************************************
@@ -68,14 +85,34 @@ public class TenantsClient
   /**
    * getApiClient: Return underlying ApiClient
    */
-  public ApiClient getApiClient() { return Configuration.getDefaultApiClient(); }
+  public ApiClient getApiClient() { return _apiClient; }
 
   /**
    * addDefaultHeader: Add http header to client
    */
   public ApiClient addDefaultHeader(String key, String val)
   {
-    return Configuration.getDefaultApiClient().addDefaultHeader(key, val);
+    return _apiClient.addDefaultHeader(key, val);
+  }
+
+  /**
+   * Get the tenant registry bound to this client, creating it with default
+   * settings on first use.  Applications that need different settings can create
+   * their own TenantRegistry.
+   */
+  public synchronized TenantRegistry getTenantRegistry()
+  {
+    if (_tenantRegistry == null) _tenantRegistry = new TenantRegistry(this);
+    return _tenantRegistry;
+  }
+
+  /**
+   * Get Security Kernel base path from the tenant registry without a service call
+   * when the tenant is already known.
+   */
+  public String getCachedSKBasePath(String tenantName) throws TapisClientException
+  {
+    return getTenantRegistry().getSKBasePath(tenantName);
   }
 
   /**
@@ -93,19 +130,15 @@ public class TenantsClient
    */
   public Tenant getTenant(String tenantName) throws TapisClientException
   {
-    // Make the service call.
-    Map resp = null;
+    // Make the service call and decode the result directly from the response.
+    TapisResponse<Tenant> resp = null;
     try { 
-        var tenantsApi = new TenantsApi();
-        resp = (Map) tenantsApi.getTenant(tenantName); 
+        var tenantsApi = new TenantsApi(_apiClient);
+        resp = TapisResponseDecoder.execute(tenantsApi.getTenantCall(tenantName, null), Tenant.class); 
     }
     catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e); }
-    catch (Exception e) { Utils.throwTapisClientException(-1, null, e); }
     
-    // Marshal only the result from the map.
-    String json = _gson.toJson(resp.get("result"));
-    if (StringUtils.isBlank(json)) return null;
-    return _gson.fromJson(json, Tenant.class);
+    return resp.getResult();
   }
 
   /**
@@ -121,24 +154,80 @@ public class TenantsClient
    */
   public List<Tenant> getTenants(Integer limit, Integer offset) throws TapisClientException
   {
-    // Make the service call.
-    Map resp = null;
+    // Make the service call and decode the result directly from the response.
+    TapisResponse<List<Tenant>> resp = null;
     try { 
-        var tenantsApi = new TenantsApi();
-        resp = (Map) tenantsApi.listTenants(limit, offset); 
+        var tenantsApi = new TenantsApi(_apiClient);
+        resp = TapisResponseDecoder.execute(tenantsApi.listTenantsCall(limit, offset, null), TENANT_LIST_TYPE); 
     }
     catch (ApiException e) {Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e); }
-    catch (Exception e) { Utils.throwTapisClientException(-1, null, e); }
-
-    // Marshal only the result from the map.
-    String json = _gson.toJson(resp.get("result"));
-    if (StringUtils.isBlank(json)) return null;
-    Type tenantListType = new TypeToken<List<Tenant>>(){}.getType();
-    List<Tenant> list = _gson.fromJson(json, tenantListType);
-    return list;
+
+    return resp.getResult();
+  }
+
+  /**
+   * Get one page of tenants without blocking.  The request is executed on the
+   * shared transport's threads and the future completes with the page, which is
+   * null or empty when there are no tenants at the offset.  Failures complete the
+   * future with a TapisClientException.
+   */
+  public CompletableFuture<List<Tenant>> getTenantsAsync(Integer limit, Integer offset)
+  {
+    try {
+      var tenantsApi = new TenantsApi(_apiClient);
+      var call = tenantsApi.listTenantsCall(limit, offset, null);
+      var resp = TapisResponseDecoder.<List<Tenant>>executeAsync(call, TENANT_LIST_TYPE);
+
+      // Propagate cancellation to the call.
+      var future = resp.thenApply(TapisResponse::getResult);
+      future.whenComplete((r, t) -> {if (future.isCancelled()) resp.cancel(true);});
+      return future;
+    }
+    catch (ApiException e) {
+      return CompletableFuture.failedFuture(Utils.makeTapisClientException(e.getCode(), e.getResponseBody(), e));
+    }
+  }
+
+  /**
+   * Iterate over all tenants using the default page size.
+   */
+  public TenantIterator iterateTenants()
+  {
+    return iterateTenants(DEFAULT_TENANT_PAGE_SIZE);
+  }
+
+  /**
+   * Iterate over all tenants, retrieving them one page at a time.  The next page
+   * is requested in the background as soon as the current page arrives, so at
+   * most two pages are held in memory.  Retrieval failures are thrown from the
+   * iterator as UncheckedTapisClientExceptions.
+   *
+   * @param pageSize the number of tenants requested at a time
+   */
+  public TenantIterator iterateTenants(int pageSize)
+  {
+    return new TenantIterator(this, pageSize);
+  }
+
+  /**
+   * Stream all tenants using the default page size.
+   */
+  public Stream<Tenant> streamTenants()
+  {
+    return streamTenants(DEFAULT_TENANT_PAGE_SIZE);
+  }
+
+  /**
+   * Stream all tenants with the paging and prefetching of iterateTenants(int).
+   * Closing the stream cancels any outstanding page request.
+   *
+   * @param pageSize the number of tenants requested at a time
+   */
+  public Stream<Tenant> streamTenants(int pageSize)
+  {
+    var iterator = iterateTenants(pageSize);
+    var spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                                      Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false).onClose(iterator::close);
   }
-  
-  /* **************************************************************************** */
-  /*                               Private Methods                                */
-  /* **************************************************************************** */
 }
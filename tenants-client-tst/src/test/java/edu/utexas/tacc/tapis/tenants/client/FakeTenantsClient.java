@@ -0,0 +1,74 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.tenants.client.gen.model.Tenant;
+
+/** Tenants client that answers from a map of tenants instead of calling the
+ * Tenants service.  Listing pages through the tenants in the order they were
+ * added, and failures can be switched on to simulate an unavailable service or
+ * a service that fails part way through a listing.
+ */
+class FakeTenantsClient
+ extends TenantsClient
+{
+  // The tenants keyed by id, in the order they were added.
+  final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+  private final List<String> _order = new ArrayList<>();
+
+  // Service behavior and statistics.
+  volatile boolean fail;
+  volatile int     failOffset = Integer.MAX_VALUE;
+  final AtomicInteger getCalls  = new AtomicInteger();
+  final AtomicInteger listCalls = new AtomicInteger();
+
+  /** Add a tenant with the specified id and security kernel url. */
+  synchronized FakeTenantsClient add(String tenantId, String skUrl)
+  {
+    var tenant = new Tenant();
+    tenant.setTenantId(tenantId);
+    tenant.setSecurityKernel(skUrl);
+    tenants.put(tenantId, tenant);
+    _order.add(tenantId);
+    return this;
+  }
+
+  @Override
+  public Tenant getTenant(String tenantName) throws TapisClientException
+  {
+    getCalls.incrementAndGet();
+    if (fail) throw new TapisClientException("Tenants service unavailable.");
+    Tenant tenant = tenants.get(tenantName);
+    if (tenant == null) throw new TapisClientException("Tenant " + tenantName + " not found.");
+    return tenant;
+  }
+
+  @Override
+  public synchronized List<Tenant> getTenants(Integer limit, Integer offset) throws TapisClientException
+  {
+    listCalls.incrementAndGet();
+    if (fail || (offset != null && offset >= failOffset))
+      throw new TapisClientException("Tenants service unavailable.");
+    int from = offset == null ? 0 : Math.min(offset, _order.size());
+    int to = limit == null ? _order.size() : Math.min(from + limit, _order.size());
+    var page = new ArrayList<Tenant>();
+    for (String id : _order.subList(from, to)) page.add(tenants.get(id));
+    return page;
+  }
+
+  @Override
+  public CompletableFuture<List<Tenant>> getTenantsAsync(Integer limit, Integer offset)
+  {
+    return CompletableFuture.supplyAsync(() -> {
+      try { return getTenants(limit, offset); }
+      catch (TapisClientException e) { throw new CompletionException(e); }
+    });
+  }
+}
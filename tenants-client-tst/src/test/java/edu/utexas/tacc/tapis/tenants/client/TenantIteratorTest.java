@@ -0,0 +1,97 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.exceptions.UncheckedTapisClientException;
+
+/**
+ *  Test paged iteration over tenants against a fake tenants client
+ */
+@Test(groups={"unit"})
+public class TenantIteratorTest
+{
+  private static final String SK_URL = "https://dev.develop.tapis.io/v3/security";
+
+  @Test
+  public void testPages()
+  {
+    // Seven tenants in pages of three, retrieved in order.
+    var client = newClient(7);
+    var ids = new ArrayList<String>();
+    try (var iterator = client.iterateTenants(3))
+    {
+      while (iterator.hasNext()) ids.add(iterator.next().getTenantId());
+      Assert.assertEquals(iterator.getPageCount(), 3);
+      Assert.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+    Assert.assertEquals(ids, expectedIds(7));
+    Assert.assertEquals(client.listCalls.get(), 3);
+  }
+
+  @Test
+  public void testFullLastPage()
+  {
+    // A full last page is followed by an empty one.
+    var client = newClient(6);
+    try (var stream = client.streamTenants(3))
+    {
+      Assert.assertEquals(stream.map(t -> t.getTenantId()).collect(Collectors.toList()), expectedIds(6));
+    }
+    Assert.assertEquals(client.listCalls.get(), 3);
+
+    // No tenants.
+    Assert.assertFalse(newClient(0).iterateTenants(3).hasNext());
+  }
+
+  @Test
+  public void testFailure()
+  {
+    // The third page fails after the first two pages have been returned.
+    var client = newClient(10);
+    client.failOffset = 6;
+    var iterator = client.iterateTenants(3);
+    for (int i = 0; i < 6; i++) iterator.next();
+    try
+    {
+      iterator.hasNext();
+      Assert.fail("The failed page was not reported.");
+    }
+    catch (UncheckedTapisClientException e)
+    {
+      Assert.assertTrue(e.getCause() instanceof TapisClientException);
+      Assert.assertEquals(e.getMessage(), "Tenants service unavailable.");
+    }
+  }
+
+  @Test
+  public void testClose()
+  {
+    // Closing ends the iteration.
+    var client = newClient(7);
+    var iterator = client.iterateTenants(3);
+    iterator.next();
+    iterator.close();
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertThrows(IllegalArgumentException.class, () -> client.iterateTenants(0));
+  }
+
+  private static FakeTenantsClient newClient(int count)
+  {
+    var client = new FakeTenantsClient();
+    for (int i = 0; i < count; i++) client.add("tenant" + i, SK_URL);
+    return client;
+  }
+
+  private static ArrayList<String> expectedIds(int count)
+  {
+    var ids = new ArrayList<String>();
+    for (int i = 0; i < count; i++) ids.add("tenant" + i);
+    return ids;
+  }
+}
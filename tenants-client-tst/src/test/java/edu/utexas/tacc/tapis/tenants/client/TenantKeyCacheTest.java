@@ -0,0 +1,91 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Base64;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/**
+ *  Test the tenant key cache against a fake tenants client
+ */
+@Test(groups={"unit"})
+public class TenantKeyCacheTest
+{
+  private PublicKey publicKey;
+  private String    pem;
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    var generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    publicKey = generator.generateKeyPair().getPublic();
+    pem = Base64.getEncoder().encodeToString(publicKey.getEncoded());
+  }
+
+  @Test
+  public void testRefresh() throws Exception
+  {
+    var client = newClient();
+    var cache = new TenantKeyCache(client, 0, 0);
+    Assert.assertEquals(cache.getPublicKey("dev", false), publicKey);
+    Assert.assertEquals(cache.getPublicKey("dev", false), publicKey);
+    Assert.assertEquals(client.getCalls.get(), 1);
+    Assert.assertEquals(cache.getPublicKey("dev", true), publicKey);
+    Assert.assertEquals(client.getCalls.get(), 2);
+  }
+
+  @Test
+  public void testFailuresCached() throws Exception
+  {
+    // Lookups of an unknown tenant fail without calling the service again.
+    var client = newClient();
+    var cache = new TenantKeyCache(client, 0, 200);
+    Assert.assertThrows(TapisClientException.class, () -> cache.getPublicKey("other", false));
+    Assert.assertThrows(TapisClientException.class, () -> cache.getPublicKey("other", true));
+    Assert.assertEquals(client.getCalls.get(), 1);
+    Assert.assertEquals(cache.getFetchFailureCount(), 1);
+
+    // Failed refreshes leave the cached key in use.
+    Assert.assertEquals(cache.getPublicKey("dev", false), publicKey);
+    client.fail = true;
+    Assert.assertThrows(TapisClientException.class, () -> cache.getPublicKey("dev", true));
+    Assert.assertEquals(cache.getPublicKey("dev", true), publicKey);
+    Assert.assertEquals(client.getCalls.get(), 3);
+
+    // The service is called again once the failures expire.
+    client.fail = false;
+    Thread.sleep(300);
+    Assert.assertEquals(cache.getPublicKey("dev", true), publicKey);
+    Assert.assertThrows(TapisClientException.class, () -> cache.getPublicKey("other", false));
+    Assert.assertEquals(client.getCalls.get(), 5);
+  }
+
+  @Test
+  public void testInvalidate() throws Exception
+  {
+    var client = newClient();
+    client.fail = true;
+    var cache = new TenantKeyCache(client, 0, 60_000);
+    Assert.assertThrows(TapisClientException.class, () -> cache.getPublicKey("dev", false));
+
+    // Invalidation also forgets the failure.
+    client.fail = false;
+    cache.invalidate("dev");
+    Assert.assertEquals(cache.getPublicKey("dev", false), publicKey);
+    Assert.assertEquals(cache.size(), 1);
+    Assert.assertEquals(client.getCalls.get(), 2);
+  }
+
+  private FakeTenantsClient newClient()
+  {
+    var client = new FakeTenantsClient().add("dev", "https://dev.develop.tapis.io/v3/security");
+    client.tenants.get("dev").setPublicKey(pem);
+    return client;
+  }
+}
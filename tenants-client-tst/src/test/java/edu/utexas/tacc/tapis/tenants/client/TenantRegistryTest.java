@@ -0,0 +1,107 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+
+/**
+ *  Test the tenant registry against a fake tenants client
+ */
+@Test(groups={"unit"})
+public class TenantRegistryTest
+{
+  private static final String SK_URL = "https://dev.develop.tapis.io/v3/security";
+
+  @Test
+  public void testLookup() throws Exception
+  {
+    var client = new FakeTenantsClient().add("dev", SK_URL).add("admin", null);
+    var registry = new TenantRegistry(client, 0, 60_000);
+
+    // The registry is loaded on first use and then answers without the service.
+    Assert.assertEquals(registry.size(), 0);
+    Assert.assertEquals(registry.getSKBasePath("dev"), SK_URL);
+    Assert.assertNotNull(registry.getTenant("admin"));
+    Assert.assertNull(registry.getSKBasePath("admin"));
+    Assert.assertNull(registry.getTenant(" "));
+    Assert.assertEquals(registry.getTenants().size(), 2);
+    Assert.assertEquals(client.listCalls.get(), 1);
+    Assert.assertEquals(registry.getHitCount(), 3);
+  }
+
+  @Test
+  public void testMissRefresh() throws Exception
+  {
+    var client = new FakeTenantsClient().add("dev", SK_URL);
+    var registry = new TenantRegistry(client, 0, 0);
+    Assert.assertNotNull(registry.getTenant("dev"));
+
+    // A new tenant is found by the refresh its first lookup forces.
+    client.add("new", SK_URL);
+    Assert.assertNotNull(registry.getTenant("new"));
+    Assert.assertEquals(client.listCalls.get(), 2);
+    Assert.assertEquals(registry.getMissCount(), 1);
+
+    // Forced refreshes are limited by the minimum miss refresh interval.
+    var limited = new TenantRegistry(client, 0, 60_000);
+    Assert.assertNotNull(limited.getTenant("dev"));
+    Assert.assertNull(limited.getTenant("nosuchtenant"));
+    Assert.assertNull(limited.getTenant("nosuchtenant"));
+    Assert.assertEquals(limited.getRefreshCount(), 1);
+  }
+
+  @Test
+  public void testRefresh() throws Exception
+  {
+    var client = new FakeTenantsClient().add("dev", SK_URL);
+    var registry = new TenantRegistry(client, 0, 60_000);
+    Assert.assertEquals(registry.getTenants().size(), 1);
+
+    // An explicit refresh replaces the tenants.
+    client.add("other", SK_URL);
+    registry.refresh();
+    Assert.assertEquals(registry.size(), 2);
+
+    // A failed refresh leaves the previous tenants in place.
+    client.fail = true;
+    Assert.assertThrows(TapisClientException.class, registry::refresh);
+    Assert.assertEquals(registry.getRefreshFailureCount(), 1);
+    Assert.assertNotNull(registry.getTenant("other"));
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception
+  {
+    var client = new FakeTenantsClient().add("dev", SK_URL);
+    var registry = new TenantRegistry(client, 100, 60_000);
+    try
+    {
+      Assert.assertEquals(registry.getTenants().size(), 1);
+      client.add("other", SK_URL);
+      Thread.sleep(400);
+      Assert.assertEquals(registry.size(), 2);
+    }
+    finally { registry.close(); }
+  }
+
+  @Test
+  public void testPaging() throws Exception
+  {
+    // All pages are loaded.
+    int count = 2 * TenantsClient.DEFAULT_TENANT_PAGE_SIZE + 10;
+    var client = new FakeTenantsClient();
+    for (int i = 0; i < count; i++) client.add("tenant" + i, SK_URL);
+    var registry = new TenantRegistry(client, 0, 60_000);
+    Assert.assertEquals(registry.getTenants().size(), count);
+    Assert.assertNotNull(registry.getTenant("tenant" + (count - 1)));
+    Assert.assertEquals(client.listCalls.get(), 3);
+
+    // A full last page is followed by an empty one.
+    var full = new FakeTenantsClient();
+    for (int i = 0; i < TenantsClient.DEFAULT_TENANT_PAGE_SIZE; i++) full.add("tenant" + i, SK_URL);
+    Assert.assertEquals(new TenantRegistry(full, 0, 60_000).getTenants().size(),
+                        TenantsClient.DEFAULT_TENANT_PAGE_SIZE);
+    Assert.assertEquals(full.listCalls.get(), 2);
+  }
+}
@@ -0,0 +1,98 @@
+package edu.utexas.tacc.tapis.tenants.client;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ *  Test that tenants clients with different base paths and headers do not affect each other
+ */
+@Test(groups={"unit"})
+public class TenantsClientIsolationTest
+{
+  private static final String TOKEN_HEADER = "X-Tapis-Token";
+
+  private MockWebServer serverA;
+  private MockWebServer serverB;
+
+  @BeforeMethod
+  public void setUp() throws Exception
+  {
+    serverA = newServer("a");
+    serverB = newServer("b");
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception
+  {
+    serverA.shutdown();
+    serverB.shutdown();
+  }
+
+  @Test
+  public void testIsolation() throws Exception
+  {
+    var clientA = new TenantsClient(basePath(serverA));
+    clientA.addDefaultHeader(TOKEN_HEADER, "jwt-a");
+    var clientB = new TenantsClient(basePath(serverB));
+    clientB.addDefaultHeader(TOKEN_HEADER, "jwt-b");
+
+    // Interleaved calls each reach their own client's server with its own token.
+    for (int i = 0; i < 3; i++)
+    {
+      Assert.assertEquals(clientA.getSKBasePath("dev"), "https://a.tapis.io/v3/security");
+      Assert.assertEquals(clientB.getSKBasePath("dev"), "https://b.tapis.io/v3/security");
+    }
+    Assert.assertEquals(serverA.getRequestCount(), 3);
+    Assert.assertEquals(serverB.getRequestCount(), 3);
+    for (int i = 0; i < 3; i++)
+    {
+      Assert.assertEquals(serverA.takeRequest().getHeader(TOKEN_HEADER), "jwt-a");
+      Assert.assertEquals(serverB.takeRequest().getHeader(TOKEN_HEADER), "jwt-b");
+    }
+
+    // A client created later starts without the other clients' settings.
+    var clientC = new TenantsClient(basePath(serverA));
+    Assert.assertEquals(clientC.getSKBasePath("dev"), "https://a.tapis.io/v3/security");
+    Assert.assertNull(serverA.takeRequest().getHeader(TOKEN_HEADER));
+    Assert.assertEquals(clientA.getApiClient().getBasePath(), basePath(serverA));
+    Assert.assertEquals(clientB.getApiClient().getBasePath(), basePath(serverB));
+    Assert.assertNotSame(clientA.getApiClient(), clientB.getApiClient());
+  }
+
+  /**
+   * Start a server that returns the dev tenant with a security kernel url naming the server
+   */
+  private static MockWebServer newServer(String name) throws Exception
+  {
+    var server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request)
+      {
+        if (!request.getRequestUrl().encodedPath().equals("/v3/tenants/dev"))
+          return new MockResponse().setResponseCode(404).setBody("{}");
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                 .setBody("{\"result\":{\"tenant_id\":\"dev\",\"security_kernel\":\"https://" + name +
+                          ".tapis.io/v3/security\"},\"status\":\"success\",\"message\":\"ok\",\"version\":\"1.0\"}");
+      }
+    });
+    server.start();
+    return server;
+  }
+
+  /**
+   * The server's base path without a trailing slash
+   */
+  private static String basePath(MockWebServer server)
+  {
+    String url = server.url("/").toString();
+    return url.substring(0, url.length() - 1);
+  }
+}
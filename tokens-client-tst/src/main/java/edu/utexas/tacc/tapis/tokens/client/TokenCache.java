@@ -0,0 +1,426 @@
+package edu.utexas.tacc.tapis.tokens.client;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.utexas.tacc.tapis.client.shared.Utils;
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.tokens.client.gen.model.InlineObject1.AccountTypeEnum;
+import edu.utexas.tacc.tapis.tokens.client.model.CreateTokenParms;
+import edu.utexas.tacc.tapis.tokens.client.model.RefreshTokenParms;
+import edu.utexas.tacc.tapis.tokens.client.model.TapisAccessToken;
+import edu.utexas.tacc.tapis.tokens.client.model.TapisRefreshToken;
+import edu.utexas.tacc.tapis.tokens.client.model.TokenResponsePackage;
+
+/**
+ * Cache of access tokens obtained from the Tokens service, keyed by tenant, account
+ * type and account name.  A cached token is returned until it is within the safety
+ * margin of its expiration time, so callers never receive a token that is about to
+ * expire.
+ * <p>
+ * Each time a token is obtained, a background refresh is scheduled for one refresh
+ * lead interval before the token enters its safety margin.  The refresh uses the
+ * token's refresh token if one was issued and is still valid, and otherwise
+ * creates a new token.  Tokens that have not been requested since they were last
+ * obtained are not refreshed in the background, so unused tokens are allowed to
+ * lapse and are obtained again on demand.
+ * <p>
+ * When many threads request the same token at once, only one request is sent to
+ * the Tokens service and the other threads wait for its result.  The same holds
+ * when a request arrives while a background refresh is in progress.
+ * <p>
+ * Refresh threads are daemon threads.  Call close() to stop background refresh.
+ * This class is thread-safe.
+ */
+public final class TokenCache
+{
+  // ************************************************************************
+  // *********************** Constants **************************************
+  // ************************************************************************
+  // Defaults.
+  public static final long DEFAULT_SAFETY_MARGIN_MILLIS = 60 * 1000;
+  public static final long DEFAULT_REFRESH_LEAD_MILLIS  = 60 * 1000;
+
+  // Minimum delay of a background refresh, which keeps tokens whose lifetime is
+  // shorter than the safety margin plus the refresh lead from being refreshed
+  // continuously.
+  public static final long MIN_REFRESH_DELAY_MILLIS = 5 * 1000;
+
+  // Refresh thread name prefix.
+  private static final String THREAD_NAME_PREFIX = "TokenCache-";
+
+  // Used to number refresh threads.
+  private static final AtomicInteger _threadCount = new AtomicInteger();
+
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  // The client used to obtain tokens.
+  private final TokensClient _tokensClient;
+
+  // Configuration.
+  private final long    _safetyMarginMillis;
+  private final long    _refreshLeadMillis;
+  private final boolean _generateRefreshToken;
+
+  // Cached tokens and the loads in progress.
+  private final ConcurrentHashMap<Key, Entry> _tokens = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Key, CompletableFuture<Entry>> _inFlight =
+      new ConcurrentHashMap<>();
+
+  // Background refresh.
+  private final ScheduledExecutorService _scheduler;
+
+  // Statistics.
+  private final LongAdder _hits            = new LongAdder();
+  private final LongAdder _misses          = new LongAdder();
+  private final LongAdder _loads           = new LongAdder();
+  private final LongAdder _refreshFailures = new LongAdder();
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  /**
+   * Create a cache with the default safety margin and refresh lead that does not
+   * request refresh tokens.
+   *
+   * @param tokensClient the client used to obtain tokens
+   */
+  public TokenCache(TokensClient tokensClient)
+  {
+    this(tokensClient, DEFAULT_SAFETY_MARGIN_MILLIS, DEFAULT_REFRESH_LEAD_MILLIS, false);
+  }
+
+  /**
+   * Create a cache.
+   *
+   * @param tokensClient the client used to obtain tokens
+   * @param safetyMarginMillis tokens closer than this to expiration are not returned
+   * @param refreshLeadMillis background refresh starts this long before the margin
+   * @param generateRefreshToken request a refresh token with each new access token
+   */
+  public TokenCache(TokensClient tokensClient, long safetyMarginMillis,
+                    long refreshLeadMillis, boolean generateRefreshToken)
+  {
+    if (tokensClient == null) throw new NullPointerException("tokensClient cannot be null");
+    if (safetyMarginMillis < 0 || refreshLeadMillis < 0)
+      throw new IllegalArgumentException("Safety margin and refresh lead cannot be negative.");
+
+    _tokensClient = tokensClient;
+    _safetyMarginMillis = safetyMarginMillis;
+    _refreshLeadMillis = refreshLeadMillis;
+    _generateRefreshToken = generateRefreshToken;
+    _scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      var thread = new Thread(r, THREAD_NAME_PREFIX + _threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  /**
+   * Get a cached service token, obtaining a new one if necessary.
+   */
+  public String getSvcToken(String tenant, String serviceName) throws TapisClientException
+  {
+    return getToken(tenant, AccountTypeEnum.SERVICE, serviceName);
+  }
+
+  /**
+   * Get a cached user token, obtaining a new one if necessary.
+   */
+  public String getUsrToken(String tenant, String userName) throws TapisClientException
+  {
+    return getToken(tenant, AccountTypeEnum.USER, userName);
+  }
+
+  /**
+   * Get a serialized access token that is valid for at least the safety margin.
+   *
+   * @param tenant the token's tenant
+   * @param accountType the token's account type
+   * @param name the service or user name
+   * @return the serialized access token
+   * @throws TapisClientException if a token cannot be obtained
+   */
+  public String getToken(String tenant, AccountTypeEnum accountType, String name)
+   throws TapisClientException
+  {
+    return getAccessToken(tenant, accountType, name).getAccessToken();
+  }
+
+  /**
+   * Get an access token, including its expiration information, that is valid
+   * for at least the safety margin.
+   *
+   * @param tenant the token's tenant
+   * @param accountType the token's account type
+   * @param name the service or user name
+   * @return the access token
+   * @throws TapisClientException if a token cannot be obtained
+   */
+  public TapisAccessToken getAccessToken(String tenant, AccountTypeEnum accountType, String name)
+   throws TapisClientException
+  {
+    var key = new Key(tenant, accountType, name);
+    var entry = _tokens.get(key);
+    long now = System.currentTimeMillis();
+    if (entry != null && entry.isUsable(now, _safetyMarginMillis)) {
+      entry.accessed = true;
+      _hits.increment();
+      return entry.accessToken;
+    }
+
+    // Obtain a token or wait for the load in progress.
+    _misses.increment();
+    return load(key, entry).accessToken;
+  }
+
+  /**
+   * Discard a cached token so that the next request obtains a new one.
+   */
+  public void invalidate(String tenant, AccountTypeEnum accountType, String name)
+  {
+    _tokens.remove(new Key(tenant, accountType, name));
+  }
+
+  /**
+   * Discard all cached tokens.
+   */
+  public void clear() { _tokens.clear(); }
+
+  /**
+   * Stop background refresh.  Cached tokens continue to be returned and new
+   * tokens are obtained on demand.
+   */
+  public void close() { _scheduler.shutdownNow(); }
+
+  // Accessors.
+  public int size() { return _tokens.size(); }
+  public long getHitCount() { return _hits.sum(); }
+  public long getMissCount() { return _misses.sum(); }
+  public long getLoadCount() { return _loads.sum(); }
+  public long getRefreshFailureCount() { return _refreshFailures.sum(); }
+  public long getSafetyMarginMillis() { return _safetyMarginMillis; }
+  public long getRefreshLeadMillis() { return _refreshLeadMillis; }
+
+  // ************************************************************************
+  // *********************** Private Methods ********************************
+  // ************************************************************************
+  /**
+   * Load a token for the key unless another thread is already doing so, in which
+   * case wait for that thread's result.  A load that completed after the caller
+   * read the current entry is used instead of loading again.
+   */
+  private Entry load(Key key, Entry current) throws TapisClientException
+  {
+    var mine = new CompletableFuture<Entry>();
+    var existing = _inFlight.putIfAbsent(key, mine);
+    if (existing != null) return await(existing);
+
+    try {
+      var latest = _tokens.get(key);
+      if (latest != null && latest != current &&
+          latest.isUsable(System.currentTimeMillis(), _safetyMarginMillis)) {
+        mine.complete(latest);
+        return latest;
+      }
+      var entry = fetch(key, current);
+      _tokens.put(key, entry);
+      scheduleRefresh(key, entry);
+      mine.complete(entry);
+      return entry;
+    }
+    catch (TapisClientException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    }
+    catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      _inFlight.remove(key, mine);
+    }
+  }
+
+  /**
+   * Obtain a token from the Tokens service, using the current entry's refresh
+   * token when possible.
+   */
+  private Entry fetch(Key key, Entry current) throws TapisClientException
+  {
+    _loads.increment();
+    long now = System.currentTimeMillis();
+
+    // Try the refresh token first.
+    if (current != null && current.canRefresh(now, _safetyMarginMillis)) {
+      try {
+        var parms = new RefreshTokenParms();
+        parms.setRefreshToken(current.refreshToken.getRefreshToken());
+        var entry = toEntry(_tokensClient.refreshToken(parms), current.refreshToken, now);
+        if (entry != null) return entry;
+      }
+      catch (TapisClientException e) {
+        // Fall through to create a new token.
+      }
+    }
+
+    // Create a new token.
+    var parms = new CreateTokenParms();
+    parms.accountType(key.accountType);
+    parms.tokenTenantId(key.tenant);
+    parms.tokenUsername(key.name);
+    if (_generateRefreshToken) parms.generateRefreshToken(true);
+    var entry = toEntry(_tokensClient.createToken(parms), null, now);
+    if (entry == null)
+      throw new TapisClientException("The Tokens service did not return an access token for " + key + ".");
+    return entry;
+  }
+
+  /**
+   * Create an entry from a response package or return null if it contains no
+   * access token.
+   */
+  private static Entry toEntry(TokenResponsePackage pkg, TapisRefreshToken previousRefresh,
+                               long now)
+  {
+    var access = pkg.getAccessToken();
+    if (access == null || StringUtils.isBlank(access.getAccessToken())) return null;
+    var refresh = pkg.getRefreshToken();
+    if (refresh == null || StringUtils.isBlank(refresh.getRefreshToken())) refresh = previousRefresh;
+    return new Entry(access, refresh, expirationMillis(access.getExpiresAt(),
+                                                       access.getExpiresIn(), now));
+  }
+
+  /**
+   * Calculate an expiration time, preferring the absolute time.  Tokens with no
+   * expiration information are treated as already expired, so they are used once.
+   */
+  private static long expirationMillis(Instant expiresAt, Integer expiresIn, long now)
+  {
+    if (expiresAt != null) return expiresAt.toEpochMilli();
+    if (expiresIn != null) return now + expiresIn * 1000L;
+    return now;
+  }
+
+  /**
+   * Schedule a background refresh of the entry before it enters its safety margin,
+   * but no sooner than the minimum refresh delay.
+   */
+  private void scheduleRefresh(Key key, Entry entry)
+  {
+    long now = System.currentTimeMillis();
+    if (!entry.isUsable(now, _safetyMarginMillis)) return;
+    long delay = entry.expiresAtMillis - _safetyMarginMillis - _refreshLeadMillis - now;
+    delay = Math.max(MIN_REFRESH_DELAY_MILLIS, delay);
+    try {_scheduler.schedule(() -> refresh(key, entry), delay, TimeUnit.MILLISECONDS);}
+    catch (Exception e) {} // closed
+  }
+
+  /**
+   * Background refresh of an entry that is still current and has been returned
+   * from the cache since it was obtained.
+   */
+  private void refresh(Key key, Entry entry)
+  {
+    if (_tokens.get(key) != entry || !entry.accessed) return;
+    try {load(key, entry);}
+    catch (Exception e) {_refreshFailures.increment();}
+  }
+
+  /**
+   * Wait for another thread's load.
+   */
+  private static Entry await(CompletableFuture<Entry> future) throws TapisClientException
+  {
+    try {return future.get();}
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TapisClientException("Interrupted while waiting for a token.", e);
+    }
+    catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof TapisClientException) throw (TapisClientException) cause;
+      if (cause instanceof Exception) throw Utils.makeTapisClientException(-1, null, (Exception) cause);
+      throw Utils.makeTapisClientException(-1, null, e);
+    }
+  }
+
+  // ************************************************************************
+  // *********************** Nested Classes *********************************
+  // ************************************************************************
+  // Cache key.
+  private static final class Key
+  {
+    private final String          tenant;
+    private final AccountTypeEnum accountType;
+    private final String          name;
+
+    private Key(String tenant, AccountTypeEnum accountType, String name)
+    {
+      this.tenant = tenant;
+      this.accountType = accountType;
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+      var that = (Key) obj;
+      return Objects.equals(tenant, that.tenant) && accountType == that.accountType
+             && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(tenant, accountType, name); }
+
+    @Override
+    public String toString() { return accountType + " " + name + "@" + tenant; }
+  }
+
+  // Cached tokens.
+  private static final class Entry
+  {
+    private final TapisAccessToken  accessToken;
+    private final TapisRefreshToken refreshToken;
+    private final long              expiresAtMillis;
+    private volatile boolean        accessed;
+
+    private Entry(TapisAccessToken accessToken, TapisRefreshToken refreshToken,
+                  long expiresAtMillis)
+    {
+      this.accessToken = accessToken;
+      this.refreshToken = refreshToken;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // The access token can be returned to callers.
+    private boolean isUsable(long now, long safetyMarginMillis)
+    {
+      return now < expiresAtMillis - safetyMarginMillis;
+    }
+
+    // The refresh token can be used to obtain a new access token.
+    private boolean canRefresh(long now, long safetyMarginMillis)
+    {
+      if (refreshToken == null || StringUtils.isBlank(refreshToken.getRefreshToken())) return false;
+      var expiresAt = refreshToken.getExpiresAt();
+      return expiresAt == null || now < expiresAt.toEpochMilli() - safetyMarginMillis;
+    }
+  }
+}
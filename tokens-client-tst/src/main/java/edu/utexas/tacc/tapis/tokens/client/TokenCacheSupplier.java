@@ -0,0 +1,71 @@
+package edu.utexas.tacc.tapis.tokens.client;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.client.shared.interceptors.TapisTokenSupplier;
+import edu.utexas.tacc.tapis.tokens.client.gen.model.InlineObject1.AccountTypeEnum;
+
+/**
+ * Token supplier for TapisAuthInterceptor that obtains one account's tokens from a
+ * TokenCache.  Tokens are refreshed ahead of expiration by the cache, and a token
+ * rejected by a service is discarded from the cache and replaced.
+ */
+public final class TokenCacheSupplier
+ implements TapisTokenSupplier
+{
+  // ************************************************************************
+  // *********************** Fields *****************************************
+  // ************************************************************************
+  private final TokenCache      _tokenCache;
+  private final String          _tenant;
+  private final AccountTypeEnum _accountType;
+  private final String          _name;
+
+  // ************************************************************************
+  // *********************** Constructors ***********************************
+  // ************************************************************************
+  /**
+   * Create a supplier of service tokens.
+   *
+   * @param tokenCache the cache that obtains tokens
+   * @param tenant the service's tenant
+   * @param serviceName the service name
+   */
+  public TokenCacheSupplier(TokenCache tokenCache, String tenant, String serviceName)
+  {
+    this(tokenCache, tenant, AccountTypeEnum.SERVICE, serviceName);
+  }
+
+  /**
+   * Create a supplier of tokens for any account type.
+   *
+   * @param tokenCache the cache that obtains tokens
+   * @param tenant the account's tenant
+   * @param accountType the account type
+   * @param name the service or user name
+   */
+  public TokenCacheSupplier(TokenCache tokenCache, String tenant,
+                            AccountTypeEnum accountType, String name)
+  {
+    if (tokenCache == null) throw new NullPointerException("tokenCache cannot be null");
+    _tokenCache = tokenCache;
+    _tenant = tenant;
+    _accountType = accountType;
+    _name = name;
+  }
+
+  // ************************************************************************
+  // *********************** Public Methods *********************************
+  // ************************************************************************
+  @Override
+  public String getToken() throws TapisClientException
+  {
+    return _tokenCache.getToken(_tenant, _accountType, _name);
+  }
+
+  @Override
+  public String renewToken() throws TapisClientException
+  {
+    _tokenCache.invalidate(_tenant, _accountType, _name);
+    return _tokenCache.getToken(_tenant, _accountType, _name);
+  }
+}
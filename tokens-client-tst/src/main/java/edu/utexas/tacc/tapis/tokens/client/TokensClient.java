@@ -1,17 +1,14 @@
 package edu.utexas.tacc.tapis.tokens.client;
 
-import java.util.Map;
-
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.gson.Gson;
-
 import edu.utexas.tacc.tapis.client.shared.Utils;
 import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
-import edu.utexas.tacc.tapis.client.shared.ClientTapisGsonUtils;
+import edu.utexas.tacc.tapis.client.shared.ClientHttpTransport;
+import edu.utexas.tacc.tapis.client.shared.TapisResponse;
+import edu.utexas.tacc.tapis.client.shared.TapisResponseDecoder;
 import edu.utexas.tacc.tapis.tokens.client.gen.ApiClient;
 import edu.utexas.tacc.tapis.tokens.client.gen.ApiException;
-import edu.utexas.tacc.tapis.tokens.client.gen.Configuration;
 import edu.utexas.tacc.tapis.tokens.client.gen.api.TokensApi;
 import edu.utexas.tacc.tapis.tokens.client.gen.model.InlineObject1;
 import edu.utexas.tacc.tapis.tokens.client.gen.model.NewTokenResponse;
@@ -40,14 +37,17 @@ public class TokensClient
   // ************************************************************************
   // *********************** Fields *****************************************
   // ************************************************************************
-  // Response serializer.
-  private static final Gson _gson = ClientTapisGsonUtils.getGson();
+  // This client instance's underlying generated client.
+  private final ApiClient _apiClient;
+
+  // Lazily created token cache that uses this client.
+  private TokenCache _tokenCache;
 
   // ************************************************************************
   // *********************** Constructors ***********************************
   // ************************************************************************
 
-  public TokensClient() { }
+  public TokensClient() { this(null, null, null); }
 
   /**
    * Constructor that overrides the compiled-in basePath value in ApiClient.
@@ -59,10 +59,7 @@ public class TokensClient
    *
    * @param path the base path
    */
-  public TokensClient(String path) {
-    ApiClient apiClient = Configuration.getDefaultApiClient();
-    if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
-  }
+  public TokensClient(String path) { this(path, null, null); }
 
   /**
    * Constructor that overrides the compiled-in basePath value in ApiClient and sets
@@ -72,16 +69,21 @@ public class TokensClient
    * The path includes the URL prefix up to and including the service root.  By
    * default this value is http://localhost:8080/security.  In production environments
    * the protocol is https and the host/port will be specific to that environment.
+   * <p>
+   * Each instance has its own ApiClient, so the base path, credentials and headers
+   * of one client never affect another.  All instances share the connection pool
+   * and threads of ClientHttpTransport.
    *
    * @param path the base path
    * @param userName basic auth username
    * @param password basic auth password
    */
   public TokensClient(String path, String userName, String password) {
-    ApiClient apiClient = Configuration.getDefaultApiClient();
-    if (!StringUtils.isBlank(path)) apiClient.setBasePath(path);
-    if (!StringUtils.isBlank(userName)) apiClient.setUsername(userName);
-    if (!StringUtils.isBlank(password)) apiClient.setPassword(password);
+    _apiClient = new ApiClient();
+    _apiClient.setHttpClient(ClientHttpTransport.getHttpClient());
+    if (!StringUtils.isBlank(path)) _apiClient.setBasePath(path);
+    if (!StringUtils.isBlank(userName)) _apiClient.setUsername(userName);
+    if (!StringUtils.isBlank(password)) _apiClient.setPassword(password);
   }
 
   // ************************************************************************
@@ -91,14 +93,14 @@ public class TokensClient
   /**
    * getApiClient: Return underlying ApiClient
    */
-  public ApiClient getApiClient() { return Configuration.getDefaultApiClient(); }
+  public ApiClient getApiClient() { return _apiClient; }
 
   /**
    * addDefaultHeader: Add http header to client
    */
   public ApiClient addDefaultHeader(String key, String val)
   {
-    return Configuration.getDefaultApiClient().addDefaultHeader(key, val);
+    return _apiClient.addDefaultHeader(key, val);
   }
 
   /** The general token request handler that allows all possible token parameters.
@@ -113,24 +115,19 @@ public class TokensClient
   public TokenResponsePackage createToken(CreateTokenParms parms) 
    throws TapisClientException
   {
-      // Make the call and return the result
-      Map resp = null;
+      // Make the call and decode the result directly from the response.
+      TapisResponse<NewTokenResponse> resp = null;
       try { 
-          var tokApi = new TokensApi();
-          resp = (Map) tokApi.createToken(parms); 
+          var tokApi = new TokensApi(_apiClient);
+          resp = TapisResponseDecoder.execute(tokApi.createTokenCall(parms, null), NewTokenResponse.class); 
       }
       catch (ApiException e) { Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e); }
-      catch (Exception e) { Utils.throwTapisClientException(-1, null, e); }
       
       // Create the result object.
       var tokenPkg = new TokenResponsePackage();
       
-      // Marshal only the result from the map.
-      String json = _gson.toJson(resp.get("result"));
-      if (StringUtils.isBlank(json)) return tokenPkg;
-      
       // Dig down to the access token string.
-      var tokResp = _gson.fromJson(json, NewTokenResponse.class);
+      var tokResp = resp.getResult();
       if (tokResp == null) return tokenPkg;
       
       // Get the access token.
@@ -166,24 +163,19 @@ public class TokensClient
   public TokenResponsePackage refreshToken(RefreshTokenParms parms) 
    throws TapisClientException
   {
-      // Make the call and return the result
-      Map resp = null;
+      // Make the call and decode the result directly from the response.
+      TapisResponse<NewTokenResponse> resp = null;
       try { 
-          var tokApi = new TokensApi();
-          resp = (Map) tokApi.refreshToken(parms); 
+          var tokApi = new TokensApi(_apiClient);
+          resp = TapisResponseDecoder.execute(tokApi.refreshTokenCall(parms, null), NewTokenResponse.class); 
       }
       catch (ApiException e) { Utils.throwTapisClientException(e.getCode(), e.getResponseBody(), e); }
-      catch (Exception e) { Utils.throwTapisClientException(-1, null, e); }
       
       // Create the result object.
       var tokenPkg = new TokenResponsePackage();
       
-      // Marshal only the result from the map.
-      String json = _gson.toJson(resp.get("result"));
-      if (StringUtils.isBlank(json)) return tokenPkg;
-      
       // Dig down to the access token string.
-      var tokResp = _gson.fromJson(json, NewTokenResponse.class);
+      var tokResp = resp.getResult();
       if (tokResp == null) return tokenPkg;
       
       // Get the access token.
@@ -210,6 +202,26 @@ public class TokensClient
       return tokenPkg;
   }
   
+  /**
+   * Get the token cache bound to this client, creating it with default settings
+   * on first use.  Applications that need different settings can create their
+   * own TokenCache.
+   */
+  public synchronized TokenCache getTokenCache()
+  {
+    if (_tokenCache == null) _tokenCache = new TokenCache(this);
+    return _tokenCache;
+  }
+
+  /**
+   * Convenience method to get a cached JWT token for a service call.  The token
+   * is valid for at least the cache's safety margin.
+   */
+  public String getCachedSvcToken(String tenant, String serviceName) throws TapisClientException
+  {
+    return getTokenCache().getSvcToken(tenant, serviceName);
+  }
+
   /**
    * Convenience method to get a JWT token for a service call
    */
@@ -0,0 +1,87 @@
+package edu.utexas.tacc.tapis.tokens.client;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import edu.utexas.tacc.tapis.client.shared.exceptions.TapisClientException;
+import edu.utexas.tacc.tapis.tokens.client.model.CreateTokenParms;
+import edu.utexas.tacc.tapis.tokens.client.model.TapisAccessToken;
+import edu.utexas.tacc.tapis.tokens.client.model.TokenResponsePackage;
+
+/**
+ *  Test the token cache against a tokens client that issues tokens locally
+ */
+@Test(groups={"unit"})
+public class TokenCacheTest
+{
+  private static final String tenantName = "master";
+  private static final String userName = "testuser1";
+
+  @Test
+  public void testConcurrentLoad() throws Exception
+  {
+    // Concurrent misses result in one token request.
+    var client = new FakeTokensClient(3600, 100);
+    var cache = new TokenCache(client);
+    var executor = Executors.newFixedThreadPool(8);
+    try
+    {
+      var tasks = new ArrayList<Callable<String>>();
+      for (int i = 0; i < 8; i++) tasks.add(() -> cache.getUsrToken(tenantName, userName));
+      for (var result : executor.invokeAll(tasks)) Assert.assertEquals(result.get(), "token1");
+      Assert.assertEquals(client.creates.get(), 1);
+      Assert.assertEquals(cache.getLoadCount(), 1);
+    }
+    finally { executor.shutdownNow(); cache.close(); }
+  }
+
+  @Test
+  public void testShortLivedToken() throws Exception
+  {
+    // A token that expires within the refresh lead is not refreshed at once.
+    var client = new FakeTokensClient(2, 0);
+    var cache = new TokenCache(client, 0, TokenCache.DEFAULT_REFRESH_LEAD_MILLIS, false);
+    try
+    {
+      Assert.assertEquals(cache.getUsrToken(tenantName, userName), "token1");
+      Assert.assertEquals(cache.getUsrToken(tenantName, userName), "token1");
+      Thread.sleep(300);
+      Assert.assertEquals(client.creates.get(), 1);
+      Assert.assertEquals(cache.getHitCount(), 1);
+    }
+    finally { cache.close(); }
+  }
+
+  /**
+   * Tokens client that numbers the tokens it creates.
+   */
+  private static final class FakeTokensClient extends TokensClient
+  {
+    private final int  expiresInSeconds;
+    private final long delayMillis;
+    private final AtomicInteger creates = new AtomicInteger();
+
+    private FakeTokensClient(int expiresInSeconds, long delayMillis)
+    {
+      this.expiresInSeconds = expiresInSeconds;
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public TokenResponsePackage createToken(CreateTokenParms parms) throws TapisClientException
+    {
+      try { Thread.sleep(delayMillis); } catch (InterruptedException e) { }
+      var access = new TapisAccessToken();
+      access.setAccessToken("token" + creates.incrementAndGet());
+      access.setExpiresIn(expiresInSeconds);
+      var pkg = new TokenResponsePackage();
+      pkg.setAccessToken(access);
+      return pkg;
+    }
+  }
+}